@@ -42,12 +42,24 @@ public class IndexFileNames {
 	public static String getSearchPostingFileName(String name){
 		return "search." + name + ".posting";
 	}
+	public static String getSearchPositionFileName(String name){
+		return "search." + name + ".position";
+	}
 	public static String getSearchLexiconFileName(String name){
 		return "search." + name + ".lexicon";
 	}
 	public static String getSearchIndexFileName(String name){
 		return "search." + name + ".index";
 	}
+	public static String getSearchTermIndexFileName(String name){
+		return "search." + name + ".fst";
+	}
+	public static String getSearchSuffixIndexFileName(String name){
+		return "search." + name + ".suffix.fst";
+	}
+	public static String getSearchSuffixPostingFileName(String name){
+		return "search." + name + ".suffix";
+	}
 	
 	//
 	// group
@@ -70,6 +82,9 @@ public class IndexFileNames {
 	public static String getFieldIndexFileName(String name){
 		return "field." + name + ".index";
 	}
+	public static String getFieldIndexPointFileName(String name){
+		return "field." + name + ".point";
+	}
 	
 	
 	//
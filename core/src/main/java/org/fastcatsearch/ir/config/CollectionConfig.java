@@ -29,11 +29,14 @@ import javax.xml.bind.annotation.XmlType;
 		<segment-document-limit>2000000</segment-document-limit>
 		<segment-revision-backup-size>2</segment-revision-backup-size>
 	</data-plan>
+	<full-indexing-segment-size>1</full-indexing-segment-size>
+	<search-parallel-size>1</search-parallel-size>
+	<index-input-type>buffered</index-input-type>
 </collection-config>
  * */
 
 @XmlRootElement(name = "collection-config")
-@XmlType(propOrder = { "name", "indexNode", "searchNodeList", "dataNodeList", "dataPlanConfig", "fullIndexingSegmentSize" })
+@XmlType(propOrder = { "name", "indexNode", "searchNodeList", "dataNodeList", "dataPlanConfig", "fullIndexingSegmentSize", "searchParallelSize", "indexInputType", "indexSort" })
 public class CollectionConfig {
 
 	private String name;
@@ -42,6 +45,9 @@ public class CollectionConfig {
 	private List<String> dataNodeList;
 	private DataPlanConfig dataPlanConfig;
 	private Integer fullIndexingSegmentSize;
+	private Integer searchParallelSize;
+	private String indexInputType;
+	private String indexSort;
 	
 	public CollectionConfig(){
 		searchNodeList = new ArrayList<String>();
@@ -55,6 +61,7 @@ public class CollectionConfig {
 		this.dataNodeList = dataNodeList;
 		this.dataPlanConfig = dataPlanConfig;
 		this.fullIndexingSegmentSize = 1;
+		this.searchParallelSize = 1;
 	}
 	
 
@@ -136,4 +143,42 @@ public class CollectionConfig {
 		this.fullIndexingSegmentSize = fullIndexingSegmentSize;
 	}
 
+	/**
+	 * 한 검색요청에서 세그먼트들을 동시에 검색할 쓰레드 갯수. 1이면 세그먼트를 순차적으로 검색한다.
+	 * */
+	@XmlElement(name="search-parallel-size")
+	public Integer getSearchParallelSize() {
+		return searchParallelSize != null ? searchParallelSize : 1;
+	}
+
+	public void setSearchParallelSize(Integer searchParallelSize) {
+		this.searchParallelSize = searchParallelSize;
+	}
+
+	/**
+	 * 세그먼트 파일을 읽는 방식. buffered, mmap 또는 cached. 세그먼트를 새로 열때부터 적용된다.
+	 * @see org.fastcatsearch.ir.io.IndexInputType
+	 * */
+	@XmlElement(name="index-input-type")
+	public String getIndexInputType() {
+		return indexInputType != null ? indexInputType : "buffered";
+	}
+
+	public void setIndexInputType(String indexInputType) {
+		this.indexInputType = indexInputType;
+	}
+
+	/**
+	 * 전체색인시 문서를 정렬할 필드. "FIELD" 또는 "FIELD:desc" 형식이며 숫자형 필드만 지원한다.
+	 * 검색 정렬조건이 같으면 세그먼트 검색을 조기에 종료할 수 있다.
+	 * */
+	@XmlElement(name="index-sort")
+	public String getIndexSort() {
+		return indexSort;
+	}
+
+	public void setIndexSort(String indexSort) {
+		this.indexSort = indexSort;
+	}
+
 }
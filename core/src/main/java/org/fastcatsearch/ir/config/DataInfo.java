@@ -147,13 +147,14 @@ public class DataInfo {
 	 * updates="5" deletes="0" createTime="2013-06-15 15:20:00" /> </segment>
 	 * */
 	@XmlRootElement(name = "segment")
-	@XmlType(propOrder = { "revisionInfo", "baseNumber", "id" })
+	@XmlType(propOrder = { "revisionInfo", "indexSort", "baseNumber", "id" })
 	// , "revision"
 	public static class SegmentInfo implements Comparable<SegmentInfo>{
 		private String id;
 		private int baseNumber;
 		// private int revision;
 		private RevisionInfo revisionInfo;
+		private String indexSort; //문서가 정렬되어 색인된 경우의 정렬조건. ex) "PRICE:desc"
 
 		public SegmentInfo() {
 			this.id = "0";
@@ -176,6 +177,7 @@ public class DataInfo {
 			segmentInfo.id = id;
 			segmentInfo.baseNumber = baseNumber;
 			segmentInfo.revisionInfo = revisionInfo.copy();
+			segmentInfo.indexSort = indexSort;
 			return segmentInfo;
 		}
 
@@ -186,13 +188,14 @@ public class DataInfo {
 		}
 
 		public String toString() {
-			return "[SegmentInfo] id[" + id + "] base[" + baseNumber + "] " + revisionInfo;
+			return "[SegmentInfo] id[" + id + "] base[" + baseNumber + "] " + (indexSort != null ? "sort[" + indexSort + "] " : "") + revisionInfo;
 		}
 
 		public void update(SegmentInfo segmentInfo) {
 			this.id = segmentInfo.id;
 			this.baseNumber = segmentInfo.baseNumber;
 			this.revisionInfo = segmentInfo.revisionInfo;
+			this.indexSort = segmentInfo.indexSort;
 		}
 
 		// id와 baseNumber는 변경되지 않는다.
@@ -205,6 +208,10 @@ public class DataInfo {
 
 			// this.revision = revisionInfo.id;
 			if (this.revisionInfo != null) {
+				if(this.revisionInfo.documentCount > 0 && revisionInfo.documentCount > 0) {
+					//기존 문서뒤에 추가된 문서는 정렬순서를 따르지 않는다. pk 업데이트 문서도 뒤에 추가된다.
+					indexSort = null;
+				}
 				// 누적숫자로 유지한다.
 				revisionInfo.documentCount += this.revisionInfo.documentCount;
 				
@@ -253,6 +260,15 @@ public class DataInfo {
 			this.revisionInfo = revisionInfo;
 		}
 
+		@XmlAttribute(name = "indexSort")
+		public String getIndexSort() {
+			return indexSort;
+		}
+
+		public void setIndexSort(String indexSort) {
+			this.indexSort = indexSort;
+		}
+
 		public String getNextId() {
 			return Integer.toString(Integer.parseInt(id) + 1);
 		}
@@ -291,8 +307,9 @@ public class DataInfo {
 	/**
 	 * <revision id="1" ref="0" documents="1000" insertCount="990" updates="10"
 	 * deletes="0" createTime="2013-06-15 15:20:00">
+	 * <field-stat id="REGDATE" min="1371266400000" max="1371270000000" /> </revision>
 	 * */
-	@XmlType(propOrder = { "createTime", "deleteCount", "updateCount", "insertCount", "documentCount", "ref", "id" })
+	@XmlType(propOrder = { "fieldStatList", "createTime", "deleteCount", "updateCount", "insertCount", "documentCount", "ref", "id" })
 	@XmlRootElement(name = "revision")
 	public static class RevisionInfo {
 
@@ -304,6 +321,7 @@ public class DataInfo {
 		private int updateCount;
 		private int deleteCount;
 		private String createTime;
+		private List<FieldStat> fieldStatList;
 
 		public RevisionInfo() {
 			uuid = generateUUID();
@@ -338,6 +356,9 @@ public class DataInfo {
 			revisionInfo.updateCount = updateCount;
 			revisionInfo.deleteCount = deleteCount;
 			revisionInfo.createTime = createTime;
+			if (fieldStatList != null) {
+				revisionInfo.fieldStatList = new ArrayList<FieldStat>(fieldStatList);
+			}
 			return revisionInfo;
 		}
 
@@ -429,6 +450,44 @@ public class DataInfo {
 			this.createTime = createTime;
 		}
 
+		/**
+		 * 세그먼트 전체문서의 필드색인별 최소,최대값. 색인시 필드색인 전체로 만들어지므로 마지막 revision의 값이 세그먼트의 값이다.
+		 * */
+		@XmlElement(name = "field-stat")
+		public List<FieldStat> getFieldStatList() {
+			return fieldStatList;
+		}
+
+		public void setFieldStatList(List<FieldStat> fieldStatList) {
+			this.fieldStatList = fieldStatList;
+		}
+
+		//같은 필드색인의 통계는 교체한다.
+		public void addFieldStat(FieldStat fieldStat) {
+			if (fieldStatList == null) {
+				fieldStatList = new ArrayList<FieldStat>();
+			}
+			for (int i = 0; i < fieldStatList.size(); i++) {
+				if (fieldStatList.get(i).getId().equalsIgnoreCase(fieldStat.getId())) {
+					fieldStatList.set(i, fieldStat);
+					return;
+				}
+			}
+			fieldStatList.add(fieldStat);
+		}
+
+		//통계가 없으면 null.
+		public FieldStat getFieldStat(String indexId) {
+			if (fieldStatList != null) {
+				for (FieldStat fieldStat : fieldStatList) {
+					if (fieldStat.getId().equalsIgnoreCase(indexId)) {
+						return fieldStat;
+					}
+				}
+			}
+			return null;
+		}
+
 		public void add(RevisionInfo revisionInfo) {
 			this.documentCount += revisionInfo.documentCount;
 			this.insertCount += revisionInfo.insertCount;
@@ -437,4 +496,62 @@ public class DataInfo {
 		}
 	}
 
+	/**
+	 * 숫자형 필드색인의 최소,최대값. 값은 크기순서가 유지되는 long 키이다.
+	 * <field-stat id="REGDATE" min="1371266400000" max="1371270000000" />
+	 * @see org.fastcatsearch.ir.index.PointIndexWriter#sortableKey(org.fastcatsearch.ir.settings.FieldSetting.Type, byte[], int)
+	 * */
+	@XmlRootElement(name = "field-stat")
+	@XmlType(propOrder = { "max", "min", "id" })
+	public static class FieldStat {
+		private String id;
+		private long min;
+		private long max;
+
+		public FieldStat() {
+		}
+
+		public FieldStat(String id, long min, long max) {
+			this.id = id;
+			this.min = min;
+			this.max = max;
+		}
+
+		//[minKey, maxKey] 범위와 겹치는 값이 있는지 여부.
+		public boolean isOverlapped(long minKey, long maxKey) {
+			return minKey <= max && maxKey >= min;
+		}
+
+		public String toString() {
+			return "[FieldStat] id[" + id + "] min[" + min + "] max[" + max + "]";
+		}
+
+		@XmlAttribute
+		public String getId() {
+			return id;
+		}
+
+		public void setId(String id) {
+			this.id = id;
+		}
+
+		@XmlAttribute
+		public long getMin() {
+			return min;
+		}
+
+		public void setMin(long min) {
+			this.min = min;
+		}
+
+		@XmlAttribute
+		public long getMax() {
+			return max;
+		}
+
+		public void setMax(long max) {
+			this.max = max;
+		}
+	}
+
 }
@@ -0,0 +1,45 @@
+package org.fastcatsearch.ir.config;
+
+/**
+ * 전체색인시 문서 정렬조건. "FIELD" 또는 "FIELD:desc" 형식의 문자열로 설정하고 기록된다.
+ * @see CollectionConfig#getIndexSort()
+ * @see DataInfo.SegmentInfo#getIndexSort()
+ * */
+public class IndexSort {
+	private String fieldId;
+	private boolean asc;
+
+	public IndexSort(String fieldId, boolean asc) {
+		this.fieldId = fieldId.toUpperCase();
+		this.asc = asc;
+	}
+
+	/**
+	 * 정렬조건이 없으면 null을 리턴한다.
+	 * */
+	public static IndexSort parse(String value) {
+		if (value == null || value.trim().length() == 0) {
+			return null;
+		}
+		value = value.trim();
+		int pos = value.indexOf(':');
+		if (pos < 0) {
+			return new IndexSort(value, true);
+		}
+		String order = value.substring(pos + 1).trim();
+		return new IndexSort(value.substring(0, pos).trim(), !order.equalsIgnoreCase("desc"));
+	}
+
+	public String fieldId() {
+		return fieldId;
+	}
+
+	public boolean asc() {
+		return asc;
+	}
+
+	@Override
+	public String toString() {
+		return asc ? fieldId : fieldId + ":desc";
+	}
+}
@@ -27,12 +27,15 @@ import org.apache.lucene.util.BytesRef;
 import org.fastcatsearch.ir.common.IndexFileNames;
 import org.fastcatsearch.ir.field.Field;
 import org.fastcatsearch.ir.field.FieldDataParseException;
-import org.fastcatsearch.ir.io.BufferedFileInput;
 import org.fastcatsearch.ir.io.ByteRefArrayOutputStream;
 import org.fastcatsearch.ir.io.BytesDataInput;
 import org.fastcatsearch.ir.io.DataInput;
 import org.fastcatsearch.ir.io.IOUtil;
 import org.fastcatsearch.ir.io.IndexInput;
+import org.fastcatsearch.ir.io.IndexInputType;
+import org.fastcatsearch.ir.io.LZ4Codec;
+import org.fastcatsearch.ir.io.cache.BlockCache;
+import org.fastcatsearch.ir.io.cache.CachedBlock;
 import org.fastcatsearch.ir.settings.FieldSetting;
 import org.fastcatsearch.ir.settings.SchemaSetting;
 import org.slf4j.Logger;
@@ -40,12 +43,17 @@ import org.slf4j.LoggerFactory;
 
 /**
  * 문서번호는 세그먼트마다 0부터 시작하는 번호로 read한다. baseNo와는 상관없는 내부문서번호.
+ * 
+ * 블럭형식은 압축을 푼 블럭을 노드 공용 BlockCache에 보관하므로, 한 페이지의 문서들은 몇개의 블럭만 풀면 된다.
+ * @see DocumentWriter
  * */
 
 public class DocumentReader implements Cloneable {
 	private static Logger logger = LoggerFactory.getLogger(DocumentReader.class);
 
 	private static final int INFLATE_BUFFER_INIT_SIZE = 20 * 1024;
+	//BlockCache에서 파일블럭과 구분되는 압축해제 블럭의 키.
+	private static final int DECOMPRESSED_BLOCK_KEY = -1;
 	private List<FieldSetting> fields;
 	private IndexInput docInput;
 	private IndexInput positionInput;
@@ -58,6 +66,15 @@ public class DocumentReader implements Cloneable {
 	private DataInput lastBai;
 	private long positionLimit;
 	
+	private boolean isBlockFormat;
+	private BlockCache blockCache;
+	private String fileKey;
+	private byte[] compressedBuffer;
+	private byte[] blockBuffer; //현재 블럭의 압축해제 데이터.
+	private long lastBlockPosition = -1;
+	private int[] blockDocOffsets;
+	private int blockDocCount;
+	
 	public DocumentReader() {
 	}
 
@@ -66,13 +83,23 @@ public class DocumentReader implements Cloneable {
 	}
 
 	public DocumentReader(SchemaSetting schemaSetting, File dir, int baseDocNo) throws IOException {
+		this(schemaSetting, dir, baseDocNo, IndexInputType.BUFFERED);
+	}
+
+	public DocumentReader(SchemaSetting schemaSetting, File dir, int baseDocNo, IndexInputType indexInputType) throws IOException {
 		this.baseDocNo = baseDocNo;
 		fields = schemaSetting.getFieldSettingList();
-		docInput = new BufferedFileInput(dir, IndexFileNames.docStored);
-		positionInput = new BufferedFileInput(dir, IndexFileNames.docPosition);
+		docInput = indexInputType.open(dir, IndexFileNames.docStored);
+		positionInput = indexInputType.open(dir, IndexFileNames.docPosition);
 		positionLimit = positionInput.length();
 		documentCount = docInput.readInt();
-		logger.info("DocumentCount = {}", documentCount);
+		isBlockFormat = docInput.length() >= 8 && docInput.readInt() == DocumentWriter.BLOCK_FORMAT;
+		if (isBlockFormat) {
+			blockCache = BlockCache.getInstance();
+			fileKey = BlockCache.fileKey(new File(dir, IndexFileNames.docStored));
+			blockDocOffsets = new int[DocumentWriter.BLOCK_MAX_DOCS + 1];
+		}
+		logger.info("DocumentCount = {}, blockFormat = {}", documentCount, isBlockFormat);
 
 		inflaterOutput = new ByteRefArrayOutputStream(INFLATE_BUFFER_INIT_SIZE); // 자동 증가됨. 초기 20KB으로 내림. 예전에는 3MB였음.
 		workingBuffer = new byte[1024];
@@ -113,29 +140,11 @@ public class DocumentReader implements Cloneable {
 			}
 			positionInput.seek(positionOffset);
 			long pos = positionInput.readLong();
-			// find a document block
-			docInput.seek(pos);
-			int len = docInput.readInt();
-			
-			//2014-11-26 검색요청이 많아서 working 버퍼가 너무 빠르게 많이 생길경우 GC 되기전에 OOM 발생할수 있음.
-			// Stream으로 바꾸어 해결.
-			InflaterInputStream decompressInputStream = null;
-			inflaterOutput.reset();
-			int count = -1;
-			try {
-				BoundedInputStream boundedInputStream = new BoundedInputStream(docInput, len);
-				boundedInputStream.setPropagateClose(false);//하위 docInput 를 닫지않는다.
-				decompressInputStream = new InflaterInputStream(boundedInputStream, new Inflater(), 512);
-				while ((count = decompressInputStream.read(workingBuffer)) != -1) {
-					inflaterOutput.write(workingBuffer, 0, count);
-				}
-			} finally {
-				decompressInputStream.close();
+			if (isBlockFormat) {
+				bai = readBlockDocument(pos >>> DocumentWriter.BLOCK_SHIFT, (int) (pos & (DocumentWriter.BLOCK_MAX_DOCS - 1)));
+			} else {
+				bai = readDeflatedDocument(pos);
 			}
-
-			BytesRef bytesRef = inflaterOutput.getBytesRef();
-			bai = new BytesDataInput(bytesRef.bytes, 0, bytesRef.length);
-
 			lastDocNo = docNo;
 			lastBai = bai;
 		} else {
@@ -180,6 +189,77 @@ public class DocumentReader implements Cloneable {
 		return document;
 	}
 
+	private DataInput readDeflatedDocument(long pos) throws IOException {
+		// find a document block
+		docInput.seek(pos);
+		int len = docInput.readInt();
+		
+		//2014-11-26 검색요청이 많아서 working 버퍼가 너무 빠르게 많이 생길경우 GC 되기전에 OOM 발생할수 있음.
+		// Stream으로 바꾸어 해결.
+		InflaterInputStream decompressInputStream = null;
+		inflaterOutput.reset();
+		int count = -1;
+		try {
+			BoundedInputStream boundedInputStream = new BoundedInputStream(docInput, len);
+			boundedInputStream.setPropagateClose(false);//하위 docInput 를 닫지않는다.
+			decompressInputStream = new InflaterInputStream(boundedInputStream, new Inflater(), 512);
+			while ((count = decompressInputStream.read(workingBuffer)) != -1) {
+				inflaterOutput.write(workingBuffer, 0, count);
+			}
+		} finally {
+			decompressInputStream.close();
+		}
+
+		BytesRef bytesRef = inflaterOutput.getBytesRef();
+		return new BytesDataInput(bytesRef.bytes, 0, bytesRef.length);
+	}
+	
+	/*
+	 * 블럭의 압축을 풀어 blockBuffer에 두고, 블럭내 순서의 문서를 읽는 DataInput을 리턴한다.
+	 */
+	private DataInput readBlockDocument(long blockPosition, int index) throws IOException {
+		if (blockPosition != lastBlockPosition) {
+			CachedBlock cachedBlock = blockCache.getBlock(fileKey, DECOMPRESSED_BLOCK_KEY, blockPosition);
+			if (cachedBlock == null) {
+				docInput.seek(blockPosition);
+				int rawLength = docInput.readInt();
+				int compressedLength = docInput.readInt();
+				if (compressedBuffer == null || compressedBuffer.length < compressedLength) {
+					compressedBuffer = new byte[compressedLength];
+				}
+				docInput.readBytes(compressedBuffer, 0, compressedLength);
+				//캐시에 그대로 보관되므로 블럭마다 새 배열을 만든다.
+				byte[] raw = new byte[rawLength];
+				LZ4Codec.decompress(compressedBuffer, 0, compressedLength, raw, 0, rawLength);
+				cachedBlock = blockCache.putBlock(fileKey, DECOMPRESSED_BLOCK_KEY, blockPosition, raw, rawLength);
+			}
+			if (blockBuffer == null || blockBuffer.length < cachedBlock.length()) {
+				blockBuffer = new byte[cachedBlock.length()];
+			}
+			cachedBlock.read(0, blockBuffer, 0, cachedBlock.length());
+			
+			BytesDataInput header = new BytesDataInput(blockBuffer, 0, cachedBlock.length());
+			blockDocCount = header.readVInt();
+			int offset = 0;
+			for (int i = 0; i < blockDocCount; i++) {
+				blockDocOffsets[i] = offset;
+				offset += header.readVInt();
+			}
+			int dataStart = (int) header.position();
+			for (int i = 0; i < blockDocCount; i++) {
+				blockDocOffsets[i] += dataStart;
+			}
+			blockDocOffsets[blockDocCount] = offset + dataStart;
+			lastBlockPosition = blockPosition;
+		}
+		if (index >= blockDocCount) {
+			throw new IOException("Invalid document index in block. block = " + blockPosition + ", index = " + index + ", count = " + blockDocCount);
+		}
+		BytesDataInput bai = new BytesDataInput(blockBuffer, blockDocOffsets[index], blockDocOffsets[index + 1] - blockDocOffsets[index]);
+		bai.reset();
+		return bai;
+	}
+
 	@Override
 	public DocumentReader clone() {
 		DocumentReader reader = new DocumentReader();
@@ -192,6 +272,12 @@ public class DocumentReader implements Cloneable {
 		reader.inflaterOutput = new ByteRefArrayOutputStream(INFLATE_BUFFER_INIT_SIZE); // 자동 증가됨.
 		reader.workingBuffer = new byte[1024];
 		reader.positionLimit = positionLimit;
+		reader.isBlockFormat = isBlockFormat;
+		if (isBlockFormat) {
+			reader.blockCache = blockCache;
+			reader.fileKey = fileKey;
+			reader.blockDocOffsets = new int[DocumentWriter.BLOCK_MAX_DOCS + 1];
+		}
 		return reader;
 	}
 
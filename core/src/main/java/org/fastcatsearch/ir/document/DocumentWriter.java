@@ -32,6 +32,7 @@ import org.fastcatsearch.ir.io.BufferedFileInput;
 import org.fastcatsearch.ir.io.BufferedFileOutput;
 import org.fastcatsearch.ir.io.BytesDataOutput;
 import org.fastcatsearch.ir.io.IndexInput;
+import org.fastcatsearch.ir.io.LZ4Codec;
 import org.fastcatsearch.ir.settings.FieldSetting;
 import org.fastcatsearch.ir.settings.Schema;
 import org.fastcatsearch.ir.settings.SchemaSetting;
@@ -40,11 +41,16 @@ import org.slf4j.LoggerFactory;
 
 
 /**
- * 문서를 한개씩 압축하여 기록한다.
+ * 문서를 블럭단위로 묶어 압축하여 기록한다.
  * 입력되는 Document들을 파일로 기록하는 클래스.
  * 
  * 생성되는파일은 2개인데 문서데이터파일, 데이터파일내 문서위치를 기록한 문서위치파일이다.
  * 
+ * 블럭형식 : 문서데이터파일 헤더는 [문서수 int][BLOCK_FORMAT int]이고, 문서를 BLOCK_MAX_DOCS개 또는 BLOCK_SIZE 만큼 모아서 LZ4로 압축한다.
+ * 블럭 = [원본길이 int][압축길이 int][압축데이터], 원본 = [문서수 VInt][문서별 길이 VInt...][문서데이터...]
+ * 문서위치는 (블럭위치 << BLOCK_SHIFT | 블럭내 순서)를 long으로 기록한다.
+ * 이전형식은 문서마다 deflate로 압축한 [길이 int][압축데이터]이며, 이전형식 파일에 append할때는 이전형식을 유지한다.
+ * 
  * 문서번호는 append일때에는 이전 리비전의 다음부터 생성한다.아니면 0.
  * 차후에 DocumentReader에서 읽을때는 읽으려는 문서번호에서 docbaseNo을 빼서 내부문서번호로
  * 변경한뒤 읽는다.
@@ -55,6 +61,11 @@ import org.slf4j.LoggerFactory;
 public class DocumentWriter implements WriteInfoLoggable {
 	private static Logger logger = LoggerFactory.getLogger(DocumentWriter.class);
 
+	public static final int BLOCK_FORMAT = 0xB10C0001;
+	public static final int BLOCK_SHIFT = 7;
+	public static final int BLOCK_MAX_DOCS = 1 << BLOCK_SHIFT;
+	public static final int BLOCK_SIZE = 16 * 1024;
+	
 	private List<FieldSetting> fields;
 	private BufferedFileOutput docOutput;
 	private BufferedFileOutput positionOutput;
@@ -64,25 +75,47 @@ public class DocumentWriter implements WriteInfoLoggable {
 	private Deflater compressor;
 	private int count; //현 색인시 추가문서갯수.
 	
+	private boolean isBlockFormat;
+	private BytesDataOutput blockData; //압축전 블럭의 문서데이터.
+	private BytesDataOutput blockRaw;
+	private int[] blockDocLengths;
+	private int blockDocCount;
+	private byte[] compressBuffer;
+	private int[] hashTable;
+	
 	public DocumentWriter(SchemaSetting schemaSetting, File dir, RevisionInfo revisionInfo, IndexConfig indexConfig) throws IOException, IRException {
 		
 		boolean isAppend = revisionInfo.isAppend();
 		
-		compressor = new Deflater(Deflater.BEST_SPEED);
 		fields = schemaSetting.getFieldSettingList();
 		
-		docOutput = new BufferedFileOutput(dir, IndexFileNames.docStored, isAppend);
-		positionOutput = new BufferedFileOutput(dir, IndexFileNames.docPosition, isAppend);
-
-		fbaos = new BytesDataOutput(3 * 1024 * 1024); //초기 3Mb로 시작.
-		workingBuffer = new byte[1024];
-
+		isBlockFormat = true;
 		if (isAppend) {
 			IndexInput docInput = new BufferedFileInput(dir, IndexFileNames.docStored);
 			totalCount = docInput.readInt();
+			//이전형식은 헤더 다음이 문서길이이므로 음수인 BLOCK_FORMAT과 구분된다.
+			isBlockFormat = docInput.length() >= 8 && docInput.readInt() == BLOCK_FORMAT;
 			docInput.close();
+		}
+		
+		docOutput = new BufferedFileOutput(dir, IndexFileNames.docStored, isAppend);
+		positionOutput = new BufferedFileOutput(dir, IndexFileNames.docPosition, isAppend);
+
+		fbaos = new BytesDataOutput(3 * 1024 * 1024); //초기 3Mb로 시작.
+		
+		if (isBlockFormat) {
+			blockData = new BytesDataOutput(BLOCK_SIZE * 2);
+			blockRaw = new BytesDataOutput(BLOCK_SIZE * 2);
+			blockDocLengths = new int[BLOCK_MAX_DOCS];
+			hashTable = new int[LZ4Codec.HASH_TABLE_SIZE];
 		} else {
+			compressor = new Deflater(Deflater.BEST_SPEED);
+			workingBuffer = new byte[1024];
+		}
+
+		if (!isAppend) {
 			docOutput.writeInt(0); // document count
+			docOutput.writeInt(BLOCK_FORMAT);
 		}
 
 	}
@@ -90,9 +123,6 @@ public class DocumentWriter implements WriteInfoLoggable {
 
 	public int write(Document document) throws IOException, IRException {
 		fbaos.reset();
-		long docStartPosition = docOutput.position();
-		positionOutput.writeLong(docStartPosition);
-		
 		for (int i = 0; i < document.size(); i++) {
 			Field f = document.get(i);
 			//필드가 null이면 데이터없는 것으로 처리
@@ -107,6 +137,58 @@ public class DocumentWriter implements WriteInfoLoggable {
 			}
 		}
 		
+		if (isBlockFormat) {
+			addToBlock();
+		} else {
+			writeDeflated();
+		}
+		
+		count++;
+		return totalCount++;
+	}
+	
+	/*
+	 * 블럭은 파일에 순서대로 기록되므로, 아직 기록되지 않은 현재 블럭의 위치는 파일의 현재위치이다.
+	 */
+	private void addToBlock() throws IOException {
+		positionOutput.writeLong((docOutput.position() << BLOCK_SHIFT) | blockDocCount);
+		int length = (int) fbaos.position();
+		blockData.writeBytes(fbaos.array(), 0, length);
+		blockDocLengths[blockDocCount++] = length;
+		if (blockDocCount == BLOCK_MAX_DOCS || blockData.position() >= BLOCK_SIZE) {
+			flushBlock();
+		}
+	}
+	
+	private void flushBlock() throws IOException {
+		if (blockDocCount == 0) {
+			return;
+		}
+		blockRaw.reset();
+		blockRaw.writeVInt(blockDocCount);
+		for (int i = 0; i < blockDocCount; i++) {
+			blockRaw.writeVInt(blockDocLengths[i]);
+		}
+		blockRaw.writeBytes(blockData.array(), 0, (int) blockData.position());
+		
+		int rawLength = (int) blockRaw.position();
+		int maxLength = LZ4Codec.maxCompressedLength(rawLength);
+		if (compressBuffer == null || compressBuffer.length < maxLength) {
+			compressBuffer = new byte[maxLength];
+		}
+		int compressedLength = LZ4Codec.compress(blockRaw.array(), 0, rawLength, compressBuffer, 0, hashTable);
+		docOutput.writeInt(rawLength);
+		docOutput.writeInt(compressedLength);
+		docOutput.writeBytes(compressBuffer, 0, compressedLength);
+		
+		blockData.reset();
+		blockDocCount = 0;
+	}
+	
+	private void writeDeflated() throws IOException {
+		long docStartPosition = docOutput.position();
+		positionOutput.writeLong(docStartPosition);
+		
 		compressor.reset();
 		compressor.setInput(fbaos.array(), 0, (int) fbaos.position());
 		compressor.finish();
@@ -126,9 +208,6 @@ public class DocumentWriter implements WriteInfoLoggable {
 		docOutput.seek(pos);
 		docOutput.writeInt(compressedDataLength);
 		docOutput.seek(lastPos);
-		
-		count++;
-		return totalCount++;
 	}
 
 	public int totalCount(){
@@ -137,6 +216,10 @@ public class DocumentWriter implements WriteInfoLoggable {
 	
 	public void close() throws IOException {
 		logger.debug("DocumentWriter close() count={}", count);
+		
+		if (isBlockFormat) {
+			flushBlock();
+		}
 
 		// write header
 		if(count > 0){
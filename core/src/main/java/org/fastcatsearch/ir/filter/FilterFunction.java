@@ -114,4 +114,8 @@ public abstract class FilterFunction {
 	public BytesRef[] getPatternList(){
 		return patternList;
 	}
+	
+	public BytesRef[] getEndPatternList(){
+		return endPatternList;
+	}
 }
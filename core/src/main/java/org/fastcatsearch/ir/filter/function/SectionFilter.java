@@ -21,6 +21,7 @@ import java.io.IOException;
 import org.apache.lucene.util.BytesRef;
 import org.fastcatsearch.ir.filter.FilterException;
 import org.fastcatsearch.ir.filter.FilterFunction;
+import org.fastcatsearch.ir.index.PointIndexWriter;
 import org.fastcatsearch.ir.io.DataRef;
 import org.fastcatsearch.ir.query.Filter;
 import org.fastcatsearch.ir.query.RankInfo;
@@ -36,12 +37,26 @@ import org.fastcatsearch.ir.settings.FieldSetting;
  */
 public class SectionFilter extends FilterFunction {
 
+	//숫자형 패턴의 크기순서가 유지되는 키. 패턴이 없는 쪽은 범위의 제한이 없다.
+	private long[] startKeyList;
+	private long[] endKeyList;
+	
 	public SectionFilter(Filter filter, FieldIndexSetting fieldIndexSetting, FieldSetting fieldSetting) throws FilterException {
-		super(filter, fieldIndexSetting, fieldSetting, false);
+		this(filter, fieldIndexSetting, fieldSetting, false);
 	}
 
 	public SectionFilter(Filter filter, FieldIndexSetting fieldIndexSetting, FieldSetting fieldSetting, boolean isBoostFunction) throws FilterException {
 		super(filter, fieldIndexSetting, fieldSetting, isBoostFunction);
+		if (fieldSetting.isNumericField()) {
+			//point 색인과 같은 순서로 비교하도록 패턴을 같은 키로 바꾼다.
+			FieldSetting.Type type = fieldSetting.getType();
+			startKeyList = new long[patternCount];
+			endKeyList = new long[patternCount];
+			for (int j = 0; j < patternCount; j++) {
+				startKeyList[j] = patternList[j] != null ? PointIndexWriter.sortableKey(type, patternList[j].bytes, patternList[j].offset) : Long.MIN_VALUE;
+				endKeyList[j] = endPatternList[j] != null ? PointIndexWriter.sortableKey(type, endPatternList[j].bytes, endPatternList[j].offset) : Long.MAX_VALUE;
+			}
+		}
 	}
 
 	@Override
@@ -50,21 +65,23 @@ public class SectionFilter extends FilterFunction {
 		while (dataRef.next()) {
 			
 			BytesRef bytesRef = dataRef.bytesRef();
+			long key = 0;
+			if (startKeyList != null) {
+				key = PointIndexWriter.sortableKey(fieldSetting.getType(), bytesRef.bytes, bytesRef.offset);
+			}
 			for (int j = 0; j < patternCount; j++) {
 				BytesRef patternBuf1 = patternList[j];
 				BytesRef patternBuf2 = endPatternList[j];
 
 				//크기비교에서 문자열과 숫자형은 비교방식이 다르므로 다른 루틴을 사용하도록 함.
 				//숫자 : 
-				// 숫자는 MSB 비교가 우선이 되어야 함. 패턴크기는 항상 같음 (캐스팅되어 사용하기 때문에 항상 같은 바이트 수가 나옴)
-				// 1. 패턴크기가 같은경우 : 앞에서부터 순차비교
+				// 부호와 실수형 비트를 반영한 키로 비교한다. point 색인의 비교순서와 같다.
 				//문자 :
 				// 1. 패턴크기가 같은경우 : 앞에서부터 순차비교
 				// 2. 패턴크기가 다른경우 : 앞에서부터 순차비교, 짧은 패턴에 맞춤. 남는패턴이 있는쪽이 큼
-				if (fieldSetting.isNumericField()) {
+				if (startKeyList != null) {
 
-					if ((patternBuf1 == null || compareNumeric(bytesRef, bytesRef.length(), patternBuf1, patternBuf1.length()) >= 0) &&
-						(patternBuf2 == null || compareNumeric(bytesRef, bytesRef.length(), patternBuf2, patternBuf2.length()) <= 0)) {
+					if (key >= startKeyList[j] && key <= endKeyList[j]) {
 						if(isBoostFunction){
 							//boost옵션이 있다면 점수를 올려주고 리턴한다.
 							rankInfo.addScore(boostScore);
@@ -125,49 +142,4 @@ public class SectionFilter extends FilterFunction {
 
 		return 0;
 	}
-
-	/**
-	 * 
-	 * @param lval
-	 * @param lsize
-	 * @param rval
-	 * @param rsize
-	 * @return 0:lval and rval is same / 1:lval is bigger / -1:rval is bigger
-	 */
-	private static int compareNumeric(BytesRef lval, int lsize, BytesRef rval, int rsize) {
-		// check msb;
-		int direction = 1;
-
-		int lbyte = lval.get(0) & 0xff;
-		int rbyte = rval.get(0) & 0xff;
-
-		if ((lbyte & 0x80) == 0) {
-			if ((rbyte & 0x80) == 0) {
-				// lbyte positive / rbyte positive
-				// do nothing
-			} else {
-				// lbyte positive / rbyte negative
-				return 1;
-			}
-		} else {
-			if ((rbyte & 0x80) == 0) {
-				// lbyte negative / rbyte positive
-				return -1;
-			} else {
-				// lbyte negative / rbyte negative
-				direction = -1;
-			}
-		}
-
-		for (int inx = 1; inx < lsize; inx++) {
-			if ((lval.get(inx) & 0xff) > (rval.get(inx) & 0xff)) {
-				return 1 * direction;
-			} else if ((lval.get(inx) & 0xff) < (rval.get(inx) & 0xff)) {
-				return -1 * direction;
-			} else {
-				continue;
-			}
-		}
-		return 0;
-	}
 }
\ No newline at end of file
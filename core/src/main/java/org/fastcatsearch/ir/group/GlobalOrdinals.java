@@ -0,0 +1,91 @@
+package org.fastcatsearch.ir.group;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.BytesRef;
+import org.fastcatsearch.ir.search.GroupIndexReader;
+
+/**
+ * 한 그룹색인에 대해 세그먼트별 그룹번호를 컬렉션 전체에서 유일한 전역 그룹번호로 바꾸는 매핑.
+ *
+ * 세그먼트마다 그룹키 번호가 따로 매겨지므로, 같은 키를 가진 그룹번호를 하나의 전역번호로 모은다.
+ * 검색시에는 전역번호 배열 하나에 바로 집계하고, 키는 결과를 만들때 전역번호로 찾는다.
+ * 키 데이터는 하나의 byte배열에 모아두므로 세그먼트 색인을 다시 읽지 않는다.
+ * 세그먼트가 추가되거나 교체되면 다시 만들어야 한다.
+ * */
+public class GlobalOrdinals {
+
+	private int[][] segmentOrdinals;
+	private int size;
+	private byte[] keyData;
+	private int[] keyOffsets;
+
+	/**
+	 * 세그먼트 순서대로 그룹색인 reader를 받아 매핑을 만든다. 그룹색인이 없는 세그먼트는 null이다.
+	 */
+	public GlobalOrdinals(List<GroupIndexReader> readerList) throws IOException {
+		segmentOrdinals = new int[readerList.size()][];
+		keyData = new byte[1024];
+		keyOffsets = new int[1024];
+		int dataLength = 0;
+		Map<BytesRef, Integer> ordinalMap = new HashMap<BytesRef, Integer>();
+		BytesRef keyBuffer = new BytesRef();
+		for (int segment = 0; segment < readerList.size(); segment++) {
+			GroupIndexReader reader = readerList.get(segment);
+			if (reader == null) {
+				segmentOrdinals[segment] = new int[0];
+				continue;
+			}
+			int groupKeySize = reader.getGroupKeySize();
+			int[] ordinals = new int[groupKeySize];
+			for (int groupNo = 0; groupNo < groupKeySize; groupNo++) {
+				reader.readKey(groupNo, keyBuffer);
+				Integer ordinal = ordinalMap.get(keyBuffer);
+				if (ordinal == null) {
+					ordinal = size;
+					ordinalMap.put(BytesRef.deepCopyOf(keyBuffer), ordinal);
+					keyData = ArrayUtil.grow(keyData, dataLength + keyBuffer.length);
+					System.arraycopy(keyBuffer.bytes, keyBuffer.offset, keyData, dataLength, keyBuffer.length);
+					keyOffsets = ArrayUtil.grow(keyOffsets, size + 2);
+					keyOffsets[size] = dataLength;
+					dataLength += keyBuffer.length;
+					size++;
+				}
+				ordinals[groupNo] = ordinal;
+			}
+			segmentOrdinals[segment] = ordinals;
+		}
+		keyOffsets[size] = dataLength;
+	}
+
+	/**
+	 * 전역 그룹키 갯수.
+	 */
+	public int size() {
+		return size;
+	}
+
+	public int segmentSize() {
+		return segmentOrdinals.length;
+	}
+
+	/**
+	 * segment의 그룹번호를 index로 하는 전역 그룹번호 배열.
+	 */
+	public int[] segmentOrdinals(int segment) {
+		return segmentOrdinals[segment];
+	}
+
+	/**
+	 * 전역 그룹번호의 키를 bytesRef가 가리키도록 한다. 복사하지 않으므로 bytesRef의 데이터를 수정하면 안된다.
+	 */
+	public void readKey(int ordinal, BytesRef bytesRef) {
+		bytesRef.bytes = keyData;
+		bytesRef.offset = keyOffsets[ordinal];
+		bytesRef.length = keyOffsets[ordinal + 1] - keyOffsets[ordinal];
+	}
+}
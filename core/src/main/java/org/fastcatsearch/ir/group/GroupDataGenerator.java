@@ -18,13 +18,13 @@ package org.fastcatsearch.ir.group;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
+import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.BytesRef;
 import org.fastcatsearch.ir.field.FieldDataStringer;
 import org.fastcatsearch.ir.group.function.CountGroupFunction;
@@ -35,8 +35,11 @@ import org.fastcatsearch.ir.group.value.IntGroupingValue;
 import org.fastcatsearch.ir.group.value.LongGroupingValue;
 import org.fastcatsearch.ir.group.value.StringGroupingValue;
 import org.fastcatsearch.ir.io.DataRef;
+import org.fastcatsearch.ir.io.IOUtil;
 import org.fastcatsearch.ir.query.Group;
 import org.fastcatsearch.ir.query.RankInfo;
+import org.fastcatsearch.ir.search.FieldIndexColumn;
+import org.fastcatsearch.ir.search.FieldIndexColumn.NumericColumn;
 import org.fastcatsearch.ir.search.FieldIndexReader;
 import org.fastcatsearch.ir.search.FieldIndexesReader;
 import org.fastcatsearch.ir.search.GroupIndexReader;
@@ -59,127 +62,208 @@ public class GroupDataGenerator {
 	private GroupFunction[][] groupFunctionList;
 	private int totalSearchCount;
 	private IndexRef<GroupIndexReader> indexRef;
-	private Set<Integer> redundancyCheck;
+	private BitSet[] redundancyCheck; //multi-value 그룹키 중복체크. 그룹별로 필요할때 만든다.
+	private int[] checkedGroupNoList; //중복체크에 표시한 그룹번호. 문서마다 표시를 지운다.
 	private IndexRef<FieldIndexReader>[] fieldIndexRefList;
-	private Map<String, DataRef>[] fieldBytesRefMap;
-	private int[] groupKeySizeList; //그룹별 키의 총 갯수.
+	private DataRef[][] functionDataRefList; //function별 파라미터 필드값. 필드가 없는 function은 null.
+	private Type[][] functionFieldTypeList;
+	private Type[][] primitiveTypeList; //기본형 배열에 쌓는 function의 값타입. 아니면 null.
+	private NumericColumn[][] functionColumnList; //기본형 function의 파라미터 필드가 메모리에 있으면 값을 바로 읽는다. 아니면 null.
+	private FieldIndexReader[][] paramReaderList; //문서마다 파일에서 읽어야 하는 파라미터 필드 reader.
+	private char[] stringBuffer;
+	private int[] groupKeySizeList; //그룹별 키의 총 갯수. 전역 그룹번호를 사용하면 전역 키 갯수.
+	private List<Group> groupList;
+	private Schema schema;
+	private List<String>[] paramFieldNameList; //그룹별 function 파라미터 필드.
+	private GlobalOrdinals[] globalOrdinalsList; //null이면 세그먼트의 그룹번호를 그대로 사용한다.
+	private int[][] ordinalMapList; //그룹별 세그먼트 그룹번호 -> 전역 그룹번호.
+	private boolean[] precountedList; //현재 세그먼트의 갯수를 미리 더해서 insert시 집계하지 않는 그룹.
 //	private String[] groupFieldIdList;
 	private FieldSetting[] fieldSettingList;
 	
 	
 	public GroupDataGenerator(List<Group> groupList, Schema schema, GroupIndexesReader groupIndexesReader, FieldIndexesReader fieldIndexesReader) throws IOException {
+		this(groupList, schema, (GlobalOrdinals[]) null);
+		setSegment(0, groupIndexesReader, fieldIndexesReader);
+	}
+	
+	/**
+	 * 여러 세그먼트의 그룹결과를 전역 그룹번호 배열 하나에 모으는 generator를 만든다.
+	 * 세그먼트마다 setSegment로 색인을 연결한후 insert하고, 모든 세그먼트를 마친후 한번만 generate한다.
+	 * */
+	public GroupDataGenerator(List<Group> groupList, Schema schema, GlobalOrdinals[] globalOrdinalsList) {
 		
 		this.groupSize = groupList.size();
+		this.groupList = groupList;
+		this.schema = schema;
+		this.globalOrdinalsList = globalOrdinalsList;
 		
 		fieldSettingList = new FieldSetting[groupSize];
 		groupFunctionList = new GroupFunction[groupSize][];
 		fieldIndexRefList = new IndexRef[groupSize];
-		fieldBytesRefMap = new Map[groupSize];
+		paramFieldNameList = new List[groupSize];
+		functionDataRefList = new DataRef[groupSize][];
+		functionFieldTypeList = new Type[groupSize][];
+		primitiveTypeList = new Type[groupSize][];
+		functionColumnList = new NumericColumn[groupSize][];
+		paramReaderList = new FieldIndexReader[groupSize][];
 		groupKeySizeList = new int[groupSize];
-		redundancyCheck = new HashSet<Integer>();
-		
-		List<String> indexIdList = new ArrayList<String>(groupSize);
-		for (int i = 0; i < groupSize; i++) {
-			Group group = groupList.get(i);
-			String indexId = group.groupIndexId();
-			indexIdList.add(indexId);
-			logger.debug(">> group index id >> {}", indexId);
-		}
-		
-		indexRef = groupIndexesReader.selectIndexRef(indexIdList.toArray(new String[0]));
-//		logger.debug("group indexref size = {}", indexRef.getSize());
+		ordinalMapList = new int[groupSize][];
+		precountedList = new boolean[groupSize];
+		redundancyCheck = new BitSet[groupSize];
+		checkedGroupNoList = new int[16];
+		stringBuffer = new char[16];
 		
 		for (int i = 0; i < groupSize; i++) {
 			Group group = groupList.get(i);
 			String groupIndexId = group.groupIndexId();
 			int idx = schema.getGroupIndexSequence(groupIndexId);
+			logger.debug(">> group index id >> {}", groupIndexId);
 			
 			if(idx < 0){
 				continue;
 			}
 			
-			GroupIndexReader groupIndexReader = indexRef.getReader(i);
-			int groupKeySize = groupIndexReader.getGroupKeySize();
-			groupKeySizeList[i] = groupKeySize;
-			logger.debug("group#{} [{}] groupKeySize[{}]", i, groupIndexId, groupKeySize);
-			
 			GroupIndexSetting groupIndexSetting = schema.getGroupIndexSetting(groupIndexId);
 			String refId = groupIndexSetting.getRef();
 			fieldSettingList[i] = schema.fieldSettingMap().get(refId);
 			
 			groupFunctionList[i] = group.function();
 			int functionSize = groupFunctionList[i].length;
-			//내부 grouping object 배열 초기화.
-			//function별로 결과 객체를 만들어준다.
-			//count는 key갯수만큼 생성후 검색결과로 존재하는 키에 대해서만 갯수를 증가시켜주고,
-			//range도 count와 동일하게 생성후 done을 통해 범위결과로 재구성한다.
-			List<String> paramFieldNameList = new ArrayList<String>(groupSize);
+			functionDataRefList[i] = new DataRef[functionSize];
+			functionFieldTypeList[i] = new Type[functionSize];
+			primitiveTypeList[i] = new Type[functionSize];
+			functionColumnList[i] = new NumericColumn[functionSize];
+			paramFieldNameList[i] = new ArrayList<String>(functionSize);
 			for (int j = 0; j < functionSize; j++) {
 				GroupFunction groupFunction = groupFunctionList[i][j];
-				if(groupFunction == null){
-					//그룹기능이름이 잘못되어서 null로 들어올수 있다. 
+				//그룹기능이름이 잘못되어서 null로 들어올수 있다.
+				if(groupFunction == null || groupFunction instanceof CountGroupFunction || groupFunction instanceof RangeCountGroupFunction){
 					continue;
 				}
-				
-				if(groupFunction instanceof CountGroupFunction){
-					//int로 만들어준다.
-					groupFunction.init(IntGroupingValue.createList(groupKeySize));
-//					logger.debug("groupFunction #{} valuelist = {}", i, groupFunction.valueList);
-				}else if(groupFunction instanceof RangeCountGroupFunction){
-					//범위 그룹핑은 COUNT와 동일하게 int형으로 생성. 
+				// sum, min, max 필드에 대한 그룹핑. 연산대상 fieldId가 필요하다.
+				if(groupFunction.fieldId != null){
+					//동일한 필드를 여러 function에서 사용하면 필드는 한번만 읽고, 값은 function별로 만든다.
+					if(!paramFieldNameList[i].contains(groupFunction.fieldId)){
+						paramFieldNameList[i].add(groupFunction.fieldId);
+					}
+					FieldSetting fieldSetting = schema.fieldSettingMap().get(groupFunction.fieldId);
+					functionFieldTypeList[i][j] = fieldSetting.getType();
+					if(groupFunction instanceof PrimitiveGroupFunction && PrimitiveGroupFunction.isSupported(fieldSetting.getType())){
+						primitiveTypeList[i][j] = fieldSetting.getType();
+					}
+				}
+			}
+			
+			if(globalOrdinalsList != null){
+				groupKeySizeList[i] = globalOrdinalsList[i] != null ? globalOrdinalsList[i].size() : 0;
+				logger.debug("group#{} [{}] globalKeySize[{}]", i, groupIndexId, groupKeySizeList[i]);
+				initFunctions(i);
+			}
+		}
+	}
+	
+	/*
+	 * 내부 grouping object 배열 초기화.
+	 * function별로 결과 객체를 만들어준다.
+	 * count는 key갯수만큼 생성후 검색결과로 존재하는 키에 대해서만 갯수를 증가시켜주고,
+	 * range도 count와 동일하게 생성후 done을 통해 범위결과로 재구성한다.
+	 */
+	private void initFunctions(int i) {
+		int groupKeySize = groupKeySizeList[i];
+		for (int j = 0; j < groupFunctionList[i].length; j++) {
+			GroupFunction groupFunction = groupFunctionList[i][j];
+			if(groupFunction == null){
+				continue;
+			}
+			
+			if(groupFunction instanceof CountGroupFunction){
+				//int로 만들어준다.
+				((CountGroupFunction) groupFunction).init(Type.INT, groupKeySize);
+			}else if(groupFunction instanceof RangeCountGroupFunction){
+				//범위 그룹핑은 COUNT와 동일하게 int형으로 생성. 
+				groupFunction.init(IntGroupingValue.createList(groupKeySize));
+			}else if(groupFunction.fieldId != null){
+				//fieldId 타입에 따라서 value를 만들어준다.
+				Type type = functionFieldTypeList[i][j];
+				if(primitiveTypeList[i][j] != null){
+					((PrimitiveGroupFunction) groupFunction).init(type, groupKeySize);
+				}else if(type == FieldSetting.Type.INT){
 					groupFunction.init(IntGroupingValue.createList(groupKeySize));
+				}else if(type == FieldSetting.Type.LONG){
+					groupFunction.init(LongGroupingValue.createList(groupKeySize));
+				}else if(type == FieldSetting.Type.FLOAT){
+					groupFunction.init(FloatGroupingValue.createList(groupKeySize));
+				}else if(type == FieldSetting.Type.DOUBLE){
+					groupFunction.init(DoubleGroupingValue.createList(groupKeySize));
 				}else{
-					//
-					// sum, min, max 필드에 대한 그룹핑. 연산대상 fieldId가 필요하다.
-					//
-					if(groupFunction.fieldId != null){
-						
-						//TODO 동일한 필드를 여러번 function 수행할때는 어떻게 할까.
-						
-						if(!paramFieldNameList.contains(groupFunction.fieldId)){
-							paramFieldNameList.add(groupFunction.fieldId);
-							//fieldId 타입에 따라서 value를 만들어준다.
-							FieldSetting fieldSetting = schema.fieldSettingMap().get(groupFunction.fieldId);
-							if(fieldSetting.getType() == FieldSetting.Type.INT){
-								groupFunction.init(IntGroupingValue.createList(groupKeySize));
-							}else if(fieldSetting.getType() == FieldSetting.Type.LONG){
-								groupFunction.init(LongGroupingValue.createList(groupKeySize));
-							}else if(fieldSetting.getType() == FieldSetting.Type.FLOAT){
-								groupFunction.init(FloatGroupingValue.createList(groupKeySize));
-							}else if(fieldSetting.getType() == FieldSetting.Type.DOUBLE){
-								groupFunction.init(DoubleGroupingValue.createList(groupKeySize));
-							}else{
-								groupFunction.init(StringGroupingValue.createList(groupKeySize));
-							}
-						}
-					}
+					groupFunction.init(StringGroupingValue.createList(groupKeySize));
 				}
 			}
+		}
+	}
+	
+	/**
+	 * 그룹핑할 세그먼트의 색인을 연결한다.
+	 * 전역 그룹번호를 사용하면 segmentSequence 세그먼트의 그룹번호를 전역 그룹번호로 바꾸어 쌓는다.
+	 * */
+	public void setSegment(int segmentSequence, GroupIndexesReader groupIndexesReader, FieldIndexesReader fieldIndexesReader) throws IOException {
+		List<String> indexIdList = new ArrayList<String>(groupSize);
+		for (int i = 0; i < groupSize; i++) {
+			indexIdList.add(groupList.get(i).groupIndexId());
+		}
+		
+		indexRef = groupIndexesReader.selectIndexRef(indexIdList.toArray(new String[0]));
+//		logger.debug("group indexref size = {}", indexRef.getSize());
+		
+		for (int i = 0; i < groupSize; i++) {
+			precountedList[i] = false;
+			if(groupFunctionList[i] == null){
+				continue;
+			}
+			
+			if(globalOrdinalsList == null){
+				GroupIndexReader groupIndexReader = indexRef.getReader(i);
+				groupKeySizeList[i] = groupIndexReader.getGroupKeySize();
+				logger.debug("group#{} [{}] groupKeySize[{}]", i, indexIdList.get(i), groupKeySizeList[i]);
+				initFunctions(i);
+			}else if(globalOrdinalsList[i] != null){
+				ordinalMapList[i] = globalOrdinalsList[i].segmentOrdinals(segmentSequence);
+			}
 			
-			if(paramFieldNameList.size() > 0){
-				fieldIndexRefList[i] = fieldIndexesReader.selectIndexRef(paramFieldNameList.toArray(new String[0]));
-				fieldBytesRefMap[i] = new HashMap<String, DataRef>(paramFieldNameList.size());
+			fieldIndexRefList[i] = null;
+			paramReaderList[i] = null;
+			if(paramFieldNameList[i].size() > 0){
+				fieldIndexRefList[i] = fieldIndexesReader.selectIndexRef(paramFieldNameList[i].toArray(new String[0]));
+				Map<String, DataRef> fieldBytesRefMap = new HashMap<String, DataRef>(paramFieldNameList[i].size());
 			
 				//동일한 필드가 파라미터로 여러번 들어올경우 한번만 읽기위해서는 동일한 bytesRef 참조를 가지고 있도록 한다. 
 				int k = 0;
 				
-				for(String paramFieldId : paramFieldNameList){
+				for(String paramFieldId : paramFieldNameList[i]){
 					//stream input ref일수도 있다.
 					DataRef dataRef = fieldIndexRefList[i].getDataRef(k++); 
 					FieldSetting fieldSetting = schema.fieldSettingMap().get(paramFieldId);
 					dataRef.setType(fieldSetting.getType());
-//					if(fieldSetting.getType() == FieldSetting.Type.INT){
-//						dataRef.setNumberType(Integer.class);
-//					}else if(fieldSetting.getType() == FieldSetting.Type.LONG){
-//						//dataRef.setNumberType(Long.class);
-//					}else if(fieldSetting.getType() == FieldSetting.Type.FLOAT){
-//						//dataRef.setNumberType(Float.class);
-//					}else if(fieldSetting.getType() == FieldSetting.Type.DOUBLE){
-//						//dataRef.setNumberType(Double.class);
-//					}
 					//차후 dataRef.next하면서 데이터를 읽는다. 
-					fieldBytesRefMap[i].put(paramFieldId, dataRef);
+					fieldBytesRefMap.put(paramFieldId, dataRef);
+				}
+				List<FieldIndexReader> readerList = new ArrayList<FieldIndexReader>(paramFieldNameList[i].size());
+				for (int j = 0; j < groupFunctionList[i].length; j++) {
+					GroupFunction groupFunction = groupFunctionList[i][j];
+					functionColumnList[i][j] = null;
+					if(groupFunction != null && groupFunction.fieldId != null){
+						functionDataRefList[i][j] = fieldBytesRefMap.get(groupFunction.fieldId);
+						FieldIndexReader reader = fieldIndexRefList[i].getReader(paramFieldNameList[i].indexOf(groupFunction.fieldId));
+						FieldIndexColumn column = reader != null ? reader.column() : null;
+						if(primitiveTypeList[i][j] != null && column instanceof NumericColumn){
+							functionColumnList[i][j] = (NumericColumn) column;
+						}else if(reader != null && !readerList.contains(reader)){
+							readerList.add(reader);
+						}
+					}
 				}
+				paramReaderList[i] = readerList.toArray(new FieldIndexReader[0]);
 			}
 		}
 	}
@@ -189,57 +273,208 @@ public class GroupDataGenerator {
 		if(n == 0){
 			return;
 		}
-		
+
 		totalSearchCount += n;
-		
+		//모든 그룹을 미리 센 갯수로 집계했으면 문서별로 읽을 필요가 없다.
+		if(isAllPrecounted()){
+			return;
+		}
+
 		for (int k = 0; k < n; k++) {
 			RankInfo ri = rankInfoList[k];
 			int docNo = ri.docNo();
 			indexRef.read(ri.docNo());
-			
+
 			for(int i = 0; i < groupSize ;i++){
-				if(fieldIndexRefList[i] != null){
-					fieldIndexRefList[i].read(docNo);
+				if(groupFunctionList[i] == null || groupKeySizeList[i] == 0 || precountedList[i]){
+					continue;
+				}
+				if(paramReaderList[i] != null){
+					//메모리에 있는 파라미터 필드는 dataRef로 복사하지 않는다.
+					for (FieldIndexReader reader : paramReaderList[i]) {
+						reader.read(docNo);
+					}
 				}
-				redundancyCheck.clear();
-				while(indexRef.getDataRef(i).next()){
+				DataRef groupDataRef = indexRef.getDataRef(i);
+				//multi-value에 같은 그룹키가 여러번 들어있으면 한번만 집계한다.
+				boolean checkRedundancy = groupDataRef.count() > 1;
+				int[] ordinalMap = ordinalMapList[i];
+				int checkedCount = 0;
+				while(groupDataRef.next()){
 					//multi-value는 여러번..
-					BytesRef bytesRef = indexRef.getDataRef(i).bytesRef();
-					int groupNo = bytesRef.toIntValue();
-					for(GroupFunction groupFunction : groupFunctionList[i]){
+					int groupNo = groupDataRef.bytesRef().toIntValue();
+					if(ordinalMap != null){
+						groupNo = ordinalMap[groupNo];
+					}
+					if(checkRedundancy){
+						if(redundancyCheck[i] == null){
+							redundancyCheck[i] = new BitSet(groupKeySizeList[i]);
+						}
+						if(redundancyCheck[i].get(groupNo)){
+							continue;
+						}
+						redundancyCheck[i].set(groupNo);
+						checkedGroupNoList = ArrayUtil.grow(checkedGroupNoList, checkedCount + 1);
+						checkedGroupNoList[checkedCount++] = groupNo;
+					}
+
+					GroupFunction[] functions = groupFunctionList[i];
+					for (int j = 0; j < functions.length; j++) {
+						GroupFunction groupFunction = functions[j];
 						if(groupFunction == null){
 							continue;
 						}
-						Object value = null;
-						if(groupFunction.fieldId != null){
-							DataRef dataRef = fieldBytesRefMap[i].get(groupFunction.fieldId);
-							dataRef.reset();
-							while(dataRef.next()){
-								value = dataRef.getValue();
-								if(value!=null && value instanceof String) {
-									String strValue = (String)value;
-									//trim nil character
-									int inx = strValue.indexOf('\0');
-									if(inx != -1) {
-										value = strValue.substring(0, inx);
-									}
-								}
-								groupFunction.addValue(groupNo, value);
+						NumericColumn column = functionColumnList[i][j];
+						if(column != null){
+							addPrimitiveValue((PrimitiveGroupFunction) groupFunction, groupNo, primitiveTypeList[i][j], column.get(docNo));
+							continue;
+						}
+						DataRef dataRef = functionDataRefList[i][j];
+						if(dataRef == null){
+//							logger.debug("doc {} add group value groupNo={}", docNo, groupNo);
+							groupFunction.addValue(groupNo, null);
+							continue;
+						}
+						Type primitiveType = primitiveTypeList[i][j];
+						dataRef.reset();
+						while(dataRef.next()){
+							if(primitiveType != null){
+								addPrimitiveValue((PrimitiveGroupFunction) groupFunction, groupNo, primitiveType, dataRef.bytesRef());
+							}else{
+								groupFunction.addValue(groupNo, readValue(dataRef, functionFieldTypeList[i][j]));
 							}
-						}else{
-//							logger.debug("doc {} add group value groupNo={} val={}", docNo, groupNo, value);
-							groupFunction.addValue(groupNo, value);
 						}
 					}
 				}
+				for (int c = 0; c < checkedCount; c++) {
+					redundancyCheck[i].clear(checkedGroupNoList[c]);
+				}
 			}
-			
+
 		}
-		
+
+	}
+
+	/**
+	 * 그룹의 function이 모두 파라미터 없는 COUNT이면 true. 문서별 값이 필요없으므로 미리 센 갯수를 사용할수 있다.
+	 * */
+	public boolean isCountOnly(int i) {
+		if(groupFunctionList[i] == null || groupKeySizeList[i] == 0){
+			return false;
+		}
+		boolean hasFunction = false;
+		for (GroupFunction groupFunction : groupFunctionList[i]) {
+			if(groupFunction == null){
+				continue;
+			}
+			if(!(groupFunction instanceof CountGroupFunction)){
+				return false;
+			}
+			hasFunction = true;
+		}
+		return hasFunction;
+	}
+	
+	/**
+	 * 현재 세그먼트에서 미리 센 그룹번호별 문서수를 더한다. 이 그룹은 세그먼트가 바뀔때까지 insert에서 집계하지 않는다.
+	 * */
+	public void addGroupCounts(int i, int[] counts) {
+		precountedList[i] = true;
+		int[] ordinalMap = ordinalMapList[i];
+		for (int groupNo = 0; groupNo < counts.length; groupNo++) {
+			int count = counts[groupNo];
+			if(count <= 0){
+				continue;
+			}
+			int targetGroupNo = ordinalMap != null ? ordinalMap[groupNo] : groupNo;
+			for (GroupFunction groupFunction : groupFunctionList[i]) {
+				if(groupFunction != null){
+					((CountGroupFunction) groupFunction).addCount(targetGroupNo, count);
+				}
+			}
+		}
+	}
+	
+	private boolean isAllPrecounted() {
+		for(int i = 0; i < groupSize ;i++){
+			if(groupFunctionList[i] != null && groupKeySizeList[i] != 0 && !precountedList[i]){
+				return false;
+			}
+		}
+		return true;
 	}
 	
+	/**
+	 * insert없이 검색결과 갯수만 더한다. 모든 그룹을 미리 센 갯수로 집계했을때 사용한다.
+	 * */
+	public void addSearchCount(int count) {
+		totalSearchCount += count;
+	}
+	
+	private void addPrimitiveValue(PrimitiveGroupFunction groupFunction, int groupNo, Type type, BytesRef bytesRef) {
+		if(type == Type.INT || type == Type.FLOAT){
+			addPrimitiveValue(groupFunction, groupNo, type, bytesRef.toIntValue());
+		}else{
+			addPrimitiveValue(groupFunction, groupNo, type, bytesRef.toLongValue());
+		}
+	}
+	
+	/*
+	 * value는 필드색인에 기록된 비트 그대로이다. int, float는 int비트, long, double은 long비트.
+	 */
+	private void addPrimitiveValue(PrimitiveGroupFunction groupFunction, int groupNo, Type type, long value) {
+		if(type == Type.INT){
+			groupFunction.addInt(groupNo, (int) value);
+		}else if(type == Type.LONG){
+			groupFunction.addLong(groupNo, value);
+		}else if(type == Type.FLOAT){
+			groupFunction.addDouble(groupNo, Float.intBitsToFloat((int) value));
+		}else{
+			groupFunction.addDouble(groupNo, Double.longBitsToDouble(value));
+		}
+	}
+
+	/*
+	 * 문자열은 nil 문자 앞까지만 읽는다.
+	 */
+	private Object readValue(DataRef dataRef, Type type) {
+		BytesRef bytesRef = dataRef.bytesRef();
+		if(type == Type.STRING){
+			stringBuffer = ArrayUtil.grow(stringBuffer, bytesRef.length / 2);
+			int length = 0;
+			for (int i = 0; i + 1 < bytesRef.length; i += 2) {
+				char ch = (char) IOUtil.readShort(bytesRef.bytes, bytesRef.offset + i);
+				if(ch == '\0'){
+					break;
+				}
+				stringBuffer[length++] = ch;
+			}
+			return new String(stringBuffer, 0, length);
+		}else if(type == Type.ASTRING){
+			stringBuffer = ArrayUtil.grow(stringBuffer, bytesRef.length);
+			int length = 0;
+			for (int i = 0; i < bytesRef.length; i++) {
+				byte b = bytesRef.bytes[bytesRef.offset + i];
+				if(b == 0){
+					break;
+				}
+				stringBuffer[length++] = (char) (b & 0xff);
+			}
+			return new String(stringBuffer, 0, length);
+		}
+		return dataRef.getValue();
+	}
+
 	//make an each group data
 	public GroupsData generate() throws IOException{
+		return generate(false);
+	}
+	
+	/**
+	 * selectCandidates가 true이면 값으로 정렬하고 limit이 있는 그룹은 Group.candidateSize()개의 후보만 남긴다.
+	 * 그룹키는 남은 후보에 대해서만 읽는다. 여러 세그먼트의 결과를 다시 합쳐야 하는 경우에는 false로 호출해야 한다.
+	 * */
+	public GroupsData generate(boolean selectCandidates) throws IOException{
 		List<GroupEntryList> result = new ArrayList<GroupEntryList>(groupSize);
 		
 		BytesRef keyBuffer = new BytesRef();
@@ -265,8 +500,15 @@ public class GroupDataGenerator {
 			Type fieldType = fieldSettingList[i].getType();
 			//group function 갯수만큼 []를 만든다.
 			int functionSize = groupFunctionList[i].length;
-			//모든 키에대해 검사를 수행한다.
-			for (int groupNo = 0; groupNo < groupKeySizeList[i]; groupNo++) {
+			int[] groupNoList = null;
+			int candidateSize = selectCandidates ? groupList.get(i).candidateSize() : 0;
+			if(candidateSize > 0){
+				groupNoList = selectCandidates(i, groupIndexReader, candidateSize, groupEntryList);
+			}
+			int loopSize = groupNoList != null ? groupNoList.length : groupKeySizeList[i];
+			//모든 키(또는 후보 키)에대해 검사를 수행한다.
+			for (int k = 0; k < loopSize; k++) {
+				int groupNo = groupNoList != null ? groupNoList[k] : k;
 				
 				GroupingValue[] valueList = new GroupingValue[functionSize];
 				
@@ -289,7 +531,10 @@ public class GroupDataGenerator {
 				if(hasValue){
 					String key = null;
 					
-					if(groupIndexReader.readKey(groupNo, keyBuffer)){
+					if(globalOrdinalsList != null){
+						globalOrdinalsList[i].readKey(groupNo, keyBuffer);
+						key = FieldDataStringer.parse(fieldType, keyBuffer);
+					}else if(groupIndexReader.readKey(groupNo, keyBuffer)){
 						key = FieldDataStringer.parse(fieldType, keyBuffer);
 					}
 //					logger.debug("groupEntryList.add {}, {}, {}", groupNo, key, valueList);
@@ -310,5 +555,54 @@ public class GroupDataGenerator {
 		//total frequency is no need now, because when merging total freq will be counted again. 
 		return new GroupsData(result, totalSearchCount);
 	}
+	
+	/*
+	 * 값이 있는 그룹번호중 첫번째 function의 값으로 상위 candidateSize개를 고른다. 값이 같으면 키 순서로 고른다.
+	 * 자르기전 키 갯수는 groupEntryList에 기록한다.
+	 * */
+	private int[] selectCandidates(int i, final GroupIndexReader groupIndexReader, int candidateSize, GroupEntryList groupEntryList) throws IOException {
+		GroupFunction[] functions = groupFunctionList[i];
+		GroupFunction sortFunction = null;
+		for (GroupFunction groupFunction : functions) {
+			if(groupFunction != null){
+				sortFunction = groupFunction;
+				break;
+			}
+		}
+		if(sortFunction == null){
+			return null;
+		}
+		final GroupFunction valueFunction = sortFunction;
+		final GlobalOrdinals globalOrdinals = globalOrdinalsList != null ? globalOrdinalsList[i] : null;
+		final Type fieldType = fieldSettingList[i].getType();
+		final BytesRef keyBuffer = new BytesRef();
+		TopGroupSelector selector = new TopGroupSelector(groupList.get(i).sortOrder() == Group.SORT_VALUE_ASC, candidateSize) {
+			@Override
+			protected int compareValue(int groupNo1, int groupNo2) {
+				return valueFunction.compareValue(groupNo1, groupNo2);
+			}
+
+			@Override
+			protected String readKey(int groupNo) throws IOException {
+				if(globalOrdinals != null){
+					globalOrdinals.readKey(groupNo, keyBuffer);
+				}else if(!groupIndexReader.readKey(groupNo, keyBuffer)){
+					return null;
+				}
+				return FieldDataStringer.parse(fieldType, keyBuffer);
+			}
+		};
+		int groupKeySize = groupKeySizeList[i];
+		for (int groupNo = 0; groupNo < groupKeySize; groupNo++) {
+			for (GroupFunction groupFunction : functions) {
+				if(groupFunction != null && !groupFunction.isEmpty(groupNo)){
+					selector.add(groupNo);
+					break;
+				}
+			}
+		}
+		groupEntryList.setKeyCount(selector.addCount());
+		return selector.groupNoList();
+	}
 
 }
@@ -16,6 +16,7 @@
 
 package org.fastcatsearch.ir.group;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -32,13 +33,17 @@ public class GroupDataMerger {
 	private int totalSearchCount;
 	private GroupEntry prevEntry;
 	private int groupSize;
+	private int[] keyCountList; //그룹별로 입력된 결과중 가장 큰 그룹키 갯수.
+	private List<Group> groupList;
 	
 	public GroupDataMerger(Groups groups, int segmentSize) {
 		groupSize = groups.size();
+		groupList = groups.getGroupList();
 		heapList = new FixedMinHeap[groupSize];
 		groupFunctionList = new GroupFunction[groupSize][];
+		keyCountList = new int[groupSize];
 		for (int i = 0; i < groupSize; i++) {
-			Group group = groups.getGroupList().get(i);
+			Group group = groupList.get(i);
 			heapList[i] = new FixedMinHeap<GroupDataReader>(segmentSize);
 			groupFunctionList[i] = group.function();
 		}
@@ -48,6 +53,7 @@ public class GroupDataMerger {
 		// push all reader to each heap
 		// Push if there is a next entry
 		// Calling 'next' makes reader start.
+		keyCountList[groupNum] = Math.max(keyCountList[groupNum], reader.keyCount());
 		if (reader.next()) {
 			totalSearchCount += reader.totalSearchCount();
 			heapList[groupNum].push(reader);
@@ -58,6 +64,7 @@ public class GroupDataMerger {
 		totalSearchCount += groupData.totalSearchCount();
 		for (int groupNum = 0; groupNum < groupData.groupSize(); groupNum++) {
 			GroupDataReader reader = groupData.getGroupDataReader(groupNum);
+			keyCountList[groupNum] = Math.max(keyCountList[groupNum], reader.keyCount());
 			if (reader.next()) {
 				heapList[groupNum].push(reader);
 			}
@@ -66,6 +73,14 @@ public class GroupDataMerger {
 	}
 
 	public GroupsData merge() {
+		return merge(false);
+	}
+	
+	/**
+	 * selectCandidates가 true이면 값으로 정렬하고 limit이 있는 그룹은 합친 결과에서 Group.candidateSize()개의 후보만 남긴다.
+	 * 컬렉션의 세그먼트 결과를 합칠때 사용하며, 노드 결과를 마지막으로 합칠때에는 false로 호출해야 한다.
+	 * */
+	public GroupsData merge(boolean selectCandidates) {
 
 		List<GroupEntryList> list = new ArrayList<GroupEntryList>(heapList.length);
 		for (int groupNum = 0; groupNum < groupSize; groupNum++) {
@@ -99,10 +114,48 @@ public class GroupDataMerger {
 //				logger.debug("groupEntryList.add3 {}", prevEntry);
 				groupEntryList.add(prevEntry);
 			}
+			//후보만 받은 경우 합친 갯수보다 실제 키가 많을수 있다. 정확한 갯수는 알수 없으므로 가장 큰 값을 사용한다.
+			groupEntryList.setKeyCount(keyCountList[groupNum]);
+			int candidateSize = selectCandidates ? groupList.get(groupNum).candidateSize() : 0;
+			if(candidateSize > 0 && groupEntryList.size() > candidateSize){
+				groupEntryList = selectCandidates(groupEntryList, groupList.get(groupNum).sortOrder(), candidateSize);
+			}
 
 			list.add(groupEntryList);
 		}
 		return new GroupsData(list, totalSearchCount);
 	}
+	
+	/*
+	 * 키 순서로 합쳐진 결과에서 첫번째 값으로 상위 candidateSize개를 고른다. 남은 결과도 키 순서를 유지한다.
+	 * */
+	private GroupEntryList selectCandidates(GroupEntryList groupEntryList, int sortOrder, int candidateSize) {
+		final List<GroupEntry> entryList = groupEntryList.getEntryList();
+		TopGroupSelector selector = new TopGroupSelector(sortOrder == Group.SORT_VALUE_ASC, candidateSize) {
+			@Override
+			protected int compareValue(int entryNo1, int entryNo2) {
+				return entryList.get(entryNo1).groupingValue[0].compareTo(entryList.get(entryNo2).groupingValue[0]);
+			}
+
+			@Override
+			protected String readKey(int entryNo) {
+				return entryList.get(entryNo).key;
+			}
+		};
+		try {
+			for (int entryNo = 0; entryNo < entryList.size(); entryNo++) {
+				selector.add(entryNo);
+			}
+		} catch (IOException e) {
+			//키를 메모리에서 읽으므로 발생하지 않는다.
+			logger.error("", e);
+		}
+		GroupEntryList candidateList = new GroupEntryList();
+		for (int entryNo : selector.groupNoList()) {
+			candidateList.add(entryList.get(entryNo));
+		}
+		candidateList.setKeyCount(groupEntryList.keyCount());
+		return candidateList;
+	}
 
 }
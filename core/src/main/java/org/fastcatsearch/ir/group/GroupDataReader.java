@@ -42,6 +42,9 @@ public class GroupDataReader implements Comparable<GroupDataReader>{
 	public int totalSearchCount(){
 		return totalSearchCount;
 	}
+	public int keyCount(){
+		return entryList.keyCount();
+	}
 	/**
 	 * 커서를 앞으로 한칸 전진시킨다. 
 	 * @return 엔트리를 읽을수 있는지 여부
@@ -30,6 +30,7 @@ import org.fastcatsearch.ir.query.Group;
 public class GroupEntryList {
 	private List<GroupEntry> entryList;
 	private int totalCount; //검색결과 갯수이며, 그룹핑 결과갯수는 아닌다.
+	private int keyCount = -1; //후보만 남기고 잘랐을때 자르기전 그룹키 갯수. -1이면 자르지 않은것이다.
 	
 	public GroupEntryList(){ }
 	
@@ -60,6 +61,17 @@ public class GroupEntryList {
 	public void setTotalCount(int totalCount){
 		this.totalCount = totalCount;
 	}
+	
+	/**
+	 * 값이 있는 그룹키 갯수. 후보만 남긴 경우에도 자르기전 갯수를 돌려준다.
+	 * */
+	public int keyCount(){
+		return keyCount > size() ? keyCount : size();
+	}
+	
+	public void setKeyCount(int keyCount){
+		this.keyCount = keyCount;
+	}
 	public void add(GroupEntry groupEntry) {
 		if(entryList == null){
 			entryList = new ArrayList<GroupEntry>(); 
@@ -56,6 +56,26 @@ public abstract class GroupFunction {
 		return valueList.length;
 	}
 	
+	/**
+	 * groupNo에 집계된 값이 없으면 true.
+	 */
+	public boolean isEmpty(int groupNo){
+		GroupingValue groupingValue = value(groupNo);
+		return groupingValue == null || groupingValue.isEmpty();
+	}
+	
+	/**
+	 * 두 그룹번호의 집계값을 비교한다. 값이 없는 그룹이 작다.
+	 */
+	public int compareValue(int groupNo1, int groupNo2){
+		boolean empty1 = isEmpty(groupNo1);
+		boolean empty2 = isEmpty(groupNo2);
+		if(empty1 || empty2){
+			return empty1 == empty2 ? 0 : (empty1 ? -1 : 1);
+		}
+		return value(groupNo1).compareTo(value(groupNo2));
+	}
+	
 	public String name(){
 		return functionName;
 	}
@@ -44,6 +44,11 @@ public abstract class GroupingValue<T> implements Comparable<GroupingValue<T>> {
 	
 	public abstract void setIfMax(T obj);
 	
+	/**
+	 * 입력값이 기존 값보다 작으면 교체한다. 초기값은 비어있는 값이므로 isEmpty이면 입력값으로 바꾼다.
+	 */
+	public abstract void setIfMin(T obj);
+	
 	public abstract void increment();
 	
 	public void reset() {
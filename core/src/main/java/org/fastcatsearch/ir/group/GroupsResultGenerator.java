@@ -16,6 +16,8 @@
 
 package org.fastcatsearch.ir.group;
 
+import java.util.Iterator;
+
 import org.fastcatsearch.ir.query.Group;
 import org.fastcatsearch.ir.query.Groups;
 import org.slf4j.Logger;
@@ -47,6 +49,12 @@ public class GroupsResultGenerator {
 			GroupFunction[] groupFunctionList = group.function();
 			int limit = group.limit();
 			
+			int keyCount = groupEntryList.keyCount();
+			//minCount보다 작은 그룹은 제외한다. 노드별 결과를 모두 합친후에 적용해야 정확하다.
+			if(group.minCount() > 0 && groupEntryList.size() > 0){
+				removeUnderMinCount(groupEntryList, group.minCount());
+			}
+			
 			//정렬
 			groupEntryList.sort(group.sortOrder());
 			
@@ -57,7 +65,7 @@ public class GroupsResultGenerator {
 				logger.debug("group#{} header >> {}", i, headerNameList[j]);
 			}
 			
-			int entryCount = groupEntryList.size();
+			int entryCount = group.minCount() > 0 ? groupEntryList.size() : keyCount;
 			limit = (limit > 0 && limit < groupEntryList.size()) ? limit : groupEntryList.size();
 			
 			//Fill GroupResult
@@ -78,4 +86,23 @@ public class GroupsResultGenerator {
 		return result;
 	}
 	
+	/*
+	 * 정렬값인 첫번째 grouping value가 minCount보다 작은 엔트리를 지운다.
+	 * */
+	private void removeUnderMinCount(GroupEntryList groupEntryList, int minCount) {
+		Iterator<GroupEntry> iterator = groupEntryList.getEntryList().iterator();
+		while(iterator.hasNext()){
+			GroupEntry e = iterator.next();
+			GroupingValue groupingValue = e.groupingValue[0];
+			if(groupingValue == null){
+				iterator.remove();
+				continue;
+			}
+			Object value = groupingValue.get();
+			if(value instanceof Number && ((Number) value).doubleValue() < minCount){
+				iterator.remove();
+			}
+		}
+	}
+	
 }
@@ -0,0 +1,149 @@
+package org.fastcatsearch.ir.group;
+
+import java.util.BitSet;
+
+import org.fastcatsearch.ir.group.value.DoubleGroupingValue;
+import org.fastcatsearch.ir.group.value.FloatGroupingValue;
+import org.fastcatsearch.ir.group.value.IntGroupingValue;
+import org.fastcatsearch.ir.group.value.LongGroupingValue;
+import org.fastcatsearch.ir.settings.FieldSetting.Type;
+
+/**
+ * 숫자형 값을 GroupingValue 객체 대신 그룹번호별 기본형 배열에 쌓는 group function.
+ *
+ * int는 int[], long은 long[], float와 double은 double[]에 누적하므로 문서마다 객체를 만들지 않는다.
+ * GroupingValue는 결과를 만들때 값이 있는 그룹번호에 대해서만 만든다.
+ * 숫자형이 아닌 필드는 init(GroupingValue[])로 초기화하여 기존처럼 addValue(int, Object)를 사용한다.
+ * */
+public abstract class PrimitiveGroupFunction extends GroupFunction {
+
+	protected Type valueType; //null이면 GroupingValue 배열을 사용한다.
+	protected int[] intValues;
+	protected long[] longValues;
+	protected double[] doubleValues;
+	protected BitSet hasValue; //max, min, first처럼 첫 값을 구분해야 하는 경우 사용.
+
+	public PrimitiveGroupFunction(String functionName, int sortOrder, String fieldId) {
+		super(functionName, sortOrder, fieldId);
+	}
+
+	public static boolean isSupported(Type type) {
+		return type == Type.INT || type == Type.LONG || type == Type.FLOAT || type == Type.DOUBLE;
+	}
+
+	/**
+	 * 그룹키 갯수만큼 기본형 배열을 만든다.
+	 */
+	public void init(Type valueType, int groupKeySize) {
+		this.valueType = valueType;
+		this.valueList = null;
+		if (valueType == Type.INT) {
+			intValues = new int[groupKeySize];
+		} else if (valueType == Type.LONG) {
+			longValues = new long[groupKeySize];
+		} else {
+			doubleValues = new double[groupKeySize];
+		}
+		hasValue = new BitSet(groupKeySize);
+	}
+
+	@Override
+	public void init(GroupingValue[] valueList) {
+		this.valueType = null;
+		super.init(valueList);
+	}
+
+	public Type valueType() {
+		return valueType;
+	}
+
+	public abstract void addInt(int groupNo, int value);
+
+	public abstract void addLong(int groupNo, long value);
+
+	public abstract void addDouble(int groupNo, double value);
+
+	@Override
+	public GroupingValue value(int groupNo) {
+		if (valueType == null) {
+			return super.value(groupNo);
+		}
+		if (!hasValue.get(groupNo)) {
+			return null;
+		}
+		if (valueType == Type.INT) {
+			return new IntGroupingValue(intValues[groupNo]);
+		} else if (valueType == Type.LONG) {
+			return new LongGroupingValue(longValues[groupNo]);
+		} else if (valueType == Type.FLOAT) {
+			return new FloatGroupingValue((float) doubleValues[groupNo]);
+		} else {
+			return new DoubleGroupingValue(doubleValues[groupNo]);
+		}
+	}
+
+	@Override
+	public boolean isEmpty(int groupNo) {
+		if (valueType == null) {
+			return super.isEmpty(groupNo);
+		}
+		//GroupingValue와 같이 0도 값이 없는것으로 본다.
+		if (!hasValue.get(groupNo)) {
+			return true;
+		} else if (valueType == Type.INT) {
+			return intValues[groupNo] == 0;
+		} else if (valueType == Type.LONG) {
+			return longValues[groupNo] == 0L;
+		} else {
+			return doubleValues[groupNo] == 0.0;
+		}
+	}
+
+	@Override
+	public int compareValue(int groupNo1, int groupNo2) {
+		if (valueType == null) {
+			return super.compareValue(groupNo1, groupNo2);
+		}
+		boolean empty1 = isEmpty(groupNo1);
+		boolean empty2 = isEmpty(groupNo2);
+		if (empty1 || empty2) {
+			return empty1 == empty2 ? 0 : (empty1 ? -1 : 1);
+		}
+		if (valueType == Type.INT) {
+			int value1 = intValues[groupNo1];
+			int value2 = intValues[groupNo2];
+			return value1 < value2 ? -1 : (value1 == value2 ? 0 : 1);
+		} else if (valueType == Type.LONG) {
+			long value1 = longValues[groupNo1];
+			long value2 = longValues[groupNo2];
+			return value1 < value2 ? -1 : (value1 == value2 ? 0 : 1);
+		} else {
+			return Double.compare(doubleValues[groupNo1], doubleValues[groupNo2]);
+		}
+	}
+
+	@Override
+	public GroupingValue[] valueList() {
+		if (valueType == null) {
+			return super.valueList();
+		}
+		GroupingValue[] list = new GroupingValue[valueSize()];
+		for (int groupNo = 0; groupNo < list.length; groupNo++) {
+			list[groupNo] = value(groupNo);
+		}
+		return list;
+	}
+
+	@Override
+	public int valueSize() {
+		if (valueType == null) {
+			return super.valueSize();
+		} else if (valueType == Type.INT) {
+			return intValues.length;
+		} else if (valueType == Type.LONG) {
+			return longValues.length;
+		} else {
+			return doubleValues.length;
+		}
+	}
+}
@@ -0,0 +1,133 @@
+package org.fastcatsearch.ir.group;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * group function 값으로 정렬할때 상위 size개의 그룹번호만 고른다.
+ *
+ * 모든 그룹키를 GroupEntry로 만들어 정렬하지 않고, 그룹번호 int 힙 하나로 후보를 유지한다.
+ * 힙의 root에는 후보중 가장 순위가 낮은 그룹번호가 있어서, 새 그룹이 root보다 나을때만 교체한다.
+ * 값이 같으면 키가 작은 쪽을 앞으로 본다. 결과를 합친후 값으로 정렬할때 키 순서가 유지되므로 같은 그룹이 남는다.
+ * 그룹번호는 세그먼트나 전역 그룹번호 등 호출하는 쪽의 번호이며, 값과 키는 compareValue, readKey로 구한다.
+ * */
+public abstract class TopGroupSelector {
+
+	private boolean ascending;
+	private int[] heap;
+	private String[] keys; //힙의 그룹번호와 같은 위치에 키를 둔다.
+	private int size;
+	private int addCount;
+
+	public TopGroupSelector(boolean ascending, int maxSize) {
+		this.ascending = ascending;
+		this.heap = new int[maxSize];
+		this.keys = new String[maxSize];
+	}
+
+	/**
+	 * 두 그룹번호의 정렬값을 비교한다.
+	 */
+	protected abstract int compareValue(int groupNo1, int groupNo2);
+
+	/**
+	 * 그룹번호의 키. 값이 같은 그룹의 순서를 정할때 사용한다.
+	 */
+	protected abstract String readKey(int groupNo) throws IOException;
+
+	public void add(int groupNo) throws IOException {
+		addCount++;
+		if (size < heap.length) {
+			heap[size] = groupNo;
+			keys[size] = readKey(groupNo);
+			upHeap(size++);
+		} else if (size > 0) {
+			int cmp = compareValue(heap[0], groupNo);
+			String key = null;
+			boolean isRootWorse;
+			if (cmp == 0) {
+				//값이 같을때만 키를 읽는다.
+				key = readKey(groupNo);
+				isRootWorse = compareKey(keys[0], key) > 0;
+			} else {
+				isRootWorse = ascending ? cmp > 0 : cmp < 0;
+			}
+			if (isRootWorse) {
+				heap[0] = groupNo;
+				keys[0] = key != null ? key : readKey(groupNo);
+				downHeap(0);
+			}
+		}
+	}
+
+	/**
+	 * add된 그룹번호 갯수. 잘리기 전의 그룹갯수이다.
+	 */
+	public int addCount() {
+		return addCount;
+	}
+
+	/**
+	 * 선택된 그룹번호를 오름차순으로 돌려준다.
+	 */
+	public int[] groupNoList() {
+		int[] list = Arrays.copyOf(heap, size);
+		Arrays.sort(list);
+		return list;
+	}
+
+	/*
+	 * a가 b보다 순위가 낮으면 true.
+	 */
+	private boolean isWorse(int a, String keyA, int b, String keyB) {
+		int cmp = compareValue(a, b);
+		if (cmp == 0) {
+			return compareKey(keyA, keyB) > 0;
+		}
+		return ascending ? cmp > 0 : cmp < 0;
+	}
+
+	/*
+	 * 키를 읽지 못한 그룹은 앞으로 본다.
+	 */
+	private int compareKey(String key1, String key2) {
+		if (key1 == null || key2 == null) {
+			return key1 == key2 ? 0 : (key1 == null ? -1 : 1);
+		}
+		return key1.compareTo(key2);
+	}
+
+	private void upHeap(int i) {
+		int node = heap[i];
+		String nodeKey = keys[i];
+		int parent = (i - 1) >>> 1;
+		while (i > 0 && isWorse(node, nodeKey, heap[parent], keys[parent])) {
+			heap[i] = heap[parent];
+			keys[i] = keys[parent];
+			i = parent;
+			parent = (i - 1) >>> 1;
+		}
+		heap[i] = node;
+		keys[i] = nodeKey;
+	}
+
+	private void downHeap(int i) {
+		int node = heap[i];
+		String nodeKey = keys[i];
+		int child = 2 * i + 1;
+		while (child < size) {
+			if (child + 1 < size && isWorse(heap[child + 1], keys[child + 1], heap[child], keys[child])) {
+				child++;
+			}
+			if (!isWorse(heap[child], keys[child], node, nodeKey)) {
+				break;
+			}
+			heap[i] = heap[child];
+			keys[i] = keys[child];
+			i = child;
+			child = 2 * i + 1;
+		}
+		heap[i] = node;
+		keys[i] = nodeKey;
+	}
+}
@@ -16,9 +16,9 @@
 
 package org.fastcatsearch.ir.group.function;
 
-import org.fastcatsearch.ir.group.GroupFunction;
+import org.fastcatsearch.ir.group.PrimitiveGroupFunction;
 
-public class CountGroupFunction extends GroupFunction {
+public class CountGroupFunction extends PrimitiveGroupFunction {
 
 	public final static String FUNCTION_NAME = "COUNT";
 
@@ -28,7 +28,41 @@ public class CountGroupFunction extends GroupFunction {
 
 	@Override
 	public void addValue(int groupNo, Object value) {
-		valueList[groupNo].increment();
+		if (valueType != null) {
+			intValues[groupNo]++;
+			hasValue.set(groupNo);
+		} else {
+			valueList[groupNo].increment();
+		}
+	}
+
+	/**
+	 * 미리 세어둔 문서수를 한번에 더한다.
+	 */
+	public void addCount(int groupNo, int count) {
+		if (valueType != null) {
+			intValues[groupNo] += count;
+			hasValue.set(groupNo);
+		} else {
+			for (int i = 0; i < count; i++) {
+				valueList[groupNo].increment();
+			}
+		}
+	}
+
+	@Override
+	public void addInt(int groupNo, int value) {
+		addValue(groupNo, null);
+	}
+
+	@Override
+	public void addLong(int groupNo, long value) {
+		addValue(groupNo, null);
+	}
+
+	@Override
+	public void addDouble(int groupNo, double value) {
+		addValue(groupNo, null);
 	}
 
 	@Override
@@ -16,9 +16,9 @@
 
 package org.fastcatsearch.ir.group.function;
 
-import org.fastcatsearch.ir.group.GroupFunction;
+import org.fastcatsearch.ir.group.PrimitiveGroupFunction;
 
-public class FirstValueGroupFunction extends GroupFunction {
+public class FirstValueGroupFunction extends PrimitiveGroupFunction {
 
 	private final static String FUNCTION_NAME = "FIRSTVALUE";
 
@@ -33,6 +33,30 @@ public class FirstValueGroupFunction extends GroupFunction {
 		}
 	}
 
+	@Override
+	public void addInt(int groupNo, int value) {
+		if (!hasValue.get(groupNo)) {
+			intValues[groupNo] = value;
+			hasValue.set(groupNo);
+		}
+	}
+
+	@Override
+	public void addLong(int groupNo, long value) {
+		if (!hasValue.get(groupNo)) {
+			longValues[groupNo] = value;
+			hasValue.set(groupNo);
+		}
+	}
+
+	@Override
+	public void addDouble(int groupNo, double value) {
+		if (!hasValue.get(groupNo)) {
+			doubleValues[groupNo] = value;
+			hasValue.set(groupNo);
+		}
+	}
+
 	@Override
 	public String getHeaderName() {
 		return FUNCTION_NAME + "_" + fieldId;
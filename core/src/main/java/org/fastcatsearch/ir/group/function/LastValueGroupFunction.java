@@ -16,9 +16,9 @@
 
 package org.fastcatsearch.ir.group.function;
 
-import org.fastcatsearch.ir.group.GroupFunction;
+import org.fastcatsearch.ir.group.PrimitiveGroupFunction;
 
-public class LastValueGroupFunction extends GroupFunction {
+public class LastValueGroupFunction extends PrimitiveGroupFunction {
 
 	private final static String FUNCTION_NAME = "LASTVALUE";
 
@@ -31,6 +31,24 @@ public class LastValueGroupFunction extends GroupFunction {
 		valueList[groupNo].set(value);
 	}
 
+	@Override
+	public void addInt(int groupNo, int value) {
+		intValues[groupNo] = value;
+		hasValue.set(groupNo);
+	}
+
+	@Override
+	public void addLong(int groupNo, long value) {
+		longValues[groupNo] = value;
+		hasValue.set(groupNo);
+	}
+
+	@Override
+	public void addDouble(int groupNo, double value) {
+		doubleValues[groupNo] = value;
+		hasValue.set(groupNo);
+	}
+
 	@Override
 	public String getHeaderName() {
 		return FUNCTION_NAME + "_" + fieldId;
@@ -16,9 +16,9 @@
 
 package org.fastcatsearch.ir.group.function;
 
-import org.fastcatsearch.ir.group.GroupFunction;
+import org.fastcatsearch.ir.group.PrimitiveGroupFunction;
 
-public class MaxGroupFunction extends GroupFunction {
+public class MaxGroupFunction extends PrimitiveGroupFunction {
 
 	private final static String FUNCTION_NAME = "MAX";
 
@@ -31,6 +31,30 @@ public class MaxGroupFunction extends GroupFunction {
 		valueList[groupNo].setIfMax(value);
 	}
 
+	@Override
+	public void addInt(int groupNo, int value) {
+		if (!hasValue.get(groupNo) || value > intValues[groupNo]) {
+			intValues[groupNo] = value;
+			hasValue.set(groupNo);
+		}
+	}
+
+	@Override
+	public void addLong(int groupNo, long value) {
+		if (!hasValue.get(groupNo) || value > longValues[groupNo]) {
+			longValues[groupNo] = value;
+			hasValue.set(groupNo);
+		}
+	}
+
+	@Override
+	public void addDouble(int groupNo, double value) {
+		if (!hasValue.get(groupNo) || value > doubleValues[groupNo]) {
+			doubleValues[groupNo] = value;
+			hasValue.set(groupNo);
+		}
+	}
+
 	@Override
 	public String getHeaderName() {
 		return FUNCTION_NAME + "_" + fieldId;
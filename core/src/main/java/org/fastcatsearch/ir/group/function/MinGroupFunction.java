@@ -0,0 +1,71 @@
+/*
+ * Copyright 2013 Websquared, Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.fastcatsearch.ir.group.function;
+
+import org.fastcatsearch.ir.group.PrimitiveGroupFunction;
+
+public class MinGroupFunction extends PrimitiveGroupFunction {
+
+	private final static String FUNCTION_NAME = "MIN";
+
+	public MinGroupFunction(int sortOrder, String fieldId) {
+		super(FUNCTION_NAME, sortOrder, fieldId);
+	}
+
+	@Override
+	public void addValue(int groupNo, Object value) {
+		if (value == null) {
+			return;
+		}
+		valueList[groupNo].setIfMin(value);
+	}
+
+	@Override
+	public void addInt(int groupNo, int value) {
+		if (!hasValue.get(groupNo) || value < intValues[groupNo]) {
+			intValues[groupNo] = value;
+			hasValue.set(groupNo);
+		}
+	}
+
+	@Override
+	public void addLong(int groupNo, long value) {
+		if (!hasValue.get(groupNo) || value < longValues[groupNo]) {
+			longValues[groupNo] = value;
+			hasValue.set(groupNo);
+		}
+	}
+
+	@Override
+	public void addDouble(int groupNo, double value) {
+		if (!hasValue.get(groupNo) || value < doubleValues[groupNo]) {
+			doubleValues[groupNo] = value;
+			hasValue.set(groupNo);
+		}
+	}
+
+	@Override
+	public String getHeaderName() {
+		return FUNCTION_NAME + "_" + fieldId;
+	}
+
+	@Override
+	public void done() {
+		
+	}
+
+}
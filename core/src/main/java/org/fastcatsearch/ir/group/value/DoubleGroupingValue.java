@@ -31,6 +31,20 @@ public class DoubleGroupingValue extends GroupingValue<Double> {
 		}
 	}
 
+	@Override
+	public void setIfMin(Double obj) {
+		if (isEmpty()) {
+			value = obj;
+		} else {
+			double o = obj;
+			double r = (Double) value;
+			// 입력값이 기존 값보다 작으면 교체한다.
+			if (o < r) {
+				value = o;
+			}
+		}
+	}
+
 	@Override
 	public void increment() {
 		value++;
@@ -29,6 +29,18 @@ public class StringGroupingValue extends GroupingValue<String> {
 		}
 	}
 	
+	@Override
+	public void setIfMin(String obj) {
+		if (isEmpty()) {
+			value = obj;
+		} else {
+			// 입력값이 기존 값보다 작으면 교체한다.
+			if(obj.compareTo(value) < 0) {
+				value = obj;
+			}
+		}
+	}
+	
 	@Override
 	public void increment() { }
 
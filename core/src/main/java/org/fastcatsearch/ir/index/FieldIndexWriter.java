@@ -23,6 +23,7 @@ import java.util.Map;
 
 import org.fastcatsearch.ir.common.IRException;
 import org.fastcatsearch.ir.common.IndexFileNames;
+import org.fastcatsearch.ir.config.DataInfo.FieldStat;
 import org.fastcatsearch.ir.document.Document;
 import org.fastcatsearch.ir.field.Field;
 import org.fastcatsearch.ir.field.FieldDataWriter;
@@ -49,6 +50,9 @@ public class FieldIndexWriter implements WriteInfoLoggable {
 	private int limitSize;
 	private int fieldSequence;
 	private boolean isIgnoreCase;
+	private File dir;
+	//숫자형 단일값 필드이면 close시 범위검색용 point 색인을 만든다.
+	private PointIndexWriter pointIndexWriter;
 
 	public FieldIndexWriter(FieldIndexSetting fieldIndexSetting, Map<String, FieldSetting> fieldSettingMap, Map<String, Integer> fieldSequenceMap,
 			File dir) throws IOException, IRException {
@@ -72,6 +76,10 @@ public class FieldIndexWriter implements WriteInfoLoggable {
 		if (isMultiValue) {
 			multiValueOutput = new BufferedFileOutput(dir, IndexFileNames.getMultiValueFileName(IndexFileNames.getFieldIndexFileName(id)), isAppend);
 		}
+		this.dir = dir;
+		if (PointIndexWriter.isSupported(refFieldSetting)) {
+			pointIndexWriter = new PointIndexWriter(refFieldSetting.getType(), refFieldSetting.getByteSize());
+		}
 
 	}
 
@@ -128,6 +136,20 @@ public class FieldIndexWriter implements WriteInfoLoggable {
 		if (isMultiValue) {
 			multiValueOutput.close();
 		}
+		
+		if (pointIndexWriter != null) {
+			pointIndexWriter.write(new File(dir, IndexFileNames.getFieldIndexFileName(indexId)), new File(dir, IndexFileNames.getFieldIndexPointFileName(indexId)));
+		}
+	}
+
+	/**
+	 * close후 세그먼트 전체문서의 최소,최대값을 리턴한다. point 색인이 없는 필드이거나 문서가 없으면 null.
+	 */
+	public FieldStat fieldStat() {
+		if (pointIndexWriter == null || pointIndexWriter.docCount() == 0) {
+			return null;
+		}
+		return new FieldStat(indexId, pointIndexWriter.minKey(), pointIndexWriter.maxKey());
 	}
 
 	@Override
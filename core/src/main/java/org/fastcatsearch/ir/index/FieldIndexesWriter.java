@@ -6,6 +6,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.fastcatsearch.ir.common.IRException;
+import org.fastcatsearch.ir.config.DataInfo.FieldStat;
 import org.fastcatsearch.ir.config.DataInfo.RevisionInfo;
 import org.fastcatsearch.ir.document.Document;
 import org.fastcatsearch.ir.settings.FieldIndexSetting;
@@ -20,6 +21,7 @@ public class FieldIndexesWriter implements WriteInfoLoggable {
 	private static Logger logger = LoggerFactory.getLogger(FieldIndexesWriter.class);
 	private FieldIndexWriter[] fieldIndexWriterList;
 	private int indexSize;
+	private RevisionInfo revisionInfo;
 
 	public FieldIndexesWriter(Schema schema, File dir, RevisionInfo revisionInfo) throws IOException, IRException {
 		this(schema, dir, revisionInfo, null);
@@ -29,6 +31,9 @@ public class FieldIndexesWriter implements WriteInfoLoggable {
 		int totalSize = fieldIndexSettingList == null ? 0 : fieldIndexSettingList.size();
 		
 		boolean isAppend = revisionInfo.isAppend();
+		this.revisionInfo = revisionInfo;
+		//이전 revision에서 복사된 통계는 이번 색인결과로 다시 만든다.
+		revisionInfo.setFieldStatList(null);
 		
 		List<FieldIndexWriter> list = new ArrayList<FieldIndexWriter>();
 		for (int i = 0; i < totalSize; i++) {
@@ -59,6 +64,10 @@ public class FieldIndexesWriter implements WriteInfoLoggable {
 	public void close() throws IOException {
 		for (int i = 0; i < indexSize; i++) {
 			fieldIndexWriterList[i].close();
+			FieldStat fieldStat = fieldIndexWriterList[i].fieldStat();
+			if (fieldStat != null) {
+				revisionInfo.addFieldStat(fieldStat);
+			}
 		}
 	}
 
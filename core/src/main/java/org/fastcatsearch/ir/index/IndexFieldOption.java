@@ -3,6 +3,14 @@ package org.fastcatsearch.ir.index;
 public class IndexFieldOption {
 	
 	public static final int STORE_POSITION = 1 << 1;
+	//포스팅이 PostingBlockWriter의 블럭압축 형식으로 기록되어 있다. 없으면 이전 버전의 VInt 형식이다.
+	public static final int BLOCK_POSTING = 1 << 3;
+	//블럭 포스팅의 위치정보가 별도의 position 파일에 기록되어 있다. BLOCK_POSTING, STORE_POSITION 일때만 의미가 있다.
+	public static final int POSITION_FILE = 1 << 4;
+	//블럭 포스팅 앞에 단어의 최대 tf가 기록되어 있다. 검색시 단어의 최대점수를 계산하는데 사용한다. BLOCK_POSTING 일때만 의미가 있다.
+	public static final int STORE_MAX_TF = 1 << 5;
+	//단어의 모든 suffix로 만든 suffix 사전이 기록되어 있다. suffix, 중간일치 검색에 사용한다.
+	public static final int STORE_SUFFIX = 1 << 6;
 	
 	private int optionValue;
 	
@@ -27,6 +35,41 @@ public class IndexFieldOption {
 		return (optionValue & STORE_POSITION) > 0 ;
 	}
 	
+	public void setBlockPosting(){
+		optionValue |= BLOCK_POSTING;
+	}
+	
+	public boolean isBlockPosting(){
+		return (optionValue & BLOCK_POSTING) > 0 ;
+	}
+	
+	public void setPositionFile(){
+		optionValue |= POSITION_FILE;
+	}
+	
+	/**
+	 * 위치정보를 position 파일에서 읽어야 하는지 여부.
+	 * */
+	public boolean isPositionFile(){
+		return (optionValue & POSITION_FILE) > 0 && isBlockPosting() && isStorePosition();
+	}
+	
+	public void setStoreMaxTf(){
+		optionValue |= STORE_MAX_TF;
+	}
+	
+	public boolean isStoreMaxTf(){
+		return (optionValue & STORE_MAX_TF) > 0 && isBlockPosting();
+	}
+	
+	public void setStoreSuffix(){
+		optionValue |= STORE_SUFFIX;
+	}
+	
+	public boolean isStoreSuffix(){
+		return (optionValue & STORE_SUFFIX) > 0;
+	}
+	
 	public boolean equals(Object obj){
 		IndexFieldOption other = (IndexFieldOption) obj;
 		return optionValue == other.optionValue;
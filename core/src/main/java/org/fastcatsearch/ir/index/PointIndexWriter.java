@@ -0,0 +1,168 @@
+package org.fastcatsearch.ir.index;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.lucene.util.SorterTemplate;
+import org.fastcatsearch.ir.io.BufferedFileInput;
+import org.fastcatsearch.ir.io.BufferedFileOutput;
+import org.fastcatsearch.ir.io.IOUtil;
+import org.fastcatsearch.ir.io.IndexInput;
+import org.fastcatsearch.ir.io.IndexOutput;
+import org.fastcatsearch.ir.settings.FieldSetting;
+
+/**
+ * 숫자형 필드색인의 값을 정렬하여 범위검색용 point 색인을 만든다.
+ *
+ * 값은 크기순서가 유지되는 long 키로 바꾸고, (키, 문서번호) 순으로 정렬하여 기록한다.
+ * 범위에 속하는 문서는 정렬된 배열에서 연속되므로, 범위의 시작과 끝만 찾으면 문서번호를 한번에 읽을수 있다.
+ * 블럭마다 첫 키를 따로 기록하여 검색시 블럭 키만 메모리에 올려 찾을 블럭을 정한다.
+ *
+ * 파일형식 : [문서수 int][블럭크기 int][블럭수 int][블럭 첫키 long...][키 long...][문서번호 int...]
+ * 필드색인 전체를 다시 읽어 만들므로, 추가색인으로 필드색인이 늘어나도 항상 전체 문서를 포함한다.
+ * @see org.fastcatsearch.ir.search.PointIndexReader
+ * */
+public class PointIndexWriter {
+	public static final int DEFAULT_BLOCK_SIZE = 512;
+
+	private FieldSetting.Type type;
+	private int dataSize;
+	private int blockSize;
+	private int docCount;
+	private long minKey;
+	private long maxKey;
+
+	public PointIndexWriter(FieldSetting.Type type, int dataSize) {
+		this(type, dataSize, DEFAULT_BLOCK_SIZE);
+	}
+
+	public PointIndexWriter(FieldSetting.Type type, int dataSize, int blockSize) {
+		this.type = type;
+		this.dataSize = dataSize;
+		this.blockSize = blockSize;
+	}
+
+	/**
+	 * point 색인을 만들수 있는 필드인지 여부. 단일값 숫자형 필드만 가능하다.
+	 */
+	public static boolean isSupported(FieldSetting fieldSetting) {
+		if (fieldSetting.isMultiValue()) {
+			return false;
+		}
+		FieldSetting.Type type = fieldSetting.getType();
+		return type == FieldSetting.Type.INT || type == FieldSetting.Type.LONG || type == FieldSetting.Type.FLOAT || type == FieldSetting.Type.DOUBLE
+				|| type == FieldSetting.Type.DATETIME;
+	}
+
+	/**
+	 * 필드색인에 기록된 값을 크기순서가 유지되는 long으로 바꾼다.
+	 * 실수형은 음수의 비트를 뒤집어 정수처럼 비교할수 있게 한다.
+	 */
+	public static long sortableKey(FieldSetting.Type type, byte[] data, int offset) {
+		switch (type) {
+		case INT:
+			return IOUtil.readInt(data, offset);
+		case FLOAT:
+			int intBits = IOUtil.readInt(data, offset);
+			return intBits ^ ((intBits >> 31) & 0x7fffffff);
+		case DOUBLE:
+			long longBits = IOUtil.readLong(data, offset);
+			return longBits ^ ((longBits >> 63) & 0x7fffffffffffffffL);
+		default:
+			return IOUtil.readLong(data, offset);
+		}
+	}
+
+	public void write(File dataFile, File pointFile) throws IOException {
+		docCount = (int) (dataFile.length() / dataSize);
+		final long[] keys = new long[docCount];
+		final int[] docs = new int[docCount];
+		IndexInput dataInput = new BufferedFileInput(dataFile);
+		try {
+			byte[] data = new byte[dataSize];
+			for (int docNo = 0; docNo < docCount; docNo++) {
+				dataInput.readBytes(data, 0, dataSize);
+				keys[docNo] = sortableKey(type, data, 0);
+				docs[docNo] = docNo;
+			}
+		} finally {
+			dataInput.close();
+		}
+
+		new SorterTemplate() {
+			private long pivotKey;
+			private int pivotDoc;
+
+			@Override
+			protected void swap(int i, int j) {
+				long key = keys[i];
+				keys[i] = keys[j];
+				keys[j] = key;
+				int doc = docs[i];
+				docs[i] = docs[j];
+				docs[j] = doc;
+			}
+
+			@Override
+			protected int compare(int i, int j) {
+				return compareEntry(keys[i], docs[i], keys[j], docs[j]);
+			}
+
+			@Override
+			protected void setPivot(int i) {
+				pivotKey = keys[i];
+				pivotDoc = docs[i];
+			}
+
+			@Override
+			protected int comparePivot(int j) {
+				return compareEntry(pivotKey, pivotDoc, keys[j], docs[j]);
+			}
+		}.quickSort(0, docCount - 1);
+		if (docCount > 0) {
+			minKey = keys[0];
+			maxKey = keys[docCount - 1];
+		}
+
+		int blockCount = (docCount + blockSize - 1) / blockSize;
+		IndexOutput output = new BufferedFileOutput(pointFile);
+		try {
+			output.writeInt(docCount);
+			output.writeInt(blockSize);
+			output.writeInt(blockCount);
+			for (int i = 0; i < blockCount; i++) {
+				output.writeLong(keys[i * blockSize]);
+			}
+			for (int i = 0; i < docCount; i++) {
+				output.writeLong(keys[i]);
+			}
+			for (int i = 0; i < docCount; i++) {
+				output.writeInt(docs[i]);
+			}
+		} finally {
+			output.close();
+		}
+	}
+
+	/**
+	 * write한 문서수. 이후 minKey, maxKey는 문서가 있을때만 유효하다.
+	 */
+	public int docCount() {
+		return docCount;
+	}
+
+	public long minKey() {
+		return minKey;
+	}
+
+	public long maxKey() {
+		return maxKey;
+	}
+
+	private static int compareEntry(long key1, int doc1, long key2, int doc2) {
+		if (key1 != key2) {
+			return key1 < key2 ? -1 : 1;
+		}
+		return doc1 - doc2;
+	}
+}
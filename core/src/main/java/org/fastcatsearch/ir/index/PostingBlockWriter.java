@@ -0,0 +1,234 @@
+package org.fastcatsearch.ir.index;
+
+import java.io.IOException;
+
+import org.fastcatsearch.ir.io.BytesDataOutput;
+import org.fastcatsearch.ir.io.DataOutput;
+import org.fastcatsearch.ir.io.IOUtil;
+import org.fastcatsearch.ir.io.PForCodec;
+
+/**
+ * VInt로 기록된 포스팅 데이터를 BLOCK_SIZE 문서단위의 블럭으로 압축한다.
+ * 문서번호 delta와 tf는 각각 PFor로 묶어서 기록하며, 블럭헤더의 마지막 문서번호와 블럭길이를 이용해 블럭단위로 건너뛸수 있다.
+ *
+ * 블럭형식 : VInt 블럭 마지막문서번호 delta, VInt 블럭길이, PFor(문서번호 delta), PFor(tf), [positions]
+ * 문서번호 delta는 이전 문서번호와의 차이 - 1 이며, 첫 블럭의 이전 문서번호는 -1로 본다.
+ * positions는 VInt 형식 그대로 블럭 문서순서대로 붙여서 기록한다.
+ *
+ * position 파일을 사용할 경우(IndexFieldOption.isPositionFile) positions는 블럭에 넣지 않고 position 파일에 기록한다.
+ * 이때 포스팅 앞에 long position 파일위치, int position 길이를 기록하고, 블럭헤더에는 VInt 블럭 position 길이가 추가된다.
+ * 단어의 position은 position 파일에 연속으로 기록되므로 블럭 position 길이를 누적하면 블럭의 position 위치를 알수 있다.
+ *
+ * 최대 tf를 기록할 경우(IndexFieldOption.isStoreMaxTf) 포스팅 맨앞에 int 최대 tf를 기록한다.
+ * 포스팅 헤더순서 : [int 최대 tf], [long position 파일위치, int position 길이], 블럭들
+ * */
+public class PostingBlockWriter {
+
+	public static final int BLOCK_SIZE = PForCodec.MAX_BLOCK_SIZE;
+	//position 파일을 사용할 경우 포스팅 앞에 붙는 헤더 길이. (long position 파일위치, int position 길이)
+	public static final int POSITION_HEADER_SIZE = IOUtil.SIZE_OF_LONG + IOUtil.SIZE_OF_INT;
+
+	private boolean isStorePosition;
+	private boolean isPositionFile;
+	private BytesDataOutput postingOutput;
+	private BytesDataOutput blockOutput;
+	private BytesDataOutput positionOutput;
+	private int[] docBuffer;
+	private int[] tfBuffer;
+	private int blockCount;
+	private int dataLength;
+	private int positionLength;
+	private boolean isStoreMaxTf;
+	private int maxTf;
+	private int headerSize;
+
+	public PostingBlockWriter(IndexFieldOption indexFieldOption) {
+		this.isStorePosition = indexFieldOption.isStorePosition();
+		this.isPositionFile = indexFieldOption.isPositionFile();
+		this.isStoreMaxTf = indexFieldOption.isStoreMaxTf();
+		this.headerSize = headerSize(indexFieldOption);
+		postingOutput = new BytesDataOutput(1024);
+		blockOutput = new BytesDataOutput(1024);
+		positionOutput = new BytesDataOutput(1024);
+		docBuffer = new int[BLOCK_SIZE];
+		tfBuffer = new int[BLOCK_SIZE];
+	}
+
+	/**
+	 * VInt 포스팅 데이터(count, lastDocNo 헤더를 제외한 문서데이터)를 읽어서 블럭으로 만든다.
+	 * */
+	public void make(byte[] data, int offset, int length, int count) throws IOException {
+		postingOutput.reset();
+		positionOutput.reset();
+		blockCount = 0;
+		dataLength = 0;
+		positionLength = 0;
+		maxTf = 0;
+
+		int pos = offset;
+		int limit = offset + length;
+		int prevId = -1;
+		int lastBlockDocNo = -1;
+		int blockPositionStart = 0;
+		int n = 0;
+		for (int i = 0; i < count && pos < limit; i++) {
+			int delta = IOUtil.readVInt(data, pos);
+			pos += IOUtil.lenVariableByte(delta);
+			int docId = prevId >= 0 ? delta + prevId + 1 : delta;
+			int tf = IOUtil.readVInt(data, pos);
+			pos += IOUtil.lenVariableByte(tf);
+			if (tf > maxTf) {
+				maxTf = tf;
+			}
+			if (tf > 0 && isStorePosition) {
+				int start = pos;
+				for (int j = 0; j < tf; j++) {
+					pos += IOUtil.lenVariableByte(IOUtil.readVInt(data, pos));
+				}
+				positionOutput.writeBytes(data, start, pos - start);
+			}
+			docBuffer[n] = docId - prevId - 1;
+			tfBuffer[n] = tf;
+			n++;
+			prevId = docId;
+
+			if (n == BLOCK_SIZE) {
+				blockPositionStart = writeBlock(n, prevId - lastBlockDocNo, blockPositionStart);
+				lastBlockDocNo = prevId;
+				n = 0;
+			}
+		}
+		if (n > 0) {
+			blockPositionStart = writeBlock(n, prevId - lastBlockDocNo, blockPositionStart);
+		}
+		dataLength = (int) postingOutput.position();
+		if (isPositionFile) {
+			positionLength = (int) positionOutput.position();
+		}
+	}
+
+	// 블럭을 기록하고 다음 블럭의 position 시작위치를 리턴한다.
+	private int writeBlock(int n, int lastDocDelta, int blockPositionStart) throws IOException {
+		blockOutput.reset();
+		PForCodec.encode(docBuffer, n, blockOutput);
+		PForCodec.encode(tfBuffer, n, blockOutput);
+		int blockPositionLength = 0;
+		if (isPositionFile) {
+			//position은 계속 쌓아두었다가 position 파일에 한번에 기록한다.
+			blockPositionLength = (int) positionOutput.position() - blockPositionStart;
+		} else if (isStorePosition) {
+			blockOutput.writeBytes(positionOutput.array(), 0, (int) positionOutput.position());
+			positionOutput.reset();
+		}
+		int blockLength = (int) blockOutput.position();
+		postingOutput.writeVInt(lastDocDelta);
+		postingOutput.writeVInt(blockLength);
+		if (isPositionFile) {
+			postingOutput.writeVInt(blockPositionLength);
+		}
+		postingOutput.writeBytes(blockOutput.array(), 0, blockLength);
+		blockCount++;
+		return blockPositionStart + blockPositionLength;
+	}
+
+	/**
+	 * 포스팅 데이터의 전체 바이트 길이. 최대 tf, position 헤더길이가 포함된다.
+	 * */
+	public int length() {
+		return headerSize + dataLength;
+	}
+
+	public int maxTf() {
+		return maxTf;
+	}
+
+	/**
+	 * 블럭 앞에 붙는 포스팅 헤더의 길이.
+	 * */
+	public static int headerSize(IndexFieldOption indexFieldOption) {
+		int size = 0;
+		if (indexFieldOption.isStoreMaxTf()) {
+			size += IOUtil.SIZE_OF_INT;
+		}
+		if (indexFieldOption.isPositionFile()) {
+			size += POSITION_HEADER_SIZE;
+		}
+		return size;
+	}
+
+	public void write(DataOutput output) throws IOException {
+		write(output, null);
+	}
+
+	/**
+	 * 포스팅을 output에 기록한다. position 파일을 사용할 경우 position은 positionFileOutput의 현재위치에 기록된다.
+	 * */
+	public void write(DataOutput output, DataOutput positionFileOutput) throws IOException {
+		if (isStoreMaxTf) {
+			output.writeInt(maxTf);
+		}
+		if (isPositionFile) {
+			output.writeLong(positionFileOutput.position());
+			output.writeInt(positionLength);
+			positionFileOutput.writeBytes(positionOutput.array(), 0, positionLength);
+		}
+		output.writeBytes(postingOutput.array(), 0, dataLength);
+	}
+
+	public int blockCount() {
+		return blockCount;
+	}
+
+	/**
+	 * 블럭 포스팅 데이터를 다시 VInt 포스팅 데이터로 풀어서 output에 기록한다.
+	 * 기존 세그먼트에 포스팅을 이어붙일때 사용한다.
+	 * position 파일을 사용할 경우 positionData에는 해당 단어의 position 데이터 전체가 들어있어야 한다.
+	 * */
+	public static void decode(byte[] data, int offset, int length, int count, IndexFieldOption indexFieldOption, byte[] positionData, DataOutput output)
+			throws IOException {
+		boolean isStorePosition = indexFieldOption.isStorePosition();
+		boolean isPositionFile = indexFieldOption.isPositionFile();
+		int[] docBuffer = new int[BLOCK_SIZE];
+		int[] tfBuffer = new int[BLOCK_SIZE];
+		int pos = offset;
+		int limit = offset + length;
+		byte[] positionSource = data;
+		int positionPointer = 0;
+		pos += headerSize(indexFieldOption);
+		if (isPositionFile) {
+			positionSource = positionData;
+		}
+		int remain = count;
+		while (remain > 0 && pos < limit) {
+			int lastDocDelta = IOUtil.readVInt(data, pos);
+			pos += IOUtil.lenVariableByte(lastDocDelta);
+			int blockLength = IOUtil.readVInt(data, pos);
+			pos += IOUtil.lenVariableByte(blockLength);
+			if (isPositionFile) {
+				pos += IOUtil.lenVariableByte(IOUtil.readVInt(data, pos));
+			}
+			int n = remain < BLOCK_SIZE ? remain : BLOCK_SIZE;
+			pos = PForCodec.decode(data, pos, docBuffer, n);
+			pos = PForCodec.decode(data, pos, tfBuffer, n);
+			if (!isPositionFile) {
+				positionPointer = pos;
+			}
+			for (int i = 0; i < n; i++) {
+				//블럭의 delta는 VInt 포스팅의 delta와 같다.
+				output.writeVInt(docBuffer[i]);
+				output.writeVInt(tfBuffer[i]);
+				if (tfBuffer[i] > 0 && isStorePosition) {
+					int start = positionPointer;
+					for (int j = 0; j < tfBuffer[i]; j++) {
+						positionPointer += IOUtil.lenVariableByte(IOUtil.readVInt(positionSource, positionPointer));
+					}
+					output.writeBytes(positionSource, start, positionPointer - start);
+				}
+			}
+			if (!isPositionFile) {
+				pos = positionPointer;
+			}
+			remain -= n;
+		}
+	}
+}
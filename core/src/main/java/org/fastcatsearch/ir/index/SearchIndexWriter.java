@@ -89,12 +89,19 @@ public class SearchIndexWriter implements SingleIndexWriter {
 		int indexBucketSize = indexConfig.getIndexWorkBucketSize();
 
 		fieldIndexOption = new IndexFieldOption();
+		//블럭헤더로 건너뛸수 있으므로 별도의 skip 데이터는 기록하지 않는다.
+		fieldIndexOption.setBlockPosting();
+		fieldIndexOption.setStoreMaxTf();
 		if (indexSetting.isStorePosition()) {
 			memoryPosting = new MemoryPostingWithPosition(indexBucketSize, ignoreCase);
 			fieldIndexOption.setStorePosition();
+			fieldIndexOption.setPositionFile();
 		} else {
 			memoryPosting = new MemoryPosting(indexBucketSize, ignoreCase);
 		}
+		if (indexSetting.isStoreSuffix()) {
+			fieldIndexOption.setStoreSuffix();
+		}
 
 		List<IndexRefSetting> refList = indexSetting.getFieldList();
 		indexFieldSequence = new int[refList.size()];
@@ -0,0 +1,276 @@
+package org.fastcatsearch.ir.index;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.SorterTemplate;
+import org.fastcatsearch.ir.analysis.AnalyzerPoolManager;
+import org.fastcatsearch.ir.common.IRException;
+import org.fastcatsearch.ir.config.DataInfo.RevisionInfo;
+import org.fastcatsearch.ir.config.IndexConfig;
+import org.fastcatsearch.ir.config.IndexSort;
+import org.fastcatsearch.ir.document.Document;
+import org.fastcatsearch.ir.field.Field;
+import org.fastcatsearch.ir.io.BufferedFileInput;
+import org.fastcatsearch.ir.io.BufferedFileOutput;
+import org.fastcatsearch.ir.io.BytesDataOutput;
+import org.fastcatsearch.ir.settings.FieldSetting;
+import org.fastcatsearch.ir.settings.PrimaryKeySetting;
+import org.fastcatsearch.ir.settings.RefSetting;
+import org.fastcatsearch.ir.settings.Schema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 전체색인시 문서를 정렬필드 순서로 기록하는 세그먼트 writer.
+ * 들어온 문서는 임시파일에 필드의 원문과 파싱된 데이터를 그대로 쌓아두고, close시 정렬필드 값의 순서대로 다시 읽어 SegmentWriter에 기록한다.
+ * 원문은 문서저장과 같은 방식으로, 데이터는 Field.writeTo로 기록하므로 다시 파싱하지 않는다.
+ * 정렬키는 필드색인의 숫자 비교와 같도록 고정길이 데이터를 부호있는 정수로 읽은 값이며, 싱글밸류 숫자형 필드만 지원한다.
+ *
+ * 같은 pk의 문서는 마지막 문서가 남아야 하므로, 이전 문서들을 먼저 원래 순서로 기록하고 남는 문서를 정렬순서로 기록한다.
+ * */
+public class SortedSegmentWriter implements IndexWritable, WriteInfoLoggable {
+	private static Logger logger = LoggerFactory.getLogger(SortedSegmentWriter.class);
+
+	private static final String SPOOL_FILENAME = "sort.spool";
+	private static final int HAS_RAW = 1;
+	private static final int HAS_DATA = 2;
+
+	private SegmentWriter segmentWriter;
+	private List<FieldSetting> fieldSettingList;
+	private int sortFieldSequence;
+	private boolean asc;
+	private int[] primaryKeyFieldSequenceList;
+
+	private File spoolFile;
+	private BufferedFileOutput spoolOutput;
+	private BytesDataOutput keyOutput;
+	private long[] positionList;
+	private long[] keyList;
+	private int count;
+	private Map<String, Integer> lastSequenceMap;
+
+	public SortedSegmentWriter(Schema schema, File targetDir, RevisionInfo revisionInfo, IndexConfig indexConfig, AnalyzerPoolManager analyzerPoolManager,
+			SelectedIndexList selectedIndexList, IndexSort indexSort) throws IRException {
+		fieldSettingList = schema.schemaSetting().getFieldSettingList();
+		sortFieldSequence = schema.getFieldSequence(indexSort.fieldId());
+		asc = indexSort.asc();
+		if (sortFieldSequence < 0) {
+			throw new IRException("Unknown index sort field = " + indexSort.fieldId());
+		}
+		FieldSetting sortFieldSetting = fieldSettingList.get(sortFieldSequence);
+		if (!sortFieldSetting.isNumericField() || sortFieldSetting.isMultiValue()) {
+			throw new IRException("Index sort field must be single value numeric field. field = " + indexSort.fieldId());
+		}
+
+		PrimaryKeySetting primaryKeySetting = schema.schemaSetting().getPrimaryKeySetting();
+		if (primaryKeySetting != null && primaryKeySetting.getFieldList() != null && primaryKeySetting.getFieldList().size() > 0) {
+			List<RefSetting> refList = primaryKeySetting.getFieldList();
+			primaryKeyFieldSequenceList = new int[refList.size()];
+			for (int i = 0; i < refList.size(); i++) {
+				primaryKeyFieldSequenceList[i] = schema.getFieldSequence(refList.get(i).getRef());
+			}
+			lastSequenceMap = new HashMap<String, Integer>();
+		}
+
+		segmentWriter = new SegmentWriter(schema, targetDir, revisionInfo, indexConfig, analyzerPoolManager, selectedIndexList);
+		try {
+			spoolFile = new File(targetDir, SPOOL_FILENAME);
+			spoolOutput = new BufferedFileOutput(spoolFile);
+		} catch (IOException e) {
+			try {
+				segmentWriter.close();
+			} catch (Exception ignore) {
+				// ignore
+			}
+			throw new IRException(e);
+		}
+		keyOutput = new BytesDataOutput(8);
+		positionList = new long[1024];
+		keyList = new long[1024];
+	}
+
+	@Override
+	public int getDocumentCount() {
+		return count;
+	}
+
+	/**
+	 * 문서를 임시파일에 기록하고 들어온 순서를 리턴한다. 내부 문서번호는 close시에 정해진다.
+	 * */
+	@Override
+	public int addDocument(Document document) throws IRException, IOException {
+		if (count == positionList.length) {
+			positionList = ArrayUtil.grow(positionList, count + 1);
+			keyList = ArrayUtil.grow(keyList, count + 1);
+		}
+		positionList[count] = spoolOutput.position();
+		keyList[count] = sortKey(document.get(sortFieldSequence));
+		for (int i = 0; i < document.size(); i++) {
+			writeField(document.get(i));
+		}
+		if (lastSequenceMap != null) {
+			lastSequenceMap.put(primaryKey(document), count);
+		}
+		return count++;
+	}
+
+	private void writeField(Field field) throws IOException {
+		if (field == null) {
+			spoolOutput.writeByte(0);
+			return;
+		}
+		int flag = (field.rawString() != null ? HAS_RAW : 0) | (!field.isNull() ? HAS_DATA : 0);
+		spoolOutput.writeByte(flag);
+		if ((flag & HAS_RAW) != 0) {
+			field.writeRawTo(spoolOutput);
+		}
+		if ((flag & HAS_DATA) != 0) {
+			field.writeTo(spoolOutput);
+		}
+	}
+
+	/*
+	 * 필드색인에 기록되는 고정길이 데이터를 부호있는 정수로 읽는다. NumericSortFunction의 비교순서와 같다.
+	 */
+	private long sortKey(Field field) throws IOException {
+		keyOutput.reset();
+		field.writeFixedDataTo(keyOutput);
+		byte[] array = keyOutput.array();
+		int length = (int) keyOutput.position();
+		long key = array[0];
+		for (int i = 1; i < length; i++) {
+			key = (key << 8) | (array[i] & 0xFF);
+		}
+		return key;
+	}
+
+	private String primaryKey(Document document) {
+		if (primaryKeyFieldSequenceList.length == 1) {
+			return document.get(primaryKeyFieldSequenceList[0]).getDataString();
+		}
+		StringBuilder sb = new StringBuilder();
+		for (int sequence : primaryKeyFieldSequenceList) {
+			sb.append(document.get(sequence).getDataString()).append('\u0000');
+		}
+		return sb.toString();
+	}
+
+	@Override
+	public void close() throws IOException, IRException {
+		boolean success = false;
+		try {
+			spoolOutput.close();
+			int[] order = sortedOrder();
+			BufferedFileInput spoolInput = new BufferedFileInput(spoolFile);
+			try {
+				for (int i = 0; i < count; i++) {
+					spoolInput.seek(positionList[order[i]]);
+					segmentWriter.addDocument(readDocument(spoolInput));
+				}
+			} finally {
+				spoolInput.close();
+			}
+			success = true;
+		} finally {
+			try {
+				segmentWriter.close();
+			} finally {
+				if (!spoolFile.delete() && success) {
+					logger.warn("Cannot delete index sort spool file {}", spoolFile.getAbsolutePath());
+				}
+			}
+		}
+	}
+
+	private Document readDocument(BufferedFileInput input) throws IOException {
+		Document document = new Document(fieldSettingList.size());
+		for (int i = 0; i < fieldSettingList.size(); i++) {
+			int flag = input.readByte();
+			Field field = fieldSettingList.get(i).createEmptyField();
+			if ((flag & HAS_RAW) != 0) {
+				field.readRawFrom(input);
+			}
+			if ((flag & HAS_DATA) != 0) {
+				field.readFrom(input);
+			}
+			document.set(i, field);
+		}
+		return document;
+	}
+
+	/*
+	 * 같은 pk의 이전 문서를 들어온 순서대로 앞에 두고, 나머지를 정렬키 순서로 둔다. 키가 같으면 들어온 순서를 따른다.
+	 */
+	private int[] sortedOrder() {
+		final int[] order = new int[count];
+		int staleCount = 0;
+		for (int i = 0; i < count; i++) {
+			order[i] = i;
+		}
+		if (lastSequenceMap != null) {
+			boolean[] isLive = new boolean[count];
+			for (Integer sequence : lastSequenceMap.values()) {
+				isLive[sequence] = true;
+			}
+			lastSequenceMap = null;
+			int liveCount = 0;
+			int[] liveList = new int[count];
+			for (int i = 0; i < count; i++) {
+				if (isLive[i]) {
+					liveList[liveCount++] = i;
+				} else {
+					order[staleCount++] = i;
+				}
+			}
+			System.arraycopy(liveList, 0, order, staleCount, liveCount);
+		}
+		if (count - staleCount < 2) {
+			return order;
+		}
+		new SorterTemplate() {
+			private int pivot;
+
+			@Override
+			protected void swap(int i, int j) {
+				int tmp = order[i];
+				order[i] = order[j];
+				order[j] = tmp;
+			}
+
+			@Override
+			protected int compare(int i, int j) {
+				return compareSequence(order[i], order[j]);
+			}
+
+			@Override
+			protected void setPivot(int i) {
+				pivot = order[i];
+			}
+
+			@Override
+			protected int comparePivot(int j) {
+				return compareSequence(pivot, order[j]);
+			}
+		}.quickSort(staleCount, count - 1);
+		return order;
+	}
+
+	private int compareSequence(int one, int two) {
+		long key1 = keyList[one];
+		long key2 = keyList[two];
+		if (key1 != key2) {
+			return (key1 < key2) == asc ? -1 : 1;
+		}
+		return one < two ? -1 : (one == two ? 0 : 1);
+	}
+
+	@Override
+	public void getIndexWriteInfo(IndexWriteInfoList writeInfoList) {
+		segmentWriter.getIndexWriteInfo(writeInfoList);
+	}
+}
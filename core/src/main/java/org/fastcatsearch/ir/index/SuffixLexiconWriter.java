@@ -0,0 +1,155 @@
+package org.fastcatsearch.ir.index;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.lucene.util.SorterTemplate;
+import org.fastcatsearch.ir.common.IndexFileNames;
+import org.fastcatsearch.ir.io.BufferedFileOutput;
+import org.fastcatsearch.ir.io.IndexOutput;
+
+/**
+ * 단어의 모든 suffix를 정렬하여 suffix 사전을 기록한다.
+ *
+ * suffix 파일 : [항목갯수 int][posting위치 long...] (suffix, 단어순) 으로 정렬된 항목별 단어의 posting위치.
+ * suffix fst 파일 : 중복을 제거한 suffix -> 해당 suffix의 첫 항목번호. TermFSTWriter 형식이다.
+ * suffix 사전에서는 suffix검색(*abc)이 일치검색, 중간일치검색(*abc*)이 prefix검색이 되어 연속된 항목의 범위로 찾을수 있다.
+ *
+ * 단어를 모두 메모리에 모았다가 write에서 기록하므로, suffix 사전을 사용하는 색인에서만 만든다.
+ * @see org.fastcatsearch.ir.search.SuffixLexiconReader
+ * */
+public class SuffixLexiconWriter {
+
+	private char[][] terms;
+	private long[] positions;
+	private int termCount;
+	private int entryCount;
+
+	public SuffixLexiconWriter() {
+		terms = new char[1024][];
+		positions = new long[1024];
+	}
+
+	/**
+	 * 단어는 정렬순서대로 추가한다.
+	 */
+	public void add(char[] term, int offset, int length, long postingPosition) {
+		if (length == 0) {
+			return;
+		}
+		if (termCount == terms.length) {
+			terms = Arrays.copyOf(terms, termCount * 2);
+			positions = Arrays.copyOf(positions, termCount * 2);
+		}
+		terms[termCount] = Arrays.copyOfRange(term, offset, offset + length);
+		positions[termCount] = postingPosition;
+		termCount++;
+		entryCount += length;
+	}
+
+	public int entryCount() {
+		return entryCount;
+	}
+
+	public void write(File dir, String indexId) throws IOException {
+		//항목 = (단어번호, suffix 시작위치)
+		final int[] entryTerms = new int[entryCount];
+		final int[] entryStarts = new int[entryCount];
+		int n = 0;
+		for (int i = 0; i < termCount; i++) {
+			for (int start = 0; start < terms[i].length; start++) {
+				entryTerms[n] = i;
+				entryStarts[n] = start;
+				n++;
+			}
+		}
+
+		new SorterTemplate() {
+			private int pivotTerm;
+			private int pivotStart;
+
+			@Override
+			protected void swap(int i, int j) {
+				int tmp = entryTerms[i];
+				entryTerms[i] = entryTerms[j];
+				entryTerms[j] = tmp;
+				tmp = entryStarts[i];
+				entryStarts[i] = entryStarts[j];
+				entryStarts[j] = tmp;
+			}
+
+			@Override
+			protected int compare(int i, int j) {
+				return compareEntry(entryTerms[i], entryStarts[i], entryTerms[j], entryStarts[j]);
+			}
+
+			@Override
+			protected void setPivot(int i) {
+				pivotTerm = entryTerms[i];
+				pivotStart = entryStarts[i];
+			}
+
+			@Override
+			protected int comparePivot(int j) {
+				return compareEntry(pivotTerm, pivotStart, entryTerms[j], entryStarts[j]);
+			}
+		}.quickSort(0, entryCount - 1);
+
+		IndexOutput postingOutput = new BufferedFileOutput(dir, IndexFileNames.getSearchSuffixPostingFileName(indexId));
+		IndexOutput fstOutput = new BufferedFileOutput(dir, IndexFileNames.getSearchSuffixIndexFileName(indexId));
+		try {
+			postingOutput.writeInt(entryCount);
+			TermFSTWriter fstWriter = new TermFSTWriter(fstOutput);
+			for (int i = 0; i < entryCount; i++) {
+				int termNo = entryTerms[i];
+				int start = entryStarts[i];
+				postingOutput.writeLong(positions[termNo]);
+				if (i == 0 || compareSuffix(entryTerms[i - 1], entryStarts[i - 1], termNo, start) != 0) {
+					fstWriter.add(terms[termNo], start, terms[termNo].length - start, i);
+				}
+			}
+			fstWriter.finish();
+		} finally {
+			IOException exception = null;
+			try {
+				postingOutput.close();
+			} catch (IOException e) {
+				exception = e;
+			}
+			try {
+				fstOutput.close();
+			} catch (IOException e) {
+				exception = e;
+			}
+			if (exception != null) {
+				throw exception;
+			}
+		}
+	}
+
+	private int compareEntry(int term1, int start1, int term2, int start2) {
+		int cmp = compareSuffix(term1, start1, term2, start2);
+		if (cmp != 0) {
+			return cmp;
+		}
+		//같은 suffix는 단어순으로 두어 posting위치가 증가하도록 한다.
+		return term1 - term2;
+	}
+
+	private int compareSuffix(int term1, int start1, int term2, int start2) {
+		char[] t1 = terms[term1];
+		char[] t2 = terms[term2];
+		int len1 = t1.length - start1;
+		int len2 = t2.length - start2;
+		int len = len1 < len2 ? len1 : len2;
+		for (int i = 0; i < len; i++) {
+			char c1 = t1[start1 + i];
+			char c2 = t2[start2 + i];
+			if (c1 != c2) {
+				return c1 - c2;
+			}
+		}
+		return len1 - len2;
+	}
+}
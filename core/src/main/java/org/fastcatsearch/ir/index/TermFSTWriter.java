@@ -0,0 +1,286 @@
+package org.fastcatsearch.ir.index;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.fastcatsearch.ir.io.BytesDataOutput;
+import org.fastcatsearch.ir.io.IndexOutput;
+
+/**
+ * 정렬된 단어들로 단어 -> (단어순번, posting위치)의 finite state transducer를 만들어 기록한다.
+ *
+ * 단어를 정렬순서대로 추가하면 공통 prefix는 하나의 경로를 공유하고, 더이상 바뀌지 않는 노드는 바로 파일에 기록한다.
+ * 이미 기록된 노드와 같은 노드는 다시 기록하지 않고 공유하므로 공통 suffix도 함께 공유된다.
+ * 출력값은 경로상의 arc 출력의 합이며, 정렬순서대로 증가하므로 공통부분을 앞쪽 arc로 옮겨 arc에는 작은 차이값만 남는다.
+ *
+ * 파일형식 : [단어갯수 int][root 노드위치 long][노드...]
+ * 노드 : [flag byte][final이면 단어순번 vlong, posting위치 vlong][arc갯수 vint][arc가 있으면 단어순번, posting위치, 노드위치의 바이트수 3byte][arc...]
+ * arc : [label 2byte][단어순번][posting위치][노드위치] 고정길이이므로 label로 이진검색할수 있다.
+ * 노드위치는 노드 시작부터의 상대위치이며, 자식노드가 항상 먼저 기록된다.
+ * @see org.fastcatsearch.ir.search.TermFSTReader
+ * */
+public class TermFSTWriter {
+	public static final int HEADER_SIZE = 4 + 8;
+	public static final int FLAG_FINAL = 1;
+	//공유할 노드를 찾기 위한 map의 최대 크기. 넘치면 비우고 다시 시작한다.
+	private static final int NODE_MAP_LIMIT = 1 << 20;
+
+	private IndexOutput output;
+	private long baseOffset;
+	private UnCompiledNode[] frontier;
+	private char[] lastTerm;
+	private int lastTermLength;
+	private int termCount;
+	private BytesDataOutput scratch;
+	private Map<NodeKey, Long> nodeMap;
+
+	public TermFSTWriter(IndexOutput output) throws IOException {
+		this.output = output;
+		baseOffset = output.position() + HEADER_SIZE;
+		output.writeInt(0);
+		output.writeLong(0);
+		frontier = new UnCompiledNode[16];
+		for (int i = 0; i < frontier.length; i++) {
+			frontier[i] = new UnCompiledNode();
+		}
+		lastTerm = new char[16];
+		scratch = new BytesDataOutput(256);
+		nodeMap = new HashMap<NodeKey, Long>();
+	}
+
+	/**
+	 * 단어는 정렬순서대로 중복없이 추가해야 한다. 단어순번은 추가한 순서이다.
+	 */
+	public void add(char[] term, int offset, int length, long postingPosition) throws IOException {
+		long ord = termCount;
+		if (length == 0) {
+			//빈 단어는 가장 작으므로 처음에만 올수 있다.
+			if (termCount > 0) {
+				throw new IOException("term must be added in sorted order. empty term at " + termCount);
+			}
+			frontier[0].isFinal = true;
+			frontier[0].finalOrd = ord;
+			frontier[0].finalPos = postingPosition;
+			termCount++;
+			return;
+		}
+
+		int prefixLength = 0;
+		int max = Math.min(lastTermLength, length);
+		while (prefixLength < max && lastTerm[prefixLength] == term[offset + prefixLength]) {
+			prefixLength++;
+		}
+		if (termCount > 0 && (prefixLength == length || (prefixLength < max && lastTerm[prefixLength] > term[offset + prefixLength]))) {
+			throw new IOException("term must be added in sorted order. term=" + new String(term, offset, length) + ", last="
+					+ new String(lastTerm, 0, lastTermLength));
+		}
+		int prefixLenPlus1 = prefixLength + 1;
+
+		if (frontier.length < length + 1) {
+			UnCompiledNode[] newFrontier = new UnCompiledNode[Math.max(length + 1, frontier.length * 2)];
+			System.arraycopy(frontier, 0, newFrontier, 0, frontier.length);
+			for (int i = frontier.length; i < newFrontier.length; i++) {
+				newFrontier[i] = new UnCompiledNode();
+			}
+			frontier = newFrontier;
+		}
+
+		//이전 단어에만 속한 노드는 더이상 바뀌지 않으므로 기록한다.
+		freezeTail(prefixLenPlus1);
+
+		for (int idx = prefixLenPlus1; idx <= length; idx++) {
+			frontier[idx - 1].addArc(term[offset + idx - 1]);
+		}
+		UnCompiledNode lastNode = frontier[length];
+		lastNode.isFinal = true;
+		lastNode.finalOrd = 0;
+		lastNode.finalPos = 0;
+
+		//공유하는 prefix 경로의 출력을 새 단어와의 공통부분으로 줄이고, 나머지는 다음 노드로 미룬다.
+		long ordOutput = ord;
+		long posOutput = postingPosition;
+		for (int idx = 1; idx < prefixLenPlus1; idx++) {
+			UnCompiledNode node = frontier[idx];
+			UnCompiledNode parentNode = frontier[idx - 1];
+			int last = parentNode.arcCount - 1;
+			long commonOrd = Math.min(ordOutput, parentNode.ords[last]);
+			long commonPos = Math.min(posOutput, parentNode.positions[last]);
+			node.prependOutput(parentNode.ords[last] - commonOrd, parentNode.positions[last] - commonPos);
+			parentNode.ords[last] = commonOrd;
+			parentNode.positions[last] = commonPos;
+			ordOutput -= commonOrd;
+			posOutput -= commonPos;
+		}
+		UnCompiledNode node = frontier[prefixLenPlus1 - 1];
+		node.ords[node.arcCount - 1] = ordOutput;
+		node.positions[node.arcCount - 1] = posOutput;
+
+		if (lastTerm.length < length) {
+			lastTerm = new char[Math.max(length, lastTerm.length * 2)];
+		}
+		System.arraycopy(term, offset, lastTerm, 0, length);
+		lastTermLength = length;
+		termCount++;
+	}
+
+	public int termCount() {
+		return termCount;
+	}
+
+	/**
+	 * 남은 노드를 모두 기록하고 헤더를 기록한다. 출력위치는 파일끝으로 돌아간다.
+	 */
+	public void finish() throws IOException {
+		freezeTail(1);
+		long rootAddress = compile(frontier[0]);
+		long end = output.position();
+		output.seek(baseOffset - HEADER_SIZE);
+		output.writeInt(termCount);
+		output.writeLong(rootAddress);
+		output.seek(end);
+		nodeMap = null;
+	}
+
+	private void freezeTail(int prefixLenPlus1) throws IOException {
+		int downTo = Math.max(1, prefixLenPlus1);
+		for (int idx = lastTermLength; idx >= downTo; idx--) {
+			UnCompiledNode parentNode = frontier[idx - 1];
+			parentNode.targets[parentNode.arcCount - 1] = compile(frontier[idx]);
+			frontier[idx].clear();
+		}
+	}
+
+	/*
+	 * 노드를 기록하고 노드위치를 리턴한다. 같은 노드가 이미 기록되어 있으면 그 위치를 리턴한다.
+	 */
+	private long compile(UnCompiledNode node) throws IOException {
+		scratch.reset();
+		scratch.writeByte(node.isFinal ? FLAG_FINAL : 0);
+		if (node.isFinal) {
+			scratch.writeVLong(node.finalOrd);
+			scratch.writeVLong(node.finalPos);
+		}
+		scratch.writeVInt(node.arcCount);
+		if (node.arcCount > 0) {
+			long maxOrd = 0;
+			long maxPos = 0;
+			long maxTarget = 0;
+			for (int i = 0; i < node.arcCount; i++) {
+				maxOrd = Math.max(maxOrd, node.ords[i]);
+				maxPos = Math.max(maxPos, node.positions[i]);
+				maxTarget = Math.max(maxTarget, node.targets[i]);
+			}
+			int ordBytes = bytesNeeded(maxOrd);
+			int posBytes = bytesNeeded(maxPos);
+			int targetBytes = bytesNeeded(maxTarget);
+			scratch.writeByte(ordBytes);
+			scratch.writeByte(posBytes);
+			scratch.writeByte(targetBytes);
+			for (int i = 0; i < node.arcCount; i++) {
+				scratch.writeByte((byte) (node.labels[i] >>> 8));
+				scratch.writeByte((byte) node.labels[i]);
+				writeFixed(node.ords[i], ordBytes);
+				writeFixed(node.positions[i], posBytes);
+				writeFixed(node.targets[i], targetBytes);
+			}
+		}
+
+		int length = (int) scratch.position();
+		NodeKey key = new NodeKey(Arrays.copyOf(scratch.array(), length));
+		Long address = nodeMap.get(key);
+		if (address != null) {
+			return address;
+		}
+		long newAddress = output.position() - baseOffset;
+		output.writeBytes(scratch.array(), 0, length);
+		if (nodeMap.size() >= NODE_MAP_LIMIT) {
+			nodeMap.clear();
+		}
+		nodeMap.put(key, newAddress);
+		return newAddress;
+	}
+
+	private void writeFixed(long value, int bytes) throws IOException {
+		for (int i = bytes - 1; i >= 0; i--) {
+			scratch.writeByte((byte) (value >>> (i * 8)));
+		}
+	}
+
+	private static int bytesNeeded(long value) {
+		int bytes = 0;
+		while (value != 0) {
+			bytes++;
+			value >>>= 8;
+		}
+		return bytes;
+	}
+
+	/*
+	 * 아직 기록하지 않은 노드. 마지막 arc만 기록되지 않은 자식노드를 가리킨다.
+	 */
+	private static class UnCompiledNode {
+		boolean isFinal;
+		long finalOrd;
+		long finalPos;
+		int arcCount;
+		char[] labels = new char[4];
+		long[] ords = new long[4];
+		long[] positions = new long[4];
+		long[] targets = new long[4];
+
+		void addArc(char label) {
+			if (arcCount == labels.length) {
+				int newSize = arcCount * 2;
+				labels = Arrays.copyOf(labels, newSize);
+				ords = Arrays.copyOf(ords, newSize);
+				positions = Arrays.copyOf(positions, newSize);
+				targets = Arrays.copyOf(targets, newSize);
+			}
+			labels[arcCount] = label;
+			ords[arcCount] = 0;
+			positions[arcCount] = 0;
+			targets[arcCount] = -1;
+			arcCount++;
+		}
+
+		void prependOutput(long ord, long pos) {
+			for (int i = 0; i < arcCount; i++) {
+				ords[i] += ord;
+				positions[i] += pos;
+			}
+			if (isFinal) {
+				finalOrd += ord;
+				finalPos += pos;
+			}
+		}
+
+		void clear() {
+			isFinal = false;
+			finalOrd = 0;
+			finalPos = 0;
+			arcCount = 0;
+		}
+	}
+
+	private static class NodeKey {
+		private final byte[] bytes;
+		private final int hash;
+
+		NodeKey(byte[] bytes) {
+			this.bytes = bytes;
+			this.hash = Arrays.hashCode(bytes);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof NodeKey && Arrays.equals(bytes, ((NodeKey) obj).bytes);
+		}
+	}
+}
@@ -23,8 +23,12 @@ import java.util.List;
 import org.fastcatsearch.ir.common.IRException;
 import org.fastcatsearch.ir.common.IndexFileNames;
 import org.fastcatsearch.ir.index.IndexFieldOption;
+import org.fastcatsearch.ir.index.PostingBlockWriter;
+import org.fastcatsearch.ir.index.SuffixLexiconWriter;
+import org.fastcatsearch.ir.index.TermFSTWriter;
 import org.fastcatsearch.ir.io.BufferedFileInput;
 import org.fastcatsearch.ir.io.BufferedFileOutput;
+import org.fastcatsearch.ir.io.BytesDataOutput;
 import org.fastcatsearch.ir.io.CharVector;
 import org.fastcatsearch.ir.io.IOUtil;
 import org.fastcatsearch.ir.io.IndexInput;
@@ -46,14 +50,34 @@ public class TempSearchFieldAppender extends TempSearchFieldMerger {
 		IndexOutput lexiconOutput = new BufferedFileOutput(targetDir, IndexFileNames.getSearchLexiconFileName(indexId));
 
 		IndexOutput indexOutput = new BufferedFileOutput(targetDir, IndexFileNames.getSearchIndexFileName(indexId));
+		IndexOutput termIndexOutput = new BufferedFileOutput(targetDir, IndexFileNames.getSearchTermIndexFileName(indexId));
 
 		IndexInput postingInput1 = new BufferedFileInput(segmentDir1, IndexFileNames.getSearchPostingFileName(indexId));
 		IndexOutput postingOutput = new BufferedFileOutput(targetDir, IndexFileNames.getSearchPostingFileName(indexId));
 
 		IndexFieldOption option1 = new IndexFieldOption(postingInput1.readInt());
-		if(!fieldIndexOption.equals(option1)){
+		if(fieldIndexOption.isStorePosition() != option1.isStorePosition()){
 			throw new IRException("Cannot append indexes. Index option is the same. new="+fieldIndexOption.value() +", old="+ option1.value());
 		}
+		//이전 포스팅을 그대로 복사해야 하므로, 포스팅 형식은 이전 색인의 옵션을 따른다.
+		//suffix 사전은 새로 만들므로 현재 설정을 따른다.
+		boolean storeSuffix = fieldIndexOption.isStoreSuffix();
+		fieldIndexOption = new IndexFieldOption(storeSuffix ? (option1.value() | IndexFieldOption.STORE_SUFFIX) : (option1.value() & ~IndexFieldOption.STORE_SUFFIX));
+		PostingBlockWriter blockWriter = fieldIndexOption.isBlockPosting() ? new PostingBlockWriter(fieldIndexOption) : null;
+		BytesDataOutput mergeOutput = blockWriter != null ? new BytesDataOutput(1024 * 1024) : null;
+		
+		// position 파일을 사용하면 이전 position 파일에서 단어별 position을 읽어서 새 position 파일로 옮긴다.
+		IndexInput positionInput1 = null;
+		IndexOutput positionOutput = null;
+		byte[] positionBuffer = null;
+		//count, lastDocNo 다음 포스팅 데이터에서 position 헤더의 위치.
+		int positionHeaderOffset = 0;
+		if (fieldIndexOption.isPositionFile()) {
+			positionHeaderOffset = PostingBlockWriter.headerSize(fieldIndexOption) - PostingBlockWriter.POSITION_HEADER_SIZE;
+			positionInput1 = new BufferedFileInput(segmentDir1, IndexFileNames.getSearchPositionFileName(indexId));
+			positionOutput = new BufferedFileOutput(targetDir, IndexFileNames.getSearchPositionFileName(indexId));
+			positionBuffer = new byte[1024];
+		}
 		
 		// 같은 텀이 있을때에 posting 문서번호를 다 읽어서 머징한다.
 		// 같은 텀이 없다면 포스팅데이터를 뚝 떼어서 새로운 포스팅에 붙이면 된다.
@@ -75,6 +99,8 @@ public class TempSearchFieldAppender extends TempSearchFieldMerger {
 
 			lexiconOutput.writeInt(termCount);
 			indexOutput.writeInt(indexTermCount);
+			TermFSTWriter termFSTWriter = new TermFSTWriter(termIndexOutput);
+			SuffixLexiconWriter suffixWriter = storeSuffix ? new SuffixLexiconWriter() : null;
 
 			int cmp = 0;
 
@@ -127,15 +153,37 @@ public class TempSearchFieldAppender extends TempSearchFieldMerger {
 					long newLen = len1 + len2 + delta;
 
 					position = postingOutput.position();
-					postingOutput.writeVLong(newLen);
-					postingOutput.writeInt(count1 + count2);
-					postingOutput.writeInt(lastDocNo2);
-					postingOutput.writeBytes(buffer, 0, data1Length);
-
-					len2 -= sz2;
-
-					postingOutput.writeVInt(newFirstDocNo);
-					postingOutput.writeBytes(tempPostingOutput.array(), sz2, len2);
+					if (blockWriter != null) {
+						// 이전 블럭을 풀어서 새 포스팅을 이어붙인뒤 다시 블럭으로 만든다.
+						if (positionInput1 != null) {
+							int positionLength = IOUtil.readInt(buffer, positionHeaderOffset + IOUtil.SIZE_OF_LONG);
+							if (positionLength > positionBuffer.length) {
+								positionBuffer = new byte[positionLength];
+							}
+							positionInput1.seek(IOUtil.readLong(buffer, positionHeaderOffset));
+							positionInput1.readBytes(positionBuffer, 0, positionLength);
+						}
+						mergeOutput.reset();
+						PostingBlockWriter.decode(buffer, 0, data1Length, count1, fieldIndexOption, positionBuffer, mergeOutput);
+						mergeOutput.writeVInt(newFirstDocNo);
+						mergeOutput.writeBytes(tempPostingOutput.array(), sz2, len2 - sz2);
+						blockWriter.make(mergeOutput.array(), 0, (int) mergeOutput.position(), count1 + count2);
+						
+						postingOutput.writeVInt(IOUtil.SIZE_OF_INT * 2 + blockWriter.length());
+						postingOutput.writeInt(count1 + count2);
+						postingOutput.writeInt(lastDocNo2);
+						blockWriter.write(postingOutput, positionOutput);
+					} else {
+						postingOutput.writeVLong(newLen);
+						postingOutput.writeInt(count1 + count2);
+						postingOutput.writeInt(lastDocNo2);
+						postingOutput.writeBytes(buffer, 0, data1Length);
+	
+						len2 -= sz2;
+	
+						postingOutput.writeVInt(newFirstDocNo);
+						postingOutput.writeBytes(tempPostingOutput.array(), sz2, len2);
+					}
 
 					lexiconOutput.writeUString(term.array(), term.start(), term.length());
 					lexiconOutput.writeLong(position);
@@ -156,7 +204,19 @@ public class TempSearchFieldAppender extends TempSearchFieldMerger {
 
 					// write posting
 					postingOutput.writeVInt(len);
-					postingOutput.writeBytes(buffer, 0, len);
+					if (positionInput1 != null) {
+						// position 파일위치만 새 파일의 위치로 바꾸고, position은 그대로 복사한다.
+						int headerOffset = IOUtil.SIZE_OF_INT * 2 + positionHeaderOffset;
+						long positionPointer = IOUtil.readLong(buffer, headerOffset);
+						int positionLength = IOUtil.readInt(buffer, headerOffset + IOUtil.SIZE_OF_LONG);
+						postingOutput.writeBytes(buffer, 0, headerOffset);
+						postingOutput.writeLong(positionOutput.position());
+						postingOutput.writeBytes(buffer, headerOffset + IOUtil.SIZE_OF_LONG, len - headerOffset - IOUtil.SIZE_OF_LONG);
+						positionInput1.seek(positionPointer);
+						IOUtil.transferFrom(positionOutput, positionInput1, positionLength, positionBuffer);
+					} else {
+						postingOutput.writeBytes(buffer, 0, len);
+					}
 
 					// write lexicon
 					lexiconOutput.writeUString(term.array(), term.start(), term.length());
@@ -178,14 +238,22 @@ public class TempSearchFieldAppender extends TempSearchFieldMerger {
 
 					position = postingOutput.position();
 
-					int len2 = IOUtil.SIZE_OF_INT * 2 + sz2 + len;
-					if (len2 < 8)
-						throw new IOException("Terrible Error!! " + len2);
-					postingOutput.writeVInt(len2);
-					postingOutput.writeInt(count);
-					postingOutput.writeInt(lastDocNo);
-					postingOutput.writeVInt(firstDocNo);
-					postingOutput.writeBytes(tempPostingOutput.array(), sz, len);
+					if (blockWriter != null) {
+						blockWriter.make(tempPostingOutput.array(), 0, (int) tempPostingOutput.position(), count);
+						postingOutput.writeVInt(IOUtil.SIZE_OF_INT * 2 + blockWriter.length());
+						postingOutput.writeInt(count);
+						postingOutput.writeInt(lastDocNo);
+						blockWriter.write(postingOutput, positionOutput);
+					} else {
+						int len2 = IOUtil.SIZE_OF_INT * 2 + sz2 + len;
+						if (len2 < 8)
+							throw new IOException("Terrible Error!! " + len2);
+						postingOutput.writeVInt(len2);
+						postingOutput.writeInt(count);
+						postingOutput.writeInt(lastDocNo);
+						postingOutput.writeVInt(firstDocNo);
+						postingOutput.writeBytes(tempPostingOutput.array(), sz, len);
+					}
 
 					// write term
 					lexiconOutput.writeUString(term.array(), term.start(), term.length());
@@ -201,6 +269,10 @@ public class TempSearchFieldAppender extends TempSearchFieldMerger {
 					indexOutput.writeLong(position);
 					indexTermCount++;
 				}
+				termFSTWriter.add(term.array(), term.start(), term.length(), position);
+				if (suffixWriter != null) {
+					suffixWriter.add(term.array(), term.start(), term.length(), position);
+				}
 				termCount++;
 			}// while
 
@@ -213,11 +285,19 @@ public class TempSearchFieldAppender extends TempSearchFieldMerger {
 //				long pointer = lexiconOutput.position();
 //				indexOutput.writeLong(pointer);
 			}
+			termFSTWriter.finish();
+			if (suffixWriter != null) {
+				suffixWriter.write(targetDir, indexId);
+			}
 			logger.debug("## write index [{}] termCount[{}] indexTermCount[{}] indexInterval[{}]", indexId, termCount, indexTermCount, indexInterval);
 			
 			lexiconOutput.flush();
 			indexOutput.flush();
+			termIndexOutput.flush();
 			postingOutput.flush();
+			if (positionOutput != null) {
+				positionOutput.flush();
+			}
 
 		} finally {
 			IOException exception = null;
@@ -242,6 +322,20 @@ public class TempSearchFieldAppender extends TempSearchFieldMerger {
 			} catch (IOException e) {
 				exception = e;
 			}
+			try {
+				if (positionInput1 != null) {
+					positionInput1.close();
+				}
+			} catch (IOException e) {
+				exception = e;
+			}
+			try {
+				if (positionOutput != null) {
+					positionOutput.close();
+				}
+			} catch (IOException e) {
+				exception = e;
+			}
 			try {
 				if (lexiconOutput != null) {
 					lexiconOutput.close();
@@ -256,6 +350,13 @@ public class TempSearchFieldAppender extends TempSearchFieldMerger {
 			} catch (IOException e) {
 				exception = e;
 			}
+			try {
+				if (termIndexOutput != null) {
+					termIndexOutput.close();
+				}
+			} catch (IOException e) {
+				exception = e;
+			}
 
 			if (exception != null) {
 				throw exception;
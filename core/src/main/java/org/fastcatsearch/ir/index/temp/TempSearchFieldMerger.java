@@ -23,6 +23,9 @@ import java.util.List;
 import org.apache.lucene.util.BytesRef;
 import org.fastcatsearch.ir.common.IndexFileNames;
 import org.fastcatsearch.ir.index.IndexFieldOption;
+import org.fastcatsearch.ir.index.PostingBlockWriter;
+import org.fastcatsearch.ir.index.SuffixLexiconWriter;
+import org.fastcatsearch.ir.index.TermFSTWriter;
 import org.fastcatsearch.ir.io.BufferedFileOutput;
 import org.fastcatsearch.ir.io.BytesDataOutput;
 import org.fastcatsearch.ir.io.CharVector;
@@ -74,6 +77,11 @@ public class TempSearchFieldMerger {
 		IndexOutput lexiconOutput = new BufferedFileOutput(IndexFileNames.getRevisionDir(baseDir, 0),
 				IndexFileNames.getSearchLexiconFileName(indexId));
 		IndexOutput indexOutput = new BufferedFileOutput(IndexFileNames.getRevisionDir(baseDir, 0), IndexFileNames.getSearchIndexFileName(indexId));
+		IndexOutput termIndexOutput = new BufferedFileOutput(IndexFileNames.getRevisionDir(baseDir, 0), IndexFileNames.getSearchTermIndexFileName(indexId));
+		IndexOutput positionOutput = null;
+		if (fieldIndexOption.isPositionFile()) {
+			positionOutput = new BufferedFileOutput(IndexFileNames.getRevisionDir(baseDir, 0), IndexFileNames.getSearchPositionFileName(indexId));
+		}
 
 		try {
 			postingOutput.writeInt(fieldIndexOption.value());
@@ -88,7 +96,10 @@ public class TempSearchFieldMerger {
 
 			lexiconOutput.writeInt(termCount);// termCount
 			indexOutput.writeInt(indexTermCount);// indexTermCount
+			TermFSTWriter termFSTWriter = new TermFSTWriter(termIndexOutput);
+			SuffixLexiconWriter suffixWriter = fieldIndexOption.isStoreSuffix() ? new SuffixLexiconWriter() : null;
 
+			PostingBlockWriter blockWriter = fieldIndexOption.isBlockPosting() ? new PostingBlockWriter(fieldIndexOption) : null;
 			CharVector term = new CharVector();
 			while (readNextTempIndex(term)) {
 				int len = (int) tempPostingOutput.position();
@@ -103,18 +114,25 @@ public class TempSearchFieldMerger {
 
 				long postingPosition = postingOutput.position();
 
-				int len2 = IOUtil.SIZE_OF_INT * 2 + sz2 + len;
-				if (len2 < 8)
-					throw new IOException("Terrible Error!! " + len2);
-				
-				
-				//1. Write Posting
-				postingOutput.writeVInt(len2);
-				postingOutput.writeInt(count);
-				postingOutput.writeInt(lastDocNo);
-				postingOutput.writeVInt(firstDocNo);
-				postingOutput.writeBytes(tempPostingOutput.array(), sz, len);
-
+				if (blockWriter != null) {
+					//1. Write Block Posting
+					blockWriter.make(tempPostingOutput.array(), 0, (int) tempPostingOutput.position(), count);
+					postingOutput.writeVInt(IOUtil.SIZE_OF_INT * 2 + blockWriter.length());
+					postingOutput.writeInt(count);
+					postingOutput.writeInt(lastDocNo);
+					blockWriter.write(postingOutput, positionOutput);
+				} else {
+					int len2 = IOUtil.SIZE_OF_INT * 2 + sz2 + len;
+					if (len2 < 8)
+						throw new IOException("Terrible Error!! " + len2);
+
+					//1. Write Posting
+					postingOutput.writeVInt(len2);
+					postingOutput.writeInt(count);
+					postingOutput.writeInt(lastDocNo);
+					postingOutput.writeVInt(firstDocNo);
+					postingOutput.writeBytes(tempPostingOutput.array(), sz, len);
+				}
 				
 				//2. Write Lexicon
 				long lexiconPosition = lexiconOutput.position();
@@ -128,6 +146,12 @@ public class TempSearchFieldMerger {
 					indexOutput.writeLong(postingPosition);
 					indexTermCount++;
 				}
+				
+				//4. Write Term Index
+				termFSTWriter.add(term.array(), term.start(), term.length(), postingPosition);
+				if (suffixWriter != null) {
+					suffixWriter.add(term.array(), term.start(), term.length(), postingPosition);
+				}
 				termCount++;
 				
 			}
@@ -144,15 +168,32 @@ public class TempSearchFieldMerger {
 			} else {
 				// 이미 indexTermCount는 0으로 셋팅되어 있으므로 기록할 필요없음.
 			}
+			termFSTWriter.finish();
+			if (suffixWriter != null) {
+				suffixWriter.write(IndexFileNames.getRevisionDir(baseDir, 0), indexId);
+				logger.debug("## write suffix index [{}] entryCount[{}]", indexId, suffixWriter.entryCount());
+			}
 			logger.debug("## write index [{}] termCount[{}] indexTermCount[{}] indexInterval[{}]", indexId, termCount, indexTermCount, indexInterval);
 
 			lexiconOutput.flush();
 			indexOutput.flush();
+			termIndexOutput.flush();
 			postingOutput.flush();
+			if (positionOutput != null) {
+				positionOutput.flush();
+			}
 
 		} finally {
 			IOException exception = null;
 
+			try {
+				if (positionOutput != null) {
+					positionOutput.close();
+				}
+			} catch (IOException e) {
+				exception = e;
+			}
+
 			try {
 				if (postingOutput != null) {
 					postingOutput.close();
@@ -174,6 +215,13 @@ public class TempSearchFieldMerger {
 			} catch (IOException e) {
 				exception = e;
 			}
+			try {
+				if (termIndexOutput != null) {
+					termIndexOutput.close();
+				}
+			} catch (IOException e) {
+				exception = e;
+			}
 
 			if (exception != null) {
 				throw exception;
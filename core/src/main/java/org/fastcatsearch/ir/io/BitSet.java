@@ -117,6 +117,25 @@ public class BitSet {
 		bitdata[pos] |= mask;
 	}
 	
+	/**
+	 * from이상에서 처음으로 설정된 번호를 리턴한다. 없으면 -1.
+	 * */
+	public int nextSetBit(int from){
+		int pos = from / IOUtil.BITS_OF_LONG;
+		if(pos >= bitdata.length){
+			return -1;
+		}
+		//상위비트부터 번호가 매겨지므로 from보다 앞의 상위비트를 지운다.
+		long word = bitdata[pos] & (-1L >>> (from % IOUtil.BITS_OF_LONG));
+		while(word == 0){
+			if(++pos >= bitdata.length){
+				return -1;
+			}
+			word = bitdata[pos];
+		}
+		return pos * IOUtil.BITS_OF_LONG + Long.numberOfLeadingZeros(word);
+	}
+	
 	public void save() throws IOException{
 		BufferedFileOutput out = new BufferedFileOutput(file);
 		int size = bitdata.length;
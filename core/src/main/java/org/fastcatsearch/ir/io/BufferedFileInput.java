@@ -24,6 +24,8 @@ import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 
+import org.fastcatsearch.ir.io.cache.BlockCache;
+import org.fastcatsearch.ir.io.cache.CachedBlock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -49,6 +51,10 @@ public class BufferedFileInput extends IndexInput implements Cloneable {
 	private ByteBuffer byteBuf; // wraps the buffer for NIO
 	private int bufferSize = IOUtil.FILEBLOCKSIZE;
 	final protected FileChannel channel;
+	
+	//null이 아니면 버퍼를 블럭캐시에서 채운다.
+	private BlockCache blockCache;
+	private String fileKey;
 
 	public BufferedFileInput(String filename) throws IOException {
 		this(null, filename);
@@ -69,6 +75,15 @@ public class BufferedFileInput extends IndexInput implements Cloneable {
 //		logger.debug("File open {}", f.getAbsolutePath());
 	}
 
+	/**
+	 * 공용 블럭캐시를 통해 읽는다. 버퍼는 bufferSize 단위로 정렬된 블럭으로 채워지며, 블럭은 같은 파일을 읽는 다른 reader와 공유된다.
+	 */
+	public BufferedFileInput(File f, BlockCache blockCache) throws IOException {
+		this(f);
+		this.blockCache = blockCache;
+		this.fileKey = BlockCache.fileKey(f);
+	}
+
 	public String toString(){
 		return "["+getClass().getName()+"]"+f.getName()+", length="+f.length();
 	}
@@ -146,6 +161,18 @@ public class BufferedFileInput extends IndexInput implements Cloneable {
 				len -= available;
 				bufferPosition += available;
 			}
+			if (blockCache != null) {
+				// 블럭캐시를 사용하면 블럭단위로 이어서 읽는다.
+				while (len > 0) {
+					refill();
+					int n = Math.min(len, bufferLength - bufferPosition);
+					System.arraycopy(buffer, bufferPosition, b, offset, n);
+					bufferPosition += n;
+					offset += n;
+					len -= n;
+				}
+				return;
+			}
 			// and now, read the remaining 'len' bytes:
 			if (useBuffer && len < bufferSize) {
 				// If the amount left to read is small enough, and
@@ -182,6 +209,10 @@ public class BufferedFileInput extends IndexInput implements Cloneable {
 	}
 
 	private void refill() throws IOException {
+		if (blockCache != null) {
+			refillFromCache();
+			return;
+		}
 		long start = bufferStart + bufferPosition;
 		long end = start + bufferSize;
 		if (end > length()) // don't read past EOF
@@ -201,6 +232,33 @@ public class BufferedFileInput extends IndexInput implements Cloneable {
 //		logger.debug("refill len={}, stat={}, pos={}", bufferLength, bufferStart, position());
 	}
 
+	private void refillFromCache() throws IOException {
+		long start = bufferStart + bufferPosition;
+		if (start >= length()) {
+			throw new EOFException("read past EOF: " + this);
+		}
+		long block = start / bufferSize;
+		long blockStart = block * bufferSize;
+		CachedBlock cachedBlock = blockCache.getBlock(fileKey, bufferSize, block);
+		if (cachedBlock == null) {
+			int len = (int) Math.min(bufferSize, length() - blockStart);
+			byte[] data = new byte[len];
+			//readInternal은 현재 위치에서 읽으므로 블럭시작으로 옮긴다.
+			bufferStart = blockStart;
+			bufferPosition = 0;
+			bufferLength = 0;
+			readInternal(data, 0, len);
+			cachedBlock = blockCache.putBlock(fileKey, bufferSize, block, data, len);
+		}
+		if (buffer == null) {
+			newBuffer(new byte[bufferSize]);
+		}
+		cachedBlock.read(0, buffer, 0, cachedBlock.length());
+		bufferStart = blockStart;
+		bufferLength = cachedBlock.length();
+		bufferPosition = (int) (start - blockStart);
+	}
+
 	protected void newBuffer(byte[] newBuffer) {
 		buffer = newBuffer;
 		byteBuf = ByteBuffer.wrap(newBuffer);
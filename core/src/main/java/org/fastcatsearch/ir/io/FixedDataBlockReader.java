@@ -19,96 +19,76 @@ package org.fastcatsearch.ir.io;
 import java.io.File;
 import java.io.IOException;
 
+import org.fastcatsearch.ir.io.cache.BlockCache;
 import org.fastcatsearch.ir.io.cache.CachedBlock;
-import org.fastcatsearch.ir.io.cache.LRUBlockCache;
 import org.fastcatsearch.ir.query.RankInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-
+/**
+ * 고정길이 데이터를 블럭단위로 읽는다. 읽은 블럭은 노드 공용 BlockCache에 보관한다.
+ * */
 public class FixedDataBlockReader {
 	private static Logger logger = LoggerFactory.getLogger(FixedDataBlockReader.class);
 	
-	private LRUBlockCache cache;
+	private BlockCache cache;
+	private String fileKey;
 	private IndexInput input;
 	private int dataSize;
 	private int dataPerBlock;
 	private int blockSize;
 	
 	public FixedDataBlockReader(File dir, String filename, int dataSize, int blockSize) throws IOException {
-		input = new BufferedFileInput(dir, filename);
+		this(dir, filename, dataSize, blockSize, BlockCache.getInstance());
+	}
+	
+	public FixedDataBlockReader(File dir, String filename, int dataSize, int blockSize, BlockCache cache) throws IOException {
+		File f = new File(dir, filename);
+		input = new BufferedFileInput(f);
+		fileKey = BlockCache.fileKey(f);
 		this.dataSize = dataSize;
 		this.dataPerBlock = blockSize / dataSize;
 		int newBlockSize = dataPerBlock * dataSize;
 		this.blockSize = newBlockSize;
-		cache = new LRUBlockCache();
+		this.cache = cache;
 		logger.info("FixedDataBlockReader "+filename+", blockSize="+newBlockSize);
 	}
 
 	public void get(int docNo, byte[] data, int offset) throws IOException {
 		int block = docNo / dataPerBlock;
 		int pos = (docNo % dataPerBlock) * dataSize;
-		CachedBlock blockObj = cache.getBlock(block);
-		if(blockObj == null){
-			//Read from file
-			blockObj = new CachedBlock(block, new byte[blockSize]);
-
-			synchronized(input){
-				input.seek(block * blockSize);
-				input.readBytes(blockObj.buf, 0, blockSize);
-			}
-			
-			cache.putBlock(blockObj);
-			
-			for (int i = 0; i < dataSize; i++) {
-				data[offset + i] = blockObj.buf[pos + i];
-			}
-		}else{
-			for (int i = 0; i < dataSize; i++) {
-				data[offset + i] = blockObj.buf[pos + i];
-			}
-		}
-		cache.check();
+		CachedBlock blockObj = getBlock(block);
+		blockObj.read(pos, data, offset, dataSize);
 	}
 	
 	public void getBulk(RankInfo[] rankInfoList, int n, byte[] buf) throws IOException {
 		int offset = 0;
-		int t1 = 0, t2 = 0;
 		for (int k = 0; k < n; k++) {
 			int docNo = rankInfoList[k].docNo();
 			int block = docNo / dataPerBlock;
 			int pos = (docNo % dataPerBlock) * dataSize;
-//			logger.info("docNo= "+docNo+", dataPerBlock="+dataPerBlock+", block="+block+", pos="+pos);
-			CachedBlock blockObj = cache.getBlock(block);
-//			logger.info("data = "+data);
-			if(blockObj == null){
-				//Read from file
-				blockObj = new CachedBlock(block, new byte[blockSize]);
-				long st = System.currentTimeMillis();
-				synchronized(input){
-//					t1 += (System.currentTimeMillis() -st);
-					input.seek(block * blockSize);
-					input.readBytes(blockObj.buf, 0, blockSize);
-//					t2 += (System.currentTimeMillis() -st);
-				}
-				
-				cache.putBlock(blockObj);
-//				logger.info("input= "+input.size()+", position="+block * blockSize);
-				
-				for (int i = 0; i < dataSize; i++) {
-					buf[offset++] = blockObj.buf[pos + i];
-				}
-			}else{
-				for (int i = 0; i < dataSize; i++) {
-					buf[offset++] = blockObj.buf[pos + i];
-				}
+			CachedBlock blockObj = getBlock(block);
+			blockObj.read(pos, buf, offset, dataSize);
+			offset += dataSize;
+		}
+	}
+	
+	private CachedBlock getBlock(int block) throws IOException {
+		CachedBlock blockObj = cache.getBlock(fileKey, blockSize, block);
+		if(blockObj == null){
+			//Read from file. 마지막 블럭은 blockSize보다 짧을수 있다.
+			long start = (long) block * blockSize;
+			int length = (int) Math.min(blockSize, input.length() - start);
+			byte[] buf = new byte[length];
+			synchronized(input){
+				input.seek(start);
+				input.readBytes(buf, 0, length);
 			}
+			blockObj = cache.putBlock(fileKey, blockSize, block, buf, length);
 		}
-		
-		cache.check();
-//		logger.info("t1 = "+t1+", t2="+t2);
-		
+		return blockObj;
 	}
+	
 	public void close() throws IOException{
 		input.close();
 	}
@@ -78,6 +78,14 @@ public abstract class FixedMaxPriorityQueue<T> {
 		return true;
 	}
 	
+	/**
+	 * push했을때 heap에 들어갈수 있는 원소인지 확인한다.
+	 * 들어가지 못할 원소는 미리 걸러내어 보관용 객체를 만들지 않도록 하는데 사용한다.
+	 * */
+	public boolean isCompetitive(T e) {
+		return size < maxsize || (size > 0 && compare(peek(), e) > 0);
+	}
+	
 	public T remove(T e) {
 		for (int i = 1; i <= size; i++) {
 			if(compare((T) heap[i], e) == 0){
@@ -0,0 +1,42 @@
+package org.fastcatsearch.ir.io;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.fastcatsearch.ir.io.cache.BlockCache;
+
+/**
+ * 세그먼트 파일을 읽는 방식. 컬렉션 설정의 index-input-type으로 정한다.
+ * BUFFERED는 파일을 버퍼로 읽어들이고, MMAP은 메모리에 매핑하여 읽고, CACHED는 노드 공용 BlockCache를 통해 읽는다.
+ * */
+public enum IndexInputType {
+	BUFFERED, MMAP, CACHED;
+
+	public IndexInput open(File f) throws IOException {
+		if (this == MMAP) {
+			return new MMapIndexInput(f);
+		} else if (this == CACHED) {
+			return new BufferedFileInput(f, BlockCache.getInstance());
+		} else {
+			return new BufferedFileInput(f);
+		}
+	}
+
+	public IndexInput open(File dir, String filename) throws IOException {
+		return open(new File(dir, filename));
+	}
+
+	/**
+	 * 설정값으로 타입을 찾는다. 설정이 없거나 알수없는 값이면 BUFFERED.
+	 */
+	public static IndexInputType parse(String type) {
+		if (type != null) {
+			for (IndexInputType value : values()) {
+				if (value.name().equalsIgnoreCase(type.trim())) {
+					return value;
+				}
+			}
+		}
+		return BUFFERED;
+	}
+}
@@ -0,0 +1,165 @@
+package org.fastcatsearch.ir.io;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * LZ4 블럭형식의 압축 코덱. 압축률보다 속도가 중요한 저장문서 블럭에 사용한다.
+ * 4byte hash로 이전 위치를 찾아 일치하는 구간을 (offset, 길이)로 바꾸며, 엔트로피 코딩은 하지 않는다.
+ *
+ * 기록형식 : sequence 반복. sequence = token(상위4bit 리터럴길이, 하위4bit 일치길이-4), [리터럴길이 추가byte], 리터럴, offset(2byte LE), [일치길이 추가byte]
+ * 마지막 sequence는 리터럴만 가진다. 길이 필드가 15이면 255보다 작은 byte가 나올때까지 추가byte를 더한다.
+ * */
+public class LZ4Codec {
+
+	private static final int HASH_LOG = 14;
+	public static final int HASH_TABLE_SIZE = 1 << HASH_LOG;
+
+	private static final int MIN_MATCH = 4;
+	private static final int MAX_DISTANCE = 0xFFFF;
+	private static final int LAST_LITERALS = 5;
+	private static final int MF_LIMIT = 12;
+	private static final int SKIP_STRENGTH = 6;
+
+	/**
+	 * srcLength 만큼을 압축했을때 필요한 최대 버퍼크기.
+	 */
+	public static int maxCompressedLength(int srcLength) {
+		return srcLength + srcLength / 255 + 16;
+	}
+
+	/**
+	 * 압축하여 dest에 기록하고 압축된 길이를 리턴한다.
+	 * @param hashTable HASH_TABLE_SIZE 크기의 작업용 배열. 호출마다 초기화되므로 재사용할수 있다.
+	 */
+	public static int compress(byte[] src, int srcOffset, int srcLength, byte[] dest, int destOffset, int[] hashTable) {
+		int srcEnd = srcOffset + srcLength;
+		int matchLimit = srcEnd - LAST_LITERALS;
+		int mfLimit = srcEnd - MF_LIMIT;
+		int sOff = srcOffset;
+		int dOff = destOffset;
+		int anchor = srcOffset;
+
+		if (srcLength > MF_LIMIT) {
+			//위치+1을 기록하여 0을 빈 칸으로 사용한다.
+			Arrays.fill(hashTable, 0);
+			sOff++;
+			while (sOff < mfLimit) {
+				int h = hash(IOUtil.readInt(src, sOff));
+				int ref = hashTable[h] - 1 + srcOffset;
+				hashTable[h] = sOff - srcOffset + 1;
+				if (ref < srcOffset || sOff - ref > MAX_DISTANCE || IOUtil.readInt(src, ref) != IOUtil.readInt(src, sOff)) {
+					//일치하는 구간이 없을수록 건너뛰는 간격을 늘린다.
+					sOff += 1 + ((sOff - anchor) >>> SKIP_STRENGTH);
+					continue;
+				}
+				//앞쪽으로 일치구간을 늘린다.
+				while (sOff > anchor && ref > srcOffset && src[sOff - 1] == src[ref - 1]) {
+					sOff--;
+					ref--;
+				}
+				int matchLength = MIN_MATCH;
+				while (sOff + matchLength < matchLimit && src[ref + matchLength] == src[sOff + matchLength]) {
+					matchLength++;
+				}
+				dOff = writeSequence(src, anchor, sOff - anchor, sOff - ref, matchLength, dest, dOff);
+				sOff += matchLength;
+				anchor = sOff;
+			}
+		}
+		//나머지는 리터럴로 기록한다.
+		dOff = writeSequence(src, anchor, srcEnd - anchor, 0, 0, dest, dOff);
+		return dOff - destOffset;
+	}
+
+	/**
+	 * 압축을 풀어 dest에 기록하고 풀린 길이를 리턴한다. dest에 destLength보다 많이 풀리면 IOException.
+	 */
+	public static int decompress(byte[] src, int srcOffset, int srcLength, byte[] dest, int destOffset, int destLength) throws IOException {
+		int srcEnd = srcOffset + srcLength;
+		int destEnd = destOffset + destLength;
+		int sOff = srcOffset;
+		int dOff = destOffset;
+		while (sOff < srcEnd) {
+			int token = src[sOff++] & 0xFF;
+			int literalLength = token >>> 4;
+			if (literalLength == 15) {
+				int b;
+				do {
+					b = src[sOff++] & 0xFF;
+					literalLength += b;
+				} while (b == 255);
+			}
+			if (dOff + literalLength > destEnd || sOff + literalLength > srcEnd) {
+				throw new IOException("Malformed LZ4 data. literal length = " + literalLength + " at " + (sOff - srcOffset));
+			}
+			System.arraycopy(src, sOff, dest, dOff, literalLength);
+			sOff += literalLength;
+			dOff += literalLength;
+			if (sOff >= srcEnd) {
+				//마지막 sequence.
+				break;
+			}
+
+			int offset = (src[sOff++] & 0xFF) | ((src[sOff++] & 0xFF) << 8);
+			int matchLength = token & 0x0F;
+			if (matchLength == 15) {
+				int b;
+				do {
+					b = src[sOff++] & 0xFF;
+					matchLength += b;
+				} while (b == 255);
+			}
+			matchLength += MIN_MATCH;
+			int ref = dOff - offset;
+			if (offset == 0 || ref < destOffset || dOff + matchLength > destEnd) {
+				throw new IOException("Malformed LZ4 data. offset = " + offset + ", match length = " + matchLength + " at " + (sOff - srcOffset));
+			}
+			if (offset >= matchLength) {
+				System.arraycopy(dest, ref, dest, dOff, matchLength);
+			} else {
+				//겹치는 구간은 앞에서부터 한byte씩 복사해야 반복패턴이 만들어진다.
+				for (int i = 0; i < matchLength; i++) {
+					dest[dOff + i] = dest[ref + i];
+				}
+			}
+			dOff += matchLength;
+		}
+		return dOff - destOffset;
+	}
+
+	private static int hash(int value) {
+		return (value * -1640531535) >>> (32 - HASH_LOG);
+	}
+
+	private static int writeSequence(byte[] src, int literalOffset, int literalLength, int offset, int matchLength, byte[] dest, int dOff) {
+		int tokenOffset = dOff++;
+		int token = (literalLength < 15 ? literalLength : 15) << 4;
+		if (literalLength >= 15) {
+			dOff = writeLength(literalLength - 15, dest, dOff);
+		}
+		System.arraycopy(src, literalOffset, dest, dOff, literalLength);
+		dOff += literalLength;
+
+		if (matchLength > 0) {
+			dest[dOff++] = (byte) offset;
+			dest[dOff++] = (byte) (offset >>> 8);
+			int length = matchLength - MIN_MATCH;
+			token |= length < 15 ? length : 15;
+			if (length >= 15) {
+				dOff = writeLength(length - 15, dest, dOff);
+			}
+		}
+		dest[tokenOffset] = (byte) token;
+		return dOff;
+	}
+
+	private static int writeLength(int length, byte[] dest, int dOff) {
+		while (length >= 255) {
+			dest[dOff++] = (byte) 255;
+			length -= 255;
+		}
+		dest[dOff++] = (byte) length;
+		return dOff;
+	}
+}
@@ -0,0 +1,200 @@
+package org.fastcatsearch.ir.io;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+/**
+ * 읽기전용 세그먼트 파일을 메모리에 매핑하여 읽는다.
+ *
+ * 파일을 chunk 단위로 나누어 매핑하며, 읽기는 페이지캐시를 직접 읽으므로 BufferedFileInput과 달리 내부 버퍼로의 복사가 없다.
+ * clone은 매핑된 버퍼의 duplicate만 만들어 위치만 따로 가지므로, 검색 쓰레드마다 clone해도 비용이 거의 없다.
+ * 매핑후 파일은 바로 닫으므로 파일핸들을 차지하지 않는다.
+ * 매핑의 해제는 GC에 맡기므로 close후에도 사용중인 clone은 계속 읽을수 있다.
+ * */
+public class MMapIndexInput extends IndexInput implements Cloneable {
+	//1GB 단위로 매핑한다. ByteBuffer는 int 범위만 다룰수 있다.
+	private static final int DEFAULT_CHUNK_SIZE_POWER = 30;
+
+	protected boolean isClone;
+	protected final File f;
+	private final long length;
+	private final int chunkSizePower;
+	private final long chunkSizeMask;
+
+	private ByteBuffer[] buffers;
+	private int curBufIndex;
+	private ByteBuffer curBuf;
+
+	public MMapIndexInput(File dir, String filename) throws IOException {
+		this(new File(dir, filename));
+	}
+
+	public MMapIndexInput(File f) throws IOException {
+		this(f, DEFAULT_CHUNK_SIZE_POWER);
+	}
+
+	public MMapIndexInput(File f, int chunkSizePower) throws IOException {
+		if (chunkSizePower < 0 || chunkSizePower > DEFAULT_CHUNK_SIZE_POWER) {
+			throw new IllegalArgumentException("chunkSizePower must be between 0 and " + DEFAULT_CHUNK_SIZE_POWER + ". chunkSizePower=" + chunkSizePower);
+		}
+		this.f = f;
+		this.chunkSizePower = chunkSizePower;
+		this.chunkSizeMask = (1L << chunkSizePower) - 1L;
+		RandomAccessFile file = new RandomAccessFile(f, "r");
+		try {
+			length = file.length();
+			buffers = map(file.getChannel(), length);
+		} finally {
+			//매핑은 채널을 닫아도 유효하다.
+			file.close();
+		}
+		curBufIndex = 0;
+		curBuf = buffers[0];
+	}
+
+	private ByteBuffer[] map(FileChannel channel, long length) throws IOException {
+		int count = (int) (length >>> chunkSizePower);
+		if ((length & chunkSizeMask) != 0 || count == 0) {
+			count++;
+		}
+		ByteBuffer[] buffers = new ByteBuffer[count];
+		long position = 0;
+		for (int i = 0; i < count; i++) {
+			long size = Math.min(1L << chunkSizePower, length - position);
+			buffers[i] = channel.map(MapMode.READ_ONLY, position, size);
+			position += size;
+		}
+		return buffers;
+	}
+
+	public String toString() {
+		return "[" + getClass().getName() + "]" + f.getName() + ", length=" + length;
+	}
+
+	@Override
+	public MMapIndexInput clone() {
+		if (buffers == null) {
+			throw new IllegalStateException("already closed: " + this);
+		}
+		MMapIndexInput clone = (MMapIndexInput) super.clone();
+		clone.buffers = new ByteBuffer[buffers.length];
+		for (int i = 0; i < buffers.length; i++) {
+			clone.buffers[i] = buffers[i].duplicate();
+		}
+		clone.curBufIndex = curBufIndex;
+		clone.curBuf = clone.buffers[curBufIndex];
+		clone.curBuf.position(curBuf.position());
+		clone.isClone = true;
+		return clone;
+	}
+
+	@Override
+	public final byte readByte() throws IOException {
+		if (!curBuf.hasRemaining()) {
+			nextBuffer();
+		}
+		return curBuf.get();
+	}
+
+	@Override
+	public final short readShort() throws IOException {
+		if (curBuf.remaining() >= 2) {
+			return curBuf.getShort();
+		} else {
+			return super.readShort();
+		}
+	}
+
+	@Override
+	public final int readInt() throws IOException {
+		if (curBuf.remaining() >= 4) {
+			return curBuf.getInt();
+		} else {
+			return super.readInt();
+		}
+	}
+
+	@Override
+	public final long readLong() throws IOException {
+		if (curBuf.remaining() >= 8) {
+			return curBuf.getLong();
+		} else {
+			return super.readLong();
+		}
+	}
+
+	@Override
+	public void readBytes(byte[] b, int offset, int len) throws IOException {
+		while (len > 0) {
+			if (!curBuf.hasRemaining()) {
+				nextBuffer();
+			}
+			int n = Math.min(len, curBuf.remaining());
+			curBuf.get(b, offset, n);
+			offset += n;
+			len -= n;
+		}
+	}
+
+	private void nextBuffer() throws IOException {
+		do {
+			if (curBufIndex + 1 >= buffers.length) {
+				throw new EOFException("read past EOF: " + this);
+			}
+			curBufIndex++;
+			curBuf = buffers[curBufIndex];
+			curBuf.position(0);
+		} while (!curBuf.hasRemaining());
+	}
+
+	@Override
+	public long position() {
+		return ((long) curBufIndex << chunkSizePower) + curBuf.position();
+	}
+
+	@Override
+	public void seek(long pos) throws IOException {
+		if (pos < 0 || pos > length) {
+			throw new EOFException("seek past EOF: pos=" + pos + ", " + this);
+		}
+		int index = (int) (pos >>> chunkSizePower);
+		if (index >= buffers.length) {
+			//파일끝이 chunk 경계인 경우 마지막 버퍼의 끝에 둔다.
+			index = buffers.length - 1;
+			curBufIndex = index;
+			curBuf = buffers[index];
+			curBuf.position(curBuf.limit());
+		} else {
+			curBufIndex = index;
+			curBuf = buffers[index];
+			curBuf.position((int) (pos & chunkSizeMask));
+		}
+	}
+
+	@Override
+	public final long length() {
+		return length;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (!isClone) {
+			buffers = null;
+		}
+	}
+
+	@Override
+	public void reset() throws IOException {
+
+	}
+
+	@Override
+	public int read() throws IOException {
+		return readByte() & 0xff;
+	}
+}
@@ -0,0 +1,125 @@
+package org.fastcatsearch.ir.io;
+
+import java.io.IOException;
+
+/**
+ * 정수 블럭을 고정 비트수로 묶어서 기록하는 PFor(Patched Frame Of Reference) 코덱.
+ * 대부분의 값이 들어가는 비트수를 골라서 기록하고, 그보다 큰 값은 상위비트를 예외로 따로 기록한다.
+ * 디코딩시에는 블럭 전체를 int[]에 한번에 채운다.
+ *
+ * 기록형식 : byte bits, byte exceptionCount, packed(n * bits), exceptionCount * (byte index, VInt 상위값)
+ *
+ * 값은 0 이상이어야 하며, 블럭 크기는 MAX_BLOCK_SIZE 까지 가능하다.
+ * */
+public class PForCodec {
+
+	public static final int MAX_BLOCK_SIZE = 128;
+
+	private static final int MAX_BITS = 32;
+
+	public static void encode(int[] values, int n, DataOutput output) throws IOException {
+		int bits = selectBits(values, n);
+		long mask = (1L << bits) - 1;
+
+		int exceptionCount = 0;
+		if (bits < MAX_BITS) {
+			for (int i = 0; i < n; i++) {
+				if ((values[i] >>> bits) != 0) {
+					exceptionCount++;
+				}
+			}
+		}
+		output.writeByte(bits);
+		output.writeByte(exceptionCount);
+
+		if (bits > 0) {
+			long acc = 0;
+			int accBits = 0;
+			for (int i = 0; i < n; i++) {
+				acc |= (values[i] & mask) << accBits;
+				accBits += bits;
+				while (accBits >= 8) {
+					output.writeByte((byte) acc);
+					acc >>>= 8;
+					accBits -= 8;
+				}
+			}
+			if (accBits > 0) {
+				output.writeByte((byte) acc);
+			}
+		}
+
+		if (exceptionCount > 0) {
+			for (int i = 0; i < n; i++) {
+				int high = values[i] >>> bits;
+				if (high != 0) {
+					output.writeByte(i);
+					output.writeVInt(high);
+				}
+			}
+		}
+	}
+
+	/**
+	 * src의 pos위치부터 n개의 값을 dst에 채우고, 다음 읽을 위치를 리턴한다.
+	 * */
+	public static int decode(byte[] src, int pos, int[] dst, int n) {
+		int bits = src[pos++] & 0xFF;
+		int exceptionCount = src[pos++] & 0xFF;
+
+		if (bits == 0) {
+			for (int i = 0; i < n; i++) {
+				dst[i] = 0;
+			}
+		} else {
+			long mask = (1L << bits) - 1;
+			long acc = 0;
+			int accBits = 0;
+			for (int i = 0; i < n; i++) {
+				while (accBits < bits) {
+					acc |= (long) (src[pos++] & 0xFF) << accBits;
+					accBits += 8;
+				}
+				dst[i] = (int) (acc & mask);
+				acc >>>= bits;
+				accBits -= bits;
+			}
+		}
+
+		for (int i = 0; i < exceptionCount; i++) {
+			int index = src[pos++] & 0xFF;
+			int high = IOUtil.readVInt(src, pos);
+			pos += IOUtil.lenVariableByte(high);
+			dst[index] |= high << bits;
+		}
+		return pos;
+	}
+
+	// 패킹된 길이와 예외 길이의 합이 가장 작아지는 비트수를 고른다.
+	private static int selectBits(int[] values, int n) {
+		int[] bitCount = new int[MAX_BITS + 1];
+		int maxBits = 0;
+		for (int i = 0; i < n; i++) {
+			int b = MAX_BITS - Integer.numberOfLeadingZeros(values[i]);
+			bitCount[b]++;
+			if (b > maxBits) {
+				maxBits = b;
+			}
+		}
+
+		int bestBits = maxBits;
+		int bestSize = (n * maxBits + 7) >>> 3;
+		int exceptionCount = 0;
+		for (int bits = maxBits - 1; bits >= 0; bits--) {
+			exceptionCount += bitCount[bits + 1];
+			// 예외는 인덱스 1바이트와 상위값 VInt로 기록된다.
+			int exceptionSize = exceptionCount * (1 + (maxBits - bits + 6) / 7);
+			int size = ((n * bits + 7) >>> 3) + exceptionSize;
+			if (size < bestSize) {
+				bestSize = size;
+				bestBits = bits;
+			}
+		}
+		return bestBits;
+	}
+}
@@ -19,28 +19,37 @@ package org.fastcatsearch.ir.io;
 import java.io.File;
 import java.io.IOException;
 
+import org.fastcatsearch.ir.io.cache.BlockCache;
 import org.fastcatsearch.ir.io.cache.CachedBlock;
-import org.fastcatsearch.ir.io.cache.LRUBlockCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-
+/**
+ * 가변길이 데이터를 블럭단위로 읽는다. 읽은 블럭은 노드 공용 BlockCache에 보관한다.
+ * */
 public class VariableDataBlockReader {
 	private static Logger logger = LoggerFactory.getLogger(VariableDataBlockReader.class);
 	
-	private LRUBlockCache cache;
+	private BlockCache cache;
+	private String fileKey;
 	private IndexInput input;
 	private int blockSize;
 	
 	public VariableDataBlockReader(File dir, String filename, int blockSize) throws IOException {
-		input = new BufferedFileInput(dir, filename);
+		this(dir, filename, blockSize, BlockCache.getInstance());
+	}
+	
+	public VariableDataBlockReader(File dir, String filename, int blockSize, BlockCache cache) throws IOException {
+		File f = new File(dir, filename);
+		input = new BufferedFileInput(f);
+		fileKey = BlockCache.fileKey(f);
 		this.blockSize = blockSize;
-		cache = new LRUBlockCache();
+		this.cache = cache;
 		logger.info("VariableDataBlockReader "+filename+", blockSize="+blockSize);
 	}
 
 	public void get(long position, byte[] data, int offset, int length) throws IOException {
-		int block = (int) (position / blockSize);
+		long block = position / blockSize;
 		int pos = (int) (position % blockSize);
 		
 		int nread = 0;
@@ -52,33 +61,30 @@ public class VariableDataBlockReader {
 				pos = 0;
 				left = blockSize - pos;
 			}
-			int toRead = left < length ? left : length;
+			int toRead = left < length - nread ? left : length - nread;
 			
-			CachedBlock blockObj = cache.getBlock(block);
-			if(blockObj == null){
-				//Read from file
-				blockObj = new CachedBlock(block, new byte[blockSize]);
-	
-				synchronized(input){
-					input.seek(block * blockSize);
-					input.readBytes(blockObj.buf, 0, blockSize);
-				}
-				
-				cache.putBlock(blockObj);
-				
-				for (int i = 0; i < toRead; i++) {
-					data[offset + i] = blockObj.buf[pos + i];
-				}
-			}else{
-				for (int i = 0; i < toRead; i++) {
-					data[offset + i] = blockObj.buf[pos + i];
-				}
-			}
+			CachedBlock blockObj = getBlock(block);
+			blockObj.read(pos, data, offset + nread, toRead);
 			
 			pos += toRead;
 			nread += toRead;
 		}
-		cache.check();
+	}
+	
+	private CachedBlock getBlock(long block) throws IOException {
+		CachedBlock blockObj = cache.getBlock(fileKey, blockSize, block);
+		if(blockObj == null){
+			//Read from file. 마지막 블럭은 blockSize보다 짧을수 있다.
+			long start = block * blockSize;
+			int length = (int) Math.min(blockSize, input.length() - start);
+			byte[] buf = new byte[length];
+			synchronized(input){
+				input.seek(start);
+				input.readBytes(buf, 0, length);
+			}
+			blockObj = cache.putBlock(fileKey, blockSize, block, buf, length);
+		}
+		return blockObj;
 	}
 	
 	public void close() throws IOException{
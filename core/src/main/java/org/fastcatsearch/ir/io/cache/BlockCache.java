@@ -0,0 +1,247 @@
+package org.fastcatsearch.ir.io.cache;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 노드 전체가 함께 사용하는 파일 블럭 캐시. (파일, 블럭크기, 블럭번호)를 키로 블럭을 보관한다.
+ *
+ * 전체 용량을 바이트로 제한하며, 넘치면 가장 오래 사용하지 않은 블럭부터 지운다.
+ * 여러 검색 쓰레드가 동시에 사용하므로 키의 hash로 segment를 나누고 segment별로 lock을 잡는다.
+ * 용량도 segment별로 나누어 관리한다.
+ * off-heap으로 설정하면 블럭을 direct buffer에 저장하여 heap과 GC 부담을 줄인다.
+ *
+ * 서버 시작시 {@link #init(long, boolean)}으로 초기화하며, 초기화하지 않으면 기본값으로 만든다.
+ * */
+public class BlockCache {
+	private static Logger logger = LoggerFactory.getLogger(BlockCache.class);
+
+	public static final long DEFAULT_MAX_SIZE = 64 * 1024 * 1024;
+	private static final int SEGMENT_COUNT = 16;
+
+	private static volatile BlockCache instance;
+
+	private final long maxSize;
+	private final boolean offHeap;
+	private final Segment[] segments;
+
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+	private final AtomicLong evictionCount = new AtomicLong();
+
+	public static void init(long maxSize, boolean offHeap) {
+		BlockCache oldInstance = instance;
+		instance = new BlockCache(maxSize, offHeap);
+		if (oldInstance != null) {
+			oldInstance.clear();
+		}
+		logger.info("BlockCache init maxSize[{}] offHeap[{}]", maxSize, offHeap);
+	}
+
+	public static BlockCache getInstance() {
+		if (instance == null) {
+			synchronized (BlockCache.class) {
+				if (instance == null) {
+					instance = new BlockCache(DEFAULT_MAX_SIZE, false);
+				}
+			}
+		}
+		return instance;
+	}
+
+	/**
+	 * 파일이 다시 만들어지면 다른 키가 되도록 경로와 크기, 수정시각으로 키를 만든다.
+	 */
+	public static String fileKey(File f) {
+		return f.getAbsolutePath() + ":" + f.length() + ":" + f.lastModified();
+	}
+
+	public BlockCache(long maxSize, boolean offHeap) {
+		this.maxSize = maxSize;
+		this.offHeap = offHeap;
+		segments = new Segment[SEGMENT_COUNT];
+		for (int i = 0; i < SEGMENT_COUNT; i++) {
+			segments[i] = new Segment(maxSize / SEGMENT_COUNT);
+		}
+	}
+
+	/**
+	 * 캐시된 블럭을 리턴한다. 없으면 null.
+	 */
+	public CachedBlock getBlock(String fileKey, int blockSize, long block) {
+		BlockKey key = new BlockKey(fileKey, blockSize, block);
+		CachedBlock cachedBlock = segmentFor(key).get(key);
+		if (cachedBlock != null) {
+			hitCount.incrementAndGet();
+		} else {
+			missCount.incrementAndGet();
+		}
+		return cachedBlock;
+	}
+
+	/**
+	 * 파일에서 읽은 블럭을 캐시에 넣고, 읽기에 사용할 블럭을 리턴한다.
+	 * heap 캐시는 data 배열을 그대로 보관하므로 호출한 쪽에서 data를 변경하면 안된다.
+	 * 다른 쓰레드가 먼저 넣었으면 그 블럭을 리턴한다.
+	 */
+	public CachedBlock putBlock(String fileKey, int blockSize, long block, byte[] data, int length) {
+		CachedBlock cachedBlock;
+		if (offHeap) {
+			ByteBuffer directBuf = ByteBuffer.allocateDirect(length);
+			directBuf.put(data, 0, length);
+			directBuf.flip();
+			cachedBlock = new CachedBlock(directBuf);
+		} else {
+			cachedBlock = new CachedBlock(data, length);
+		}
+		BlockKey key = new BlockKey(fileKey, blockSize, block);
+		return segmentFor(key).put(key, cachedBlock);
+	}
+
+	private Segment segmentFor(BlockKey key) {
+		int h = key.hashCode();
+		h ^= (h >>> 16);
+		return segments[h & (SEGMENT_COUNT - 1)];
+	}
+
+	public long maxSize() {
+		return maxSize;
+	}
+
+	public boolean isOffHeap() {
+		return offHeap;
+	}
+
+	/**
+	 * 캐시된 블럭이 차지하는 메모리 크기.
+	 */
+	public long size() {
+		long size = 0;
+		for (Segment segment : segments) {
+			size += segment.size();
+		}
+		return size;
+	}
+
+	public int blockCount() {
+		int count = 0;
+		for (Segment segment : segments) {
+			count += segment.count();
+		}
+		return count;
+	}
+
+	public long hitCount() {
+		return hitCount.get();
+	}
+
+	public long missCount() {
+		return missCount.get();
+	}
+
+	public long evictionCount() {
+		return evictionCount.get();
+	}
+
+	public void clear() {
+		for (Segment segment : segments) {
+			segment.clear();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "[BlockCache]maxSize=" + maxSize + ", size=" + size() + ", blocks=" + blockCount() + ", offHeap=" + offHeap + ", hit=" + hitCount()
+				+ ", miss=" + missCount() + ", eviction=" + evictionCount();
+	}
+
+	/*
+	 * 용량의 일부를 담당하는 LRU 캐시.
+	 */
+	private class Segment {
+		private final long maxSize;
+		private final LinkedHashMap<BlockKey, CachedBlock> map;
+		private long size;
+
+		public Segment(long maxSize) {
+			this.maxSize = maxSize;
+			map = new LinkedHashMap<BlockKey, CachedBlock>(64, 0.75f, true);
+		}
+
+		public synchronized CachedBlock get(BlockKey key) {
+			return map.get(key);
+		}
+
+		public synchronized CachedBlock put(BlockKey key, CachedBlock cachedBlock) {
+			CachedBlock oldBlock = map.get(key);
+			if (oldBlock != null) {
+				return oldBlock;
+			}
+			if (cachedBlock.size() > maxSize) {
+				//용량보다 큰 블럭은 캐시하지 않는다.
+				return cachedBlock;
+			}
+			map.put(key, cachedBlock);
+			size += cachedBlock.size();
+			Iterator<Map.Entry<BlockKey, CachedBlock>> iterator = map.entrySet().iterator();
+			while (size > maxSize && iterator.hasNext()) {
+				CachedBlock eldest = iterator.next().getValue();
+				iterator.remove();
+				size -= eldest.size();
+				evictionCount.incrementAndGet();
+			}
+			return cachedBlock;
+		}
+
+		public synchronized long size() {
+			return size;
+		}
+
+		public synchronized int count() {
+			return map.size();
+		}
+
+		public synchronized void clear() {
+			map.clear();
+			size = 0;
+		}
+	}
+
+	private static class BlockKey {
+		private final String fileKey;
+		private final int blockSize;
+		private final long block;
+		private final int hash;
+
+		public BlockKey(String fileKey, int blockSize, long block) {
+			this.fileKey = fileKey;
+			this.blockSize = blockSize;
+			this.block = block;
+			int h = fileKey.hashCode();
+			h = 31 * h + blockSize;
+			h = 31 * h + (int) (block ^ (block >>> 32));
+			this.hash = h;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof BlockKey)) {
+				return false;
+			}
+			BlockKey other = (BlockKey) obj;
+			return block == other.block && blockSize == other.blockSize && fileKey.equals(other.fileKey);
+		}
+	}
+}
@@ -16,26 +16,62 @@
 
 package org.fastcatsearch.ir.io.cache;
 
+import java.nio.ByteBuffer;
+
+/**
+ * BlockCache에 저장되는 파일 블럭. 여러 쓰레드가 함께 읽으므로 만든후에는 변경하지 않는다.
+ * heap에 저장할때는 byte[]를, off-heap에 저장할때는 direct ByteBuffer를 사용한다.
+ * */
 public class CachedBlock {
-	public int block;
-	public byte[] buf;
-	public CachedBlock next; // hash bucket 리스트 다음 원소
-	public CachedBlock after; // circular linked list 의 다음 원소	
-	public CachedBlock before;
-	
-	public CachedBlock(){ }
-	
-	public CachedBlock(int block, byte[] blockData) {
-		this.block = block;
-		buf = blockData;
+	//객체와 map entry의 대략적인 크기.
+	private static final int OVERHEAD = 96;
+
+	private final byte[] buf;
+	private final ByteBuffer directBuf;
+	private final int length;
+
+	public CachedBlock(byte[] buf, int length) {
+		this.buf = buf;
+		this.directBuf = null;
+		this.length = length;
+	}
+
+	public CachedBlock(ByteBuffer directBuf) {
+		this.buf = null;
+		this.directBuf = directBuf;
+		this.length = directBuf.limit();
+	}
+
+	public int length() {
+		return length;
+	}
+
+	public byte get(int pos) {
+		if (buf != null) {
+			return buf[pos];
+		}
+		return directBuf.get(pos);
 	}
 
-	public void remove(){
-		before.next = after;
-		after.before = before;
+	public void read(int pos, byte[] dst, int offset, int len) {
+		if (buf != null) {
+			System.arraycopy(buf, pos, dst, offset, len);
+		} else {
+			//position을 공유하지 않도록 duplicate해서 읽는다.
+			ByteBuffer b = directBuf.duplicate();
+			b.position(pos);
+			b.get(dst, offset, len);
+		}
 	}
-	
-	public int size(){
-		return buf.length + 16 + 30;//overhead 30, pointer 4개
+
+	public boolean isOffHeap() {
+		return directBuf != null;
+	}
+
+	/**
+	 * 캐시 용량계산에 사용할 메모리 크기.
+	 */
+	public int size() {
+		return length + OVERHEAD;
 	}
 }
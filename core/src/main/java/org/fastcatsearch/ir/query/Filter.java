@@ -16,6 +16,8 @@
 
 package org.fastcatsearch.ir.query;
 
+import java.util.Arrays;
+
 import org.fastcatsearch.ir.filter.FilterException;
 import org.fastcatsearch.ir.filter.FilterFunction;
 import org.fastcatsearch.ir.filter.NotSupportedFilterFunctionException;
@@ -184,4 +186,34 @@ public class Filter {
 	public int boostScore() {
 		return boostScore;
 	}
+
+	/**
+	 * 점수를 변경하는 필터인지 여부. 점수를 변경하지 않는 필터는 문서의 필드값으로만 결정되므로 결과를 캐시할수 있다.
+	 */
+	public boolean isBoostFunction() {
+		return (function & (MATCH_BOOST | SECTION_BOOST | PREFIX_BOOST | SUFFIX_BOOST | EXCLUDE_BOOST | BOOST)) != 0;
+	}
+
+	/**
+	 * 필터캐시의 key. 패턴들은 OR 관계이므로 순서를 정렬하여 같은 조건이 같은 key를 가지도록 한다.
+	 */
+	public String cacheKey() {
+		String[] patterns = new String[patternList.length];
+		for (int i = 0; i < patternList.length; i++) {
+			patterns[i] = String.valueOf(patternList[i]);
+			if (endPatternList != null) {
+				patterns[i] += "~" + endPatternList[i];
+			}
+		}
+		Arrays.sort(patterns);
+		StringBuilder sb = new StringBuilder();
+		sb.append(fieldIndexId).append(':').append(function).append(':');
+		for (int i = 0; i < patterns.length; i++) {
+			if (i > 0) {
+				sb.append(';');
+			}
+			sb.append(patterns[i]);
+		}
+		return sb.toString();
+	}
 }
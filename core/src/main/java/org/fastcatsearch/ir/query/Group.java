@@ -33,19 +33,24 @@ public class Group {
 	private GroupFunction[] functionList;
 	private int sortOrder;
 	private int limit;
+	private int minCount; //정렬값이 이보다 작은 그룹은 결과에서 제외한다. 0이면 사용하지 않는다.
 	
 
 	public Group(String groupIndexId, GroupFunction[] functionList, int sortOrder){
 		this(groupIndexId, functionList, sortOrder, 0);
 	}
 	public Group(String groupIndexId, GroupFunction[] functionList, int sortOrder, int limit){
+		this(groupIndexId, functionList, sortOrder, limit, 0);
+	}
+	public Group(String groupIndexId, GroupFunction[] functionList, int sortOrder, int limit, int minCount){
 		this.groupIndexId = groupIndexId.toUpperCase();
 		this.functionList = functionList;
 		this.sortOrder = sortOrder;
 		this.limit = limit;
+		this.minCount = minCount;
 	}
 	public String toString(){
-		return "[Group]"+groupIndexId+":"+functionList+":"+sortOrder+":"+limit;
+		return "[Group]"+groupIndexId+":"+functionList+":"+sortOrder+":"+limit+":"+minCount;
 	}
 	public String groupIndexId(){
 		return groupIndexId;
@@ -59,4 +64,17 @@ public class Group {
 	public int limit(){
 		return limit;
 	}
+	public int minCount(){
+		return minCount;
+	}
+	/**
+	 * 값으로 정렬하고 limit이 있을때, 컬렉션에서 먼저 골라 보낼 후보 그룹 갯수.
+	 * 여러 노드의 결과를 합치면 순위가 바뀔수 있으므로 limit보다 여유있게 보낸다. 0이면 모든 그룹을 보낸다.
+	 * */
+	public int candidateSize(){
+		if(limit > 0 && (sortOrder == SORT_VALUE_ASC || sortOrder == SORT_VALUE_DESC)){
+			return limit + limit / 2 + 10;
+		}
+		return 0;
+	}
 }
@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.fastcatsearch.ir.group.GlobalOrdinals;
 import org.fastcatsearch.ir.group.GroupDataGenerator;
 import org.fastcatsearch.ir.group.GroupsResultGenerator;
 import org.fastcatsearch.ir.search.FieldIndexesReader;
@@ -64,6 +65,10 @@ public class Groups {
 	public GroupDataGenerator getGroupDataGenerator(Schema schema, GroupIndexesReader groupIndexesReader, FieldIndexesReader fieldIndexesReader) throws IOException{
 		return new GroupDataGenerator(groupList, schema, groupIndexesReader, fieldIndexesReader);
 	}
+	//여러 세그먼트를 전역 그룹번호로 함께 집계한다.
+	public GroupDataGenerator getGroupDataGenerator(Schema schema, GlobalOrdinals[] globalOrdinalsList) {
+		return new GroupDataGenerator(groupList, schema, globalOrdinalsList);
+	}
 	public GroupsResultGenerator getGroupResultsGenerator() {
 		return new GroupsResultGenerator(this);
 	}
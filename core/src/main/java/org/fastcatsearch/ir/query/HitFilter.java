@@ -113,7 +113,9 @@ public class HitFilter {
 			}
 
 			//엔트리를 추가해준다.
+			//RankInfo 객체는 재사용되므로, 같은 객체가 두번 들어가지 않도록 자리를 바꾼다.
 			if(isInclude){
+				rankInfoList[k] = rankInfoList[count];
 				rankInfoList[count++] = rankInfo;
 			}
 		}
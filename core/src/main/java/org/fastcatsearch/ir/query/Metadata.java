@@ -110,6 +110,9 @@ public class Metadata {
 		if (value.contains("explain")) {
 			option |= Query.SEARCH_OPT_EXPLAIN;
 		}
+		if (value.contains("prune")) {
+			option |= Query.SEARCH_OPT_PRUNE;
+		}
 	}
 	public boolean isSearchOption(int value){
 		return (option & value) > 0;
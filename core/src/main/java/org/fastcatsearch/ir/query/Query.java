@@ -24,6 +24,7 @@ import org.fastcatsearch.ir.search.clause.Clause;
 	&sn=0
 	&ln=10
 	&so=cache
+	&so=prune >> 점수순 정렬시 상위 결과에 들지 못할 문서를 건너뛴다. 이때 totalCount는 실제보다 작을수 있다.
 	&ud=debug:true,logger:file
 	&fl=askldjf,askjdf:30,askljfl,salkjfl
 	&se={gd_nm:마우스 피스:100}or{brand,seller,kindnm:베트남 신혼 여행:1000}
@@ -39,6 +40,7 @@ import org.fastcatsearch.ir.search.clause.Clause;
 public class Query {
 	public static int SEARCH_OPT_NOCACHE = 1 << 0;
 	public static int SEARCH_OPT_EXPLAIN = 1 << 1;
+	public static int SEARCH_OPT_PRUNE = 1 << 2;
 	
 	public static enum EL {
 		cn, sd, ht, sn, ln, so, ud, fl, se, ft, gr, gf, ra, sp, qm, rm, bd;
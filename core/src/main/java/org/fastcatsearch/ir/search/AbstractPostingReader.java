@@ -35,5 +35,10 @@ public abstract class AbstractPostingReader implements PostingReader {
 	public int documentCount() {
 		return documentCount;
 	}
+	
+	@Override
+	public int maxTf() {
+		return -1;
+	}
 
 }
@@ -0,0 +1,262 @@
+package org.fastcatsearch.ir.search;
+
+import java.io.IOException;
+
+import org.fastcatsearch.ir.index.IndexFieldOption;
+import org.fastcatsearch.ir.index.PostingBlockWriter;
+import org.fastcatsearch.ir.io.CharVector;
+import org.fastcatsearch.ir.io.IOUtil;
+import org.fastcatsearch.ir.io.IndexInput;
+import org.fastcatsearch.ir.io.PForCodec;
+
+/**
+ * 블럭압축 형식의 포스팅을 읽는다.
+ * 블럭을 통째로 읽어서 문서번호와 tf를 int[]에 한번에 디코딩하며, advance시에는 블럭헤더만 읽고 필요없는 블럭은 건너뛴다.
+ * BufferedPostingReader와 마찬가지로 리턴한 PostingDoc은 재사용된다.
+ *
+ * position 파일을 사용하는 포스팅은 positionInput이 주어진 경우에만 position을 읽는다.
+ * positionInput이 null이면 position 파일을 전혀 읽지 않으며, PostingDoc의 positionSize는 0이 된다.
+ * @see PostingBlockWriter
+ * */
+public class BlockPostingReader extends AbstractPostingReader {
+
+	private static final int BLOCK_SIZE = PostingBlockWriter.BLOCK_SIZE;
+	private static final int INIT_POSITION_SIZE = 16;
+
+	private IndexInput postingInput;
+	private IndexInput positionInput;
+	private boolean isStorePosition;
+	private boolean isPositionFile;
+	//position을 읽어서 PostingDoc에 채울지 여부.
+	private boolean readPosition;
+
+	//position 파일에서 이 단어 position의 시작위치와 현재 블럭 position의 단어내 위치.
+	private long positionFilePointer;
+	private int blockPositionOffset;
+	private int blockPositionLength;
+
+	private int postingCount;
+	private int maxTf;
+	//아직 읽지 않은 블럭의 문서수.
+	private int postingRemain;
+
+	//이전 블럭과 현재 블럭의 마지막 문서번호.
+	private int prevBlockDocNo;
+	private int blockDocNo;
+
+	private int[] docBuffer;
+	private int[] tfBuffer;
+	private int bufferSize;
+	private int bufferPointer;
+
+	private byte[] blockBuffer;
+	//position을 읽을 버퍼. position 파일을 사용하지 않으면 blockBuffer와 같다.
+	private byte[] positionBuffer;
+	private int positionPointer;
+
+	//재사용 버퍼.
+	private PostingDoc postingDoc;
+	private int[] positions;
+
+	public BlockPostingReader(CharVector term, int termPosition, int weight, int documentCount, IndexFieldOption indexFieldOption, IndexInput postingInput, long inputOffset) {
+		this(term, termPosition, weight, documentCount, indexFieldOption, postingInput, null, inputOffset);
+	}
+
+	public BlockPostingReader(CharVector term, int termPosition, int weight, int documentCount, IndexFieldOption indexFieldOption, IndexInput postingInput, IndexInput positionInput, long inputOffset) {
+		super(term, termPosition, weight, documentCount);
+		this.postingInput = postingInput;
+		this.positionInput = positionInput;
+		this.isStorePosition = indexFieldOption.isStorePosition();
+		this.isPositionFile = indexFieldOption.isPositionFile();
+		this.readPosition = isStorePosition && (!isPositionFile || positionInput != null);
+
+		try {
+			postingInput.seek(inputOffset);
+			int len = postingInput.readVInt();
+			this.postingCount = postingInput.readInt();
+			int lastDocNo = postingInput.readInt();
+			maxTf = indexFieldOption.isStoreMaxTf() ? postingInput.readInt() : -1;
+			if (isPositionFile) {
+				positionFilePointer = postingInput.readLong();
+				int positionLength = postingInput.readInt();
+			}
+		} catch (IOException e) {
+
+		}
+		postingRemain = postingCount;
+		prevBlockDocNo = -1;
+		blockDocNo = -1;
+
+		int bufferLength = postingCount < BLOCK_SIZE ? postingCount : BLOCK_SIZE;
+		docBuffer = new int[bufferLength];
+		tfBuffer = new int[bufferLength];
+		blockBuffer = new byte[256];
+		positionBuffer = blockBuffer;
+		postingDoc = new PostingDoc();
+		if (readPosition) {
+			positions = new int[INIT_POSITION_SIZE];
+		}
+	}
+
+	@Override
+	public int size() {
+		return postingCount;
+	}
+
+	@Override
+	public int maxTf() {
+		return maxTf;
+	}
+
+	@Override
+	public boolean hasNext() {
+		return bufferPointer < bufferSize || postingRemain > 0;
+	}
+
+	// 블럭헤더를 읽고, 블럭 데이터 길이를 리턴한다.
+	private int readBlockHeader() throws IOException {
+		prevBlockDocNo = blockDocNo;
+		blockDocNo += postingInput.readVInt();
+		int blockLength = postingInput.readVInt();
+		if (isPositionFile) {
+			blockPositionOffset += blockPositionLength;
+			blockPositionLength = postingInput.readVInt();
+		}
+		return blockLength;
+	}
+
+	private void readBlock(int blockLength) throws IOException {
+		if (blockBuffer.length < blockLength) {
+			blockBuffer = new byte[Math.max(blockLength, blockBuffer.length * 2)];
+		}
+		postingInput.readBytes(blockBuffer, 0, blockLength);
+
+		int n = postingRemain < BLOCK_SIZE ? postingRemain : BLOCK_SIZE;
+		int pos = PForCodec.decode(blockBuffer, 0, docBuffer, n);
+		positionPointer = PForCodec.decode(blockBuffer, pos, tfBuffer, n);
+		if (isPositionFile && readPosition) {
+			readBlockPosition();
+		} else {
+			positionBuffer = blockBuffer;
+		}
+
+		//delta를 문서번호로 바꾼다.
+		int docNo = prevBlockDocNo;
+		for (int i = 0; i < n; i++) {
+			docNo += docBuffer[i] + 1;
+			docBuffer[i] = docNo;
+		}
+		bufferSize = n;
+		bufferPointer = 0;
+		postingRemain -= n;
+	}
+
+	// position 파일에서 현재 블럭의 position을 읽는다.
+	private void readBlockPosition() throws IOException {
+		if (positionBuffer == blockBuffer || positionBuffer.length < blockPositionLength) {
+			positionBuffer = new byte[Math.max(blockPositionLength, 256)];
+		}
+		positionInput.seek(positionFilePointer + blockPositionOffset);
+		positionInput.readBytes(positionBuffer, 0, blockPositionLength);
+		positionPointer = 0;
+	}
+
+	private PostingDoc read() {
+		int tf = tfBuffer[bufferPointer];
+		int positionSize = 0;
+		if (tf > 0 && readPosition) {
+			if (positions.length < tf) {
+				positions = new int[Math.max(tf, positions.length * 2)];
+			}
+			int prevPosition = -1;
+			for (int j = 0; j < tf; j++) {
+				int v = IOUtil.readVInt(positionBuffer, positionPointer);
+				positionPointer += IOUtil.lenVariableByte(v);
+				if (prevPosition >= 0) {
+					positions[j] = v + prevPosition + 1;
+				} else {
+					positions[j] = v;
+				}
+				prevPosition = positions[j];
+			}
+			positionSize = tf;
+		}
+		postingDoc.set(docBuffer[bufferPointer], tf, positions, positionSize);
+		bufferPointer++;
+		return postingDoc;
+	}
+
+	@Override
+	public PostingDoc next() {
+		if (bufferPointer == bufferSize) {
+			if (postingRemain <= 0) {
+				return null;
+			}
+			try {
+				readBlock(readBlockHeader());
+			} catch (IOException e) {
+				logger.error("error while read posting block", e);
+				postingRemain = 0;
+				return null;
+			}
+		}
+		return read();
+	}
+
+	@Override
+	public PostingDoc advance(int targetDocNo) {
+		if (bufferPointer == bufferSize || blockDocNo < targetDocNo) {
+			//현재 블럭에는 없으므로, 블럭헤더를 보고 target이 포함된 블럭까지 건너뛴다.
+			bufferPointer = bufferSize;
+			try {
+				while (postingRemain > 0) {
+					int blockLength = readBlockHeader();
+					if (blockDocNo >= targetDocNo) {
+						readBlock(blockLength);
+						break;
+					}
+					postingInput.seek(postingInput.position() + blockLength);
+					postingRemain -= postingRemain < BLOCK_SIZE ? postingRemain : BLOCK_SIZE;
+				}
+			} catch (IOException e) {
+				logger.error("error while skip posting block", e);
+				postingRemain = 0;
+			}
+			if (bufferPointer == bufferSize) {
+				return null;
+			}
+		}
+
+		//블럭의 마지막 문서가 target 이상이므로 블럭안에서 반드시 찾는다.
+		while (bufferPointer < bufferSize) {
+			PostingDoc postingDoc = read();
+			if (postingDoc.docNo() >= targetDocNo) {
+				return postingDoc;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public void close() {
+		if (postingInput != null) {
+			try {
+				postingInput.close();
+			} catch (IOException e) {
+				// ignore
+
+			}
+			blockBuffer = null;
+			positionBuffer = null;
+			positions = null;
+		}
+		if (positionInput != null) {
+			try {
+				positionInput.close();
+			} catch (IOException e) {
+				// ignore
+
+			}
+		}
+	}
+}
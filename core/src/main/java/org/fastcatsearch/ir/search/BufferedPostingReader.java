@@ -6,12 +6,14 @@ import org.fastcatsearch.ir.index.IndexFieldOption;
 import org.fastcatsearch.ir.io.CharVector;
 import org.fastcatsearch.ir.io.IndexInput;
 
+/**
+ * 포스팅을 스트림에서 한 문서씩 디코딩하여 읽는다.
+ * 문서마다 PostingDoc을 새로 만들지 않고, 하나의 PostingDoc과 position 버퍼를 재사용한다.
+ * 따라서 next(), advance()가 리턴한 PostingDoc은 다음 호출전까지만 유효하다.
+ * */
 public class BufferedPostingReader extends AbstractPostingReader {
 
-	private static final int BUFFER_SIZE = 100;
-	private int bufferSize;
-	private int bufferPointer;
-	private PostingDoc[] buffer;
+	private static final int INIT_POSITION_SIZE = 16;
 
 	private IndexInput postingInput;
 	private boolean isStorePosition;
@@ -20,11 +22,15 @@ public class BufferedPostingReader extends AbstractPostingReader {
 	private int postingRemain;
 	private int prevId;
 
+	//재사용 버퍼.
+	private PostingDoc postingDoc;
+	private int[] positions;
+
 	public BufferedPostingReader(CharVector term, int termPosition, int weight, int documentCount, IndexFieldOption indexFieldOption, IndexInput postingInput, long inputOffset) {
 		super(term, termPosition, weight, documentCount);
 		this.postingInput = postingInput;
 		this.isStorePosition = indexFieldOption.isStorePosition();
-		
+
 		try {
 			postingInput.seek(inputOffset);
 			int len = postingInput.readVInt();
@@ -35,15 +41,13 @@ public class BufferedPostingReader extends AbstractPostingReader {
 		}
 		postingRemain = postingCount;
 		prevId = -1;
-		
-		//lazy creation
-		if(postingRemain < BUFFER_SIZE){
-			buffer = new PostingDoc[postingRemain];
-		}else{
-			buffer = new PostingDoc[BUFFER_SIZE];
+
+		postingDoc = new PostingDoc();
+		if(isStorePosition){
+			positions = new int[INIT_POSITION_SIZE];
 		}
 	}
-	
+
 	@Override
 	public int size() {
 		return postingCount;
@@ -51,75 +55,64 @@ public class BufferedPostingReader extends AbstractPostingReader {
 
 	@Override
 	public boolean hasNext() {
-		if(!ensureFilled()){
-			return false;
-		}
-
-		return bufferPointer < bufferSize;
+		return postingRemain > 0;
 	}
 
-	private boolean ensureFilled(){
-		if (bufferPointer == bufferSize) {
-			try {
-				fill();
-				return true;
-			} catch (IOException e) {
-				logger.error("error while fill posting buffer", e);
-			}
-			return false;
+	private void read() throws IOException {
+		int docId = -1;
+		if (prevId >= 0) {
+			docId = postingInput.readVInt() + prevId + 1;
+		} else {
+			docId = postingInput.readVInt();
 		}
-		return true;
-	}
-	
-	private void fill() throws IOException {
-		// read BUFFER_SIZE amount
-		try {
-			int docId = -1;
-			bufferSize = 0;
-			for (int i = 0; i < BUFFER_SIZE && postingRemain > 0; i++) {
-				if (prevId >= 0) {
-					docId = postingInput.readVInt() + prevId + 1;
+		int tf = postingInput.readVInt();
+		int positionSize = 0;
+		if (tf > 0 && isStorePosition) {
+			if (positions.length < tf) {
+				positions = new int[Math.max(tf, positions.length * 2)];
+			}
+			int prevPosition = -1;
+			for (int j = 0; j < tf; j++) {
+				if (prevPosition >= 0) {
+					positions[j] = postingInput.readVInt() + prevPosition + 1;
 				} else {
-					docId = postingInput.readVInt();
-				}
-				int tf = postingInput.readVInt();
-				int[] positions = null;
-				if (tf > 0 && isStorePosition) {
-					int prevPosition = -1;
-					positions = new int[tf];
-					for (int j = 0; j < tf; j++) {
-						if (prevPosition >= 0) {
-							positions[j] = postingInput.readVInt() + prevPosition + 1;
-						} else {
-							positions[j] = postingInput.readVInt();
-						}
-						prevPosition = positions[j];
-
-					}
-
-					
+					positions[j] = postingInput.readVInt();
 				}
-				buffer[bufferSize++] = new PostingDoc(docId, tf, positions);
-//				logger.debug("posting[{}] {} > {}", term, bufferSize-1, buffer[bufferSize-1]);
-				postingRemain--;
-				prevId = docId;
+				prevPosition = positions[j];
 			}
-		} finally {
-			bufferPointer = 0;
+			positionSize = tf;
 		}
-
+		postingDoc.set(docId, tf, positions, positionSize);
+//		logger.debug("posting[{}] > {}", term, postingDoc);
+		postingRemain--;
+		prevId = docId;
 	}
 
 	@Override
 	public PostingDoc next() {
-		if(!ensureFilled()){
+		if (postingRemain <= 0) {
 			return null;
 		}
 
-		if (bufferPointer < bufferSize) {
-			return buffer[bufferPointer++];
+		try {
+			read();
+			return postingDoc;
+		} catch (IOException e) {
+			logger.error("error while read posting", e);
+			postingRemain = 0;
 		}
+		return null;
+	}
 
+	@Override
+	public PostingDoc advance(int targetDocNo) {
+		//VInt 형식은 문서번호가 이전 문서와의 차이로 기록되어 있으므로 순차적으로 읽어서 찾는다.
+		PostingDoc postingDoc = null;
+		while ((postingDoc = next()) != null) {
+			if (postingDoc.docNo() >= targetDocNo) {
+				return postingDoc;
+			}
+		}
 		return null;
 	}
 
@@ -132,7 +125,7 @@ public class BufferedPostingReader extends AbstractPostingReader {
 				// ignore
 
 			}
-			buffer = null;
+			positions = null;
 		}
 	}
 }
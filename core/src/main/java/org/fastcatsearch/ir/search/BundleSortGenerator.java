@@ -73,6 +73,17 @@ public class BundleSortGenerator extends SortGenerator {
 		}
 	}
 
+	@Override
+	public HitElement readHitElement(RankInfo ri) throws IOException {
+		HitElement candidate = super.readHitElement(ri);
+		bundleIndexRef.read(ri.docNo());
+		if(!isBundleKeyEmpty(data)) {
+			//번들키도 재사용 버퍼이므로, 보관하려면 복사해야 한다.
+			candidate.setBundleKey(data);
+		}
+		return candidate;
+	}
+
 	private boolean isBundleKeyEmpty(BytesRef bundleKey) {
 		for(int i = bundleKey.offset; i < bundleKey.length; i++) {
 			if(bundleKey.bytes[i] != 0) {
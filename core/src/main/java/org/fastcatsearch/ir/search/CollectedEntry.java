@@ -8,10 +8,14 @@ public class CollectedEntry {
 	private PostingDoc termDoc;
 	private int queryPosition;
 	private boolean isSynonym;
+	
+	//PostingReader가 리턴하는 PostingDoc은 재사용되므로, 내용을 복사해서 가지고 있는다.
+	private PostingDoc entryDoc = new PostingDoc();
+	private int[] positions;
 
 	public void set(CharVector term, PostingDoc termDoc, int queryPosition, boolean isSynonym) {
 		this.term = term;
-		this.termDoc = termDoc;
+		setTermDoc(termDoc);
 		this.queryPosition = queryPosition;
 		this.isSynonym = isSynonym;
 	}
@@ -29,7 +33,19 @@ public class CollectedEntry {
 	}
 
 	public void setTermDoc(PostingDoc termDoc) {
-		this.termDoc = termDoc;
+		if (termDoc == null) {
+			this.termDoc = null;
+			return;
+		}
+		int positionSize = termDoc.positionSize();
+		if (positionSize > 0) {
+			if (positions == null || positions.length < positionSize) {
+				positions = new int[positionSize];
+			}
+			System.arraycopy(termDoc.positions(), 0, positions, 0, positionSize);
+		}
+		entryDoc.set(termDoc.docNo(), termDoc.tf(), positionSize > 0 ? positions : null, positionSize);
+		this.termDoc = entryDoc;
 	}
 
 	public int queryPosition() {
@@ -3,8 +3,10 @@ package org.fastcatsearch.ir.search;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.lucene.util.BytesRef;
@@ -21,10 +23,12 @@ import org.fastcatsearch.ir.config.DataPlanConfig;
 import org.fastcatsearch.ir.document.PrimaryKeyIndexBulkReader;
 import org.fastcatsearch.ir.document.PrimaryKeyIndexReader;
 import org.fastcatsearch.ir.document.merge.PrimaryKeyIndexMerger;
+import org.fastcatsearch.ir.group.GlobalOrdinals;
 import org.fastcatsearch.ir.index.DeleteIdSet;
 import org.fastcatsearch.ir.index.PrimaryKeys;
 import org.fastcatsearch.ir.io.BitSet;
 import org.fastcatsearch.ir.io.BytesBuffer;
+import org.fastcatsearch.ir.io.IndexInputType;
 import org.fastcatsearch.ir.settings.AnalyzerSetting;
 import org.fastcatsearch.ir.settings.Schema;
 import org.fastcatsearch.ir.util.Counter;
@@ -48,6 +52,10 @@ public class CollectionHandler {
 	private AnalyzerPoolManager analyzerPoolManager;
 
 	private Counter queryCounter;
+	
+	//그룹색인별 전역 그룹번호 매핑. globalOrdinalsSegmentList 세그먼트로 만든것이며, 세그먼트가 바뀌면 비운다.
+	private Map<String, GlobalOrdinals> globalOrdinalsMap = new HashMap<String, GlobalOrdinals>();
+	private List<SegmentReader> globalOrdinalsSegmentList;
 
 	public CollectionHandler(CollectionContext collectionContext, AnalyzerFactoryManager analyzerFactoryManager) throws IRException, SettingException {
 		this.collectionContext = collectionContext;
@@ -132,7 +140,7 @@ public class CollectionHandler {
 					File segmentDir = dataPaths.segmentFile(dataSequence, segmentInfo.getId());
 					// 삭제문서는 마지막 세그먼트의 마지막 리비전에 최신 업데이트 파일이 있으므로, 그것을 로딩한다.
 					BitSet deleteSet = new BitSet(lastRevisionDir, IndexFileNames.getSuffixFileName(IndexFileNames.docDeleteSet, segmentInfo.getId()));
-					segmentReaderList.add(new SegmentReader(segmentInfo, schema, segmentDir, deleteSet, analyzerPoolManager));
+					segmentReaderList.add(new SegmentReader(segmentInfo, schema, segmentDir, deleteSet, analyzerPoolManager, indexInputType()));
 					logger.debug("{}", segmentInfo);
 				}
 			} catch (IOException e) {
@@ -149,6 +157,7 @@ public class CollectionHandler {
 			}
 		}
 		collectionSearcher = null;
+		clearGlobalOrdinals();
 		isLoaded = false;
 	}
 
@@ -186,6 +195,42 @@ public class CollectionHandler {
 		return segmentReaderList.get(segmentReaderList.size() - 1);
 	}
 
+	/**
+	 * 현재 세그먼트 reader 목록의 복사본. 검색도중 세그먼트가 바뀌더라도 같은 목록을 사용할때 쓴다.
+	 * */
+	public List<SegmentReader> segmentReaders() {
+		return new ArrayList<SegmentReader>(segmentReaderList);
+	}
+	
+	/**
+	 * segmentReaders 세그먼트들에 대한 groupIndexId 그룹색인의 전역 그룹번호 매핑을 리턴한다.
+	 * 처음 사용할때 만들어 캐시하며, 다른 세그먼트 목록으로 요청하면 캐시를 비우고 다시 만든다.
+	 * */
+	public synchronized GlobalOrdinals globalOrdinals(String groupIndexId, List<SegmentReader> segmentReaders) throws IOException {
+		if (!segmentReaders.equals(globalOrdinalsSegmentList)) {
+			globalOrdinalsMap.clear();
+			globalOrdinalsSegmentList = segmentReaders;
+		}
+		GlobalOrdinals globalOrdinals = globalOrdinalsMap.get(groupIndexId);
+		if (globalOrdinals == null) {
+			long st = System.currentTimeMillis();
+			List<GroupIndexReader> readerList = new ArrayList<GroupIndexReader>(segmentReaders.size());
+			for (SegmentReader segmentReader : segmentReaders) {
+				IndexRef<GroupIndexReader> indexRef = segmentReader.newGroupIndexesReader().selectIndexRef(new String[] { groupIndexId });
+				readerList.add(indexRef.getReader(0));
+			}
+			globalOrdinals = new GlobalOrdinals(readerList);
+			globalOrdinalsMap.put(groupIndexId, globalOrdinals);
+			logger.debug("[{}] build global ordinals of {}. keys[{}] segments[{}] {}ms", collectionId, groupIndexId, globalOrdinals.size(), segmentReaders.size(), System.currentTimeMillis() - st);
+		}
+		return globalOrdinals;
+	}
+	
+	private synchronized void clearGlobalOrdinals() {
+		globalOrdinalsMap.clear();
+		globalOrdinalsSegmentList = null;
+	}
+	
 	public SegmentSearcher segmentSearcher(int segmentNumber) {
 		if (segmentReaderList.size() == 0) {
 			return null;
@@ -203,6 +248,7 @@ public class CollectionHandler {
 	// 색인이 끝나면서 이미 context에 segmentinfo가 추가되어있는 상태이다.
 	private void addSegmentReader(SegmentReader segmentReader) {
 		segmentReaderList.add(segmentReader);
+		clearGlobalOrdinals();
 		// info.xml 파일업데이트용.
 		collectionContext.updateSegmentInfo(segmentReader.segmentInfo());
 	}
@@ -211,6 +257,7 @@ public class CollectionHandler {
 	private void updateSegmentReader(SegmentReader segmentReader, SegmentReader prevSegmentReader) {
 		segmentReaderList.remove(prevSegmentReader);
 		segmentReaderList.add(segmentReader);
+		clearGlobalOrdinals();
 		// info.xml 파일업데이트용.
 		collectionContext.updateSegmentInfo(segmentReader.segmentInfo());
 		
@@ -245,6 +292,11 @@ public class CollectionHandler {
 		
 	}
 
+	// 세그먼트 파일을 읽는 방식. 컬렉션설정이 바뀌면 이후 새로 여는 세그먼트부터 적용된다.
+	private IndexInputType indexInputType() {
+		return IndexInputType.parse(collectionContext.collectionConfig().getIndexInputType());
+	}
+
 	// SegmentReader 찾기.
 	private SegmentReader getSegmentReader(String segmentId) {
 		for (SegmentReader segmentReader : segmentReaderList) {
@@ -287,7 +339,7 @@ public class CollectionHandler {
 				segmentReaderList.get(i).setDeleteSet(deleteSetList[i]);
 			}
 			// 새로생성된 세그먼트는 로딩하여 리스트에 추가해준다.
-			addSegmentReader(new SegmentReader(segmentInfo, schema, segmentDir, analyzerPoolManager));
+			addSegmentReader(new SegmentReader(segmentInfo, schema, segmentDir, null, analyzerPoolManager, indexInputType()));
 		} else {
 			/*
 			 * 리비전이 증가한경우.
@@ -327,8 +379,8 @@ public class CollectionHandler {
 				prevSegmentReaderList.get(i).setDeleteSet(deleteSetList[i]);
 			}
 			// 새 revison을 읽는 segmentReader를 만들어서 기존것과 바꾼다.
-			updateSegmentReader(new SegmentReader(segmentInfo, schema, segmentDir, analyzerPoolManager), oldSegmentReader);
-			// 기존 reader는 닫는다.
+			updateSegmentReader(new SegmentReader(segmentInfo, schema, segmentDir, null, analyzerPoolManager, indexInputType()), oldSegmentReader);
+			// 기존 reader는 닫는다. 이전 리비전으로 만든 필터캐시도 함께 비워진다.
 			oldSegmentReader.close();
 		}
 	}
@@ -342,7 +394,7 @@ public class CollectionHandler {
 			BitSet deleteSet = new BitSet(lastRevisionDir, IndexFileNames.getSuffixFileName(IndexFileNames.docDeleteSet, prevSegmentInfo.getId()));
 			segmentReaderList.get(i).setDeleteSet(deleteSet);
 		}
-		addSegmentReader(new SegmentReader(segmentInfo, schema, segmentDir, analyzerPoolManager));
+		addSegmentReader(new SegmentReader(segmentInfo, schema, segmentDir, null, analyzerPoolManager, indexInputType()));
 	}
 
 	// 단순 update. delete.set파일은 이미 수정되어있다고 가정한다.
@@ -361,7 +413,7 @@ public class CollectionHandler {
 			prevSegmentReaderList.get(i).setDeleteSet(deleteSet);
 		}
 		// 새 revison을 읽는 segmentReader를 만들어서 기존것과 바꾼다.
-		updateSegmentReader(new SegmentReader(segmentInfo, schema, segmentDir, analyzerPoolManager), oldSegmentReader);
+		updateSegmentReader(new SegmentReader(segmentInfo, schema, segmentDir, null, analyzerPoolManager, indexInputType()), oldSegmentReader);
 		// 기존 reader는 닫는다.
 		oldSegmentReader.close();
 	}
@@ -10,6 +10,8 @@ import org.fastcatsearch.ir.field.DocNoField;
 import org.fastcatsearch.ir.field.Field;
 import org.fastcatsearch.ir.field.ScoreField;
 import org.fastcatsearch.ir.field.UnknownField;
+import org.fastcatsearch.ir.group.GlobalOrdinals;
+import org.fastcatsearch.ir.group.GroupDataGenerator;
 import org.fastcatsearch.ir.group.GroupDataMerger;
 import org.fastcatsearch.ir.group.GroupHit;
 import org.fastcatsearch.ir.group.GroupsData;
@@ -31,6 +33,9 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 public class CollectionSearcher {
 	private static Logger logger = LoggerFactory.getLogger(CollectionSearcher.class);
@@ -70,31 +75,28 @@ public class CollectionSearcher {
 				throw new IRException(e);
 			}
 		} else {
-
-			GroupDataMerger dataMerger = null;
-			if (groups != null) {
-				dataMerger = new GroupDataMerger(groups, segmentSize);
-			}
-
+			// 세그먼트별 결과를 키로 머징하지 않고, 전역 그룹번호 배열 하나에 바로 집계한다.
 			try {
-				for (int i = 0; i < segmentSize; i++) {
-					GroupHit groupHit = collectionHandler.segmentSearcher(i).searchGroupHit(q);
-
-					if (dataMerger != null) {
-						dataMerger.put(groupHit.groupData());
+				List<SegmentReader> segmentReaders = collectionHandler.segmentReaders();
+				Schema schema = collectionHandler.schema();
+				GlobalOrdinals[] globalOrdinalsList = new GlobalOrdinals[groups.size()];
+				for (int i = 0; i < groups.size(); i++) {
+					String groupIndexId = groups.getGroup(i).groupIndexId();
+					if (schema.getGroupIndexSequence(groupIndexId) >= 0) {
+						globalOrdinalsList[i] = collectionHandler.globalOrdinals(groupIndexId, segmentReaders);
 					}
 				}
+				GroupDataGenerator groupGenerator = groups.getGroupDataGenerator(schema, globalOrdinalsList);
+				for (int i = 0; i < segmentReaders.size(); i++) {
+					segmentReaders.get(i).segmentSearcher().searchGroup(q, groupGenerator, i);
+				}
+				//컬렉션의 최종 그룹결과이므로 limit이 있으면 상위 후보만 만든다.
+				return groupGenerator.generate(true);
 			} catch (IOException e) {
 				throw new IRException(e);
 			} catch (ClauseException e) {
 				throw new IRException(e);
 			}
-
-			GroupsData groupData = null;
-			if (dataMerger != null) {
-				groupData = dataMerger.merge();
-			}
-			return groupData;
 		}
 
 	}
@@ -274,7 +276,8 @@ public class CollectionSearcher {
 
 		GroupsData groupData = null;
 		if (dataMerger != null) {
-			groupData = dataMerger.merge();
+			//doGrouping과 같이 노드로 보낼 후보 그룹만 남긴다.
+			groupData = dataMerger.merge(true);
 		}
 		
 		HitElement[] hitElementList = totalHit.getHitElementList();
@@ -317,18 +320,12 @@ public class CollectionSearcher {
 		Groups groups = q.getGroups();
 
 		Sorts sorts = q.getSorts();
-//		FixedMinHeap<FixedHitReader> hitMerger = null;
-		FixedMaxPriorityQueue<HitElement> ranker = null;
+		// 각 세그먼트는 상위 sortMaxSize개만 정렬하여 전달하고, hitMerger에서 세그먼트 결과들을 병합한다.
+		FixedMinHeap<FixedHitReader> hitMerger = null;
 		if (sorts == null) {
-//			hitMerger = sorts.createMerger(schema, segmentSize);
-			//TODO 
-			//BundleDefaultRanker (fieldIndexesReader, bundle)
-			ranker = new DefaultRanker(sortMaxSize);
+			hitMerger = new FixedMinHeap<FixedHitReader>(segmentSize);
 		} else {
-//			hitMerger = new FixedMinHeap<FixedHitReader>(segmentSize);
-			// ranker에 정렬 로직이 담겨있다.
-			// ranker 안에는 필드타입과 정렬옵션을 확인하여 적합한 byte[] 비교를 수행한다.
-			ranker = sorts.createRanker(schema, sortMaxSize);
+			hitMerger = sorts.createMerger(schema, segmentSize);
 		}
 
 		GroupDataMerger dataMerger = null;
@@ -345,92 +342,101 @@ public class CollectionSearcher {
         // 대부분 100만개 이하일 것이므로, 메모리에서 수행하도록 한다.
 		Set<BytesRef> bundleKeySet = new HashSet<BytesRef>();
 		List<Explanation> explanationList = null;
-		BitSet[] segmentDocHitSetList = null;
-		try {
-			segmentDocHitSetList = new BitSet[segmentSize];
+		BitSet[] segmentDocHitSetList = new BitSet[segmentSize];
+		SegmentHitResult[] segmentResultList = null;
+		int parallelSize = Math.min(collectionHandler.collectionContext().collectionConfig().getSearchParallelSize(), segmentSize);
+		if (parallelSize > 1) {
+			// 세그먼트들을 동시에 검색한 뒤, 결과는 순차검색과 동일하게 세그먼트 순서대로 합친다.
+			segmentResultList = searchSegmentParallel(q, boostList, schema, sortMaxSize, segmentSize, parallelSize);
+		} else {
+			segmentResultList = new SegmentHitResult[segmentSize];
 			for (int i = 0; i < segmentSize; i++) {
-				// segment 의 모든 결과를 보아야 중복체크가 가능하므로 reader를 받아오도록 한다.
-				HitReader hitReader = collectionHandler.segmentSearcher(i).searchHitReader(q, boostList);
-				//
-				//
-				//FIXME highlightInfo 계속 덮어쓰나?
-				//
-				if (highlightInfo == null) {
-					highlightInfo = hitReader.highlightInfo();
-				}
-
-//				GroupsData groupData = hitReader.groupData();
-				
-				segmentDocHitSetList[i] = new BitSet();
-				// posting data
-				HitElement e = null;
-				while ((e = hitReader.next()) != null) {
-					if (e.getBundleKey() != null) {
-						segmentDocHitSetList[i].set(e.docNo());
-						if(bundleKeySet.add(e.getBundleKey())) {
-							totalSize++;
-						}
-					} else {
+				segmentResultList[i] = searchSegment(i, q, boostList, schema, sortMaxSize);
+			}
+		}
+		
+		for (int i = 0; i < segmentSize; i++) {
+			SegmentHitResult segmentResult = segmentResultList[i];
+			//
+			//
+			//FIXME highlightInfo 계속 덮어쓰나?
+			//
+			if (highlightInfo == null) {
+				highlightInfo = segmentResult.highlightInfo;
+			}
+			
+			segmentDocHitSetList[i] = segmentResult.docHitSet;
+			totalSize += segmentResult.hitCount;
+			if (segmentResult.bundleKeySet != null) {
+				for (BytesRef bundleKey : segmentResult.bundleKeySet) {
+					if(bundleKeySet.add(bundleKey)) {
 						totalSize++;
 					}
-					ranker.push(e);
-//					logger.debug("heap insert hit > {}", e.docNo());
-				}
-				
-				// Put GroupResult
-				if (dataMerger != null) {
-					dataMerger.put(hitReader.makeGroupData());
-				}
-				
-				if(hitReader.explanation() != null){
-					if(explanationList == null){
-						explanationList = new ArrayList<Explanation>();
-					}
-					hitReader.explanation().setSegmentId(i);
-					hitReader.explanation().setCollectionId(collectionId);
-					explanationList.add(hitReader.explanation());
 				}
 			}
 			
-		} catch (IOException e) {
-			throw new IRException(e);
-		} catch (ClauseException e) {
-			throw new IRException(e);
-		}
-
-
-		int rankerSize = ranker.size();
-//		logger.debug("PAGE start={}, size={}", start, rankerSize);
-		
-		FixedHitStack hitStack = new FixedHitStack(rankerSize);
-		for (int i = 1; i <= rankerSize; i++) {
-			HitElement el = ranker.pop();
-			hitStack.push(el);
+			// posting data
+			FixedHitReader hitReader = segmentResult.hitStack.getReader();
+			if (hitReader.next()) {
+				hitMerger.push(hitReader);
+			}
+			
+			// Put GroupResult
+			if (dataMerger != null) {
+				dataMerger.put(segmentResult.groupData);
+			}
+			
+			if(segmentResult.explanation != null){
+				if(explanationList == null){
+					explanationList = new ArrayList<Explanation>();
+				}
+				segmentResult.explanation.setSegmentId(i);
+				segmentResult.explanation.setCollectionId(collectionId);
+				explanationList.add(segmentResult.explanation);
+			}
 		}
 		
-		int c = 1;
-		FixedHitReader fixedHitReader = hitStack.getReader();
+		// 각 세그먼트의 결과들을 rankdata를 기준으로 재정렬한다.
 		FixedHitQueue totalHit = new FixedHitQueue(resultRows);
-		while(fixedHitReader.next()) {
-			HitElement el = fixedHitReader.read();
+		//세그먼트간에 동일한 번들키는 먼저 나온 것만 사용한다.
+		Set<BytesRef> bundleKeyDedupSet = null;
+		if (q.getBundle() != null) {
+			bundleKeyDedupSet = new HashSet<BytesRef>();
+		}
+		int c = 1, n = 0;
+		// 이미 각 세그먼트의 결과들은 정렬이되어서 전달이 된다.
+		// 그러므로, 여기서는 원하는 갯수가 다 차면 더이상 정렬을 수행할 필요없이 early termination이 가능하다.
+		while (hitMerger.size() > 0 && n < resultRows) {
+			FixedHitReader r = hitMerger.peek();
+			HitElement el = r.read();
 //			logger.debug("{} rank hit seg#{} {}", c, el.segmentSequence(), el.docNo(), el.score(), el.rowExplanations());
 			
-			if (forMerging) {
-				//머징용도는 처음부터 모두 넣는다.
-				//번들키가 없거나 totalHit에 존재하지 않을때만 추가하고 나머지는 버린다.
-				totalHit.push(el);
-			} else if (c >= start) {
-				//차후 머징용도가 아니라면 start이후 부터만 가져온다. 
-//				logger.debug("insert#{} > {}", c, el.docNo());
-				totalHit.push(el);
+			if (bundleKeyDedupSet == null || el.getBundleKey() == null || bundleKeyDedupSet.add(el.getBundleKey())) {
+				if (forMerging) {
+					//머징용도는 처음부터 모두 넣는다.
+					totalHit.push(el);
+					n++;
+				} else if (c >= start) {
+					//차후 머징용도가 아니라면 start이후 부터만 가져온다. 
+//					logger.debug("insert#{} > {}", c, el.docNo());
+					totalHit.push(el);
+					n++;
+				}
+				c++;
 			}
-			c++;
+			
+			if (!r.next()) {
+				// 다 읽은 것은 버린다.
+				hitMerger.pop();
+			}
+			hitMerger.heapify();
 		}
 		
 
 		GroupsData groupData = null;
 		if (dataMerger != null) {
-			groupData = dataMerger.merge();
+			//doGrouping과 같이 노드로 보낼 후보 그룹만 남긴다.
+			groupData = dataMerger.merge(true);
 		}
 		
 		HitElement[] hitElementList = totalHit.getHitElementList();
@@ -446,6 +452,138 @@ public class CollectionSearcher {
 		return new InternalSearchResult(collectionId, hitElementList, realSize, totalSize, groupData, highlightInfo, explanationList);
 	}
 	
+	/*
+	 * 한 세그먼트를 검색하여 상위 sortMaxSize개의 결과를 정렬된 stack으로 만든다.
+	 * 묶음검색은 세그먼트의 모든 결과를 보아야 중복체크가 가능하므로 모든 번들키와 문서번호도 함께 모은다.
+	 * */
+	private SegmentHitResult searchSegment(int segmentNumber, Query q, PkScoreList boostList, Schema schema, int sortMaxSize) throws IRException {
+		try {
+			Sorts sorts = q.getSorts();
+			FixedMaxPriorityQueue<HitElement> ranker = null;
+			if (sorts == null) {
+				//TODO 
+				//BundleDefaultRanker (fieldIndexesReader, bundle)
+				ranker = new DefaultRanker(sortMaxSize);
+			} else {
+				// ranker에 정렬 로직이 담겨있다.
+				// ranker 안에는 필드타입과 정렬옵션을 확인하여 적합한 byte[] 비교를 수행한다.
+				ranker = sorts.createRanker(schema, sortMaxSize);
+			}
+			
+			HitReader hitReader = collectionHandler.segmentSearcher(segmentNumber).searchHitReader(q, boostList);
+			SegmentHitResult segmentResult = new SegmentHitResult();
+			segmentResult.docHitSet = new BitSet();
+			// hitReader가 리턴하는 HitElement는 재사용 객체이므로, 랭커에 들어가는 것만 복사한다.
+			HitElement e = null;
+			HitElement freeElement = null;
+			//세그먼트가 첫번째 정렬조건 순서로 색인되어 있으면 순위에 들수 없는 문서부터는 읽지 않는다.
+			HitRanker indexSortedRanker = (hitReader.isIndexSorted() && ranker instanceof HitRanker) ? (HitRanker) ranker : null;
+			while ((e = hitReader.next()) != null) {
+				if (indexSortedRanker != null && indexSortedRanker.isFirstKeyBehind(e)) {
+					//이후 문서의 결과갯수는 읽은 문서번호 범위의 비율로 추정한다.
+					segmentResult.hitCount = hitReader.estimateTotalCount(segmentResult.hitCount, e.docNo());
+					break;
+				}
+				BytesRef bundleKey = e.getBundleKey();
+				if (bundleKey != null) {
+					segmentResult.docHitSet.set(e.docNo());
+					if (segmentResult.bundleKeySet == null) {
+						segmentResult.bundleKeySet = new HashSet<BytesRef>();
+					}
+					if (!segmentResult.bundleKeySet.contains(bundleKey)) {
+						segmentResult.bundleKeySet.add(bundleKey.duplicate());
+					}
+				} else {
+					segmentResult.hitCount++;
+				}
+				if (ranker.isCompetitive(e)) {
+					// 랭커가 가득 찼다면 root가 밀려나므로 다음 복사에 재사용한다. 번들은 교체될 원소를 알수 없으므로 재사용하지 않는다.
+					HitElement evicted = (ranker.size() == sortMaxSize && bundleKey == null) ? ranker.peek() : null;
+					ranker.push(hitReader.copyHitElement(e, freeElement));
+					freeElement = evicted;
+//					logger.debug("heap insert hit > {}", e.docNo());
+					if (ranker.size() == sortMaxSize && hitReader.isPruning()) {
+						//랭커의 최소점수에 도달할수 없는 문서는 더이상 읽지 않는다.
+						hitReader.setMinScore(ranker.peek().score());
+					}
+				}
+			}
+			
+			int rankerSize = ranker.size();
+			FixedHitStack hitStack = new FixedHitStack(rankerSize);
+			for (int i = 0; i < rankerSize; i++) {
+				hitStack.push(ranker.pop());
+			}
+			segmentResult.hitStack = hitStack;
+			segmentResult.groupData = hitReader.makeGroupData();
+			segmentResult.explanation = hitReader.explanation();
+			segmentResult.highlightInfo = hitReader.highlightInfo();
+			return segmentResult;
+		} catch (IOException e) {
+			throw new IRException(e);
+		} catch (ClauseException e) {
+			throw new IRException(e);
+		}
+	}
+	
+	/*
+	 * 세그먼트들을 parallelSize 갯수의 작업으로 나누어 SegmentSearchExecutor에서 동시에 검색한다.
+	 * 작업 k는 k, k+parallelSize, k+2*parallelSize.. 번째 세그먼트를 맡는다.
+	 * */
+	private SegmentHitResult[] searchSegmentParallel(final Query q, final PkScoreList boostList, final Schema schema, final int sortMaxSize, final int segmentSize, final int parallelSize) throws IRException {
+		final SegmentHitResult[] segmentResultList = new SegmentHitResult[segmentSize];
+		List<Future<Object>> futureList = new ArrayList<Future<Object>>(parallelSize);
+		for (int k = 0; k < parallelSize; k++) {
+			final int taskNo = k;
+			futureList.add(SegmentSearchExecutor.submit(new Callable<Object>() {
+				@Override
+				public Object call() throws Exception {
+					for (int i = taskNo; i < segmentSize; i += parallelSize) {
+						segmentResultList[i] = searchSegment(i, q, boostList, schema, sortMaxSize);
+					}
+					return null;
+				}
+			}));
+		}
+		
+		IRException exception = null;
+		for (Future<Object> future : futureList) {
+			try {
+				// 에러가 나더라도 나머지 작업이 끝날때까지 기다린다.
+				future.get();
+			} catch (InterruptedException e) {
+				if (exception == null) {
+					exception = new IRException(e);
+				}
+			} catch (ExecutionException e) {
+				if (exception == null) {
+					Throwable cause = e.getCause();
+					exception = cause instanceof IRException ? (IRException) cause : new IRException(cause);
+				}
+			}
+		}
+		if (exception != null) {
+			throw exception;
+		}
+		return segmentResultList;
+	}
+	
+	/*
+	 * 한 세그먼트의 검색결과.
+	 * */
+	private static class SegmentHitResult {
+		//정렬된 상위 결과.
+		private FixedHitStack hitStack;
+		//번들키가 없는 결과갯수.
+		private int hitCount;
+		//번들키가 있는 결과의 번들키와 문서번호.
+		private Set<BytesRef> bundleKeySet;
+		private BitSet docHitSet;
+		private GroupsData groupData;
+		private Explanation explanation;
+		private HighlightInfo highlightInfo;
+	}
+	
 	/*
 	 * 번들 문서를 찾아온다.
 	 * */
@@ -35,6 +35,28 @@ public class DataPostingReader extends AbstractPostingReader {
 		return null;
 	}
 
+	@Override
+	public PostingDoc advance(int targetDocNo) {
+		while (postingPointer < dataLength) {
+			PostingDoc postingDoc = dataList[postingPointer++];
+			if (postingDoc.docNo() >= targetDocNo) {
+				return postingDoc;
+			}
+		}
+		return null;
+	}
+	
+	@Override
+	public int maxTf() {
+		int maxTf = 0;
+		for (int i = 0; i < dataLength; i++) {
+			if (dataList[i].tf() > maxTf) {
+				maxTf = dataList[i].tf();
+			}
+		}
+		return maxTf;
+	}
+	
 	@Override
 	public void close() {
 		dataList = null;
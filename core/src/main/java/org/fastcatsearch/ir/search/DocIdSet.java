@@ -0,0 +1,167 @@
+package org.fastcatsearch.ir.search;
+
+import java.util.Arrays;
+
+/**
+ * 세그먼트내 문서번호의 집합. 필터캐시에 보관하여 여러 검색이 함께 사용하므로 만든후에는 변경하지 않는다.
+ *
+ * 문서가 적으면 정렬된 문서번호 배열로, 많으면 bitmap으로 저장하여 둘중 적은 메모리를 사용한다.
+ * 순회는 검색마다 따로 만드는 {@link Iterator}로 한다.
+ * */
+public class DocIdSet {
+
+	private int size;
+	//희소한 경우의 문서번호 배열.
+	private int[] docs;
+	//밀집된 경우의 bitmap.
+	private long[] bits;
+
+	private DocIdSet(int size, int[] docs, long[] bits) {
+		this.size = size;
+		this.docs = docs;
+		this.bits = bits;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean contains(int docNo) {
+		if (docNo < 0) {
+			return false;
+		}
+		if (bits != null) {
+			int word = docNo >>> 6;
+			return word < bits.length && (bits[word] & (1L << docNo)) != 0;
+		}
+		return Arrays.binarySearch(docs, 0, size, docNo) >= 0;
+	}
+
+	/**
+	 * 사용하는 메모리 바이트수.
+	 */
+	public long memorySize() {
+		return bits != null ? bits.length * 8L : size * 4L;
+	}
+
+	public Iterator iterator() {
+		return new Iterator();
+	}
+
+	@Override
+	public String toString() {
+		return "[DocIdSet]size=" + size + ", " + (bits != null ? "bitmap" : "array") + ", memory=" + memorySize();
+	}
+
+	/**
+	 * 문서번호 오름차순으로 이동하며, 한 검색에서만 사용한다.
+	 * */
+	public class Iterator {
+		private int pos;
+
+		/**
+		 * targetDocNo 이상인 첫 문서번호. 없으면 -1.
+		 * targetDocNo는 이전에 찾은 문서번호 이상이어야 한다.
+		 */
+		public int advance(int targetDocNo) {
+			if (bits != null) {
+				return advanceBits(targetDocNo);
+			} else {
+				return advanceDocs(targetDocNo);
+			}
+		}
+
+		private int advanceBits(int targetDocNo) {
+			int word = targetDocNo >>> 6;
+			if (word >= bits.length) {
+				return -1;
+			}
+			long value = bits[word] & (-1L << targetDocNo);
+			while (value == 0) {
+				if (++word == bits.length) {
+					return -1;
+				}
+				value = bits[word];
+			}
+			return (word << 6) + Long.numberOfTrailingZeros(value);
+		}
+
+		/*
+		 * 현재 위치에서 간격을 두배씩 늘리며 범위를 찾고, 그 안에서 이진검색을 한다.
+		 * target이 가까우면 순차이동과 비슷하고, 멀면 log 만큼만 비교한다.
+		 */
+		private int advanceDocs(int targetDocNo) {
+			if (pos >= size) {
+				return -1;
+			}
+			if (docs[pos] >= targetDocNo) {
+				return docs[pos];
+			}
+			int low = pos;
+			int step = 1;
+			int high = pos + step;
+			while (high < size && docs[high] < targetDocNo) {
+				low = high;
+				step <<= 1;
+				high = low + step;
+			}
+			if (high >= size) {
+				high = size - 1;
+				if (docs[high] < targetDocNo) {
+					pos = size;
+					return -1;
+				}
+			}
+			//docs[low] < target <= docs[high]
+			while (high - low > 1) {
+				int mid = (low + high) >>> 1;
+				if (docs[mid] < targetDocNo) {
+					low = mid;
+				} else {
+					high = mid;
+				}
+			}
+			pos = high;
+			return docs[pos];
+		}
+	}
+
+	/**
+	 * 문서번호를 오름차순으로 추가하여 DocIdSet을 만든다.
+	 * */
+	public static class Builder {
+		private long[] bits;
+		private int size;
+		private int lastDocNo = -1;
+
+		public Builder(int docCount) {
+			bits = new long[(docCount + 63) >>> 6];
+		}
+
+		public void add(int docNo) {
+			if (docNo <= lastDocNo) {
+				throw new IllegalArgumentException("docNo must be added in increasing order. docNo=" + docNo + ", last=" + lastDocNo);
+			}
+			bits[docNo >>> 6] |= (1L << docNo);
+			lastDocNo = docNo;
+			size++;
+		}
+
+		public DocIdSet build() {
+			//배열이 bitmap보다 작으면 배열로 바꾼다.
+			if (size * 4L < bits.length * 8L) {
+				int[] docs = new int[size];
+				int n = 0;
+				for (int word = 0; word < bits.length; word++) {
+					long value = bits[word];
+					while (value != 0) {
+						docs[n++] = (word << 6) + Long.numberOfTrailingZeros(value);
+						value &= value - 1;
+					}
+				}
+				return new DocIdSet(size, docs, null);
+			}
+			return new DocIdSet(size, null, bits);
+		}
+	}
+}
@@ -0,0 +1,343 @@
+package org.fastcatsearch.ir.search;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+
+import org.apache.lucene.util.SorterTemplate;
+import org.fastcatsearch.ir.io.BufferedFileInput;
+import org.fastcatsearch.ir.io.IOUtil;
+import org.fastcatsearch.ir.io.IndexInput;
+import org.fastcatsearch.ir.settings.FieldSetting;
+
+/**
+ * 단일값 필드색인 전체를 메모리 배열에 올려, 문서번호로 바로 값을 읽는다.
+ *
+ * 숫자형은 최소값을 뺀 차이를 필요한 비트수만큼만 사용하여 long배열에 이어 붙인다(bit-packing).
+ * 문자형은 중복없는 값을 정렬한 사전과 사전순서(ordinal)로 바꾸어 저장하므로, ordinal 비교가 값 비교와 같다.
+ * offHeap이면 배열대신 direct 메모리를 사용한다.
+ * 정렬과 그룹핑은 NumericColumn.get, OrdinalColumn.ord로 값을 바로 읽고, 그외에는 read로 필드색인 형식의 바이트를 채운다.
+ * 읽기만 하므로 thread-safe하며, reader를 clone하더라도 같은 column을 공유한다.
+ * */
+public abstract class FieldIndexColumn {
+
+	protected int docCount;
+	protected int dataSize;
+
+	/**
+	 * 필드색인 데이터파일을 읽어 column을 만든다.
+	 */
+	public static FieldIndexColumn load(FieldSetting.Type type, File dataFile, int dataSize, boolean offHeap) throws IOException {
+		int docCount = (int) (dataFile.length() / dataSize);
+		byte[] data = new byte[docCount * dataSize];
+		IndexInput dataInput = new BufferedFileInput(dataFile);
+		try {
+			dataInput.readBytes(data, 0, data.length);
+		} finally {
+			dataInput.close();
+		}
+		if (isNumeric(type, dataSize)) {
+			return new NumericColumn(data, docCount, dataSize, offHeap);
+		} else {
+			return new OrdinalColumn(data, docCount, dataSize, offHeap);
+		}
+	}
+
+	private static boolean isNumeric(FieldSetting.Type type, int dataSize) {
+		if (type == FieldSetting.Type.INT || type == FieldSetting.Type.FLOAT) {
+			return dataSize == IOUtil.SIZE_OF_INT;
+		}
+		if (type == FieldSetting.Type.LONG || type == FieldSetting.Type.DOUBLE || type == FieldSetting.Type.DATETIME) {
+			return dataSize == IOUtil.SIZE_OF_LONG;
+		}
+		return false;
+	}
+
+	public int docCount() {
+		return docCount;
+	}
+
+	/**
+	 * 한 문서의 필드색인 데이터 길이.
+	 */
+	public int dataSize() {
+		return dataSize;
+	}
+
+	/**
+	 * docNo의 값을 필드색인 파일과 같은 형식으로 buffer에 채운다.
+	 */
+	public abstract void read(int docNo, byte[] buffer);
+
+	/**
+	 * column이 사용하는 메모리크기.
+	 */
+	public abstract long memorySize();
+
+	/**
+	 * 숫자형 column. 값은 필드색인에 기록된 비트 그대로(int는 부호확장) long으로 다룬다.
+	 */
+	public static class NumericColumn extends FieldIndexColumn {
+		private long minValue;
+		private PackedArray values;
+
+		private NumericColumn(byte[] data, int docCount, int dataSize, boolean offHeap) {
+			this.docCount = docCount;
+			this.dataSize = dataSize;
+			long min = Long.MAX_VALUE;
+			long max = Long.MIN_VALUE;
+			for (int docNo = 0; docNo < docCount; docNo++) {
+				long value = rawValue(data, docNo * dataSize);
+				min = Math.min(min, value);
+				max = Math.max(max, value);
+			}
+			int bitsPerValue;
+			if (docCount == 0) {
+				min = 0;
+				bitsPerValue = 0;
+			} else if (max - min < 0) {
+				//차이가 long범위를 넘으면 원래값 그대로 저장한다.
+				min = 0;
+				bitsPerValue = 64;
+			} else {
+				bitsPerValue = PackedArray.bitsRequired(max - min);
+			}
+			minValue = min;
+			values = new PackedArray(docCount, bitsPerValue, offHeap);
+			for (int docNo = 0; docNo < docCount; docNo++) {
+				values.set(docNo, rawValue(data, docNo * dataSize) - minValue);
+			}
+		}
+
+		private long rawValue(byte[] data, int offset) {
+			if (dataSize == IOUtil.SIZE_OF_INT) {
+				return IOUtil.readInt(data, offset);
+			} else {
+				return IOUtil.readLong(data, offset);
+			}
+		}
+
+		/**
+		 * docNo의 값. int, float는 int비트를, long, double, datetime은 long비트를 리턴한다.
+		 */
+		public long get(int docNo) {
+			return values.get(docNo) + minValue;
+		}
+
+		public int bitsPerValue() {
+			return values.bitsPerValue();
+		}
+
+		@Override
+		public void read(int docNo, byte[] buffer) {
+			long value = get(docNo);
+			for (int i = 0; i < dataSize; i++) {
+				buffer[i] = (byte) (value >>> ((dataSize - 1 - i) * 8));
+			}
+		}
+
+		@Override
+		public long memorySize() {
+			return values.memorySize();
+		}
+	}
+
+	/**
+	 * 문자형 및 그외 column. 정렬된 값 사전과 문서별 ordinal로 구성된다.
+	 */
+	public static class OrdinalColumn extends FieldIndexColumn {
+		private int ordCount;
+		private byte[] dictionary;
+		private ByteBuffer directDictionary;
+		private PackedArray ords;
+
+		private OrdinalColumn(final byte[] data, int docCount, final int dataSize, boolean offHeap) {
+			this.docCount = docCount;
+			this.dataSize = dataSize;
+			//값 순서로 문서번호를 정렬한다.
+			final int[] docs = new int[docCount];
+			for (int i = 0; i < docCount; i++) {
+				docs[i] = i;
+			}
+			new SorterTemplate() {
+				private int pivot;
+
+				@Override
+				protected void swap(int i, int j) {
+					int doc = docs[i];
+					docs[i] = docs[j];
+					docs[j] = doc;
+				}
+
+				@Override
+				protected int compare(int i, int j) {
+					return compareValue(data, docs[i], docs[j], dataSize);
+				}
+
+				@Override
+				protected void setPivot(int i) {
+					pivot = docs[i];
+				}
+
+				@Override
+				protected int comparePivot(int j) {
+					return compareValue(data, pivot, docs[j], dataSize);
+				}
+			}.quickSort(0, docCount - 1);
+
+			int[] docOrds = new int[docCount];
+			int[] ordDocs = new int[docCount];
+			for (int i = 0; i < docCount; i++) {
+				if (i == 0 || compareValue(data, docs[i - 1], docs[i], dataSize) != 0) {
+					ordDocs[ordCount++] = docs[i];
+				}
+				docOrds[docs[i]] = ordCount - 1;
+			}
+
+			if (offHeap) {
+				directDictionary = ByteBuffer.allocateDirect(ordCount * dataSize);
+				for (int ord = 0; ord < ordCount; ord++) {
+					directDictionary.put(data, ordDocs[ord] * dataSize, dataSize);
+				}
+			} else {
+				dictionary = new byte[ordCount * dataSize];
+				for (int ord = 0; ord < ordCount; ord++) {
+					System.arraycopy(data, ordDocs[ord] * dataSize, dictionary, ord * dataSize, dataSize);
+				}
+			}
+			ords = new PackedArray(docCount, PackedArray.bitsRequired(Math.max(ordCount - 1, 0)), offHeap);
+			for (int docNo = 0; docNo < docCount; docNo++) {
+				ords.set(docNo, docOrds[docNo]);
+			}
+		}
+
+		private static int compareValue(byte[] data, int doc1, int doc2, int dataSize) {
+			int offset1 = doc1 * dataSize;
+			int offset2 = doc2 * dataSize;
+			for (int i = 0; i < dataSize; i++) {
+				int diff = (data[offset1 + i] & 0xff) - (data[offset2 + i] & 0xff);
+				if (diff != 0) {
+					return diff;
+				}
+			}
+			return 0;
+		}
+
+		/**
+		 * docNo 값의 사전순서.
+		 */
+		public int ord(int docNo) {
+			return (int) ords.get(docNo);
+		}
+
+		/**
+		 * 중복없는 값의 갯수.
+		 */
+		public int ordCount() {
+			return ordCount;
+		}
+
+		/**
+		 * ord번째 값을 buffer에 채운다.
+		 */
+		public void lookupOrd(int ord, byte[] buffer) {
+			int offset = ord * dataSize;
+			if (dictionary != null) {
+				System.arraycopy(dictionary, offset, buffer, 0, dataSize);
+			} else {
+				for (int i = 0; i < dataSize; i++) {
+					buffer[i] = directDictionary.get(offset + i);
+				}
+			}
+		}
+
+		@Override
+		public void read(int docNo, byte[] buffer) {
+			lookupOrd(ord(docNo), buffer);
+		}
+
+		@Override
+		public long memorySize() {
+			return (long) ordCount * dataSize + ords.memorySize();
+		}
+	}
+
+	/**
+	 * 0이상의 값을 bitsPerValue비트씩 이어 붙여 저장하는 배열.
+	 */
+	public static class PackedArray {
+		private int bitsPerValue;
+		private long mask;
+		private long[] blocks;
+		private LongBuffer directBlocks;
+		private int blockCount;
+
+		public PackedArray(int size, int bitsPerValue, boolean offHeap) {
+			this.bitsPerValue = bitsPerValue;
+			mask = bitsPerValue == 64 ? -1L : (1L << bitsPerValue) - 1;
+			//마지막 값이 다음 블럭에 걸치더라도 읽을수 있도록 한블럭 여유를 둔다.
+			blockCount = (int) (((long) size * bitsPerValue + 63) >>> 6) + 1;
+			if (offHeap) {
+				directBlocks = ByteBuffer.allocateDirect(blockCount * IOUtil.SIZE_OF_LONG).asLongBuffer();
+			} else {
+				blocks = new long[blockCount];
+			}
+		}
+
+		public static int bitsRequired(long maxValue) {
+			return maxValue == 0 ? 0 : 64 - Long.numberOfLeadingZeros(maxValue);
+		}
+
+		public int bitsPerValue() {
+			return bitsPerValue;
+		}
+
+		private long block(int index) {
+			return blocks != null ? blocks[index] : directBlocks.get(index);
+		}
+
+		private void orBlock(int index, long value) {
+			if (blocks != null) {
+				blocks[index] |= value;
+			} else {
+				directBlocks.put(index, directBlocks.get(index) | value);
+			}
+		}
+
+		public long get(int index) {
+			if (bitsPerValue == 0) {
+				return 0;
+			}
+			long bitPos = (long) index * bitsPerValue;
+			int blockIndex = (int) (bitPos >>> 6);
+			int shift = (int) (bitPos & 63);
+			long value = block(blockIndex) >>> shift;
+			if (shift + bitsPerValue > 64) {
+				value |= block(blockIndex + 1) << (64 - shift);
+			}
+			return value & mask;
+		}
+
+		/*
+		 * 0으로 초기화된 위치에 한번만 기록한다.
+		 */
+		private void set(int index, long value) {
+			if (bitsPerValue == 0) {
+				return;
+			}
+			value &= mask;
+			long bitPos = (long) index * bitsPerValue;
+			int blockIndex = (int) (bitPos >>> 6);
+			int shift = (int) (bitPos & 63);
+			orBlock(blockIndex, value << shift);
+			if (shift + bitsPerValue > 64) {
+				orBlock(blockIndex + 1, value >>> (64 - shift));
+			}
+		}
+
+		public long memorySize() {
+			return (long) blockCount * IOUtil.SIZE_OF_LONG;
+		}
+	}
+}
@@ -24,6 +24,7 @@ import org.fastcatsearch.ir.common.IRException;
 import org.fastcatsearch.ir.common.IndexFileNames;
 import org.fastcatsearch.ir.io.DataRef;
 import org.fastcatsearch.ir.io.IndexInput;
+import org.fastcatsearch.ir.io.IndexInputType;
 import org.fastcatsearch.ir.io.StreamInputRef;
 import org.fastcatsearch.ir.settings.FieldIndexSetting;
 import org.fastcatsearch.ir.settings.FieldSetting;
@@ -32,10 +33,17 @@ import org.fastcatsearch.ir.settings.FieldSetting;
 
 public class FieldIndexReader extends ReferencableIndexReader {
 	
+	//범위검색용 point 색인. 숫자형 단일값 필드가 아니거나 이전 색인이면 null.
+	private PointIndexReader pointIndexReader;
+	
 	public FieldIndexReader() { }
 	
 	
 	public FieldIndexReader(FieldIndexSetting fieldIndexSetting, Map<String, FieldSetting> fieldSettingMap, File dir) throws IOException, IRException{
+		this(fieldIndexSetting, fieldSettingMap, dir, IndexInputType.BUFFERED);
+	}
+	
+	public FieldIndexReader(FieldIndexSetting fieldIndexSetting, Map<String, FieldSetting> fieldSettingMap, File dir, IndexInputType indexInputType) throws IOException, IRException{
 		String id = fieldIndexSetting.getId();
 		String refId = fieldIndexSetting.getRef();
 		FieldSetting refFieldSetting = fieldSettingMap.get(refId);
@@ -49,8 +57,42 @@ public class FieldIndexReader extends ReferencableIndexReader {
 			throw new IRException("필드색인은 고정길이필드이거나 field index size를 정해야 합니다.");
 		}
 			
-		init(id, refFieldSetting, dataFile, multiValueFile, dataSize);
+		init(id, refFieldSetting, dataFile, multiValueFile, dataSize, indexInputType);
+		
+		if (fieldIndexSetting.isInMemory()) {
+			if (isMultiValue) {
+				logger.warn("multi-value field index {} cannot be loaded in memory.", id);
+			} else {
+				try {
+					column = FieldIndexColumn.load(refFieldSetting.getType(), dataFile, dataSize, fieldIndexSetting.isOffHeap());
+				} catch (IOException e) {
+					super.close();
+					throw e;
+				}
+				logger.debug("field index {} loaded in memory. docs[{}] size[{}] offHeap[{}]", id, column.docCount(), column.memorySize(), fieldIndexSetting.isOffHeap());
+			}
+		}
 		
+		File pointFile = new File(dir, IndexFileNames.getFieldIndexPointFileName(id));
+		if (pointFile.exists()) {
+			try {
+				pointIndexReader = new PointIndexReader(pointFile, indexInputType);
+			} catch (IOException e) {
+				super.close();
+				throw e;
+			}
+		}
+	}
+	
+	public PointIndexReader pointIndexReader() {
+		return pointIndexReader;
+	}
+	
+	/**
+	 * 메모리에 올린 필드색인. inMemory 설정이 아니면 null.
+	 */
+	public FieldIndexColumn column() {
+		return column;
 	}
 	
 
@@ -67,8 +109,20 @@ public class FieldIndexReader extends ReferencableIndexReader {
 		}
 		reader.dataSize = dataSize;
 		reader.isMultiValue = isMultiValue;
+		reader.column = column;
+		if (pointIndexReader != null) {
+			reader.pointIndexReader = pointIndexReader.clone();
+		}
 		return reader;
 	}
 	
+	@Override
+	public void close() throws IOException {
+		super.close();
+		if (pointIndexReader != null) {
+			pointIndexReader.close();
+		}
+	}
+	
 	
 }
@@ -0,0 +1,257 @@
+package org.fastcatsearch.ir.search;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.fastcatsearch.ir.common.IRException;
+import org.apache.lucene.util.BytesRef;
+import org.fastcatsearch.ir.filter.FilterFunction;
+import org.fastcatsearch.ir.index.PointIndexWriter;
+import org.fastcatsearch.ir.io.DataRef;
+import org.fastcatsearch.ir.query.Filter;
+import org.fastcatsearch.ir.query.RankInfo;
+import org.fastcatsearch.ir.search.clause.DocIdSetOperatedClause;
+import org.fastcatsearch.ir.search.clause.OperatedClause;
+import org.fastcatsearch.ir.settings.FieldIndexSetting;
+import org.fastcatsearch.ir.settings.FieldSetting;
+import org.fastcatsearch.ir.settings.Schema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 세그먼트별 필터결과 캐시. 필터조건을 만족하는 세그먼트의 문서집합을 보관한다.
+ *
+ * 필터결과는 세그먼트의 필드값으로만 결정되므로 세그먼트가 바뀌기 전까지 유효하다.
+ * 세그먼트가 교체되면 SegmentReader와 함께 버려지며, close시 비운다.
+ * 삭제문서는 검색시 따로 확인하므로 캐시에 반영하지 않는다.
+ *
+ * 한번만 사용되는 필터때문에 세그먼트 전체를 읽지 않도록, 두번째 요청부터 문서집합을 만든다.
+ * 단, 검색절이 세그먼트 문서의 상당부분을 리턴할 것으로 예상되면 검색후 필터링도 그만큼 읽어야 하므로 처음부터 문서집합을 만든다.
+ * point 색인이 있는 범위필터는 색인에서 필터의 문서수를 미리 알수 있으므로, 검색절의 예상 문서수보다 적으면 처음부터 문서집합을 만들어 검색절을 건너뛰게 한다.
+ * 여러 검색 쓰레드가 함께 사용한다.
+ * */
+public class FilterCache {
+	private static Logger logger = LoggerFactory.getLogger(FilterCache.class);
+
+	public static final int DEFAULT_MAX_SIZE = 64;
+	//검색절의 예상 문서수가 세그먼트 문서수의 1/PUSH_DOWN_RATIO 이상이면 처음 요청된 필터도 문서집합을 만든다.
+	private static final int PUSH_DOWN_RATIO = 2;
+
+	private final int maxSize;
+	private final Map<String, DocIdSet> cache;
+	//아직 문서집합을 만들지 않은, 한번 요청된 필터.
+	private final Map<String, Boolean> requested;
+
+	private long hitCount;
+	private long missCount;
+
+	public FilterCache() {
+		this(DEFAULT_MAX_SIZE);
+	}
+
+	public FilterCache(final int maxSize) {
+		this.maxSize = maxSize;
+		//가장 오래 사용하지 않은 것부터 지운다.
+		cache = new LinkedHashMap<String, DocIdSet>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, DocIdSet> eldest) {
+				return size() > maxSize;
+			}
+		};
+		requested = new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+				return size() > maxSize * 4;
+			}
+		};
+	}
+
+	/**
+	 * 캐시할수 있는 필터는 문서집합과의 교집합을 구하는 절로 operatedClause를 감싸고, 나머지 필터는 postFilterList에 담는다.
+	 * postFilterList의 필터는 기존처럼 검색후 HitFilter로 걸러내야 한다.
+	 * 교집합은 문서집합과 검색절중 적은쪽이 후보를 고르므로, 선택도가 높은 필터는 검색절을 건너뛰게 한다.
+	 * 어느 방법으로 필터링해도 결과는 같다.
+	 */
+	public OperatedClause apply(OperatedClause operatedClause, List<Filter> filterList, Schema schema, FieldIndexesReader fieldIndexesReader, int docCount,
+			List<Filter> postFilterList) throws IOException, IRException {
+		int queryCost = operatedClause.cost();
+		List<DocIdSet> docIdSetList = new ArrayList<DocIdSet>();
+		List<String> keyList = new ArrayList<String>();
+		for (Filter filter : filterList) {
+			DocIdSet docIdSet = getDocIdSet(filter, schema, fieldIndexesReader, docCount, queryCost);
+			if (docIdSet == null) {
+				postFilterList.add(filter);
+			} else {
+				//적은 집합이 하위절을 먼저 거르도록 안쪽에 둔다.
+				int i = 0;
+				while (i < docIdSetList.size() && docIdSetList.get(i).size() <= docIdSet.size()) {
+					i++;
+				}
+				docIdSetList.add(i, docIdSet);
+				keyList.add(i, filter.cacheKey());
+			}
+		}
+		for (int i = 0; i < docIdSetList.size(); i++) {
+			operatedClause = new DocIdSetOperatedClause(operatedClause, docIdSetList.get(i), keyList.get(i));
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("filter plan queryCost[{}] docCount[{}] docSetFilter{} postFilter{}", queryCost, docCount, keyList, postFilterList);
+		}
+		return operatedClause;
+	}
+
+	/**
+	 * 필터의 문서집합을 리턴한다. 캐시할수 없거나, 처음 요청된 필터이고 queryCost에 비해 문서집합을 만드는 비용이 크면 null.
+	 * queryCost는 검색절의 예상 문서수이며, 알수 없으면 Integer.MAX_VALUE이다.
+	 */
+	public DocIdSet getDocIdSet(Filter filter, Schema schema, FieldIndexesReader fieldIndexesReader, int docCount, int queryCost) throws IOException, IRException {
+		if (filter.isBoostFunction()) {
+			return null;
+		}
+		String key = filter.cacheKey();
+		boolean firstRequest;
+		synchronized (this) {
+			DocIdSet docIdSet = cache.get(key);
+			if (docIdSet != null) {
+				hitCount++;
+				return docIdSet;
+			}
+			missCount++;
+			firstRequest = requested.put(key, Boolean.TRUE) == null;
+		}
+		if (firstRequest && !isBuildNow(filter, schema, fieldIndexesReader, docCount, queryCost)) {
+			return null;
+		}
+
+		//세그먼트 전체를 읽으므로 lock밖에서 만든다. 동시에 만들어지면 나중것이 남는다.
+		DocIdSet docIdSet = makeDocIdSet(filter, schema, fieldIndexesReader, docCount);
+		if (docIdSet != null) {
+			synchronized (this) {
+				cache.put(key, docIdSet);
+				requested.remove(key);
+			}
+			logger.debug("filter cache put {} > {}", key, docIdSet);
+		}
+		return docIdSet;
+	}
+
+	/*
+	 * 처음 요청된 필터의 문서집합을 바로 만들지 결정한다.
+	 * 검색절이 세그먼트 문서의 1/PUSH_DOWN_RATIO 이상을 리턴할 것으로 예상되거나, 필터의 예상 문서수가 검색절보다 적으면 만든다.
+	 * cost를 알수 없는 검색절은 필터의 문서수를 알때만 만든다.
+	 */
+	private boolean isBuildNow(Filter filter, Schema schema, FieldIndexesReader fieldIndexesReader, int docCount, int queryCost) throws IOException, IRException {
+		if (queryCost != Integer.MAX_VALUE && (long) queryCost * PUSH_DOWN_RATIO >= docCount) {
+			return true;
+		}
+		int filterCost = estimateSize(filter, schema, fieldIndexesReader);
+		logger.debug("filter estimate {} > {} queryCost[{}]", filter.cacheKey(), filterCost, queryCost);
+		return filterCost >= 0 && filterCost <= queryCost;
+	}
+
+	/*
+	 * 필터를 만족할 문서수의 추정치. point 색인이 있는 범위필터만 구할수 있으며, 그외에는 -1.
+	 * 범위가 겹치면 중복하여 세므로 실제보다 클수 있다.
+	 */
+	private int estimateSize(Filter filter, Schema schema, FieldIndexesReader fieldIndexesReader) throws IOException, IRException {
+		if (filter.function() != Filter.SECTION) {
+			return -1;
+		}
+		FieldIndexSetting fieldIndexSetting = schema.getFieldIndexSetting(filter.fieldIndexId());
+		if (fieldIndexSetting == null) {
+			return -1;
+		}
+		IndexRef<FieldIndexReader> fieldIndexRef = fieldIndexesReader.selectIndexRef(new String[] { filter.fieldIndexId() });
+		PointIndexReader pointIndexReader = fieldIndexRef.getReader(0).pointIndexReader();
+		if (pointIndexReader == null) {
+			return -1;
+		}
+		FieldSetting fieldSetting = schema.getFieldSetting(fieldIndexSetting.getRef());
+		FilterFunction filterFunction = filter.createFilterFunction(fieldIndexSetting, fieldSetting);
+		FieldSetting.Type type = fieldSetting.getType();
+		BytesRef[] patternList = filterFunction.getPatternList();
+		BytesRef[] endPatternList = filterFunction.getEndPatternList();
+		long size = 0;
+		for (int j = 0; j < patternList.length; j++) {
+			size += pointIndexReader.count(minKey(type, patternList[j]), maxKey(type, endPatternList[j]));
+		}
+		return (int) Math.min(size, pointIndexReader.docCount());
+	}
+
+	private DocIdSet makeDocIdSet(Filter filter, Schema schema, FieldIndexesReader fieldIndexesReader, int docCount) throws IOException, IRException {
+		FieldIndexSetting fieldIndexSetting = schema.getFieldIndexSetting(filter.fieldIndexId());
+		if (fieldIndexSetting == null) {
+			//잘못된 필드명은 HitFilter에서 에러를 낸다.
+			return null;
+		}
+		FieldSetting fieldSetting = schema.getFieldSetting(fieldIndexSetting.getRef());
+		FilterFunction filterFunction = filter.createFilterFunction(fieldIndexSetting, fieldSetting);
+
+		IndexRef<FieldIndexReader> fieldIndexRef = fieldIndexesReader.selectIndexRef(new String[] { filter.fieldIndexId() });
+		PointIndexReader pointIndexReader = fieldIndexRef.getReader(0).pointIndexReader();
+		if (filter.function() == Filter.SECTION && pointIndexReader != null) {
+			return makePointDocIdSet(filterFunction, fieldSetting.getType(), pointIndexReader, docCount);
+		}
+		DataRef dataRef = fieldIndexRef.getDataRef(0);
+		RankInfo rankInfo = new RankInfo();
+		DocIdSet.Builder builder = new DocIdSet.Builder(docCount);
+		for (int docNo = 0; docNo < docCount; docNo++) {
+			fieldIndexRef.read(docNo);
+			rankInfo.init(docNo, 0);
+			if (filterFunction.filtering(rankInfo, dataRef)) {
+				builder.add(docNo);
+			}
+		}
+		return builder.build();
+	}
+
+	/*
+	 * 숫자형 범위필터는 point 색인에서 범위별로 문서를 찾아 합친다. 패턴이 없는 쪽은 범위의 제한이 없다.
+	 */
+	private DocIdSet makePointDocIdSet(FilterFunction filterFunction, FieldSetting.Type type, PointIndexReader pointIndexReader, int docCount) throws IOException {
+		BytesRef[] patternList = filterFunction.getPatternList();
+		BytesRef[] endPatternList = filterFunction.getEndPatternList();
+		BitSet docSet = new BitSet(docCount);
+		for (int j = 0; j < patternList.length; j++) {
+			pointIndexReader.collect(minKey(type, patternList[j]), maxKey(type, endPatternList[j]), docSet);
+		}
+		DocIdSet.Builder builder = new DocIdSet.Builder(docCount);
+		for (int docNo = docSet.nextSetBit(0); docNo >= 0 && docNo < docCount; docNo = docSet.nextSetBit(docNo + 1)) {
+			builder.add(docNo);
+		}
+		return builder.build();
+	}
+
+	private static long minKey(FieldSetting.Type type, BytesRef pattern) {
+		return pattern != null ? PointIndexWriter.sortableKey(type, pattern.bytes, pattern.offset) : Long.MIN_VALUE;
+	}
+
+	private static long maxKey(FieldSetting.Type type, BytesRef pattern) {
+		return pattern != null ? PointIndexWriter.sortableKey(type, pattern.bytes, pattern.offset) : Long.MAX_VALUE;
+	}
+
+	public synchronized int size() {
+		return cache.size();
+	}
+
+	public synchronized long hitCount() {
+		return hitCount;
+	}
+
+	public synchronized long missCount() {
+		return missCount;
+	}
+
+	public synchronized void clear() {
+		cache.clear();
+		requested.clear();
+	}
+}
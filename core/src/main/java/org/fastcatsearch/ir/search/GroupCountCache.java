@@ -0,0 +1,153 @@
+package org.fastcatsearch.ir.search;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.lucene.util.ArrayUtil;
+import org.fastcatsearch.ir.io.BitSet;
+import org.fastcatsearch.ir.io.DataRef;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 세그먼트별 전체문서 그룹 갯수 캐시. 검색어와 필터가 없는 그룹핑은 모든 문서를 다시 세지 않고 이 값을 사용한다.
+ *
+ * 그룹색인별로 처음 요청될때 세그먼트의 모든 문서를 한번 읽어 그룹번호별 문서수를 만든다.
+ * 삭제문서는 삭제셋이 바뀔때 삭제된 문서만 다시 읽어서 빼므로, 전체를 다시 세지 않는다.
+ * 세그먼트가 교체되면 SegmentReader와 함께 버려지며, close시 비운다.
+ * 여러 검색 쓰레드가 함께 사용한다.
+ * */
+public class GroupCountCache {
+	private static Logger logger = LoggerFactory.getLogger(GroupCountCache.class);
+
+	private final Map<String, Entry> cache = new HashMap<String, Entry>();
+
+	/**
+	 * 삭제문서를 뺀 그룹번호별 문서수. 배열은 여러 검색이 공유하므로 수정하면 안된다.
+	 */
+	public static class Counts {
+		private final int[] counts;
+		private final int liveDocCount;
+
+		private Counts(int[] counts, int liveDocCount) {
+			this.counts = counts;
+			this.liveDocCount = liveDocCount;
+		}
+
+		public int[] counts() {
+			return counts;
+		}
+
+		/**
+		 * 삭제되지 않은 문서수. 전체문서 검색의 결과갯수와 같다.
+		 */
+		public int liveDocCount() {
+			return liveDocCount;
+		}
+	}
+
+	private static class Entry {
+		private int[] allCounts; //삭제여부와 관계없는 문서수.
+		private BitSet deleteSet; //liveCounts를 만들때 사용한 삭제셋.
+		private Counts liveCounts;
+	}
+
+	/**
+	 * groupIndexId 그룹색인의 전체문서 그룹 갯수를 리턴한다.
+	 * 삭제셋은 교체될때만 다시 반영하므로, 같은 삭제셋 객체에 삭제를 추가했다면 clear해야 한다.
+	 */
+	public Counts counts(String groupIndexId, GroupIndexesReader groupIndexesReader, BitSet deleteSet, int docCount) throws IOException {
+		Entry entry = null;
+		synchronized (this) {
+			entry = cache.get(groupIndexId);
+			if (entry != null && entry.deleteSet == deleteSet) {
+				return entry.liveCounts;
+			}
+		}
+
+		//세그먼트 색인을 읽으므로 lock밖에서 만든다. 동시에 만들어지면 나중것이 남는다.
+		IndexRef<GroupIndexReader> indexRef = groupIndexesReader.selectIndexRef(new String[] { groupIndexId });
+		GroupIndexReader groupIndexReader = indexRef.getReader(0);
+		if (groupIndexReader == null) {
+			return null;
+		}
+		Counter counter = new Counter(indexRef, groupIndexReader.getGroupKeySize());
+		int[] allCounts = null;
+		if (entry == null) {
+			allCounts = new int[groupIndexReader.getGroupKeySize()];
+			for (int docNo = 0; docNo < docCount; docNo++) {
+				counter.count(docNo, allCounts, 1);
+			}
+		} else {
+			allCounts = entry.allCounts;
+		}
+
+		int[] liveCounts = allCounts;
+		int liveDocCount = docCount;
+		if (deleteSet != null) {
+			for (int docNo = deleteSet.nextSetBit(0); docNo >= 0 && docNo < docCount; docNo = deleteSet.nextSetBit(docNo + 1)) {
+				if (liveCounts == allCounts) {
+					liveCounts = allCounts.clone();
+				}
+				counter.count(docNo, liveCounts, -1);
+				liveDocCount--;
+			}
+		}
+
+		Entry newEntry = new Entry();
+		newEntry.allCounts = allCounts;
+		newEntry.deleteSet = deleteSet;
+		newEntry.liveCounts = new Counts(liveCounts, liveDocCount);
+		synchronized (this) {
+			cache.put(groupIndexId, newEntry);
+		}
+		logger.debug("group count cache put {} keySize[{}] liveDocCount[{}]", groupIndexId, allCounts.length, liveDocCount);
+		return newEntry.liveCounts;
+	}
+
+	public synchronized int size() {
+		return cache.size();
+	}
+
+	public synchronized void clear() {
+		cache.clear();
+	}
+
+	/*
+	 * 문서의 그룹번호별로 delta를 더한다. multi-value에 같은 그룹번호가 여러번 있으면 한번만 센다.
+	 */
+	private static class Counter {
+		private IndexRef<GroupIndexReader> indexRef;
+		private DataRef dataRef;
+		private java.util.BitSet checkSet;
+		private int[] checkedList = new int[16];
+
+		public Counter(IndexRef<GroupIndexReader> indexRef, int groupKeySize) {
+			this.indexRef = indexRef;
+			this.dataRef = indexRef.getDataRef(0);
+			this.checkSet = new java.util.BitSet(groupKeySize);
+		}
+
+		public void count(int docNo, int[] counts, int delta) throws IOException {
+			indexRef.read(docNo);
+			boolean checkRedundancy = dataRef.count() > 1;
+			int checkedCount = 0;
+			while (dataRef.next()) {
+				int groupNo = dataRef.bytesRef().toIntValue();
+				if (checkRedundancy) {
+					if (checkSet.get(groupNo)) {
+						continue;
+					}
+					checkSet.set(groupNo);
+					checkedList = ArrayUtil.grow(checkedList, checkedCount + 1);
+					checkedList[checkedCount++] = groupNo;
+				}
+				counts[groupNo] += delta;
+			}
+			for (int c = 0; c < checkedCount; c++) {
+				checkSet.clear(checkedList[c]);
+			}
+		}
+	}
+}
@@ -33,6 +33,10 @@ public class HitElement extends AbstractHitElement<HitElement> {
 	
 	private DocIdList bundleDocIdList;
 	private int totalBundleSize;
+	
+	//HitRanker가 정렬데이터로 만든 정규화 키. 객체를 재사용할때 버퍼도 재사용한다.
+	private long packedSortKey;
+	private BytesRef sortKey;
 
 	public HitElement(int docNo, int score, List<RowExplanation> list){
 		this(-1, docNo, score, null, list);
@@ -59,6 +63,21 @@ public class HitElement extends AbstractHitElement<HitElement> {
 		this.bundleKey = bundleKey;
 	}
 	
+	/**
+	 * 객체를 재사용할때 내용을 새로 채운다.
+	 * */
+	public void set(int segmentSequence, int docNo, int score, BytesRef[] dataList, List<RowExplanation> list, BytesRef bundleKey){
+		this.collectionId = null;
+		this.segmentSequence = segmentSequence;
+		this.docNo = docNo;
+		this.score = score;
+		this.rankData = dataList;
+		this.list = list;
+		this.bundleKey = bundleKey;
+		this.bundleDocIdList = null;
+		this.totalBundleSize = 0;
+	}
+	
 	@Override
 	public String toString(){
 		if(bundleKey != null) {
@@ -103,4 +122,22 @@ public class HitElement extends AbstractHitElement<HitElement> {
     public int getTotalBundleSize() {
         return totalBundleSize;
     }
+    
+	public long packedSortKey() {
+		return packedSortKey;
+	}
+	
+	public void setPackedSortKey(long packedSortKey) {
+		this.packedSortKey = packedSortKey;
+	}
+	
+	/**
+	 * 정규화 키 버퍼. 없으면 만든다.
+	 * */
+	public BytesRef sortKey() {
+		if(sortKey == null) {
+			sortKey = new BytesRef();
+		}
+		return sortKey;
+	}
 }
@@ -19,7 +19,6 @@ package org.fastcatsearch.ir.search;
 import java.io.IOException;
 import java.util.List;
 
-import org.apache.lucene.util.BytesRef;
 import org.fastcatsearch.ir.field.HitField;
 import org.fastcatsearch.ir.field.ScoreField;
 import org.fastcatsearch.ir.io.FixedHitReader;
@@ -34,6 +33,7 @@ import org.fastcatsearch.ir.sort.SortFunction;
 /**
  * 각 세그먼트에서 검색되어 나온 HitElement리스트들을 하나의 최종 결과로 병합하는 클래스 
  * 이 heap에서 pop 한 결과는 순차적으로 이용된다.
+ * 동일 번들키의 중복제거는 reader 전체를 버리지 않도록 heap에서 꺼내어 사용하는 쪽에서 수행한다.
  * @see HitRanker HitRanker 세그먼트별 검색결과 랭킹클래스
  * @author swsong
  *
@@ -77,22 +77,6 @@ public class HitMerger extends FixedMinHeap<FixedHitReader> {
 		
 	}
 	
-	@Override
-	public boolean push(FixedHitReader e){
-		if(e.read().getBundleKey() != null) {
-			BytesRef bundleKey = e.read().getBundleKey();
-			for (int i = 1; i <= size; i++) {
-				if(bundleKey.equals(((HitElement) ((FixedHitReader) heap[i]).read()).getBundleKey())){
-					//동일 bundle 이 존재하면 또다시 push하지 않는다.
-					logger.debug("동일 Bundle found!!!");
-					return false;
-				}
-			}
-		}
-		//bundle을 사용하지 않거나 동일 bundle이 없으면 push한다. 
-		return super.push(e);	
-	}
-	
 	@Override
 	protected int compareTo(FixedHitReader r1, FixedHitReader r2) {
 		
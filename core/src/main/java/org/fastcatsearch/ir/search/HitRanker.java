@@ -27,7 +27,9 @@ import org.fastcatsearch.ir.query.Sort;
 import org.fastcatsearch.ir.settings.FieldIndexSetting;
 import org.fastcatsearch.ir.settings.FieldSetting;
 import org.fastcatsearch.ir.settings.Schema;
+import org.fastcatsearch.ir.settings.FieldSetting.Type;
 import org.fastcatsearch.ir.sort.SortFunction;
+import org.fastcatsearch.ir.sort.SortKeyEncoder;
 
 
 /**
@@ -36,17 +38,23 @@ import org.fastcatsearch.ir.sort.SortFunction;
  * 이 heap에서 pop한 결과는 역순으로 이용된다.
  * 
  * 2014-7-30 bundle key가 동일하면 push하지 않는 기능추가됨. 
+ * 문서가 들어올때 정렬데이터를 정규화 키로 한번만 만들고, 비교는 키로만 한다.
+ * 숫자형 필드로만 정렬하면 long 키, 그 외에는 byte 키를 사용하며, 결과는 sortFunctions로 비교한 것과 같다.
  * @see HitMerger
  * @author swsong
  *
  */
 public class HitRanker extends FixedMaxPriorityQueue<HitElement>{
 	private SortFunction[] sortFunctions;
+	private SortKeyEncoder sortKeyEncoder;
+	private boolean isPacked;
 	
 	public HitRanker(List<Sort> querySortList, Schema schema, int maxSize) throws IOException{
 		super(maxSize);
 		int size = querySortList.size();
 		sortFunctions = new SortFunction[size];
+		Type[] typeList = new Type[size];
+		boolean[] ascendingList = new boolean[size];
 		
 		for (int i = 0; i < size; i++) {
 			Sort sort = querySortList.get(i);
@@ -56,8 +64,10 @@ public class HitRanker extends FixedMaxPriorityQueue<HitElement>{
 			if(idx == -1){
 				if(fieldIndexId.equalsIgnoreCase(ScoreField.fieldName)){
 					sortFunctions[i] = sort.createSortFunction(ScoreField.field);
+					typeList[i] = ScoreField.field.getType();
 				}else if(fieldIndexId.equalsIgnoreCase(HitField.fieldName)){
 					sortFunctions[i] = sort.createSortFunction(HitField.field);
+					typeList[i] = HitField.field.getType();
 				}else{
 					throw new IOException("Unknown sort field name = "+fieldIndexId);
 				}
@@ -66,14 +76,44 @@ public class HitRanker extends FixedMaxPriorityQueue<HitElement>{
 				String refId = fieldIndexSetting.getRef();
 				FieldSetting fieldSetting = schema.getFieldSetting(refId);
 				sortFunctions[i] = sort.createSortFunction(fieldSetting);
+				//숫자형이 아닌 필드는 byte 그대로 비교하므로 문자열로 본다.
+				typeList[i] = fieldSetting.isNumericField() ? fieldSetting.getType() : Type.STRING;
 			}
+			ascendingList[i] = sort.asc();
 			
 			logger.debug("sortFunctions[{}]=[{}]=", i, sortFunctions[i]);
 		}
+		sortKeyEncoder = new SortKeyEncoder(typeList, ascendingList);
+		isPacked = sortKeyEncoder.isPacked();
+	}
+	
+	/*
+	 * 비교하기 전에 정렬데이터로 키를 만든다. 정렬데이터가 바뀐 재사용 객체도 다시 만들어야 한다.
+	 */
+	private void encodeSortKey(HitElement e) {
+		if(!hasSortKey(e)){
+			return;
+		}
+		if(isPacked){
+			e.setPackedSortKey(sortKeyEncoder.packedKey(e.rankData()));
+		}else{
+			sortKeyEncoder.encode(e.rankData(), e.sortKey());
+		}
+	}
+	
+	private boolean hasSortKey(HitElement e) {
+		return e.rankData() != null && e.rankData().length == sortFunctions.length;
+	}
+	
+	@Override
+	public boolean isCompetitive(HitElement e) {
+		encodeSortKey(e);
+		return super.isCompetitive(e);
 	}
 	
 	@Override
 	public boolean push(HitElement e) {
+		encodeSortKey(e);
 		if (e.getBundleKey() != null) {
 			BytesRef bundleKey = e.getBundleKey();
 			for (int i = 1; i <= size; i++) {
@@ -100,9 +140,28 @@ public class HitRanker extends FixedMaxPriorityQueue<HitElement>{
 	}
 	
 	
+	/**
+	 * 랭커가 가득 찼고, 첫번째 정렬값이 랭커의 마지막 문서보다 뒤에 있는지 확인한다.
+	 * 첫번째 정렬필드 순서로 색인된 세그먼트에서는 이후의 문서도 모두 랭커에 들어갈수 없다.
+	 * */
+	public boolean isFirstKeyBehind(HitElement e) {
+		if (size < maxsize || size == 0 || e.rankData() == null) {
+			return false;
+		}
+		return sortFunctions[0].compare(peek().rankData(0), e.rankData(0)) < 0;
+	}
+	
 	@Override
 	protected int compare(HitElement one, HitElement two) {
 		
+		if(hasSortKey(one) && hasSortKey(two)){
+			int r = isPacked ? SortKeyEncoder.compareUnsigned(one.packedSortKey(), two.packedSortKey()) : one.sortKey().compareTo(two.sortKey());
+			if(r != 0){
+				return r;
+			}
+			return one.compareTo(two);
+		}
+		
 		for (int i = 0; i < sortFunctions.length; i++) {
 			//하나씩 비교해가면서 각 funtion의 비교결과가 0이 아닐때 까지 비교한다.
 			int r = sortFunctions[i].compare(one.rankData(i), two.rankData(i));
@@ -1,11 +1,13 @@
 package org.fastcatsearch.ir.search;
 
 import org.fastcatsearch.ir.common.IRException;
+import org.fastcatsearch.ir.config.IndexSort;
 import org.fastcatsearch.ir.group.GroupDataGenerator;
 import org.fastcatsearch.ir.group.GroupsData;
 import org.fastcatsearch.ir.io.BitSet;
 import org.fastcatsearch.ir.query.*;
 import org.fastcatsearch.ir.search.clause.*;
+import org.fastcatsearch.ir.settings.FieldIndexSetting;
 import org.fastcatsearch.ir.settings.Schema;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,6 +15,8 @@ import org.slf4j.LoggerFactory;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
 
 public class HitReader {
 	private static Logger logger = LoggerFactory.getLogger(HitReader.class);
@@ -41,13 +45,19 @@ public class HitReader {
 	BitSet localDeleteSet;
 	boolean exausted;
 	RankInfo[] rankInfoList;
-	HitElement[] hitElementBuffer;
 	int nread;
+	int readPos;
 	int totalCount;
+	private int docCount;
+	
+	private boolean isPruning;
+	private boolean isIndexSorted;
+	private int minScore = Integer.MIN_VALUE;
 	
 	
 	public HitReader(SegmentReader segmentReader, Metadata meta, Clause clause, Filters filters, Groups groups, Filters groupFilters, Sorts sorts, Bundle bundle, PkScoreList boostList) throws IOException, ClauseException, IRException {
 		
+		this.segmentReader = segmentReader;
 		this.filters = filters;
 		this.groups = groups;
 		this.groupFilters = groupFilters;
@@ -56,28 +66,19 @@ public class HitReader {
 		FieldIndexesReader fieldIndexesReader = null;
 //		int sortMaxSize = meta.start() + meta.rows() - 1;
 		schema = segmentReader.schema();
-		int docCount = segmentReader.docCount();
+		docCount = segmentReader.docCount();
 		segmentSequence = segmentReader.sequence();
+		if (filters != null) {
+			fieldIndexesReader = segmentReader.newFieldIndexesReader();
+		}
 		// Search
 		highlightInfo = new HighlightInfo();
-		if (clause == null) {
-			operatedClause = new AllDocumentOperatedClause(docCount);
-		} else {
-			operatedClause = clause.getOperatedClause(docCount, segmentReader.newSearchIndexesReader(), highlightInfo);
-		}
-		//BOOST
-		if(boostList != null) {
-			// pk를 내부 docNo로 바뀐 opclause가 리턴된다.
-			OperatedClause boostClause = new PkScoreOperatedClause("pk boost", boostList, segmentReader.newSearchIndexesReader());
-			operatedClause = new BoostOperatedClause(operatedClause, boostClause);
-		}
-		// filter
-		if (filters != null) {
-			if(fieldIndexesReader == null){
-				fieldIndexesReader = segmentReader.newFieldIndexesReader();
-			}
+		isPruning = SegmentSearcher.isPruning(meta, groups, bundle, boostList, sorts);
+		List<Filter> postFilterList = new ArrayList<Filter>();
+		operatedClause = SegmentSearcher.createOperatedClause(segmentReader, clause, filters, boostList, highlightInfo, fieldIndexesReader, postFilterList, isPruning);
+		if (postFilterList.size() > 0) {
 			//schema를 통해 field index setting을 알아야 필터링시 ignorecase등의 정보를 활용가능하다.
-			hitFilter = filters.getHitFilter(schema, fieldIndexesReader, BULK_SIZE);
+			hitFilter = new HitFilter(postFilterList, schema, fieldIndexesReader, BULK_SIZE);
 		}
 		
 		//group
@@ -89,6 +90,7 @@ public class HitReader {
 			if (groupFilters != null) {
 				groupHitFilter = groupFilters.getHitFilter(schema, fieldIndexesReader, BULK_SIZE);
 			}
+			SegmentSearcher.addMatchAllGroupCounts(segmentReader, clause, filters, boostList, groups, groupGenerator);
 		}
 		
 		// sort
@@ -99,6 +101,8 @@ public class HitReader {
 					fieldIndexesReader = segmentReader.newFieldIndexesReader();
 				}
 				sortGenerator = new BundleSortGenerator(bundle, null, schema, fieldIndexesReader);
+			} else {
+				sortGenerator = new SortGenerator();
 			}
 		} else {
 			if(fieldIndexesReader == null){
@@ -128,36 +132,59 @@ public class HitReader {
 			logger.trace("SegmentSearcher[seg#{}] stack >> \n{}", segmentReader.segmentInfo().getId(), baos.toString());
 		}
 		
+		/*
+		 * 세그먼트가 첫번째 정렬조건 순서로 색인되어 있으면 문서번호 순서가 곧 첫번째 정렬값 순서이다.
+		 * 이때 랭커가 가득 찬 이후 첫번째 정렬값이 랭커의 마지막 문서보다 뒤인 문서부터는 더 읽을 필요가 없다.
+		 */
+		isIndexSorted = groups == null && bundle == null && boostList == null && isIndexSorted(sorts);
+		
 		operatedClause.init(clauseExplanation);
 		
+		// RankInfo는 bulk 단위로 재사용한다. explain의 경우는 fill에서 매번 생성한다.
 		rankInfoList = new RankInfo[BULK_SIZE];
-		hitElementBuffer = new HitElement[BULK_SIZE];
+		for (int i = 0; i < BULK_SIZE; i++) {
+			rankInfoList[i] = new RankInfo(isExplain);
+		}
 	}
 	
+	/**
+	 * 다음 결과를 문서번호 순서로 리턴한다.
+	 * 리턴된 HitElement는 재사용 객체이므로 다음 호출시 덮어쓰인다. 보관하려면 copyHitElement로 복사해야 한다.
+	 * */
 	public HitElement next() throws IOException {
-		while (nread == 0) {
+		while (readPos == nread) {
 			if(exausted) {
 				return null;
 			} else { 
 				fill();
 			}
 		}
-		HitElement e = hitElementBuffer[--nread];
+		HitElement e = sortGenerator.readHitElement(rankInfoList[readPos++]);
 		e.setSegmentSequence(segmentSequence);
 		return e;
 	}
 	
+	/**
+	 * next로 받은 HitElement를 보관용으로 복사한다. reuse가 주어지면 재사용한다.
+	 * */
+	public HitElement copyHitElement(HitElement e, HitElement reuse) {
+		return sortGenerator.copyHitElement(e, reuse);
+	}
+	
 	
 	private void fill() throws IOException {
 		nread = 0;
+		readPos = 0;
 		while (!exausted) {
 			
 			// search and check delete documents
 			while (nread < BULK_SIZE) {
-				RankInfo rankInfo = new RankInfo(isExplain);
+				if (isExplain) {
+					rankInfoList[nread] = new RankInfo(isExplain);
+				}
+				RankInfo rankInfo = rankInfoList[nread];
 				if (operatedClause.next(rankInfo)) {
 					if (!localDeleteSet.isSet(rankInfo.docNo())) {
-						rankInfoList[nread] = rankInfo;
 						nread++;
 					}
 				} else {
@@ -193,24 +220,59 @@ public class HitReader {
 			}
 		}
 		
-		if (sorts == null || sorts == Sorts.DEFAULT_SORTS) {
-			//정렬없는 묶음검색의 경우.
-			if(sortGenerator != null) {
-				sortGenerator.getHitElement(rankInfoList, hitElementBuffer, nread);
-			} else {
-				for (int i = 0; i < nread; i++) {
-					hitElementBuffer[i] = new HitElement(rankInfoList[i].docNo(), rankInfoList[i].score(), rankInfoList[i].rowExplanations());
-				}
-			}
-		} else {
-			sortGenerator.getHitElement(rankInfoList, hitElementBuffer, nread);
-		}
-		
-		
+		// HitElement는 next에서 sortGenerator를 통해 하나씩 읽는다.
 		totalCount += nread;
 		
 	}
 	
+	/**
+	 * 랭커의 최소점수를 받아서 clause가 그 점수에 도달할수 없는 문서를 건너뛰도록 할수 있으면 true.
+	 * */
+	public boolean isPruning() {
+		return isPruning;
+	}
+	
+	/**
+	 * 가득 찬 랭커의 최소점수를 알려준다. 이후 읽는 문서중 이 점수의 문서와 경쟁할수 없는 문서는 건너뛴다.
+	 * */
+	public void setMinScore(int score) {
+		if (!isPruning) {
+			return;
+		}
+		minScore = SegmentSearcher.raiseMinScore(operatedClause, minScore, score);
+	}
+	
+	/**
+	 * 세그먼트가 첫번째 정렬조건 순서로 색인되어 있어서, 랭커가 가득 찬 이후 첫번째 정렬값이 뒤인 문서에서 읽기를 멈춰도 되면 true.
+	 * */
+	public boolean isIndexSorted() {
+		return isIndexSorted;
+	}
+	
+	/**
+	 * docNo 문서에서 읽기를 멈췄을때, 그 이전 문서에서 찾은 갯수를 세그먼트 전체 문서수의 비율로 늘린 추정 결과갯수.
+	 * */
+	public int estimateTotalCount(int count, int docNo) {
+		if (docNo <= 0) {
+			return count;
+		}
+		return (int) Math.max(count, (long) count * docCount / docNo);
+	}
+	
+	// 첫번째 정렬조건이 세그먼트의 색인 정렬조건과 같은지 확인한다.
+	private boolean isIndexSorted(Sorts sorts) {
+		if (sorts == null || sorts.size() == 0) {
+			return false;
+		}
+		IndexSort indexSort = IndexSort.parse(segmentReader.segmentInfo().getIndexSort());
+		if (indexSort == null) {
+			return false;
+		}
+		Sort sort = sorts.getSortList().get(0);
+		FieldIndexSetting fieldIndexSetting = schema.getFieldIndexSetting(sort.fieldIndexId());
+		return fieldIndexSetting != null && indexSort.fieldId().equalsIgnoreCase(fieldIndexSetting.getRef()) && indexSort.asc() == sort.asc();
+	}
+	
 	public int totalCount() { 
 		return totalCount;
 	}
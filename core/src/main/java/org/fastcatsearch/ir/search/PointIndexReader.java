@@ -0,0 +1,137 @@
+package org.fastcatsearch.ir.search;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.BitSet;
+
+import org.fastcatsearch.ir.io.IOUtil;
+import org.fastcatsearch.ir.io.IndexInput;
+import org.fastcatsearch.ir.io.IndexInputType;
+
+/**
+ * PointIndexWriter가 기록한 point 색인으로 키 범위에 속하는 문서를 찾는다.
+ *
+ * 블럭 첫키만 메모리에 두고, 범위의 시작과 끝은 해당 블럭안에서 이진검색으로 찾는다.
+ * 범위안의 문서번호는 연속되어 있으므로 한번에 읽는다. 값을 하나씩 비교하는 필드색인 전체읽기보다 범위에 속하는 문서수만큼만 읽는다.
+ * thread-unsafe하며, 검색 쓰레드마다 clone하여 사용한다.
+ * */
+public class PointIndexReader implements Cloneable {
+	private static final int HEADER_SIZE = IOUtil.SIZE_OF_INT * 3;
+
+	private IndexInput input;
+	private int docCount;
+	private int blockSize;
+	private long[] blockKeys;
+	private long keyStart;
+	private long docStart;
+
+	private PointIndexReader() {
+	}
+
+	public PointIndexReader(File file, IndexInputType indexInputType) throws IOException {
+		input = indexInputType.open(file);
+		try {
+			docCount = input.readInt();
+			blockSize = input.readInt();
+			int blockCount = input.readInt();
+			blockKeys = new long[blockCount];
+			for (int i = 0; i < blockCount; i++) {
+				blockKeys[i] = input.readLong();
+			}
+		} catch (IOException e) {
+			input.close();
+			throw e;
+		}
+		keyStart = HEADER_SIZE + (long) blockKeys.length * IOUtil.SIZE_OF_LONG;
+		docStart = keyStart + (long) docCount * IOUtil.SIZE_OF_LONG;
+	}
+
+	public int docCount() {
+		return docCount;
+	}
+
+	/**
+	 * minKey 이상 maxKey 이하인 키를 가진 문서를 docSet에 표시하고, 표시한 문서수를 리턴한다.
+	 */
+	public int collect(long minKey, long maxKey, BitSet docSet) throws IOException {
+		if (minKey > maxKey) {
+			return 0;
+		}
+		int start = lowerBound(minKey, false);
+		int end = upperBound(maxKey);
+		if (start >= end) {
+			return 0;
+		}
+		input.seek(docStart + (long) start * IOUtil.SIZE_OF_INT);
+		for (int i = start; i < end; i++) {
+			docSet.set(input.readInt());
+		}
+		return end - start;
+	}
+
+	/**
+	 * minKey 이상 maxKey 이하인 키를 가진 문서수. 문서번호는 읽지 않고 범위의 양끝만 찾는다.
+	 */
+	public int count(long minKey, long maxKey) throws IOException {
+		if (minKey > maxKey) {
+			return 0;
+		}
+		int start = lowerBound(minKey, false);
+		int end = upperBound(maxKey);
+		return Math.max(end - start, 0);
+	}
+
+	private int upperBound(long maxKey) throws IOException {
+		return maxKey == Long.MAX_VALUE ? docCount : lowerBound(maxKey, true);
+	}
+
+	/*
+	 * key 이상(exclusive이면 초과)인 첫 위치. 없으면 docCount.
+	 */
+	private int lowerBound(long key, boolean exclusive) throws IOException {
+		//키가 key보다 작은(같은) 마지막 블럭에서 찾는다.
+		int low = 0;
+		int high = blockKeys.length - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (blockKeys[mid] < key || (exclusive && blockKeys[mid] == key)) {
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+		int block = low - 1;
+		if (block < 0) {
+			return 0;
+		}
+		low = block * blockSize;
+		high = Math.min(low + blockSize, docCount) - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			input.seek(keyStart + (long) mid * IOUtil.SIZE_OF_LONG);
+			long midKey = input.readLong();
+			if (midKey < key || (exclusive && midKey == key)) {
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return low;
+	}
+
+	@Override
+	public PointIndexReader clone() {
+		PointIndexReader reader = new PointIndexReader();
+		reader.input = input.clone();
+		reader.docCount = docCount;
+		reader.blockSize = blockSize;
+		reader.blockKeys = blockKeys;
+		reader.keyStart = keyStart;
+		reader.docStart = docStart;
+		return reader;
+	}
+
+	public void close() throws IOException {
+		input.close();
+	}
+}
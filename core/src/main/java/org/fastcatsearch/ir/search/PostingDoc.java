@@ -4,7 +4,10 @@ public class PostingDoc {
 	private int docNo;
 	private int tf;
 	private int[] positions;
+	private int positionSize;
 	
+	public PostingDoc(){
+	}
 	public PostingDoc(int docNo, int tf){
 		this(docNo, tf, null);
 	}
@@ -12,6 +15,18 @@ public class PostingDoc {
 		this.docNo = docNo;
 		this.tf = tf;
 		this.positions = positions;
+		this.positionSize = positions != null ? positions.length : 0;
+	}
+	
+	/**
+	 * 포스팅을 순차적으로 읽을때 객체를 재사용하기 위해 내용을 바꾼다.
+	 * positions는 재사용되는 버퍼이므로 앞에서부터 positionSize 개만 유효하다.
+	 * */
+	public void set(int docNo, int tf, int[] positions, int positionSize){
+		this.docNo = docNo;
+		this.tf = tf;
+		this.positions = positions;
+		this.positionSize = positionSize;
 	}
 	
 	public int docNo(){
@@ -36,6 +51,13 @@ public class PostingDoc {
 		return positions;
 	}
 	
+	/**
+	 * positions 배열중 유효한 갯수.
+	 * */
+	public int positionSize(){
+		return positionSize;
+	}
+	
 	///prefix검색등 여러 termdoc이 하나의 단어에서 검색되었을때 사용된다.
 	public void addPositions(int[] positions){
 		//TODO 기존 position에 추가.
@@ -45,9 +67,9 @@ public class PostingDoc {
 	public String toString(){
 		String pos = ">>";
 		if(positions != null){
-			for (int i = 0; i < positions.length; i++) {
+			for (int i = 0; i < positionSize; i++) {
 				pos += positions[i];
-				if(i < positions.length - 1){
+				if(i < positionSize - 1){
 					pos += ",";
 				}
 			}
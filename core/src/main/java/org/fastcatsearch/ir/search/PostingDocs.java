@@ -21,28 +21,27 @@ import org.fastcatsearch.ir.search.posting.PostingDocsReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * 한 단어의 포스팅 전체. 문서마다 PostingDoc을 만들지 않고 문서번호, tf, 위치정보를 int 배열에 이어 담는다.
+ * 문서 i의 위치정보는 positions()의 positionOffset(i)부터 positionSize(i)개이다.
+ * */
 public class PostingDocs {
 	private static Logger logger = LoggerFactory.getLogger(PostingDocs.class);
-//	private int indexFieldNum;
 	private CharVector term;
-	private PostingDoc[] postingDocList;
+	private int[] docs;
+	private int[] tfs;
+	private int[] positionOffsets;
+	private int[] positions;
 	private int count;
 
-//	public PostingDocs(int indexFieldNum, CharVector term, int size) {
 	public PostingDocs(CharVector term, int size) {
-		this(term, new PostingDoc[size], 0);
-	}
-
-	public PostingDocs(CharVector term, PostingDoc[] postingDocList, int count) {
-		this.postingDocList = postingDocList;
 		this.term = term;
-		this.count = count;
+		docs = new int[size];
+		tfs = new int[size];
+		positionOffsets = new int[size + 1];
+		positions = new int[0];
 	}
 
-//	public int indexFieldNum() {
-//		return indexFieldNum;
-//	}
-
 	public CharVector term() {
 		return term;
 	}
@@ -51,30 +50,72 @@ public class PostingDocs {
 		return count;
 	}
 
-	public PostingDoc[] postingDocList() {
-		return postingDocList;
+	/**
+	 * 앞에서부터 count()개만 유효하다.
+	 */
+	public int[] docs() {
+		return docs;
+	}
+
+	public int[] tfs() {
+		return tfs;
+	}
+
+	public int[] positions() {
+		return positions;
+	}
+
+	public int positionOffset(int i) {
+		return positionOffsets[i];
 	}
 
-	public void setPostingDocList(PostingDoc[] postingDocList) {
-		this.postingDocList = postingDocList;
+	public int positionSize(int i) {
+		return positionOffsets[i + 1] - positionOffsets[i];
 	}
 
-	public int addPostingDoc(PostingDoc termDoc) {
-		if (count == postingDocList.length) {
-			int newLength = (int) (postingDocList.length * 1.2);
-			try {
-				PostingDoc[] newPostingDocList = new PostingDoc[newLength];
-				System.arraycopy(postingDocList, 0, newPostingDocList, 0, postingDocList.length);
-				postingDocList = newPostingDocList;
-			} catch (OutOfMemoryError e) {
-				logger.error("OOM! while allocating memory size = " + newLength, e);
-				throw e;
+	/**
+	 * 문서 하나를 추가한다. positions는 복사하므로 호출한 쪽에서 재사용해도 된다.
+	 */
+	public int add(int docNo, int tf, int[] positions, int positionSize) {
+		if (count == docs.length) {
+			grow();
+		}
+		int positionOffset = positionOffsets[count];
+		if (positionSize > 0) {
+			if (positionOffset + positionSize > this.positions.length) {
+				this.positions = copyOf(this.positions, Math.max((int) (this.positions.length * 1.2), positionOffset + positionSize));
 			}
+			System.arraycopy(positions, 0, this.positions, positionOffset, positionSize);
 		}
-		postingDocList[count++] = termDoc;
+		docs[count] = docNo;
+		tfs[count] = tf;
+		positionOffsets[++count] = positionOffset + positionSize;
 		return count;
 	}
 
+	///prefix검색등 여러 termdoc이 하나의 단어에서 검색되었을때 마지막 문서의 tf에 더한다.
+	public void addTf(int tf) {
+		tfs[count - 1] += tf;
+	}
+
+	private void grow() {
+		int newLength = Math.max((int) (docs.length * 1.2), docs.length + 16);
+		docs = copyOf(docs, newLength);
+		tfs = copyOf(tfs, newLength);
+		positionOffsets = copyOf(positionOffsets, newLength + 1);
+	}
+
+	private int[] copyOf(int[] array, int newLength) {
+		try {
+			int[] newArray = new int[newLength];
+			System.arraycopy(array, 0, newArray, 0, array.length);
+			return newArray;
+		} catch (OutOfMemoryError e) {
+			logger.error("OOM! while allocating memory size = " + newLength, e);
+			throw e;
+		}
+	}
+
 	public PostingDocsReader getReader(){
 		return new PostingDocsReader(this);
 	}
@@ -6,6 +6,8 @@ import org.slf4j.LoggerFactory;
 
 /**
  * 스트림으로 부터 포스팅을 순차적으로 읽는다.
+ * next(), advance()가 리턴하는 PostingDoc은 구현에 따라 재사용될수 있으므로, 다음 호출전까지만 유효하다.
+ * 계속 가지고 있어야 할 경우 내용을 복사해야 한다.
  * */
 public interface PostingReader {
 	public static Logger logger = LoggerFactory.getLogger(PostingReader.class);
@@ -17,6 +19,11 @@ public interface PostingReader {
 	public boolean hasNext();
 
 	public PostingDoc next();
+	
+	/**
+	 * targetDocNo 이상인 첫 문서까지 이동하여 리턴한다. 더이상 문서가 없으면 null.
+	 * */
+	public PostingDoc advance(int targetDocNo);
 
 	public void close();
 
@@ -25,4 +32,10 @@ public interface PostingReader {
 	public CharVector term();
 
 	public int documentCount();
+	
+	/**
+	 * 포스팅 문서중 가장 큰 tf. 알수 없으면 -1.
+	 * 단어가 낼수 있는 최대점수를 계산하는데 사용된다.
+	 * */
+	public int maxTf();
 }
@@ -4,10 +4,10 @@ import java.io.File;
 import java.io.IOException;
 
 import org.fastcatsearch.ir.common.IRException;
-import org.fastcatsearch.ir.io.BufferedFileInput;
 import org.fastcatsearch.ir.io.DataRef;
 import org.fastcatsearch.ir.io.IOUtil;
 import org.fastcatsearch.ir.io.IndexInput;
+import org.fastcatsearch.ir.io.IndexInputType;
 import org.fastcatsearch.ir.io.StreamInputRef;
 import org.fastcatsearch.ir.settings.FieldSetting;
 import org.slf4j.Logger;
@@ -22,17 +22,23 @@ public abstract class ReferencableIndexReader implements Cloneable {
 	protected DataRef dataRef;
 	protected int dataSize;//색인된 한 문서의 필드데이터의  길이
 	protected boolean isMultiValue;
+	//메모리에 올린 필드색인. null이면 파일에서 읽는다.
+	protected FieldIndexColumn column;
 	
 	public ReferencableIndexReader() {}
 	
 	public void init(String indexId, FieldSetting refFieldSetting, File dataFile, File multiValueFile, int dataSize) throws IOException, IRException{
+		init(indexId, refFieldSetting, dataFile, multiValueFile, dataSize, IndexInputType.BUFFERED);
+	}
+	
+	public void init(String indexId, FieldSetting refFieldSetting, File dataFile, File multiValueFile, int dataSize, IndexInputType indexInputType) throws IOException, IRException{
 		this.indexId = indexId;
 		this.dataSize = dataSize;
-		dataInput = new BufferedFileInput(dataFile);
+		dataInput = indexInputType.open(dataFile);
     	
     	isMultiValue = refFieldSetting.isMultiValue();
     	if(isMultiValue){
-    		multiValueInput = new BufferedFileInput(multiValueFile);
+    		multiValueInput = indexInputType.open(multiValueFile);
     		dataRef = new StreamInputRef(multiValueInput, dataSize);
     	}else{
     		dataRef = new DataRef(dataSize);
@@ -58,6 +64,9 @@ public abstract class ReferencableIndexReader implements Cloneable {
 			}else{
 				dataRef.init(0);
 			}
+		}else if(column != null){
+			column.read(docNo, dataRef.bytesRef().bytes);
+			dataRef.init(1);
 		}else{
 			int pos = dataSize * docNo;
 			dataInput.seek(pos);
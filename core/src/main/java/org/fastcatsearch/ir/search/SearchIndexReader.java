@@ -19,6 +19,7 @@ package org.fastcatsearch.ir.search;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.apache.lucene.analysis.Analyzer;
@@ -26,11 +27,10 @@ import org.fastcatsearch.ir.analysis.AnalyzerPool;
 import org.fastcatsearch.ir.common.IRException;
 import org.fastcatsearch.ir.common.IndexFileNames;
 import org.fastcatsearch.ir.index.IndexFieldOption;
-import org.fastcatsearch.ir.io.BufferedFileInput;
 import org.fastcatsearch.ir.io.CharVector;
-import org.fastcatsearch.ir.io.FixedMinHeap;
 import org.fastcatsearch.ir.io.IOUtil;
 import org.fastcatsearch.ir.io.IndexInput;
+import org.fastcatsearch.ir.io.IndexInputType;
 import org.fastcatsearch.ir.search.method.AbstractSearchMethod;
 import org.fastcatsearch.ir.search.method.SearchMethod;
 import org.fastcatsearch.ir.search.posting.PostingDocsMerger;
@@ -48,9 +48,15 @@ public class SearchIndexReader implements Cloneable {
 
 	private String indexId;
 	private IndexInput postingInput;
+	//position 파일을 사용하지 않는 색인이면 null.
+	private IndexInput positionInput;
 	private IndexInput lexiconInput;
 	private Schema schema;
 	private MemoryLexicon memoryLexicon;
+	//FST 단어사전이 없는 이전 색인이면 null이며, memoryLexicon과 lexicon 파일을 검색한다.
+	private TermFSTReader termFSTReader;
+	//suffix 사전을 만들지 않은 색인이면 null이며, lexicon 파일 전체를 비교한다.
+	private SuffixLexiconReader suffixLexiconReader;
 	private long fileLimit;
 	private IndexFieldOption indexFieldOption;
 
@@ -66,6 +72,10 @@ public class SearchIndexReader implements Cloneable {
 	}
 
 	public SearchIndexReader(IndexSetting indexSetting, Schema schema, File dir, int revision, AnalyzerPool queryAnalyzerPool, int segmentDocumentCount) throws IOException, IRException {
+		this(indexSetting, schema, dir, revision, queryAnalyzerPool, segmentDocumentCount, IndexInputType.BUFFERED);
+	}
+
+	public SearchIndexReader(IndexSetting indexSetting, Schema schema, File dir, int revision, AnalyzerPool queryAnalyzerPool, int segmentDocumentCount, IndexInputType indexInputType) throws IOException, IRException {
 		this.schema = schema;
 		this.indexSetting = indexSetting;
 		String id = indexSetting.getId();
@@ -75,27 +85,55 @@ public class SearchIndexReader implements Cloneable {
 		
 		logger.debug("Search Index [{}] Dir = {}", indexId, dir.getAbsolutePath());
 		try {
-			postingInput = new BufferedFileInput(IndexFileNames.getRevisionDir(dir, revision) , IndexFileNames.getSearchPostingFileName(id));
-			lexiconInput = new BufferedFileInput(IndexFileNames.getRevisionDir(dir, revision) , IndexFileNames.getSearchLexiconFileName(id));
+			postingInput = indexInputType.open(IndexFileNames.getRevisionDir(dir, revision), IndexFileNames.getSearchPostingFileName(id));
+			lexiconInput = indexInputType.open(IndexFileNames.getRevisionDir(dir, revision), IndexFileNames.getSearchLexiconFileName(id));
 			
 			fileLimit = lexiconInput.length();
 			
 			// posting 파일의 첫 int는 색인옵션.
 			indexFieldOption = new IndexFieldOption(postingInput.readInt());
+			if (indexFieldOption.isPositionFile()) {
+				positionInput = indexInputType.open(IndexFileNames.getRevisionDir(dir, revision), IndexFileNames.getSearchPositionFileName(id));
+			}
+			if (indexFieldOption.isStoreSuffix()) {
+				suffixLexiconReader = new SuffixLexiconReader(IndexFileNames.getRevisionDir(dir, revision), id, indexInputType);
+			}
 
 		} catch (Exception e) {
 			if (postingInput != null) {
 				postingInput.close();
 			}
+			if (positionInput != null) {
+				positionInput.close();
+			}
 			if (lexiconInput != null) {
 				lexiconInput.close();
 			}
+			if (suffixLexiconReader != null) {
+				suffixLexiconReader.close();
+			}
 			throw new IRException(e);
 		}
 		
+		File revisionDir = IndexFileNames.getRevisionDir(dir, revision);
+		if (new File(revisionDir, IndexFileNames.getSearchTermIndexFileName(id)).exists()) {
+			// FST 단어사전이 있으면 lexicon index를 메모리에 올리지 않는다.
+			IndexInput termIndexInput = indexInputType.open(revisionDir, IndexFileNames.getSearchTermIndexFileName(id));
+			try {
+				termFSTReader = new TermFSTReader(termIndexInput);
+			} catch (IOException e) {
+				termIndexInput.close();
+				close();
+				throw e;
+			}
+			memoryLexicon = new MemoryLexicon(0);
+			logger.debug("====termFST - {}==== term size = {}", id, termFSTReader.termCount());
+			return;
+		}
+		
 		IndexInput indexInput = null;
 		try {
-			indexInput = new BufferedFileInput(IndexFileNames.getRevisionDir(dir, revision), IndexFileNames.getSearchIndexFileName(id));
+			indexInput = indexInputType.open(revisionDir, IndexFileNames.getSearchIndexFileName(id));
 			int indexSize = indexInput.readInt();
 
 			logger.debug("====memoryLexicon - {}==== index key size = {}", id, indexSize);
@@ -123,6 +161,15 @@ public class SearchIndexReader implements Cloneable {
 	public void close() throws IOException {
 		lexiconInput.close();
 		postingInput.close();
+		if (positionInput != null) {
+			positionInput.close();
+		}
+		if (termFSTReader != null) {
+			termFSTReader.close();
+		}
+		if (suffixLexiconReader != null) {
+			suffixLexiconReader.close();
+		}
 	}
 	
 	
@@ -133,8 +180,17 @@ public class SearchIndexReader implements Cloneable {
 		reader.indexId = indexId;
 		reader.schema = schema;
 		reader.postingInput = postingInput.clone();
+		if (positionInput != null) {
+			reader.positionInput = positionInput.clone();
+		}
 		reader.lexiconInput = lexiconInput.clone();
 		reader.memoryLexicon = memoryLexicon;
+		if (termFSTReader != null) {
+			reader.termFSTReader = termFSTReader.clone();
+		}
+		if (suffixLexiconReader != null) {
+			reader.suffixLexiconReader = suffixLexiconReader.clone();
+		}
 		reader.fileLimit = fileLimit;
 		reader.queryAnalyzerPool = queryAnalyzerPool;
 		reader.indexSetting = indexSetting;
@@ -145,7 +201,7 @@ public class SearchIndexReader implements Cloneable {
 	}
 	
 	public PostingDocs getPosting(CharVector singleTerm) throws IOException {
-		if (memoryLexicon.size() == 0){
+		if (termFSTReader == null && memoryLexicon.size() == 0){
 			return null;
 		}
 		
@@ -153,6 +209,11 @@ public class SearchIndexReader implements Cloneable {
 			return null;
 		}
 
+		if (termFSTReader != null) {
+			long pos = termFSTReader.get(singleTerm);
+			return pos >= 0 ? getTermDocs(singleTerm, pos) : null;
+		}
+
 		long[] posInfo = new long[2];
 		boolean found = memoryLexicon.binsearch(singleTerm, posInfo);
 
@@ -202,10 +263,16 @@ public class SearchIndexReader implements Cloneable {
 		int len = postingInput.readVInt();
 		int count = postingInput.readInt();
 		int lastDocNo = postingInput.readInt();
+		if (indexFieldOption.isBlockPosting()) {
+			return readBlockPosting(singleTerm, pos, count);
+		}
+		return readVIntPosting(singleTerm, count);
+	}
 
-		PostingDoc[] termDocList = new PostingDoc[count];
-		logger.debug(">>>>> create PostingDoc array size {} = {} / {}MB", singleTerm, count, Runtime.getRuntime().totalMemory() / (1024 * 1024));
-
+	// 현재 위치부터 VInt 포스팅 count개를 PostingDocs의 int 배열로 바로 읽는다. 위치정보는 하나의 버퍼를 재사용한다.
+	private PostingDocs readVIntPosting(CharVector term, int count) throws IOException {
+		PostingDocs postingDocs = new PostingDocs(term, count);
+		int[] positions = indexFieldOption.isStorePosition() ? new int[16] : null;
 		int prevId = -1;
 		int docId = -1;
 		for (int i = 0; i < count; i++) {
@@ -215,10 +282,12 @@ public class SearchIndexReader implements Cloneable {
 				docId = postingInput.readVInt();
 			}
 			int tf = postingInput.readVInt();
-			int[] positions = null;
-			if (tf > 0 && indexFieldOption.isStorePosition()) {
+			int positionSize = 0;
+			if (tf > 0 && positions != null) {
+				if (positions.length < tf) {
+					positions = new int[Math.max(tf, positions.length * 2)];
+				}
 				int prevPosition = -1;
-				positions = new int[tf];
 				for (int j = 0; j < tf; j++) {
 					if (prevPosition >= 0) {
 						positions[j] = postingInput.readVInt() + prevPosition + 1;
@@ -226,17 +295,28 @@ public class SearchIndexReader implements Cloneable {
 						positions[j] = postingInput.readVInt();
 					}
 					prevPosition = positions[j];
-
 				}
-
+				positionSize = tf;
 			}
-//			logger.debug("getTermDocs {} >> {} : {} / {}", singleTerm, docId, tf, positions);
-
-			termDocList[i] = new PostingDoc(docId, tf, positions);
+			postingDocs.add(docId, tf, positions, positionSize);
 			prevId = docId;
-
 		}
-		return new PostingDocs(singleTerm, termDocList, count);
+		return postingDocs;
+	}
+	
+	// 블럭 포스팅을 읽어서 PostingDocs에 담는다. reader가 재사용하는 PostingDoc의 값은 add에서 복사된다.
+	private PostingDocs readBlockPosting(CharVector term, long pos, int count) {
+		PostingDocs postingDocs = new PostingDocs(term, count);
+		PostingReader postingReader = new BlockPostingReader(term, 0, 0, segmentDocumentCount, indexFieldOption, postingInput.clone(), cloneInput(positionInput), pos);
+		try {
+			for (int i = 0; i < count; i++) {
+				PostingDoc postingDoc = postingReader.next();
+				postingDocs.add(postingDoc.docNo(), postingDoc.tf(), postingDoc.positions(), postingDoc.positionSize());
+			}
+		} finally {
+			postingReader.close();
+		}
+		return postingDocs;
 	}
 
 	protected PostingDocs getExtendedPosting(int indexFieldSequence, CharVector singleTerm) throws IOException {
@@ -285,6 +365,15 @@ public class SearchIndexReader implements Cloneable {
 	}
 
 	protected PostingDocs getPrefixPosting(CharVector singleTerm) throws IOException {
+		if (termFSTReader != null) {
+			// 사전순으로 연속된 단어들이므로 첫 posting위치와 갯수만 구한다.
+			long[] result = new long[2];
+			if (!termFSTReader.prefix(singleTerm, result)) {
+				return null;
+			}
+			return makeTermDocs(singleTerm, result[0], (int) result[1]);
+		}
+		
 		if (memoryLexicon.size() == 0)
 			return null;
 
@@ -327,19 +416,6 @@ public class SearchIndexReader implements Cloneable {
 	}
 
 	protected PostingDocs getSuffixPosting(CharVector singleTerm) throws IOException {
-		if (memoryLexicon.size() == 0)
-			return null;
-
-		long[] posInfo = new long[2];
-		boolean found = memoryLexicon.binsearch(singleTerm, posInfo);
-
-		int foundCount = 0;
-		long startPos = -1;
-
-		long lexiconPos = posInfo[0];
-		// logger.debug("lexiconPos = {}", lexiconPos);
-		lexiconInput.seek(lexiconPos);
-
 		boolean isIncludSearch = false;
 
 		if (singleTerm.charAt(singleTerm.length() - 1) == '*') {
@@ -347,6 +423,24 @@ public class SearchIndexReader implements Cloneable {
 			isIncludSearch = true;
 		}
 
+		if (suffixLexiconReader != null) {
+			// suffix 사전에서 일치하는 항목의 범위만 읽는다.
+			long[] positions = isIncludSearch ? suffixLexiconReader.infix(singleTerm) : suffixLexiconReader.suffix(singleTerm);
+			if (positions == null) {
+				return null;
+			}
+			return makeTermDocs(singleTerm, positions, positions.length);
+		}
+
+		if (termFSTReader == null && memoryLexicon.size() == 0)
+			return null;
+
+		// 일치하는 단어는 사전 전체에 흩어져 있으므로 처음부터 모두 비교한다.
+		lexiconInput.seek(IOUtil.SIZE_OF_INT);
+
+		int foundCount = 0;
+		long[] positions = new long[16];
+
 		while (lexiconInput.position() < fileLimit) {
 			// lexiconInput
 			char[] term2 = lexiconInput.readUString();
@@ -354,16 +448,10 @@ public class SearchIndexReader implements Cloneable {
 			// logger.debug("compare key "+new String(term2)+" = "+cmp);
 			if (cmp == 0) {
 				long pos = lexiconInput.readLong();
-				if (foundCount == 0)
-					startPos = pos;
-				foundCount++;
-				// logger.debug("prefix term = {}", new String(term2));
-
-			} else if (cmp > 0) {
-				// if term value is greater than this term, there's no such
-				// word.
-				// search fail
-				break;
+				if (foundCount == positions.length) {
+					positions = Arrays.copyOf(positions, foundCount * 2);
+				}
+				positions[foundCount++] = pos;
 			} else {
 				// skip reading pos
 				lexiconInput.seek(lexiconInput.position() + IOUtil.SIZE_OF_LONG);
@@ -371,12 +459,12 @@ public class SearchIndexReader implements Cloneable {
 			}
 		}
 
-		logger.debug("startPos = {}, foundCount = {}", startPos, foundCount);
-		return makeTermDocs(singleTerm, startPos, foundCount);
+		logger.debug("suffix foundCount = {}", foundCount);
+		return makeTermDocs(singleTerm, positions, foundCount);
 	}
 
 	protected PostingDocs getRangePosting(CharVector startTerm, CharVector endTerm) throws IOException {
-		if (memoryLexicon.size() == 0)
+		if (termFSTReader == null && memoryLexicon.size() == 0)
 			return null;
 		logger.debug("Range : {} ~ {}", startTerm, endTerm);
 
@@ -389,6 +477,14 @@ public class SearchIndexReader implements Cloneable {
 			return new PostingDocs(startTerm, 0);
 		}
 
+		if (termFSTReader != null) {
+			long[] result = new long[2];
+			if (!termFSTReader.range(startTerm, endTerm, result)) {
+				return null;
+			}
+			return makeTermDocs(startTerm, result[0], (int) result[1]);
+		}
+
 		/*
 		 * 1. find startTerm
 		 */
@@ -494,7 +590,6 @@ public class SearchIndexReader implements Cloneable {
 	private PostingDocs makeTermDocs(CharVector term, long startPos, int foundCount) throws IOException {
 
 		if (foundCount > 0) {
-			FixedMinHeap<PostingDocsReader> heap = new FixedMinHeap<PostingDocsReader>(foundCount);
 			mpseq++;
 
 			long pos = startPos;
@@ -503,58 +598,7 @@ public class SearchIndexReader implements Cloneable {
 			List<PostingDocs> termDocsList = new ArrayList<PostingDocs>(foundCount);
 
 			for (int c = 0; c < foundCount; c++) {
-				int prevId = -1;
-				// 위치정보를 가지고 포스팅을 읽는다.
-				int len = postingInput.readVInt();
-				int count = postingInput.readInt();
-				int lastDocNo = postingInput.readInt();
-
-				// logger.debug("prefix posting {} / {}", c, foundCount);
-				// logger.debug("prefix posting len = {}", len);
-				// logger.debug("prefix posting count = {}", count);
-				// logger.debug("prefix posting lastDocNo = {}", lastDocNo);
-
-				PostingDoc[] termDocList = new PostingDoc[count];
-
-				int docId = -1;
-
-				for (int i = 0; i < count; i++) {
-					if (prevId >= 0) {
-						docId = postingInput.readVInt() + prevId + 1;
-					} else {
-						docId = postingInput.readVInt();
-					}
-
-					int tf = postingInput.readVInt();
-
-					int[] positions = null;
-					if (indexFieldOption.isStorePosition()) {
-						int prevPosition = -1;
-						positions = new int[tf];
-						for (int j = 0; j < tf; j++) {
-							if (prevPosition >= 0) {
-								positions[j] = postingInput.readVInt() + prevPosition + 1;
-							} else {
-								positions[j] = postingInput.readVInt();
-							}
-							prevPosition = positions[j];
-						}
-
-					}
-
-					termDocList[i] = new PostingDoc(docId, tf, positions);
-
-					prevId = docId;
-
-				}
-
-				// TermDocsReader r = new TermDocsReader(new TermDocs(indexFieldSequence, term, termDocList, count));
-
-				termDocsList.add(new PostingDocs(term, termDocList, count));
-				// if (r.next()) {
-				// heap.push(r);
-				// }
-
+				termDocsList.add(readPostingDocs(term));
 			}// for
 
 			return new PostingDocsMerger(termDocsList).merge(term, 1024);
@@ -562,6 +606,35 @@ public class SearchIndexReader implements Cloneable {
 		return null;
 	}
 
+	// 떨어져 있는 posting들을 읽어 합친다. suffix 검색처럼 일치하는 단어가 연속되지 않을때 사용한다.
+	private PostingDocs makeTermDocs(CharVector term, long[] positions, int foundCount) throws IOException {
+		if (foundCount > 0) {
+			mpseq++;
+			List<PostingDocs> termDocsList = new ArrayList<PostingDocs>(foundCount);
+			for (int c = 0; c < foundCount; c++) {
+				postingInput.seek(positions[c]);
+				termDocsList.add(readPostingDocs(term));
+			}
+			return new PostingDocsMerger(termDocsList).merge(term, 1024);
+		}
+		return null;
+	}
+
+	// 현재 위치의 posting 하나를 읽는다. 읽은후 다음 posting의 위치에 있게 된다.
+	private PostingDocs readPostingDocs(CharVector term) throws IOException {
+		long postingPosition = postingInput.position();
+		// 위치정보를 가지고 포스팅을 읽는다.
+		int len = postingInput.readVInt();
+		int count = postingInput.readInt();
+		int lastDocNo = postingInput.readInt();
+		if (indexFieldOption.isBlockPosting()) {
+			PostingDocs postingDocs = readBlockPosting(term, postingPosition, count);
+			postingInput.seek(postingPosition + IOUtil.lenVariableByte(len) + len);
+			return postingDocs;
+		}
+		return readVIntPosting(term, count);
+	}
+
 
 	private int compareKey(char[] t, CharVector term) {
 
@@ -663,8 +736,12 @@ public class SearchIndexReader implements Cloneable {
 	}
 	public SearchMethod createSearchMethod(AbstractSearchMethod searchMethod){
 		//index input은 clone하여 각자 사용한다. 
-		searchMethod.init(this.memoryLexicon, this.lexiconInput.clone(), this.postingInput.clone(), this.indexFieldOption, this.segmentDocumentCount);
+		searchMethod.init(this.memoryLexicon, this.termFSTReader != null ? this.termFSTReader.clone() : null, this.lexiconInput.clone(), this.postingInput.clone(), cloneInput(this.positionInput), this.indexFieldOption, this.segmentDocumentCount);
 		return searchMethod;
 	}
 	
+	private IndexInput cloneInput(IndexInput input) {
+		return input != null ? input.clone() : null;
+	}
+	
 }
@@ -24,6 +24,7 @@ import java.util.List;
 import org.fastcatsearch.ir.analysis.AnalyzerPool;
 import org.fastcatsearch.ir.analysis.AnalyzerPoolManager;
 import org.fastcatsearch.ir.common.IRException;
+import org.fastcatsearch.ir.io.IndexInputType;
 import org.fastcatsearch.ir.query.HighlightInfo;
 import org.fastcatsearch.ir.query.Term;
 import org.fastcatsearch.ir.search.clause.OperatedClause;
@@ -55,6 +56,10 @@ public class SearchIndexesReader implements Cloneable {
 	}
 
 	public SearchIndexesReader(Schema schema, File dir, int revision, AnalyzerPoolManager analyzerPoolManager, int segmentDocumentCount) throws IOException, IRException {
+		this(schema, dir, revision, analyzerPoolManager, segmentDocumentCount, IndexInputType.BUFFERED);
+	}
+
+	public SearchIndexesReader(Schema schema, File dir, int revision, AnalyzerPoolManager analyzerPoolManager, int segmentDocumentCount, IndexInputType indexInputType) throws IOException, IRException {
 		this.schema = schema;
 		this.segmentDocumentCount = segmentDocumentCount;
 //		logger.debug("schema > {}", schema);
@@ -78,7 +83,7 @@ public class SearchIndexesReader implements Cloneable {
 					throw new IRException("Query analyzer not found >> " + setting.getId() + " : " + queryAnalyzerName);
 				}
 				
-				reader = new SearchIndexReader(setting, schema, dir, revision, queryAnalyzerPool, segmentDocumentCount);
+				reader = new SearchIndexReader(setting, schema, dir, revision, queryAnalyzerPool, segmentDocumentCount, indexInputType);
 			} catch (Exception e) {
 				logger.error("색인Reader {}로딩중 에러 >> {}", setting.getId(), e);
 				if (reader != null) {
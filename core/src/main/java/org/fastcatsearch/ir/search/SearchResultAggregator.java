@@ -2,7 +2,11 @@ package org.fastcatsearch.ir.search;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+
+import org.apache.lucene.util.BytesRef;
 
 import org.fastcatsearch.ir.group.GroupsData;
 import org.fastcatsearch.ir.group.GroupDataMerger;
@@ -100,16 +104,23 @@ public class SearchResultAggregator {
 			
 			//각 shard의 결과들을 rankdata를 기준으로 재정렬한다.
 			FixedHitQueue totalHit = new FixedHitQueue(rows);
+			//shard간에 동일한 번들키는 먼저 나온 것만 사용한다.
+			Set<BytesRef> bundleKeyDedupSet = null;
+			if(q.getBundle() != null){
+				bundleKeyDedupSet = new HashSet<BytesRef>();
+			}
 			int c = 1;
 			
 			while(hitMerger.size() > 0){
 				FixedHitReader r = hitMerger.peek();
 				HitElement el = r.read();
-				if(c >= start){
-					totalHit.push(el);
-					count++;
+				if(bundleKeyDedupSet == null || el.getBundleKey() == null || bundleKeyDedupSet.add(el.getBundleKey())){
+					if(c >= start){
+						totalHit.push(el);
+						count++;
+					}
+					c++;
 				}
-				c++;
 				
 				//결과가 만들어졌으면 일찍 끝낸다.
 				if(count == rows)
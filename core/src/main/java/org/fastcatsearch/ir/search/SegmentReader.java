@@ -25,6 +25,7 @@ import org.fastcatsearch.ir.common.IndexFileNames;
 import org.fastcatsearch.ir.config.DataInfo.SegmentInfo;
 import org.fastcatsearch.ir.document.DocumentReader;
 import org.fastcatsearch.ir.io.BitSet;
+import org.fastcatsearch.ir.io.IndexInputType;
 import org.fastcatsearch.ir.settings.Schema;
 import org.fastcatsearch.ir.util.CloseableThreadLocal;
 import org.slf4j.Logger;
@@ -51,6 +52,8 @@ public class SegmentReader {
 	private BitSet deleteSet;
 	private SegmentInfo segmentInfo;
 	private File segmentDir;
+	private FilterCache filterCache = new FilterCache();
+	private GroupCountCache groupCountCache = new GroupCountCache();
 
 	final CloseableThreadLocal<DocumentReader> documentReaderLocal = new CloseableThreadLocal<DocumentReader>() {
 		@Override
@@ -85,6 +88,13 @@ public class SegmentReader {
 	}
 			
 	public SegmentReader(SegmentInfo segmentInfo, Schema schema, File segmentDir, BitSet bitset, AnalyzerPoolManager analyzerPoolManager) throws IOException, IRException {
+		this(segmentInfo, schema, segmentDir, bitset, analyzerPoolManager, IndexInputType.BUFFERED);
+	}
+
+	/**
+	 * @param indexInputType 문서, 검색색인, 필드색인 파일을 읽는 방식.
+	 */
+	public SegmentReader(SegmentInfo segmentInfo, Schema schema, File segmentDir, BitSet bitset, AnalyzerPoolManager analyzerPoolManager, IndexInputType indexInputType) throws IOException, IRException {
 		this.segmentSequence = segmentInfo.getIntId();
 		this.schema = schema;
 		this.segmentDir = segmentDir;
@@ -92,14 +102,14 @@ public class SegmentReader {
 		int revision = segmentInfo.getRevisionInfo().getId();
 		int ref = segmentInfo.getRevisionInfo().getRef();
 		
-		this.documentReader = new DocumentReader(schema.schemaSetting(), segmentDir, segmentInfo.getBaseNumber());
+		this.documentReader = new DocumentReader(schema.schemaSetting(), segmentDir, segmentInfo.getBaseNumber(), indexInputType);
 		int documentCount = documentReader.getDocumentCount();
 		
 		// reader들은 thread-safe하지 않다. clone해서 사용됨.
-		this.searchIndexesReader = new SearchIndexesReader(schema, segmentDir, ref, analyzerPoolManager, documentCount);
+		this.searchIndexesReader = new SearchIndexesReader(schema, segmentDir, ref, analyzerPoolManager, documentCount, indexInputType);
 		
 		//field index
-		this.fieldIndexesReader = new FieldIndexesReader(schema, segmentDir);
+		this.fieldIndexesReader = new FieldIndexesReader(schema, segmentDir, indexInputType);
 		
 //		// group index
 		this.groupIndexesReader = new GroupIndexesReader(schema, segmentDir, ref);
@@ -165,12 +175,23 @@ public class SegmentReader {
 		return documentReaderLocal.get();
 	}
 	
+	public FilterCache filterCache(){
+		return filterCache;
+	}
+	
+	public GroupCountCache groupCountCache(){
+		return groupCountCache;
+	}
+	
 	public void setDeleteSet(BitSet deleteSet) {
 		this.deleteSet = deleteSet;
 	}
 
 	public void close() throws IOException {
 		IOException exception = null; 
+		filterCache.clear();
+		groupCountCache.clear();
+		
 		try{
 			searchIndexesReader.close();
 		}catch(IOException e){ exception = e; }
@@ -0,0 +1,50 @@
+package org.fastcatsearch.ir.search;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 세그먼트 병렬검색에 사용하는 공용 쓰레드풀.
+ *
+ * 모든 컬렉션이 함께 사용하며, 쓰레드 갯수는 CPU 코어수로 제한한다.
+ * 쓰레드가 모두 사용중이면 작업은 큐에서 대기하므로, 동시 검색요청이 많아도 쓰레드가 코어수 이상으로 늘어나지 않는다.
+ * 쓰레드는 daemon이므로 별도로 종료하지 않아도 된다.
+ * */
+public class SegmentSearchExecutor {
+
+	private static final int POOL_SIZE = Runtime.getRuntime().availableProcessors();
+
+	private static ThreadPoolExecutor executor;
+
+	public static int poolSize() {
+		return POOL_SIZE;
+	}
+
+	public static <T> Future<T> submit(Callable<T> task) {
+		return executor().submit(task);
+	}
+
+	private static synchronized ThreadPoolExecutor executor() {
+		if (executor == null) {
+			executor = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new SearchThreadFactory());
+			executor.allowCoreThreadTimeOut(true);
+		}
+		return executor;
+	}
+
+	static class SearchThreadFactory implements ThreadFactory {
+		private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread t = new Thread(r, "pool-segment-search-thread-" + threadNumber.getAndIncrement());
+			t.setDaemon(true);
+			return t;
+		}
+	}
+}
@@ -1,7 +1,12 @@
 package org.fastcatsearch.ir.search;
 
+import org.apache.lucene.util.BytesRef;
 import org.fastcatsearch.ir.common.IRException;
+import org.fastcatsearch.ir.config.DataInfo.FieldStat;
+import org.fastcatsearch.ir.filter.FilterFunction;
+import org.fastcatsearch.ir.index.PointIndexWriter;
 import org.fastcatsearch.ir.document.Document;
+import org.fastcatsearch.ir.field.ScoreField;
 import org.fastcatsearch.ir.document.DocumentReader;
 import org.fastcatsearch.ir.group.GroupDataGenerator;
 import org.fastcatsearch.ir.group.GroupHit;
@@ -11,6 +16,8 @@ import org.fastcatsearch.ir.io.FixedHitStack;
 import org.fastcatsearch.ir.io.FixedMaxPriorityQueue;
 import org.fastcatsearch.ir.query.*;
 import org.fastcatsearch.ir.search.clause.*;
+import org.fastcatsearch.ir.settings.FieldIndexSetting;
+import org.fastcatsearch.ir.settings.FieldSetting;
 import org.fastcatsearch.ir.settings.Schema;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,6 +25,8 @@ import org.slf4j.LoggerFactory;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Single Thread로 동작한다.
@@ -29,6 +38,9 @@ public class SegmentSearcher {
 	private final static int BULK_SIZE = 100;
 	private FixedMaxPriorityQueue<HitElement> ranker;
 	private GroupDataGenerator groupGenerator;
+	private GroupDataGenerator globalGroupGenerator;
+	private int segmentSequence;
+	private boolean groupOnly; //그룹결과만 필요하고 검색결과 문서는 필요없는 검색.
 	private HitFilter hitFilter;
 	private HitFilter groupHitFilter;
 	private DocumentReader documentReader;
@@ -71,7 +83,7 @@ public class SegmentSearcher {
 //			query = queryModifier.modify(query);
 //		}
 		search(query.getMeta(), query.getClause(), query.getFilters(), query.getGroups(), query.getGroupFilters(), query.getSorts(), query.getBundle(), boostList);
-		return new Hit(rankHitList(), makeGroupData(), totalCount, highlightInfo, explanation);
+		return new Hit(rankHitList(), makeGroupData(false), totalCount, highlightInfo, explanation);
 	}
 	public HitReader searchHitReader(Query query, PkScoreList boostList) throws ClauseException, IOException, IRException {
 //		QueryModifier queryModifier = query.getMeta().queryModifier();
@@ -83,8 +95,31 @@ public class SegmentSearcher {
 	
 
 	public GroupHit searchGroupHit(Query query) throws ClauseException, IOException, IRException {
-		search(query.getMeta(), query.getClause(), query.getFilters(), query.getGroups(), null, null, null, null);
-		return new GroupHit(makeGroupData(), totalCount);
+		groupOnly = true;
+		try {
+			search(query.getMeta(), query.getClause(), query.getFilters(), query.getGroups(), null, null, null, null);
+		} finally {
+			groupOnly = false;
+		}
+		//세그먼트가 하나일때만 사용하므로 상위 후보만 만든다.
+		return new GroupHit(makeGroupData(true), totalCount);
+	}
+
+	/**
+	 * 여러 세그먼트가 함께 쓰는 groupGenerator에 이 세그먼트의 그룹결과를 쌓는다.
+	 * segmentSequence는 전역 그룹번호 매핑에서 이 세그먼트의 순서이며, 결과는 모든 세그먼트 검색후 groupGenerator.generate()로 만든다.
+	 * */
+	public int searchGroup(Query query, GroupDataGenerator groupGenerator, int segmentSequence) throws ClauseException, IOException, IRException {
+		this.globalGroupGenerator = groupGenerator;
+		this.segmentSequence = segmentSequence;
+		groupOnly = true;
+		try {
+			search(query.getMeta(), query.getClause(), query.getFilters(), query.getGroups(), null, null, null, null);
+		} finally {
+			globalGroupGenerator = null;
+			groupOnly = false;
+		}
+		return totalCount;
 	}
 
 	public void search(Metadata meta, Clause clause, Filters filters, Groups groups, Filters groupFilters, Sorts sorts, Bundle bundle, PkScoreList boostList) throws ClauseException,
@@ -93,27 +128,17 @@ public class SegmentSearcher {
 		int sortMaxSize = meta.start() + meta.rows() - 1;
 		
 		int docCount = segmentReader.docCount();
-		// Search
-		OperatedClause operatedClause = null;
-		
-		if (clause == null) {
-			operatedClause = new AllDocumentOperatedClause(docCount);
-		} else {
-			operatedClause = clause.getOperatedClause(docCount, segmentReader.newSearchIndexesReader(), highlightInfo);
-		}
-		//BOOST
-		if(boostList != null) {
-			// pk를 내부 docNo로 바뀐 opclause가 리턴된다.
-			OperatedClause boostClause = new PkScoreOperatedClause("pk boost", boostList, segmentReader.newSearchIndexesReader());
-			operatedClause = new BoostOperatedClause(operatedClause, boostClause);
-		}
-		// filter
 		if (filters != null) {
-			if(fieldIndexesReader == null){
-				fieldIndexesReader = segmentReader.newFieldIndexesReader();
-			}
+			fieldIndexesReader = segmentReader.newFieldIndexesReader();
+		}
+		// Search
+		boolean isPruning = isPruning(meta, groups, bundle, boostList, sorts);
+		int minScore = Integer.MIN_VALUE;
+		List<Filter> postFilterList = new ArrayList<Filter>();
+		OperatedClause operatedClause = createOperatedClause(segmentReader, clause, filters, boostList, highlightInfo, fieldIndexesReader, postFilterList, isPruning);
+		if (postFilterList.size() > 0) {
 			//schema를 통해 field index setting을 알아야 필터링시 ignorecase등의 정보를 활용가능하다.
-			hitFilter = filters.getHitFilter(schema, fieldIndexesReader, BULK_SIZE);
+			hitFilter = new HitFilter(postFilterList, schema, fieldIndexesReader, BULK_SIZE);
 		}
 
 		//group
@@ -121,11 +146,21 @@ public class SegmentSearcher {
 			if(fieldIndexesReader == null){
 				fieldIndexesReader = segmentReader.newFieldIndexesReader();
 			}
-			groupGenerator = groups.getGroupDataGenerator(schema, segmentReader.newGroupIndexesReader(), fieldIndexesReader);
+			if (globalGroupGenerator != null) {
+				groupGenerator = globalGroupGenerator;
+				groupGenerator.setSegment(segmentSequence, segmentReader.newGroupIndexesReader(), fieldIndexesReader);
+			} else {
+				groupGenerator = groups.getGroupDataGenerator(schema, segmentReader.newGroupIndexesReader(), fieldIndexesReader);
+			}
 			if (groupFilters != null) {
 				groupHitFilter = groupFilters.getHitFilter(schema, fieldIndexesReader, BULK_SIZE);
 			}
 		}
+		
+		int matchAllCount = -1;
+		if (groups != null) {
+			matchAllCount = addMatchAllGroupCounts(segmentReader, clause, filters, boostList, groups, groupGenerator);
+		}
 
 		// sort
 		// Sorts sorts = q.getSorts();
@@ -143,9 +178,15 @@ public class SegmentSearcher {
 			sortGenerator = sorts.getSortGenerator(schema, fieldIndexesReader, bundle);
 		}
 
-		RankInfo[] rankInfoList = new RankInfo[BULK_SIZE];
 		boolean exausted = false;
 		BitSet localDeleteSet = segmentReader.deleteSet();
+		
+		//모든 그룹을 미리 센 갯수로 집계했고 검색결과 문서가 필요없다면 문서를 읽지 않는다.
+		if (groupOnly && matchAllCount >= 0) {
+			groupGenerator.addSearchCount(matchAllCount);
+			totalCount = matchAllCount;
+			exausted = true;
+		}
 
 
 		/**
@@ -158,6 +199,17 @@ public class SegmentSearcher {
 			clauseExplanation = explanation.createClauseExplanation();
 		}
 		
+		/*
+		 * RankInfo는 bulk 단위로 재사용하고, 랭커에 들어가는 문서만 HitElement로 복사한다.
+		 * explain의 경우 문서별 설명리스트를 결과에 보관해야 하므로 매번 생성한다.
+		 */
+		RankInfo[] rankInfoList = new RankInfo[BULK_SIZE];
+		for (int i = 0; i < BULK_SIZE; i++) {
+			rankInfoList[i] = new RankInfo(isExplain);
+		}
+		//랭커에서 밀려나서 재사용할수 있는 객체.
+		HitElement freeElement = null;
+		
 		if (logger.isTraceEnabled() && operatedClause != null) {
 			ByteArrayOutputStream baos = new ByteArrayOutputStream();
 			PrintStream traceStream = new PrintStream(baos);
@@ -165,17 +217,22 @@ public class SegmentSearcher {
 			logger.trace("SegmentSearcher[seg#{}] stack >> \n{}", segmentReader.segmentInfo().getId(), baos.toString());
 		}
 		
-		
 		operatedClause.init(clauseExplanation);
 //		int searchTime = 0, sortTime = 0, groupTime = 0, filterTime = 0;
 		while (!exausted) {
 			int nread = 0;
 //			long st = System.nanoTime();
-			// search
-			for (nread = 0; nread < BULK_SIZE; nread++) {
-				RankInfo rankInfo = new RankInfo(isExplain);
+			// search and check delete documents
+			while (nread < BULK_SIZE) {
+				if (isExplain) {
+					rankInfoList[nread] = new RankInfo(isExplain);
+				}
+				RankInfo rankInfo = rankInfoList[nread];
 				if (operatedClause.next(rankInfo)) {
-					rankInfoList[nread] = rankInfo;
+					// 삭제문서는 자리를 차지하지 않으므로 다음 문서가 같은 RankInfo를 사용한다.
+					if (!localDeleteSet.isSet(rankInfo.docNo())) {
+						nread++;
+					}
 				} else {
 					exausted = true;
 					break;
@@ -189,23 +246,6 @@ public class SegmentSearcher {
 			if (!exausted && nread == 0) {
 				continue;
 			}
-
-			// check delete documents
-			int count = 0;
-			for (int i = 0; i < nread; i++) {
-				RankInfo rankInfo = rankInfoList[i];
-				// Check deleted list
-				if (!localDeleteSet.isSet(rankInfo.docNo())) {
-					rankInfoList[count] = rankInfo;
-					count++;
-//					logger.debug("ok docNo = {}", rankInfo.docNo());
-				} else {
-//					logger.debug("deleted docNo = {}", rankInfo.docNo());
-				}
-
-			}
-//			logger.debug("check delete docs {} => {}", nread, count);
-			nread = count;
 //			st = System.nanoTime();
 			// group
 			if (groups != null) {
@@ -216,13 +256,19 @@ public class SegmentSearcher {
 				}
 			}
 
-            HitElement[] e = sortGenerator.getHitElement(rankInfoList, nread);
-            for (int i = 0; i < nread; i++) {
-                if(ranker.push(e[i])) {
-                    totalCount++;
-                }
-            }
-			
+			for (int i = 0; i < nread; i++) {
+				HitElement e = sortGenerator.readHitElement(rankInfoList[i]);
+				totalCount++;
+				if (ranker.isCompetitive(e)) {
+					// 랭커가 가득 찼다면 root가 밀려나므로 다음 복사에 재사용한다. 번들은 교체될 원소를 알수 없으므로 재사용하지 않는다.
+					HitElement evicted = (ranker.size() == sortMaxSize && e.getBundleKey() == null) ? ranker.peek() : null;
+					ranker.push(sortGenerator.copyHitElement(e, freeElement));
+					freeElement = evicted;
+					if (isPruning && ranker.size() == sortMaxSize) {
+						minScore = raiseMinScore(operatedClause, minScore, ranker.peek().score());
+					}
+				}
+			}
 			
 //			sortTime += (System.nanoTime() - st);
 //			totalCount += nread;
@@ -233,6 +279,145 @@ public class SegmentSearcher {
 //		 logger.debug("#### time = se:{}ms, ft:{}ms, gr:{}ms, so:{}ms", searchTime / 1000000, filterTime / 1000000, groupTime / 1000000, sortTime / 1000000);
 	}
 	
+	/**
+	 * 검색어, 필터, boost가 없으면 모든 문서를 읽게 되므로, 파라미터 없는 COUNT만 있는 그룹은 세그먼트에 미리 센 갯수를 groupGenerator에 더한다.
+	 * 이 그룹은 이후 groupGenerator.insert에서 집계하지 않는다. search와 HitReader가 함께 사용한다.
+	 * 모든 그룹을 미리 센 갯수로 집계했으면 삭제되지 않은 문서수를, 아니면 -1을 리턴한다.
+	 * */
+	static int addMatchAllGroupCounts(SegmentReader segmentReader, Clause clause, Filters filters, PkScoreList boostList, Groups groups,
+			GroupDataGenerator groupGenerator) throws IOException {
+		if (clause != null || (filters != null && filters.size() > 0) || boostList != null) {
+			return -1;
+		}
+		int docCount = segmentReader.docCount();
+		GroupCountCache groupCountCache = segmentReader.groupCountCache();
+		int liveDocCount = -1;
+		boolean allCounted = true;
+		for (int i = 0; i < groups.size(); i++) {
+			GroupCountCache.Counts counts = null;
+			if (groupGenerator.isCountOnly(i)) {
+				counts = groupCountCache.counts(groups.getGroup(i).groupIndexId(), segmentReader.newGroupIndexesReader(), segmentReader.deleteSet(), docCount);
+			}
+			if (counts == null) {
+				allCounted = false;
+				continue;
+			}
+			groupGenerator.addGroupCounts(i, counts.counts());
+			liveDocCount = counts.liveDocCount();
+		}
+		return allCounted ? liveDocCount : -1;
+	}
+	
+	/**
+	 * 세그먼트의 검색 clause를 검색어, boost, 필터 순서로 만든다. search와 HitReader가 함께 사용한다.
+	 * 범위필터에 맞는 값이 세그먼트에 없으면 색인을 읽지 않고 빈 clause를 리턴한다.
+	 * 캐시된 문서집합으로 처리하지 못한 필터는 postFilterList에 담기며, 검색후 걸러내야 한다.
+	 * @param fieldIndexesReader 필터가 있으면 필요하다.
+	 * @param isPruning true이면 setMinScore로 최소점수에 도달할수 없는 문서를 건너뛰는 clause로 바꾼다.
+	 * */
+	static OperatedClause createOperatedClause(SegmentReader segmentReader, Clause clause, Filters filters, PkScoreList boostList, HighlightInfo highlightInfo,
+			FieldIndexesReader fieldIndexesReader, List<Filter> postFilterList, boolean isPruning) throws ClauseException, IOException, IRException {
+		int docCount = segmentReader.docCount();
+		if (filters != null && isOutOfRange(segmentReader, filters)) {
+			return new AllDocumentOperatedClause(0);
+		}
+		OperatedClause operatedClause = null;
+		if (clause == null) {
+			operatedClause = new AllDocumentOperatedClause(docCount);
+		} else {
+			operatedClause = clause.getOperatedClause(docCount, segmentReader.newSearchIndexesReader(), highlightInfo);
+			// 세그먼트의 문서빈도를 기준으로 수행계획을 세운다.
+			operatedClause = operatedClause.plan();
+		}
+		//BOOST
+		if(boostList != null) {
+			// pk를 내부 docNo로 바뀐 opclause가 리턴된다.
+			OperatedClause boostClause = new PkScoreOperatedClause("pk boost", boostList, segmentReader.newSearchIndexesReader());
+			operatedClause = new BoostOperatedClause(operatedClause, boostClause);
+		}
+		// filter
+		if (filters != null) {
+			// 반복되는 필터는 세그먼트에 캐시된 문서집합과 검색절에서 교집합을 구하고, 나머지 필터만 검색후 걸러낸다.
+			operatedClause = segmentReader.filterCache().apply(operatedClause, filters.getFilterList(), segmentReader.schema(), fieldIndexesReader, docCount, postFilterList);
+		}
+		if (isPruning) {
+			operatedClause = operatedClause.toPruningClause();
+		}
+		return operatedClause;
+	}
+	
+	/**
+	 * 점수순 상위 K개만 필요하면, 랭커가 가득 찬 이후에는 랭커의 최소점수로 raiseMinScore를 호출해서 
+	 * 그 점수에 도달할수 없는 문서를 건너뛰도록 한다.
+	 * 건너뛴 문서는 totalCount에 포함되지 않으며, 그룹과 묶음검색은 전체 문서가 필요하므로 사용하지 않는다.
+	 * */
+	static boolean isPruning(Metadata meta, Groups groups, Bundle bundle, PkScoreList boostList, Sorts sorts) {
+		return meta.isSearchOption(Query.SEARCH_OPT_PRUNE) && !meta.isSearchOption(Query.SEARCH_OPT_EXPLAIN) && groups == null && bundle == null
+				&& boostList == null && isScoreSorted(sorts);
+	}
+	
+	/**
+	 * 가득 찬 랭커의 최소점수로 clause의 최소점수를 올린다. 적용된 최소점수를 리턴한다.
+	 * */
+	static int raiseMinScore(OperatedClause operatedClause, int minScore, int rankerMinScore) {
+		int score = minCompetitiveScore(rankerMinScore);
+		if (score > minScore) {
+			operatedClause.setMinScore(score);
+			return score;
+		}
+		return minScore;
+	}
+	
+	// 첫번째 정렬조건이 점수 내림차순인지 확인한다.
+	private static boolean isScoreSorted(Sorts sorts) {
+		if (sorts == null || sorts.size() == 0) {
+			return false;
+		}
+		Sort sort = sorts.getSortList().get(0);
+		return sort.fieldIndexId().equalsIgnoreCase(ScoreField.fieldName) && !sort.asc();
+	}
+	
+	/*
+	 * 랭커의 최소점수와 같은 점수의 문서는 문서번호가 클수록 우선하므로 랭커에 들어갈수 있다.
+	 * 또한 점수는 float로 비교되므로, float로 같아지는 작은 정수도 후보가 될수 있도록 기준을 낮춘다.
+	 */
+	private static int minCompetitiveScore(int score) {
+		return (int) Math.floor(Math.nextAfter((float) score, Double.NEGATIVE_INFINITY)) + 1;
+	}
+	
+	/*
+	 * 범위필터중 하나라도 세그먼트의 필드 최소,최대값과 겹치지 않으면 맞는 문서가 없다.
+	 * 필터의 값은 point 색인과 같은 키로 바꾸어 비교한다.
+	 */
+	static boolean isOutOfRange(SegmentReader segmentReader, Filters filters) throws IOException, IRException {
+		Schema schema = segmentReader.schema();
+		for (Filter filter : filters.getFilterList()) {
+			if (filter.function() != Filter.SECTION) {
+				continue;
+			}
+			FieldStat fieldStat = segmentReader.segmentInfo().getRevisionInfo().getFieldStat(filter.fieldIndexId());
+			FieldIndexSetting fieldIndexSetting = schema.getFieldIndexSetting(filter.fieldIndexId());
+			if (fieldStat == null || fieldIndexSetting == null) {
+				continue;
+			}
+			FieldSetting fieldSetting = schema.getFieldSetting(fieldIndexSetting.getRef());
+			FilterFunction filterFunction = filter.createFilterFunction(fieldIndexSetting, fieldSetting);
+			BytesRef[] patternList = filterFunction.getPatternList();
+			BytesRef[] endPatternList = filterFunction.getEndPatternList();
+			boolean isOverlapped = false;
+			for (int j = 0; j < patternList.length && !isOverlapped; j++) {
+				long minKey = patternList[j] != null ? PointIndexWriter.sortableKey(fieldSetting.getType(), patternList[j].bytes, patternList[j].offset) : Long.MIN_VALUE;
+				long maxKey = endPatternList[j] != null ? PointIndexWriter.sortableKey(fieldSetting.getType(), endPatternList[j].bytes, endPatternList[j].offset) : Long.MAX_VALUE;
+				isOverlapped = fieldStat.isOverlapped(minKey, maxKey);
+			}
+			if (!isOverlapped) {
+				logger.debug("segment#{} skipped by filter {} {}", segmentReader.segmentInfo().getId(), filter, fieldStat);
+				return true;
+			}
+		}
+		return false;
+	}
+	
 	public HitReader searchHitReader(Metadata meta, Clause clause, Filters filters, Groups groups, Filters groupFilters, Sorts sorts, Bundle bundle, PkScoreList boostList) throws ClauseException,
 	IOException, IRException {
 		return new HitReader(segmentReader, meta, clause, filters, groups, groupFilters, sorts, bundle, boostList);
@@ -374,11 +559,11 @@ public class SegmentSearcher {
 	}
 
 	// 그룹결과는 문서를 next로 다읽은 경우에 완료된다.
-	private GroupsData makeGroupData() throws IOException {
+	private GroupsData makeGroupData(boolean selectCandidates) throws IOException {
 		if (groupGenerator == null)
 			return new GroupsData(null, totalCount);
 
-		return groupGenerator.generate();
+		return groupGenerator.generate(selectCandidates);
 	}
 	
 	public Explanation explanation(){
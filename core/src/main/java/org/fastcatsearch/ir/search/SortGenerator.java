@@ -22,6 +22,8 @@ import org.fastcatsearch.ir.field.ScoreField;
 import org.fastcatsearch.ir.io.IOUtil;
 import org.fastcatsearch.ir.query.RankInfo;
 import org.fastcatsearch.ir.query.Sort;
+import org.fastcatsearch.ir.search.FieldIndexColumn.NumericColumn;
+import org.fastcatsearch.ir.search.FieldIndexColumn.OrdinalColumn;
 import org.fastcatsearch.ir.settings.Schema;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -47,6 +49,15 @@ public class SortGenerator {
 	private IndexRef<FieldIndexReader> indexRef;
 	private BytesRef[] dataList;
 	private int sortSize;//다중정렬갯수.
+	//메모리에 올린 정렬필드는 column에서 값을 바로 읽는다. 아니면 null.
+	private FieldIndexColumn[] columnList;
+	//column이 없어서 파일에서 읽어야 하는 정렬필드 reader.
+	private List<FieldIndexReader> streamReaderList;
+	
+	//readHitElement에서 재사용하는 객체.
+	private HitElement candidate;
+	private BytesRef[] candidateData;
+	private int[] candidateOrdList; //candidateData에 들어있는 OrdinalColumn 값의 ordinal.
 	
 	public SortGenerator() throws IOException{
 	}
@@ -89,10 +100,19 @@ public class SortGenerator {
             }
 
             indexRef = fieldIndexesReader.selectIndexRef(fieldIdList.toArray(new String[0]));
+            columnList = new FieldIndexColumn[sortSize];
+            streamReaderList = new ArrayList<FieldIndexReader>(sortSize);
             for (int sequence = 0; sequence < sortSize; sequence++) {
                 //데이터와 연결되어 있는 필드만 추가해준다.
                 if (fieldIndex[sequence] >= 0) {
                     dataList[sequence] = indexRef.getDataRef(sequence).bytesRef();
+                    FieldIndexReader reader = indexRef.getReader(sequence);
+                    if (reader != null) {
+                        columnList[sequence] = reader.column();
+                        if (columnList[sequence] == null && !streamReaderList.contains(reader)) {
+                            streamReaderList.add(reader);
+                        }
+                    }
                 }
                 //score, hit 필드등은 여기서는 null이며, 아래 getHitElement 에서 읽을때 객체를 생성한다.
             }
@@ -136,6 +156,114 @@ public class SortGenerator {
         }
 	}
 	
+	/**
+	 * RankInfo의 정렬데이터를 읽어서 재사용 HitElement에 채워 리턴한다.
+	 * 리턴된 객체와 정렬데이터는 다음 호출시 덮어쓰이므로, 랭커등에 보관하려면 copyHitElement로 복사해야 한다.
+	 * 랭커에 들어가지 못하는 대부분의 문서에 대해서는 객체를 생성하지 않기 위함이다.
+	 * */
+	public HitElement readHitElement(RankInfo ri) throws IOException {
+		if(candidate == null) {
+			candidate = new HitElement(-1, 0, 0, null, null);
+			if(sortSize > 0) {
+				candidateData = new BytesRef[sortSize];
+				candidateOrdList = new int[sortSize];
+				for (int j = 0; j < sortSize; j++) {
+					candidateOrdList[j] = -1;
+					if(fieldIndex[j] == ScoreField.fieldNumber){
+						candidateData[j] = new BytesRef(ScoreField.fieldSize);
+					}else if(fieldIndex[j] == HitField.fieldNumber){
+						candidateData[j] = new BytesRef(HitField.fieldSize);
+					}else{
+						candidateData[j] = new BytesRef(dataList[j].bytes.length);
+					}
+				}
+			}
+		}
+		
+		if(sortSize > 0) {
+			int docNo = ri.docNo();
+			//column에 있는 필드는 dataRef로 복사하지 않고 아래에서 후보객체의 버퍼로 바로 읽는다.
+			for (int k = 0; k < streamReaderList.size(); k++) {
+				streamReaderList.get(k).read(docNo);
+			}
+			for (int j = 0; j < sortSize; j++) {
+				if(fieldIndex[j] == ScoreField.fieldNumber){
+					candidateData[j].clear();
+					IOUtil.writeInt(candidateData[j], Float.floatToIntBits(ri.score()));
+					candidateData[j].flip();
+				}else if(fieldIndex[j] == HitField.fieldNumber){
+					candidateData[j].clear();
+					IOUtil.writeInt(candidateData[j], ri.hit());
+					candidateData[j].flip();
+				}else if(columnList[j] != null){
+					readColumn(j, docNo);
+				}else{
+					//indexRef의 버퍼는 다른 문서를 읽을때 바뀌므로 후보객체의 버퍼로 복사해둔다.
+					candidateData[j].offset = 0;
+					candidateData[j].copyBytes(dataList[j]);
+				}
+			}
+		}
+		candidate.set(-1, ri.docNo(), ri.score(), candidateData, ri.rowExplanations(), null);
+		return candidate;
+	}
+	
+	/*
+	 * 메모리에 올린 필드의 값을 typed getter로 읽어 후보객체의 버퍼에 필드색인과 같은 형식으로 채운다.
+	 */
+	private void readColumn(int j, int docNo) {
+		FieldIndexColumn column = columnList[j];
+		BytesRef data = candidateData[j];
+		if(column instanceof NumericColumn){
+			long value = ((NumericColumn) column).get(docNo);
+			data.clear();
+			if(column.dataSize() == IOUtil.SIZE_OF_INT){
+				IOUtil.writeInt(data, (int) value);
+			}else{
+				IOUtil.writeLong(data, value);
+			}
+			data.flip();
+		}else{
+			OrdinalColumn ordinalColumn = (OrdinalColumn) column;
+			int ord = ordinalColumn.ord(docNo);
+			//이전 문서와 값이 같으면 버퍼에 이미 들어있다.
+			if(ord != candidateOrdList[j]){
+				ordinalColumn.lookupOrd(ord, data.bytes);
+				data.offset = 0;
+				data.length = column.dataSize();
+				candidateOrdList[j] = ord;
+			}
+		}
+	}
+	
+	/**
+	 * readHitElement로 읽은 HitElement를 보관할수 있도록 복사한다.
+	 * reuse가 주어지면 랭커에서 밀려난 그 객체와 정렬데이터 버퍼를 재사용한다.
+	 * */
+	public HitElement copyHitElement(HitElement e, HitElement reuse) {
+		BytesRef[] rankData = null;
+		if(e.rankData() != null) {
+			rankData = reuse != null ? reuse.rankData() : null;
+			if(rankData == null || rankData.length != e.rankDataSize()) {
+				rankData = new BytesRef[e.rankDataSize()];
+			}
+			for (int j = 0; j < rankData.length; j++) {
+				if(rankData[j] == null) {
+					rankData[j] = e.rankData(j).duplicate();
+				} else {
+					rankData[j].offset = 0;
+					rankData[j].copyBytes(e.rankData(j));
+				}
+			}
+		}
+		BytesRef bundleKey = e.getBundleKey() != null ? e.getBundleKey().duplicate() : null;
+		if(reuse == null) {
+			return new HitElement(e.segmentSequence(), e.docNo(), e.score(), rankData, e.rowExplanations(), bundleKey);
+		}
+		reuse.set(e.segmentSequence(), e.docNo(), e.score(), rankData, e.rowExplanations(), bundleKey);
+		return reuse;
+	}
+	
 	protected BytesRef[] readRankData(RankInfo ri) {
 		BytesRef[] rankData = new BytesRef[sortSize];
 		for (int j = 0; j < sortSize; j++) {
@@ -0,0 +1,136 @@
+package org.fastcatsearch.ir.search;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.fastcatsearch.ir.common.IndexFileNames;
+import org.fastcatsearch.ir.io.CharVector;
+import org.fastcatsearch.ir.io.IOUtil;
+import org.fastcatsearch.ir.io.IndexInput;
+import org.fastcatsearch.ir.io.IndexInputType;
+
+/**
+ * SuffixLexiconWriter가 기록한 suffix 사전으로 suffix, 중간일치 검색 단어의 posting위치를 찾는다.
+ *
+ * 일치하는 항목은 suffix 파일에서 연속되어 있으므로, fst에서 시작과 끝 항목번호만 찾고 그 사이의 posting위치를 읽는다.
+ * 사전 전체를 읽지 않으므로 일치하는 단어수만큼만 읽는다.
+ * thread-unsafe하며, 검색 쓰레드마다 clone하여 사용한다.
+ * */
+public class SuffixLexiconReader implements Cloneable {
+
+	private TermFSTReader fstReader;
+	private IndexInput postingInput;
+	private int entryCount;
+
+	private SuffixLexiconReader() {
+	}
+
+	public SuffixLexiconReader(File dir, String indexId, IndexInputType indexInputType) throws IOException {
+		postingInput = indexInputType.open(dir, IndexFileNames.getSearchSuffixPostingFileName(indexId));
+		try {
+			entryCount = postingInput.readInt();
+			fstReader = new TermFSTReader(indexInputType.open(dir, IndexFileNames.getSearchSuffixIndexFileName(indexId)));
+		} catch (IOException e) {
+			postingInput.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * suffix로 끝나는 단어들의 posting위치를 오름차순으로 리턴한다. 없으면 null.
+	 */
+	public long[] suffix(CharVector suffix) throws IOException {
+		if (suffix.length() == 0) {
+			return null;
+		}
+		long start = fstReader.get(suffix);
+		if (start < 0) {
+			return null;
+		}
+		//suffix 바로 다음 항목부터 다른 suffix이다.
+		char[] next = new char[suffix.length() + 1];
+		for (int i = 0; i < suffix.length(); i++) {
+			next[i] = suffix.charAt(i);
+		}
+		long end = ceilEntry(new CharVector(next));
+		return readPositions(start, end, false);
+	}
+
+	/**
+	 * infix를 포함하는 단어들의 posting위치를 오름차순으로 리턴한다. 없으면 null.
+	 */
+	public long[] infix(CharVector infix) throws IOException {
+		if (infix.length() == 0) {
+			return null;
+		}
+		long start = ceilEntry(infix);
+		//infix로 시작하는 suffix 다음의 가장 작은 문자열.
+		char[] next = new char[infix.length()];
+		int length = infix.length();
+		for (int i = 0; i < length; i++) {
+			next[i] = infix.charAt(i);
+		}
+		while (length > 0 && next[length - 1] == Character.MAX_VALUE) {
+			length--;
+		}
+		long end = entryCount;
+		if (length > 0) {
+			next[length - 1]++;
+			end = ceilEntry(new CharVector(next, 0, length));
+		}
+		if (start >= end) {
+			return null;
+		}
+		//한 단어에 infix가 여러번 나올수 있으므로 중복을 제거한다.
+		return readPositions(start, end, true);
+	}
+
+	private long ceilEntry(CharVector term) throws IOException {
+		long[] out = new long[2];
+		if (fstReader.ceil(term, out)) {
+			return out[1];
+		}
+		return entryCount;
+	}
+
+	private long[] readPositions(long start, long end, boolean unique) throws IOException {
+		int count = (int) (end - start);
+		if (count <= 0) {
+			return null;
+		}
+		long[] positions = new long[count];
+		postingInput.seek(IOUtil.SIZE_OF_INT + start * IOUtil.SIZE_OF_LONG);
+		for (int i = 0; i < count; i++) {
+			positions[i] = postingInput.readLong();
+		}
+		if (!unique) {
+			return positions;
+		}
+		Arrays.sort(positions);
+		int n = 0;
+		for (int i = 0; i < count; i++) {
+			if (n == 0 || positions[n - 1] != positions[i]) {
+				positions[n++] = positions[i];
+			}
+		}
+		return n == count ? positions : Arrays.copyOf(positions, n);
+	}
+
+	@Override
+	public SuffixLexiconReader clone() {
+		SuffixLexiconReader reader = new SuffixLexiconReader();
+		reader.fstReader = fstReader.clone();
+		reader.postingInput = postingInput.clone();
+		reader.entryCount = entryCount;
+		return reader;
+	}
+
+	public void close() throws IOException {
+		try {
+			postingInput.close();
+		} finally {
+			fstReader.close();
+		}
+	}
+}
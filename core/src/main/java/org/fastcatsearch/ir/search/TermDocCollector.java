@@ -40,10 +40,7 @@ public class TermDocCollector {
 	}
 	
 	public void clear(){
-		for (int i = 0; i < size; i++) {
-			//termDoc은 클수있으므로 gc대상이 되도록 해준다.
-			list[i].setTermDoc(null);
-		}
+		//entry는 termDoc 내용을 복사해서 가지고 있으므로 재사용한다.
 		size = 0;
 	}
 	
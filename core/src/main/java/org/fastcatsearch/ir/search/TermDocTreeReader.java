@@ -33,6 +33,22 @@ public class TermDocTreeReader {
 		return -1;
 	}
 	
+	public int advance(int targetDocNo, TermDocCollector termDocCollector) {
+		
+		if(root == null){
+			return -1;
+		}
+		
+		int docNo = root.advance(targetDocNo);
+
+		if (docNo != -1) {
+			root.fill(termDocCollector);
+			return docNo;
+		}
+
+		return -1;
+	}
+	
 	class BigramTreeNode extends NodeReader {
 
 		private NodeReader node1;
@@ -81,6 +97,18 @@ public class TermDocTreeReader {
 			return -1;
 		}
 
+		@Override
+		public int advance(int targetDocNo) {
+			//docNo1, docNo2는 아직 리턴하지 않은 다음 문서이므로, target보다 작을때만 이동한다.
+			if (docNo1 != -1 && docNo1 < targetDocNo) {
+				docNo1 = node1.advance(targetDocNo);
+			}
+			if (docNo2 != -1 && docNo2 < targetDocNo) {
+				docNo2 = node2.advance(targetDocNo);
+			}
+			return next();
+		}
+
 		@Override
 		public void fill(TermDocCollector termDocCollector) {
 			termDocCollector.addAll(tempTermDocCollector);
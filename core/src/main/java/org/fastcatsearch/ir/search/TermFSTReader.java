@@ -0,0 +1,342 @@
+package org.fastcatsearch.ir.search;
+
+import java.io.IOException;
+
+import org.fastcatsearch.ir.index.TermFSTWriter;
+import org.fastcatsearch.ir.io.CharVector;
+import org.fastcatsearch.ir.io.IndexInput;
+
+/**
+ * TermFSTWriter가 기록한 단어사전을 읽는다.
+ *
+ * 메모리에 올리지 않고 파일의 노드를 따라가므로, 단어검색은 단어길이만큼의 노드만 읽는다.
+ * 단어순번과 posting위치는 경로상 arc 출력의 합이다.
+ * 사전순으로 연속된 단어들의 posting은 posting파일에서도 연속되어 있으므로, prefix와 범위검색은 첫 단어의 posting위치와 단어갯수로 리턴한다.
+ * 노드를 읽는 상태를 가지므로 thread-unsafe하며, 검색 쓰레드마다 clone하여 사용한다.
+ * @see TermFSTWriter
+ * */
+public class TermFSTReader implements Cloneable {
+
+	private IndexInput input;
+	private int termCount;
+	private long rootAddress;
+
+	//현재 노드
+	private boolean nodeFinal;
+	private long finalOrd;
+	private long finalPos;
+	private int arcCount;
+	private int ordBytes;
+	private int posBytes;
+	private int targetBytes;
+	private int arcSize;
+	private long arcStart;
+
+	//현재 arc
+	private long arcOrd;
+	private long arcPos;
+	private long arcTarget;
+
+	private TermFSTReader() {
+	}
+
+	public TermFSTReader(IndexInput input) throws IOException {
+		this.input = input;
+		input.seek(0);
+		termCount = input.readInt();
+		rootAddress = input.readLong();
+	}
+
+	public int termCount() {
+		return termCount;
+	}
+
+	/**
+	 * 단어의 posting위치를 리턴한다. 없으면 -1.
+	 */
+	public long get(CharVector term) throws IOException {
+		if (termCount == 0) {
+			return -1;
+		}
+		long address = rootAddress;
+		long pos = 0;
+		for (int i = 0; i < term.length(); i++) {
+			readNode(address);
+			int idx = findArc(term.charAt(i));
+			if (idx < 0) {
+				return -1;
+			}
+			readArc(idx);
+			pos += arcPos;
+			address = arcTarget;
+		}
+		readNode(address);
+		if (!nodeFinal) {
+			return -1;
+		}
+		return pos + finalPos;
+	}
+
+	/**
+	 * prefix로 시작하는 단어들의 첫 posting위치와 단어갯수를 result에 담는다. 없으면 false.
+	 */
+	public boolean prefix(CharVector prefix, long[] result) throws IOException {
+		if (termCount == 0) {
+			return false;
+		}
+		long address = rootAddress;
+		long ord = 0;
+		long pos = 0;
+		for (int i = 0; i < prefix.length(); i++) {
+			readNode(address);
+			int idx = findArc(prefix.charAt(i));
+			if (idx < 0) {
+				return false;
+			}
+			readArc(idx);
+			ord += arcOrd;
+			pos += arcPos;
+			address = arcTarget;
+		}
+		long[] first = new long[2];
+		long[] last = new long[2];
+		firstCompletion(address, ord, pos, first);
+		lastCompletion(address, ord, pos, last);
+		result[0] = first[1];
+		result[1] = last[0] - first[0] + 1;
+		return true;
+	}
+
+	/**
+	 * startTerm 이상 endTerm 이하인 단어들의 첫 posting위치와 단어갯수를 result에 담는다. 없으면 false.
+	 */
+	public boolean range(CharVector startTerm, CharVector endTerm, long[] result) throws IOException {
+		if (termCount == 0) {
+			return false;
+		}
+		long[] first = new long[2];
+		long[] last = new long[2];
+		if (!ceil(startTerm, first) || !floor(endTerm, last) || first[0] > last[0]) {
+			return false;
+		}
+		result[0] = first[1];
+		result[1] = last[0] - first[0] + 1;
+		return true;
+	}
+
+	/**
+	 * term 이상인 가장 작은 단어의 (단어순번, posting위치)를 out에 담는다. 없으면 false.
+	 * 경로를 따라가면서 각 깊이에서 다음 label의 arc를 후보로 기억하고, 경로가 끊기면 가장 깊은 후보의 첫 단어를 찾는다.
+	 */
+	public boolean ceil(CharVector term, long[] out) throws IOException {
+		if (termCount == 0) {
+			return false;
+		}
+		boolean hasCandidate = false;
+		long candAddress = 0;
+		long candOrd = 0;
+		long candPos = 0;
+
+		long address = rootAddress;
+		long ord = 0;
+		long pos = 0;
+		boolean matched = true;
+		for (int i = 0; i < term.length(); i++) {
+			readNode(address);
+			int idx = findArc(term.charAt(i));
+			int next = idx >= 0 ? idx + 1 : -idx - 1;
+			if (next < arcCount) {
+				readArc(next);
+				hasCandidate = true;
+				candAddress = arcTarget;
+				candOrd = ord + arcOrd;
+				candPos = pos + arcPos;
+			}
+			if (idx < 0) {
+				matched = false;
+				break;
+			}
+			readArc(idx);
+			ord += arcOrd;
+			pos += arcPos;
+			address = arcTarget;
+		}
+		if (matched) {
+			//term 자신 또는 term으로 시작하는 단어중 첫번째.
+			firstCompletion(address, ord, pos, out);
+			return true;
+		}
+		if (!hasCandidate) {
+			return false;
+		}
+		firstCompletion(candAddress, candOrd, candPos, out);
+		return true;
+	}
+
+	/*
+	 * term 이하인 가장 큰 단어의 (단어순번, posting위치).
+	 * 각 깊이에서 이전 label의 arc의 마지막 단어, 없으면 현재 노드의 단어를 후보로 기억하고, 경로가 끊기면 가장 깊은 후보를 사용한다.
+	 */
+	private boolean floor(CharVector term, long[] out) throws IOException {
+		boolean hasCandidate = false;
+		boolean candFinal = false;
+		long candAddress = 0;
+		long candOrd = 0;
+		long candPos = 0;
+
+		long address = rootAddress;
+		long ord = 0;
+		long pos = 0;
+		boolean matched = true;
+		for (int i = 0; i < term.length(); i++) {
+			readNode(address);
+			int idx = findArc(term.charAt(i));
+			int prev = idx >= 0 ? idx - 1 : -idx - 2;
+			if (prev >= 0) {
+				readArc(prev);
+				hasCandidate = true;
+				candFinal = false;
+				candAddress = arcTarget;
+				candOrd = ord + arcOrd;
+				candPos = pos + arcPos;
+			} else if (nodeFinal) {
+				hasCandidate = true;
+				candFinal = true;
+				candOrd = ord + finalOrd;
+				candPos = pos + finalPos;
+			}
+			if (idx < 0) {
+				matched = false;
+				break;
+			}
+			readArc(idx);
+			ord += arcOrd;
+			pos += arcPos;
+			address = arcTarget;
+		}
+		if (matched) {
+			readNode(address);
+			if (nodeFinal) {
+				out[0] = ord + finalOrd;
+				out[1] = pos + finalPos;
+				return true;
+			}
+		}
+		if (!hasCandidate) {
+			return false;
+		}
+		if (candFinal) {
+			out[0] = candOrd;
+			out[1] = candPos;
+		} else {
+			lastCompletion(candAddress, candOrd, candPos, out);
+		}
+		return true;
+	}
+
+	/*
+	 * 노드에서 시작하는 가장 작은 단어. 노드의 단어가 있으면 그것이 가장 작다.
+	 */
+	private void firstCompletion(long address, long ord, long pos, long[] out) throws IOException {
+		while (true) {
+			readNode(address);
+			if (nodeFinal) {
+				out[0] = ord + finalOrd;
+				out[1] = pos + finalPos;
+				return;
+			}
+			readArc(0);
+			ord += arcOrd;
+			pos += arcPos;
+			address = arcTarget;
+		}
+	}
+
+	/*
+	 * 노드에서 시작하는 가장 큰 단어. 마지막 arc를 따라 끝까지 간다.
+	 */
+	private void lastCompletion(long address, long ord, long pos, long[] out) throws IOException {
+		while (true) {
+			readNode(address);
+			if (arcCount == 0) {
+				out[0] = ord + finalOrd;
+				out[1] = pos + finalPos;
+				return;
+			}
+			readArc(arcCount - 1);
+			ord += arcOrd;
+			pos += arcPos;
+			address = arcTarget;
+		}
+	}
+
+	private void readNode(long address) throws IOException {
+		input.seek(TermFSTWriter.HEADER_SIZE + address);
+		int flag = input.readByte();
+		nodeFinal = (flag & TermFSTWriter.FLAG_FINAL) != 0;
+		if (nodeFinal) {
+			finalOrd = input.readVLong();
+			finalPos = input.readVLong();
+		} else {
+			finalOrd = 0;
+			finalPos = 0;
+		}
+		arcCount = input.readVInt();
+		if (arcCount > 0) {
+			ordBytes = input.readByte();
+			posBytes = input.readByte();
+			targetBytes = input.readByte();
+			arcSize = 2 + ordBytes + posBytes + targetBytes;
+		}
+		arcStart = input.position();
+	}
+
+	/*
+	 * label의 arc 번호. 없으면 -(삽입위치) - 1.
+	 */
+	private int findArc(char label) throws IOException {
+		int low = 0;
+		int high = arcCount - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			input.seek(arcStart + (long) mid * arcSize);
+			char midLabel = (char) (((input.readByte() & 0xFF) << 8) | (input.readByte() & 0xFF));
+			if (midLabel < label) {
+				low = mid + 1;
+			} else if (midLabel > label) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -(low + 1);
+	}
+
+	private void readArc(int idx) throws IOException {
+		input.seek(arcStart + (long) idx * arcSize + 2);
+		arcOrd = readFixed(ordBytes);
+		arcPos = readFixed(posBytes);
+		arcTarget = readFixed(targetBytes);
+	}
+
+	private long readFixed(int bytes) throws IOException {
+		long value = 0;
+		for (int i = 0; i < bytes; i++) {
+			value = (value << 8) | (input.readByte() & 0xFF);
+		}
+		return value;
+	}
+
+	@Override
+	public TermFSTReader clone() {
+		TermFSTReader reader = new TermFSTReader();
+		reader.input = input.clone();
+		reader.termCount = termCount;
+		reader.rootAddress = rootAddress;
+		return reader;
+	}
+
+	public void close() throws IOException {
+		input.close();
+	}
+}
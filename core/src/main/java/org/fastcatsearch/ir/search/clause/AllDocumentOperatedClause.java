@@ -48,6 +48,20 @@ public class AllDocumentOperatedClause extends OperatedClause {
 		return false;
 	}
 
+	@Override
+	protected boolean advanceDoc(int targetDocNo, RankInfo rankInfo) {
+		//모든 문서가 있으므로 target으로 바로 이동한다.
+		if(pos < targetDocNo){
+			pos = targetDocNo;
+		}
+		return nextDoc(rankInfo);
+	}
+
+	@Override
+	public int cost() {
+		return docCount;
+	}
+
 	@Override
 	public void close() {
 		
@@ -17,6 +17,8 @@
 package org.fastcatsearch.ir.search.clause;
 
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.fastcatsearch.ir.query.RankInfo;
 
@@ -27,6 +29,8 @@ public class AndOperatedClause extends OperatedClause {
 	private boolean hasNext2 = true;
 	private RankInfo docInfo1;
 	private RankInfo docInfo2;
+	private int maxScore = Integer.MAX_VALUE;
+	private int minScore = Integer.MIN_VALUE;
 	
 	public AndOperatedClause(OperatedClause clause1, OperatedClause clause2) {
 		super("AND");
@@ -35,37 +39,101 @@ public class AndOperatedClause extends OperatedClause {
 	}
 
 	protected boolean nextDoc(RankInfo rankInfo) {
+		if(maxScore < minScore){
+			return false;
+		}
 		hasNext1 = clause1.next(docInfo1);
-		hasNext2 = clause2.next(docInfo2);
-
-		if(hasNext1 && hasNext2){
+		if(!hasNext1){
+			return false;
+		}
+		hasNext2 = clause2.advance(docInfo1.docNo(), docInfo2);
+		return align(rankInfo);
+	}
+	
+	@Override
+	protected boolean advanceDoc(int targetDocNo, RankInfo rankInfo) {
+		if(maxScore < minScore){
+			return false;
+		}
+		hasNext1 = clause1.advance(targetDocNo, docInfo1);
+		if(!hasNext1){
+			return false;
+		}
+		hasNext2 = clause2.advance(docInfo1.docNo(), docInfo2);
+		return align(rankInfo);
+	}
+	
+	/*
+	 * 두 절의 문서번호가 같아질때까지 작은쪽을 큰쪽 문서번호로 advance 시킨다.
+	 * 한쪽 posting이 훨씬 짧을 경우, 긴쪽은 skip 데이터를 이용하여 건너뛰게 된다.
+	 */
+	private boolean align(RankInfo rankInfo) {
+		while(hasNext1 && hasNext2){
 			int doc1 = docInfo1.docNo();
 			int doc2 = docInfo2.docNo();
-			while(hasNext1 && hasNext2 && (doc1 != doc2)){
-				while(hasNext1 && (doc1 < doc2)){
-					hasNext1 = clause1.next(docInfo1);
-					doc1 = docInfo1.docNo();
-				}
-				while(hasNext2 && (doc1 > doc2)){
-					hasNext2 = clause2.next(docInfo2);
-					doc2 = docInfo2.docNo();
-				}
-			}
-			
-			if(hasNext1 && hasNext2 && (doc1 == doc2)){
+			if(doc1 == doc2){
 				rankInfo.explain(docInfo1);
 				rankInfo.explain(docInfo2);
 				rankInfo.init(doc1, docInfo1.score() + docInfo2.score(), docInfo1.hit() + docInfo2.hit());
 				return true; 
+			}else if(doc1 < doc2){
+				hasNext1 = clause1.advance(doc2, docInfo1);
+			}else{
+				hasNext2 = clause2.advance(doc1, docInfo2);
 			}
-			
-			return false;
 		}
 		
 		//절1과 절2중 하나라도 끝나면 AND 집합도 더이상 없는것이다.
 		return false;
 	}
 	
+	@Override
+	public int maxScore() {
+		return sumMaxScore(clause1.maxScore(), clause2.maxScore());
+	}
+	
+	@Override
+	public void setMinScore(int minScore) {
+		this.minScore = minScore;
+		clause1.setMinScore(childMinScore(minScore, clause2.maxScore()));
+		clause2.setMinScore(childMinScore(minScore, clause1.maxScore()));
+	}
+	
+	@Override
+	public OperatedClause toPruningClause() {
+		clause1 = clause1.toPruningClause();
+		clause2 = clause2.toPruningClause();
+		return this;
+	}
+	
+	@Override
+	public int cost() {
+		return Math.min(clause1.cost(), clause2.cost());
+	}
+	
+	/**
+	 * 중첩된 AND 절을 펼쳐서 cost가 적은 절부터 수행하는 하나의 MultiAndOperatedClause로 만든다.
+	 */
+	@Override
+	public OperatedClause plan() {
+		List<OperatedClause> clauseList = new ArrayList<OperatedClause>();
+		collectClause(clauseList);
+		return new MultiAndOperatedClause(planClauseList(clauseList));
+	}
+	
+	private void collectClause(List<OperatedClause> clauseList) {
+		if(clause1 instanceof AndOperatedClause){
+			((AndOperatedClause) clause1).collectClause(clauseList);
+		}else{
+			clauseList.add(clause1);
+		}
+		if(clause2 instanceof AndOperatedClause){
+			((AndOperatedClause) clause2).collectClause(clauseList);
+		}else{
+			clauseList.add(clause2);
+		}
+	}
+	
 	@Override
 	public String toString(){
 		return "["+getClass().getSimpleName()+"]"
@@ -89,6 +157,7 @@ public class AndOperatedClause extends OperatedClause {
 		docInfo2 = new RankInfo(explain);
 		clause1.init(explanation != null ? explanation.createSubExplanation() : null);
 		clause2.init(explanation != null ? explanation.createSubExplanation() : null);
+		maxScore = maxScore();
 	}
 	
 	@Override
@@ -360,6 +360,53 @@ public class BooleanClause extends OperatedClause {
 		return operatedClause.next(rankInfo);
 	}
 
+	@Override
+	protected boolean advanceDoc(int targetDocNo, RankInfo rankInfo) {
+		if (operatedClause == null) {
+			return false;
+		}
+		return operatedClause.advance(targetDocNo, rankInfo);
+	}
+
+	@Override
+	public int maxScore() {
+		if (operatedClause == null) {
+			return 0;
+		}
+		return operatedClause.maxScore();
+	}
+
+	@Override
+	public void setMinScore(int minScore) {
+		if (operatedClause != null) {
+			operatedClause.setMinScore(minScore);
+		}
+	}
+
+	@Override
+	public OperatedClause toPruningClause() {
+		if (operatedClause != null) {
+			operatedClause = operatedClause.toPruningClause();
+		}
+		return this;
+	}
+	
+	@Override
+	public int cost() {
+		if (operatedClause == null) {
+			return 0;
+		}
+		return operatedClause.cost();
+	}
+	
+	@Override
+	public OperatedClause plan() {
+		if (operatedClause != null) {
+			operatedClause = operatedClause.plan();
+		}
+		return this;
+	}
+
 	@Override
 	public void close() {
 		if (operatedClause != null) {
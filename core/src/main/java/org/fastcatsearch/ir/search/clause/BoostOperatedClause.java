@@ -66,6 +66,18 @@ public class BoostOperatedClause extends OperatedClause {
 		return false;
 	}
 	
+	@Override
+	public int cost() {
+		return mainClause.cost();
+	}
+	
+	@Override
+	public OperatedClause plan() {
+		mainClause = mainClause.plan();
+		boostClause = boostClause.plan();
+		return this;
+	}
+	
 	@Override
 	public String toString() {
 		return "[" + getClass().getSimpleName() + "]" + (mainClause != null ? mainClause.toString() : "null") + " / " + (boostClause != null ? boostClause.toString() : "null");
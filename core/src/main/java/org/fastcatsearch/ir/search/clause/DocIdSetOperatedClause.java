@@ -0,0 +1,150 @@
+package org.fastcatsearch.ir.search.clause;
+
+import java.io.PrintStream;
+
+import org.fastcatsearch.ir.query.RankInfo;
+import org.fastcatsearch.ir.search.DocIdSet;
+
+/**
+ * 하위절의 문서중 DocIdSet에 포함된 문서만 리턴한다. 캐시된 필터 문서집합과의 교집합에 사용한다.
+ *
+ * 하위절의 문서가 집합에 없으면 집합의 다음 문서로 하위절을 advance하므로, 하위절은 skip 데이터를 이용하여 건너뛸수 있다.
+ * 집합이 하위절의 예상 문서수보다 작으면 집합이 후보문서를 고르고 하위절이 따라가며, 그렇지 않으면 하위절이 후보문서를 고른다.
+ * 점수와 hit, 매칭위치는 하위절의 것을 그대로 사용한다.
+ * */
+public class DocIdSetOperatedClause extends OperatedClause {
+	private OperatedClause clause;
+	private DocIdSet docIdSet;
+	private DocIdSet.Iterator iterator;
+	private String description;
+	//집합이 후보문서를 고르는지 여부.
+	private boolean leading;
+	private int lastDocNo = -1;
+
+	public DocIdSetOperatedClause(OperatedClause clause, DocIdSet docIdSet, String description) {
+		super("FILTER");
+		this.clause = clause;
+		this.docIdSet = docIdSet;
+		this.description = description;
+	}
+
+	@Override
+	protected boolean nextDoc(RankInfo rankInfo) {
+		if(leading){
+			return lead(lastDocNo + 1, rankInfo);
+		}
+		return clause.next(rankInfo) && align(rankInfo);
+	}
+
+	@Override
+	protected boolean advanceDoc(int targetDocNo, RankInfo rankInfo) {
+		if(leading){
+			return lead(Math.max(targetDocNo, lastDocNo + 1), rankInfo);
+		}
+		return clause.advance(targetDocNo, rankInfo) && align(rankInfo);
+	}
+
+	private boolean lead(int targetDocNo, RankInfo rankInfo) {
+		int setDocNo = iterator.advance(targetDocNo);
+		if(setDocNo == -1){
+			return false;
+		}
+		return clause.advance(setDocNo, rankInfo) && align(rankInfo);
+	}
+
+	/*
+	 * 하위절의 문서가 집합에 포함될때까지 서로 큰쪽 문서번호로 이동한다.
+	 */
+	private boolean align(RankInfo rankInfo) {
+		while(true){
+			int docNo = rankInfo.docNo();
+			int setDocNo = iterator.advance(docNo);
+			if(setDocNo == -1){
+				return false;
+			}
+			if(setDocNo == docNo){
+				lastDocNo = docNo;
+				return true;
+			}
+			rankInfo.reset();
+			if(!clause.advance(setDocNo, rankInfo)){
+				return false;
+			}
+		}
+	}
+
+	@Override
+	public int cost() {
+		return Math.min(clause.cost(), docIdSet.size());
+	}
+
+	@Override
+	public int maxScore() {
+		return clause.maxScore();
+	}
+
+	@Override
+	public void setMinScore(int minScore) {
+		clause.setMinScore(minScore);
+	}
+
+	@Override
+	public OperatedClause toPruningClause() {
+		clause = clause.toPruningClause();
+		return this;
+	}
+
+	@Override
+	public OperatedClause plan() {
+		clause = clause.plan();
+		return this;
+	}
+
+	@Override
+	public void close() {
+		if(clause != null){
+			clause.close();
+		}
+	}
+
+	@Override
+	protected void initClause(boolean explain) {
+		iterator = docIdSet.iterator();
+		leading = docIdSet.size() < clause.cost();
+		if(explanation != null){
+			explanation.setTerm(description);
+		}
+		clause.init(explanation != null ? explanation.createSubExplanation() : null);
+	}
+
+	@Override
+	public String term() {
+		return description;
+	}
+
+	@Override
+	public OperatedClause[] children() {
+		return new OperatedClause[] { clause };
+	}
+
+	@Override
+	public void printTrace(PrintStream os, int depth) {
+		int indentSize = 4;
+		String indent = "";
+		if(depth > 0){
+			for (int i = 0; i < (depth - 1) * indentSize; i++) {
+				indent += " ";
+			}
+
+			for (int i = (depth - 1) * indentSize, p = 0; i < depth * indentSize; i++, p++) {
+				if(p == 0){
+					indent += "|";
+				}else{
+					indent += "-";
+				}
+			}
+		}
+		os.println(indent+"[FILTER] "+description+" ["+docIdSet.size()+"]" + (docIdSet.size() < clause.cost() ? " lead" : ""));
+		clause.printTrace(os, depth + 1);
+	}
+}
@@ -0,0 +1,229 @@
+package org.fastcatsearch.ir.search.clause;
+
+import java.io.PrintStream;
+import java.util.List;
+
+import org.fastcatsearch.ir.query.RankInfo;
+
+/**
+ * 여러 절의 OR를 한번에 처리하며, MaxScore 방식으로 상위 K개에 들지 못할 문서를 건너뛴다.
+ *
+ * 절들을 최대점수 오름차순으로 보았을때, 최대점수의 누적합이 minScore보다 작은 앞쪽 절들은
+ * 자기들끼리만 모여서는 minScore에 도달할수 없다.(non-essential)
+ * 따라서 후보문서는 나머지 절(essential)에서만 고르고, non-essential 절은 후보문서로 advance하여 점수만 더한다.
+ *
+ * minScore가 주어지지 않으면 일반 OR와 같은 문서와 점수를 리턴한다.
+ * @see OperatedClause#setMinScore(int)
+ * */
+public class MaxScoreOrOperatedClause extends OperatedClause {
+	private OperatedClause[] clauses;
+	private RankInfo[] docInfos;
+	private boolean[] hasNext;
+	private int[] maxScores;
+	private int totalMaxScore;
+
+	//최대점수 오름차순으로 정렬한 절 번호.
+	private int[] order;
+	//order에서 앞쪽의 non-essential 절의 갯수와 그 최대점수의 합.
+	private int nonEssentialSize;
+	private int nonEssentialMaxScore;
+	private int minScore = Integer.MIN_VALUE;
+
+	public MaxScoreOrOperatedClause(List<OperatedClause> clauseList) {
+		super("OR");
+		clauses = clauseList.toArray(new OperatedClause[clauseList.size()]);
+	}
+
+	@Override
+	protected boolean nextDoc(RankInfo rankInfo) {
+		if(nonEssentialSize == clauses.length){
+			return false;
+		}
+
+		while(true){
+			//essential 절에서 가장 작은 문서번호를 후보로 한다.
+			int docNo = -1;
+			for (int k = nonEssentialSize; k < order.length; k++) {
+				int i = order[k];
+				if(hasNext[i] && (docNo == -1 || docInfos[i].docNo() < docNo)){
+					docNo = docInfos[i].docNo();
+				}
+			}
+			if(docNo == -1){
+				return false;
+			}
+
+			if(nonEssentialSize > 0){
+				//essential 절의 점수에 non-essential 절의 최대점수를 더해도 모자라면 다음 후보로 넘어간다.
+				long score = nonEssentialMaxScore;
+				for (int k = nonEssentialSize; k < order.length; k++) {
+					int i = order[k];
+					if(hasNext[i] && docInfos[i].docNo() == docNo){
+						score += docInfos[i].score();
+					}
+				}
+				if(score < minScore){
+					for (int k = nonEssentialSize; k < order.length; k++) {
+						int i = order[k];
+						if(hasNext[i] && docInfos[i].docNo() == docNo){
+							hasNext[i] = clauses[i].next(docInfos[i]);
+						}
+					}
+					continue;
+				}
+
+				for (int k = 0; k < nonEssentialSize; k++) {
+					int i = order[k];
+					if(hasNext[i] && docInfos[i].docNo() < docNo){
+						hasNext[i] = clauses[i].advance(docNo, docInfos[i]);
+					}
+				}
+			}
+
+			//절의 원래 순서대로 점수를 합친다.
+			int score = 0;
+			int hit = 0;
+			for (int i = 0; i < clauses.length; i++) {
+				if(hasNext[i] && docInfos[i].docNo() == docNo){
+					score += docInfos[i].score();
+					hit += docInfos[i].hit();
+				}
+			}
+			rankInfo.init(docNo, score, hit);
+			for (int i = 0; i < clauses.length; i++) {
+				if(hasNext[i] && docInfos[i].docNo() == docNo){
+					rankInfo.addMatchFlag(docInfos[i].matchFlag());
+					rankInfo.explain(docInfos[i]);
+					hasNext[i] = clauses[i].next(docInfos[i]);
+				}
+			}
+			return true;
+		}
+	}
+
+	@Override
+	protected boolean advanceDoc(int targetDocNo, RankInfo rankInfo) {
+		//docInfos는 아직 리턴하지 않은 다음 문서이므로, target보다 작을때만 이동한다.
+		for (int i = 0; i < clauses.length; i++) {
+			if(hasNext[i] && docInfos[i].docNo() < targetDocNo){
+				hasNext[i] = clauses[i].advance(targetDocNo, docInfos[i]);
+			}
+		}
+		return nextDoc(rankInfo);
+	}
+
+	@Override
+	public int maxScore() {
+		int maxScore = 0;
+		for (int i = 0; i < clauses.length; i++) {
+			maxScore = sumMaxScore(maxScore, clauses[i].maxScore());
+		}
+		return maxScore;
+	}
+
+	@Override
+	public void setMinScore(int minScore) {
+		this.minScore = minScore;
+
+		int sum = 0;
+		int size = 0;
+		while(size < order.length){
+			int next = sumMaxScore(sum, maxScores[order[size]]);
+			if(next >= minScore){
+				break;
+			}
+			sum = next;
+			size++;
+		}
+		nonEssentialSize = size;
+		nonEssentialMaxScore = sum;
+
+		//다른 절들이 모두 최대점수를 내더라도 필요한 점수를 하위절에 알려준다.
+		for (int i = 0; i < clauses.length; i++) {
+			int otherMaxScore = totalMaxScore == Integer.MAX_VALUE ? Integer.MAX_VALUE : totalMaxScore - maxScores[i];
+			clauses[i].setMinScore(childMinScore(minScore, otherMaxScore));
+		}
+	}
+
+	@Override
+	public int cost() {
+		int cost = 0;
+		for (int i = 0; i < clauses.length; i++) {
+			cost = sumMaxScore(cost, clauses[i].cost());
+		}
+		return cost;
+	}
+	
+	@Override
+	public OperatedClause toPruningClause() {
+		for (int i = 0; i < clauses.length; i++) {
+			clauses[i] = clauses[i].toPruningClause();
+		}
+		return this;
+	}
+
+	@Override
+	public void close() {
+		for (int i = 0; i < clauses.length; i++) {
+			if(clauses[i] != null){
+				clauses[i].close();
+			}
+		}
+	}
+
+	@Override
+	protected void initClause(boolean explain) {
+		int size = clauses.length;
+		docInfos = new RankInfo[size];
+		hasNext = new boolean[size];
+		maxScores = new int[size];
+		order = new int[size];
+		for (int i = 0; i < size; i++) {
+			docInfos[i] = new RankInfo(explain);
+			clauses[i].init(explanation != null ? explanation.createSubExplanation() : null);
+			maxScores[i] = clauses[i].maxScore();
+			hasNext[i] = clauses[i].next(docInfos[i]);
+			order[i] = i;
+		}
+		totalMaxScore = maxScore();
+
+		//최대점수 오름차순. 절의 갯수가 많지 않으므로 삽입정렬을 사용한다.
+		for (int i = 1; i < size; i++) {
+			int v = order[i];
+			int j = i - 1;
+			while(j >= 0 && maxScores[order[j]] > maxScores[v]){
+				order[j + 1] = order[j];
+				j--;
+			}
+			order[j + 1] = v;
+		}
+	}
+
+	@Override
+	public OperatedClause[] children() {
+		return clauses;
+	}
+
+	@Override
+	public void printTrace(PrintStream os, int depth) {
+		int indentSize = 4;
+		String indent = "";
+		if(depth > 0){
+			for (int i = 0; i < (depth - 1) * indentSize; i++) {
+				indent += " ";
+			}
+
+			for (int i = (depth - 1) * indentSize, p = 0; i < depth * indentSize; i++, p++) {
+				if(p == 0){
+					indent += "|";
+				}else{
+					indent += "-";
+				}
+			}
+		}
+		os.println(indent+"[OR] cost="+cost());
+		for (int i = 0; i < clauses.length; i++) {
+			clauses[i].printTrace(os, depth + 1);
+		}
+	}
+}
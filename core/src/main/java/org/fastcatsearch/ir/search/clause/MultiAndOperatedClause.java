@@ -0,0 +1,220 @@
+package org.fastcatsearch.ir.search.clause;
+
+import java.io.PrintStream;
+import java.util.List;
+
+import org.fastcatsearch.ir.query.RankInfo;
+
+/**
+ * 여러 절의 AND를 한번에 처리한다. 중첩된 AndOperatedClause를 펼쳐서 만든다.
+ *
+ * 절들은 cost 오름차순으로 정렬되어 있으며, 가장 적은 문서를 가진 첫번째 절이 후보문서를 고르고
+ * 나머지 절은 후보문서로 advance하여 확인한다. 어느 절이 후보보다 큰 문서로 이동하면 첫번째 절을 그 문서로 advance하여 다시 확인한다.
+ * 따라서 긴 posting은 skip 데이터를 이용하여 건너뛰게 된다.
+ *
+ * 점수와 hit는 AndOperatedClause와 같이 모든 절의 합이다.
+ * @see OperatedClause#plan()
+ * */
+public class MultiAndOperatedClause extends OperatedClause {
+	private OperatedClause[] clauses;
+	private RankInfo[] docInfos;
+	//각 절의 현재 문서번호. 아직 읽지 않았으면 -1.
+	private int[] docNos;
+	private boolean exhausted;
+	private int maxScore = Integer.MAX_VALUE;
+	private int minScore = Integer.MIN_VALUE;
+
+	public MultiAndOperatedClause(List<OperatedClause> clauseList) {
+		super("AND");
+		clauses = clauseList.toArray(new OperatedClause[clauseList.size()]);
+		sortByCost(clauses);
+	}
+
+	/*
+	 * cost 오름차순. cost가 같으면 원래 순서를 유지한다. 절의 갯수가 많지 않으므로 삽입정렬을 사용한다.
+	 */
+	private static void sortByCost(OperatedClause[] clauses) {
+		int size = clauses.length;
+		int[] costs = new int[size];
+		for (int i = 0; i < size; i++) {
+			costs[i] = clauses[i].cost();
+		}
+		for (int i = 1; i < size; i++) {
+			OperatedClause clause = clauses[i];
+			int cost = costs[i];
+			int j = i - 1;
+			while(j >= 0 && costs[j] > cost){
+				clauses[j + 1] = clauses[j];
+				costs[j + 1] = costs[j];
+				j--;
+			}
+			clauses[j + 1] = clause;
+			costs[j + 1] = cost;
+		}
+	}
+
+	@Override
+	protected boolean nextDoc(RankInfo rankInfo) {
+		if(exhausted || maxScore < minScore){
+			return false;
+		}
+		if(!read(0, clauses[0].next(docInfos[0]))){
+			return false;
+		}
+		return align(rankInfo);
+	}
+
+	@Override
+	protected boolean advanceDoc(int targetDocNo, RankInfo rankInfo) {
+		if(exhausted || maxScore < minScore){
+			return false;
+		}
+		if(docNos[0] < targetDocNo){
+			if(!read(0, clauses[0].advance(targetDocNo, docInfos[0]))){
+				return false;
+			}
+		}else{
+			if(!read(0, clauses[0].next(docInfos[0]))){
+				return false;
+			}
+		}
+		return align(rankInfo);
+	}
+
+	private boolean read(int i, boolean hasNext) {
+		if(!hasNext){
+			//하나라도 끝나면 AND 집합도 더이상 없는것이다.
+			exhausted = true;
+			return false;
+		}
+		docNos[i] = docInfos[i].docNo();
+		return true;
+	}
+
+	/*
+	 * 첫번째 절의 문서를 나머지 절이 모두 가지고 있을때까지 advance 시킨다.
+	 */
+	private boolean align(RankInfo rankInfo) {
+		int docNo = docNos[0];
+		int i = 1;
+		while(i < clauses.length){
+			if(docNos[i] < docNo){
+				if(!read(i, clauses[i].advance(docNo, docInfos[i]))){
+					return false;
+				}
+			}
+			if(docNos[i] > docNo){
+				if(!read(0, clauses[0].advance(docNos[i], docInfos[0]))){
+					return false;
+				}
+				docNo = docNos[0];
+				i = 1;
+			}else{
+				i++;
+			}
+		}
+
+		int score = 0;
+		int hit = 0;
+		for (i = 0; i < clauses.length; i++) {
+			rankInfo.explain(docInfos[i]);
+			score += docInfos[i].score();
+			hit += docInfos[i].hit();
+		}
+		rankInfo.init(docNo, score, hit);
+		return true;
+	}
+
+	@Override
+	public int cost() {
+		//가장 적은 절보다 많을수 없다.
+		int cost = Integer.MAX_VALUE;
+		for (int i = 0; i < clauses.length; i++) {
+			cost = Math.min(cost, clauses[i].cost());
+		}
+		return cost;
+	}
+
+	@Override
+	public int maxScore() {
+		int maxScore = 0;
+		for (int i = 0; i < clauses.length; i++) {
+			maxScore = sumMaxScore(maxScore, clauses[i].maxScore());
+		}
+		return maxScore;
+	}
+
+	@Override
+	public void setMinScore(int minScore) {
+		this.minScore = minScore;
+		for (int i = 0; i < clauses.length; i++) {
+			int otherMaxScore = 0;
+			for (int j = 0; j < clauses.length; j++) {
+				if(j != i){
+					otherMaxScore = sumMaxScore(otherMaxScore, clauses[j].maxScore());
+				}
+			}
+			clauses[i].setMinScore(childMinScore(minScore, otherMaxScore));
+		}
+	}
+
+	@Override
+	public OperatedClause toPruningClause() {
+		for (int i = 0; i < clauses.length; i++) {
+			clauses[i] = clauses[i].toPruningClause();
+		}
+		return this;
+	}
+
+	@Override
+	public void close() {
+		for (int i = 0; i < clauses.length; i++) {
+			if(clauses[i] != null){
+				clauses[i].close();
+			}
+		}
+	}
+
+	@Override
+	protected void initClause(boolean explain) {
+		int size = clauses.length;
+		docInfos = new RankInfo[size];
+		docNos = new int[size];
+		for (int i = 0; i < size; i++) {
+			docInfos[i] = new RankInfo(explain);
+			docNos[i] = -1;
+			clauses[i].init(explanation != null ? explanation.createSubExplanation() : null);
+		}
+		exhausted = size == 0;
+		maxScore = maxScore();
+	}
+
+	@Override
+	public OperatedClause[] children() {
+		return clauses;
+	}
+
+	@Override
+	public void printTrace(PrintStream os, int depth) {
+		int indentSize = 4;
+		String indent = "";
+		if(depth > 0){
+			for (int i = 0; i < (depth - 1) * indentSize; i++) {
+				indent += " ";
+			}
+
+			for (int i = (depth - 1) * indentSize, p = 0; i < depth * indentSize; i++, p++) {
+				if(p == 0){
+					indent += "|";
+				}else{
+					indent += "-";
+				}
+			}
+		}
+		//수행순서대로 출력한다.
+		os.println(indent+"[AND] cost="+cost());
+		for (int i = 0; i < clauses.length; i++) {
+			clauses[i].printTrace(os, depth + 1);
+		}
+	}
+}
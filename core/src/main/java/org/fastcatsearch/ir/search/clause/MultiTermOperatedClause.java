@@ -72,6 +72,16 @@ public class MultiTermOperatedClause extends OperatedClause {
 	}
 
 	protected boolean nextDoc(RankInfo docInfo) {
+		return readDoc(docInfo, -1);
+	}
+	
+	@Override
+	protected boolean advanceDoc(int targetDocNo, RankInfo docInfo) {
+		return readDoc(docInfo, targetDocNo);
+	}
+	
+	// targetDocNo가 0이상이면 처음 한번은 해당 문서번호까지 advance 한다.
+	private boolean readDoc(RankInfo docInfo, int targetDocNo) {
 		if (termDocCollector == null) {
 			termDocCollector = new TermDocCollector(termCount);
 		}
@@ -82,7 +92,12 @@ public class MultiTermOperatedClause extends OperatedClause {
 
 			while (true) {
 				termDocCollector.clear();
-				docNo = termDocTreeReader.next(termDocCollector);
+				if (targetDocNo >= 0) {
+					docNo = termDocTreeReader.advance(targetDocNo, termDocCollector);
+					targetDocNo = -1;
+				} else {
+					docNo = termDocTreeReader.next(termDocCollector);
+				}
 				if (docNo == -1 || (((float) termDocCollector.size()) / ((float) termDocCollector.capasity()) > 0.7f)) {
 					break;
 				}
@@ -135,9 +150,9 @@ public class MultiTermOperatedClause extends OperatedClause {
 							// logger.debug("pos1= {}", positions);
 							// logger.debug("pos2= {}", positions2);
 							int minGap = -1;
-							for (int i2 = 0; i2 < positions.length; i2++) {
+							for (int i2 = 0; i2 < termDoc.positionSize(); i2++) {
 								
-								for (int j2 = 0; j2 < positions2.length; j2++) {
+								for (int j2 = 0; j2 < termDoc2.positionSize(); j2++) {
 
 									int actualPositionGap = positions2[j2] - positions[i2];
 									if(actualPositionGap > 10 || actualPositionGap < -10){
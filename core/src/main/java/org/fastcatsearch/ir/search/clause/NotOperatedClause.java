@@ -54,8 +54,8 @@ public class NotOperatedClause extends OperatedClause {
 				score1 = docInfo1.score();
 			}
 			
-			while(hasNext2 && (doc1 > doc2)){
-				hasNext2 = clause2.next(docInfo2);
+			if(hasNext2 && (doc1 > doc2)){
+				hasNext2 = clause2.advance(doc1, docInfo2);
 				doc2 = docInfo2.docNo();
 			}
 			
@@ -75,6 +75,46 @@ public class NotOperatedClause extends OperatedClause {
 		
 	}
 
+	@Override
+	protected boolean advanceDoc(int targetDocNo, RankInfo rankInfo) {
+		//docInfo1은 아직 리턴하지 않은 다음 문서이므로, target보다 작을때만 이동한다.
+		if(hasNext1 && docInfo1.docNo() < targetDocNo){
+			hasNext1 = clause1.advance(targetDocNo, docInfo1);
+		}
+		return nextDoc(rankInfo);
+	}
+
+	@Override
+	public int maxScore() {
+		//점수는 절1의 점수를 그대로 사용한다.
+		return clause1.maxScore();
+	}
+	
+	@Override
+	public void setMinScore(int minScore) {
+		clause1.setMinScore(minScore);
+	}
+	
+	@Override
+	public OperatedClause toPruningClause() {
+		clause1 = clause1.toPruningClause();
+		return this;
+	}
+	
+	@Override
+	public int cost() {
+		return clause1.cost();
+	}
+	
+	@Override
+	public OperatedClause plan() {
+		clause1 = clause1.plan();
+		if(clause2 != null){
+			clause2 = clause2.plan();
+		}
+		return this;
+	}
+
 	@Override
 	public void close() {
 		if(clause1 != null){
@@ -17,6 +17,10 @@
 package org.fastcatsearch.ir.search.clause;
 
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.fastcatsearch.ir.query.RankInfo;
 import org.fastcatsearch.ir.search.ClauseExplanation;
@@ -99,6 +103,146 @@ public abstract class OperatedClause {
 	
 	protected abstract boolean nextDoc(RankInfo docInfo);
 	
+	/**
+	 * targetDocNo 이상인 첫 문서로 이동하여 rankInfo를 채운다.
+	 * targetDocNo는 이전에 읽은 문서번호보다 커야 하며, 그렇지 않으면 next와 동일하게 다음 문서를 읽는다.
+	 * @return RankInfo를 올바로 읽었는지 여부.
+	 */
+	public boolean advance(int targetDocNo, RankInfo rankInfo) {
+		if(explanation != null){
+			rankInfo.reset();
+			long start = System.nanoTime();
+			if(advanceDoc(targetDocNo, rankInfo)){
+				explanation.addTime(System.nanoTime() - start);
+				explanation.addRow();
+				return true;
+			}else{
+				explanation.addTime(System.nanoTime() - start);
+				return false;
+			}
+		}else{
+			return advanceDoc(targetDocNo, rankInfo);
+		}
+	}
+	
+	/**
+	 * 하위 clause가 건너뛰기를 지원하지 않으면 기본적으로 next를 반복한다.
+	 * 건너뛸수 있는 clause는 재정의하여 사용한다.
+	 */
+	protected boolean advanceDoc(int targetDocNo, RankInfo rankInfo) {
+		while(nextDoc(rankInfo)){
+			if(rankInfo.docNo() >= targetDocNo){
+				return true;
+			}
+			rankInfo.reset();
+		}
+		return false;
+	}
+	
+	/**
+	 * 이 절이 리턴하는 문서가 가질수 있는 최대점수. 알수 없으면 Integer.MAX_VALUE.
+	 */
+	public int maxScore() {
+		return Integer.MAX_VALUE;
+	}
+	
+	/**
+	 * minScore보다 작은 점수의 문서는 더이상 필요없음을 알린다.
+	 * 상위 K개만 필요한 검색에서 랭커가 가득 찼을때 호출되며, 값은 점점 커지기만 한다.
+	 * 절은 minScore에 도달할수 없는 문서를 건너뛸수 있지만, minScore 이상인 문서는 반드시 올바른 점수로 리턴해야 한다.
+	 * 기본적으로는 무시한다.
+	 */
+	public void setMinScore(int minScore) {
+	}
+	
+	/**
+	 * 점수순 상위 K개 검색에 사용할 절을 리턴한다. init전에 호출해야 한다.
+	 * 하위절이 있으면 하위절도 바꾸며, OR 절은 건너뛰기가 가능한 MaxScoreOrOperatedClause로 바뀐다.
+	 */
+	public OperatedClause toPruningClause() {
+		return this;
+	}
+	
+	/**
+	 * 이 절이 리턴할 문서수의 추정치. 적을수록 먼저 수행하는 것이 유리하다. 알수 없으면 Integer.MAX_VALUE.
+	 */
+	public int cost() {
+		return Integer.MAX_VALUE;
+	}
+	
+	/**
+	 * 수행계획을 세운 절을 리턴한다. init전에 호출해야 한다.
+	 * 중첩된 AND/OR 절은 하나의 절로 펼치고, 중복된 단어절은 합치며, AND는 cost가 적은 절부터 수행하도록 정렬한다.
+	 * 리턴된 절은 원래의 절과 같은 문서와 점수를 리턴한다.
+	 */
+	public OperatedClause plan() {
+		return this;
+	}
+	
+	/**
+	 * 같은 값을 가지는 절은 항상 같은 문서와 점수를 리턴하므로, 한번만 수행하도록 합칠수 있다.
+	 * 합칠수 없는 절은 null.
+	 * @see #merge(OperatedClause)
+	 */
+	protected String planKey() {
+		return null;
+	}
+	
+	/**
+	 * planKey가 같은 절을 이 절로 합치고 true를 리턴한다. 이후 이 절은 두 절의 점수를 합쳐서 리턴해야 하며, 합쳐진 절은 더이상 사용하지 않는다.
+	 * 합칠수 없으면 false를 리턴하며, 두 절은 따로 수행된다. 기본적으로는 합치지 않는다.
+	 */
+	protected boolean merge(OperatedClause duplicate) {
+		return false;
+	}
+	
+	/**
+	 * 하위절의 수행계획을 세우고, planKey가 같은 절을 합친다.
+	 */
+	protected static List<OperatedClause> planClauseList(List<OperatedClause> clauseList) {
+		List<OperatedClause> result = new ArrayList<OperatedClause>(clauseList.size());
+		Map<String, OperatedClause> keyMap = null;
+		for (OperatedClause clause : clauseList) {
+			clause = clause.plan();
+			String key = clause.planKey();
+			if(key != null){
+				if(keyMap == null){
+					keyMap = new HashMap<String, OperatedClause>();
+				}
+				OperatedClause prev = keyMap.get(key);
+				if(prev == null){
+					keyMap.put(key, clause);
+				}else if(prev.merge(clause)){
+					continue;
+				}
+			}
+			result.add(clause);
+		}
+		return result;
+	}
+	
+	/**
+	 * 두 최대점수의 합. 어느 하나라도 알수 없으면 Integer.MAX_VALUE.
+	 */
+	protected static int sumMaxScore(int maxScore1, int maxScore2) {
+		long sum = (long) maxScore1 + maxScore2;
+		if(maxScore1 == Integer.MAX_VALUE || maxScore2 == Integer.MAX_VALUE || sum > Integer.MAX_VALUE) {
+			return Integer.MAX_VALUE;
+		}
+		return (int) sum;
+	}
+	
+	/**
+	 * 상대 절이 최대점수를 내더라도 minScore에 도달하려면, 이 절이 내야하는 최소점수.
+	 */
+	protected static int childMinScore(int minScore, int otherMaxScore) {
+		long childMinScore = (long) minScore - otherMaxScore;
+		if(otherMaxScore == Integer.MAX_VALUE || childMinScore < Integer.MIN_VALUE) {
+			return Integer.MIN_VALUE;
+		}
+		return (int) childMinScore;
+	}
+	
 	public abstract void close();
 	
 	public String id(){
@@ -17,6 +17,8 @@
 package org.fastcatsearch.ir.search.clause;
 
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.fastcatsearch.ir.query.RankInfo;
 
@@ -84,6 +86,85 @@ public class OrOperatedClause extends OperatedClause {
 		return false;
 	}
 
+	@Override
+	public int maxScore() {
+		return sumMaxScore(clause1.maxScore(), clause2.maxScore());
+	}
+	
+	/**
+	 * 중첩된 OR 절을 펼쳐서 하나의 MaxScoreOrOperatedClause로 만든다.
+	 */
+	@Override
+	public OperatedClause toPruningClause() {
+		List<OperatedClause> clauseList = new ArrayList<OperatedClause>();
+		collectClause(clauseList);
+		return new MaxScoreOrOperatedClause(clauseList);
+	}
+	
+	@Override
+	public int cost() {
+		return sumMaxScore(clause1.cost(), clause2.cost());
+	}
+	
+	/**
+	 * 중첩된 OR 절을 펼치고 중복된 절을 합친후, 다시 일반 OR 절로 묶는다.
+	 * 문서마다 비교하는 횟수가 줄도록 한쪽으로 깊어지지 않게 균형있게 묶는다.
+	 * 건너뛰기가 필요한 상위 K개 검색은 이후 toPruningClause에서 MaxScoreOrOperatedClause로 바뀐다.
+	 */
+	@Override
+	public OperatedClause plan() {
+		List<OperatedClause> clauseList = new ArrayList<OperatedClause>();
+		collectPlanClause(clauseList);
+		clauseList = planClauseList(clauseList);
+		return combine(clauseList, 0, clauseList.size());
+	}
+	
+	private static OperatedClause combine(List<OperatedClause> clauseList, int from, int to) {
+		if(to - from == 1){
+			return clauseList.get(from);
+		}
+		int mid = (from + to) >>> 1;
+		return new OrOperatedClause(combine(clauseList, from, mid), combine(clauseList, mid, to));
+	}
+	
+	private void collectPlanClause(List<OperatedClause> clauseList) {
+		if(clause1 instanceof OrOperatedClause){
+			((OrOperatedClause) clause1).collectPlanClause(clauseList);
+		}else{
+			clauseList.add(clause1);
+		}
+		if(clause2 instanceof OrOperatedClause){
+			((OrOperatedClause) clause2).collectPlanClause(clauseList);
+		}else{
+			clauseList.add(clause2);
+		}
+	}
+	
+	private void collectClause(List<OperatedClause> clauseList) {
+		if(clause1 instanceof OrOperatedClause){
+			((OrOperatedClause) clause1).collectClause(clauseList);
+		}else{
+			clauseList.add(clause1.toPruningClause());
+		}
+		if(clause2 instanceof OrOperatedClause){
+			((OrOperatedClause) clause2).collectClause(clauseList);
+		}else{
+			clauseList.add(clause2.toPruningClause());
+		}
+	}
+	
+	@Override
+	protected boolean advanceDoc(int targetDocNo, RankInfo rankInfo) {
+		//docInfo1, docInfo2는 아직 리턴하지 않은 다음 문서이므로, target보다 작을때만 이동한다.
+		if(hasNext1 && docInfo1.docNo() < targetDocNo){
+			hasNext1 = clause1.advance(targetDocNo, docInfo1);
+		}
+		if(hasNext2 && docInfo2.docNo() < targetDocNo){
+			hasNext2 = clause2.advance(targetDocNo, docInfo2);
+		}
+		return nextDoc(rankInfo);
+	}
+
 	@Override
 	public void close() {
 		if(clause1 != null){
@@ -113,29 +194,29 @@ public class OrOperatedClause extends OperatedClause {
 		};
 	}
 
-	@Override
-	public void printTrace(PrintStream os, int depth) {
-		int indentSize = 4;
-		String indent = "";
-		if(depth > 0){
-			for (int i = 0; i < (depth - 1) * indentSize; i++) {
-				indent += " ";
-			}
-			
-			for (int i = (depth - 1) * indentSize, p = 0; i < depth * indentSize; i++, p++) {
-				if(p == 0){
-					indent += "|";
-				}else{
-					indent += "-";
-				}
-			}
-		}
+	@Override
+	public void printTrace(PrintStream os, int depth) {
+		int indentSize = 4;
+		String indent = "";
+		if(depth > 0){
+			for (int i = 0; i < (depth - 1) * indentSize; i++) {
+				indent += " ";
+			}
+			
+			for (int i = (depth - 1) * indentSize, p = 0; i < depth * indentSize; i++, p++) {
+				if(p == 0){
+					indent += "|";
+				}else{
+					indent += "-";
+				}
+			}
+		}
 		os.println(indent+"[OR]");
-		if(clause1 != null){
-			clause1.printTrace(os, depth + 1);
-		}
-		if(clause2 != null){
-			clause2.printTrace(os, depth + 1);
-		}
-	}
+		if(clause1 != null){
+			clause1.printTrace(os, depth + 1);
+		}
+		if(clause2 != null){
+			clause2.printTrace(os, depth + 1);
+		}
+	}
 }
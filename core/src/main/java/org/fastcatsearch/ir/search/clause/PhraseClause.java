@@ -143,7 +143,7 @@ public class PhraseClause extends OperatedClause {
 					}
 
 					logger.debug("PHRASE TERM {} >> [{}] [{}, {}] ", token, featureType, positionAttribute.getPositionIncrement(), queryPosition);
-					SearchMethod searchMethod = searchIndexReader.createSearchMethod(new NormalSearchMethod());
+					SearchMethod searchMethod = searchIndexReader.createSearchMethod(new NormalSearchMethod(true));
 					PostingReader postingReader = searchMethod.search(indexId, token, queryPosition, weight);
 //					OperatedClause clause = new TermOperatedClause(postingDocs, weight);
 //					OperatedClause clause = new TermOperatedClause(postingReader);
@@ -172,6 +172,14 @@ public class PhraseClause extends OperatedClause {
 		return operatedClause.next(docInfo);
 	}
 
+	@Override
+	protected boolean advanceDoc(int targetDocNo, RankInfo docInfo) {
+		if (operatedClause == null) {
+			return false;
+		}
+		return operatedClause.advance(targetDocNo, docInfo);
+	}
+
 	@Override
 	public void close() {
 		if(operatedClause != null){
@@ -32,6 +32,13 @@ public class TermOperatedClause extends OperatedClause {
 	private String termString;
 	private int termSequence;
 	
+	private int maxScore;
+	private int minScore = Integer.MIN_VALUE;
+	
+	//같은 단어절이 합쳐진 횟수와 합쳐진 절의 매칭위치.
+	private int repeat = 1;
+	private int mergedMatchFlag;
+	
 	public TermOperatedClause(String indexId, String termString, PostingReader postingReader) throws IOException {
 		this(indexId, termString, postingReader, 0);
 	}
@@ -45,36 +52,127 @@ public class TermOperatedClause extends OperatedClause {
 			//termString = postingReader.term().toString();
 			this.termSequence = termSequence;
 		}
+		maxScore = computeMaxScore();
+	}
+	
+	private int score(int tf) {
+		int score = 0;
+		
+		if(postingReader.weight() > 0) {
+			score = postingReader.weight();
+		} else if(postingReader.weight() == -1) {
+			float tfScore = 2.2f * tf / (2.0f + tf);
+			float idf = (float) Math.log(documentCount / segmentDF);
+			score = (int) (tfScore * idf * SCORE_BASE);
+		}
+		return score;
+	}
+	
+	private int computeMaxScore() {
+		if (postingReader == null || segmentDF == 0) {
+			return 0;
+		}
+		if (postingReader.weight() == -1) {
+			int maxTf = postingReader.maxTf();
+			if (maxTf < 0) {
+				//최대 tf를 모르는 경우. tf 점수는 2.2를 넘지 않는다.
+				float idf = (float) Math.log(documentCount / segmentDF);
+				return (int) (2.2f * idf * SCORE_BASE) + 1;
+			}
+			//float 계산오차를 고려해 1을 더한다.
+			return score(maxTf) + 1;
+		}
+		return score(0);
+	}
+	
+	@Override
+	public int cost() {
+		return segmentDF;
+	}
+	
+	/**
+	 * 같은 색인의 같은 단어는 같은 posting을 읽으므로 합칠수 있다.
+	 */
+	@Override
+	protected String planKey() {
+		if (postingReader == null || postingReader.term() == null) {
+			return null;
+		}
+		return "TERM\t" + id + "\t" + postingReader.term() + "\t" + postingReader.weight() + "\t" + segmentDF;
+	}
+	
+	/**
+	 * 합쳐진 절의 posting은 닫고, 이후에는 점수와 tf를 합쳐진 횟수만큼 곱해서 리턴한다.
+	 */
+	@Override
+	protected boolean merge(OperatedClause duplicate) {
+		if (!(duplicate instanceof TermOperatedClause)) {
+			return false;
+		}
+		TermOperatedClause other = (TermOperatedClause) duplicate;
+		int otherMaxScore = other.maxScore;
+		repeat += other.repeat;
+		if (other.termSequence < 32) {
+			mergedMatchFlag |= (1 << other.termSequence);
+		}
+		mergedMatchFlag |= other.mergedMatchFlag;
+		maxScore = sumMaxScore(maxScore, otherMaxScore);
+		other.close();
+		other.postingReader = null;
+		return true;
+	}
+	
+	@Override
+	public int maxScore() {
+		return maxScore;
+	}
+	
+	@Override
+	public void setMinScore(int minScore) {
+		this.minScore = minScore;
 	}
 
 	protected boolean nextDoc(RankInfo rankInfo) {
-		if (postingReader == null) {
+		//단어의 최대점수로도 minScore에 도달할수 없으면 더이상 읽지 않는다.
+		if (postingReader == null || maxScore < minScore) {
 			rankInfo.init(-1, 0, 0);
 			return false;
 		}
-		if (postingReader.hasNext()) {
-			PostingDoc postingDoc = postingReader.next();
-			int score = 0;
-			
-			if(postingReader.weight() > 0) {
-				score = postingReader.weight();
-			} else if(postingReader.weight() == -1) {
-				float tf = 2.2f * postingDoc.tf() / (2.0f + postingDoc.tf());
-				float idf = (float) Math.log(documentCount / segmentDF);
-				score = (int) (tf * idf * SCORE_BASE);
-			}			
-			
-			rankInfo.init(postingDoc.docNo(), score, postingDoc.tf());
-			rankInfo.addMatchSequence(termSequence);
-			if(isExplain()){
-				rankInfo.explain(id, score, postingReader.term().toString());
-			}
-			return true;
+		PostingDoc postingDoc = postingReader.next();
+		if (postingDoc != null) {
+			return read(postingDoc, rankInfo);
+		} else {
+			rankInfo.init(-1, 0, 0);
+			return false;
+		}
+	}
+	
+	@Override
+	protected boolean advanceDoc(int targetDocNo, RankInfo rankInfo) {
+		if (postingReader == null || maxScore < minScore) {
+			rankInfo.init(-1, 0, 0);
+			return false;
+		}
+		PostingDoc postingDoc = postingReader.advance(targetDocNo);
+		if (postingDoc != null) {
+			return read(postingDoc, rankInfo);
 		} else {
 			rankInfo.init(-1, 0, 0);
 			return false;
 		}
 	}
+	
+	private boolean read(PostingDoc postingDoc, RankInfo rankInfo) {
+		int score = score(postingDoc.tf()) * repeat;
+		
+		rankInfo.init(postingDoc.docNo(), score, postingDoc.tf() * repeat);
+		rankInfo.addMatchSequence(termSequence);
+		rankInfo.addMatchFlag(mergedMatchFlag);
+		if(isExplain()){
+			rankInfo.explain(id, score, postingReader.term().toString());
+		}
+		return true;
+	}
 
 	@Override
 	public String toString() {
@@ -132,6 +230,6 @@ public class TermOperatedClause extends OperatedClause {
 		if(postingReader!=null) {
 			size = postingReader.size();
 		}
-		os.println(indent+"[TERM] "+termString+" ["+size+"] " + id);
+		os.println(indent+"[TERM] "+termString+" ["+size+"] " + id + (repeat > 1 ? " x" + repeat : ""));
 	}
 }
@@ -54,6 +54,11 @@ public class UserOperatedClause extends OperatedClause {
 		return false;
 	}
 
+	@Override
+	public int cost() {
+		return count;
+	}
+
 	@Override
 	public void close() {
 	}
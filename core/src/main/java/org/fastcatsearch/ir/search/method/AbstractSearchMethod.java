@@ -5,6 +5,7 @@ import org.fastcatsearch.ir.io.CharVector;
 import org.fastcatsearch.ir.io.IndexInput;
 import org.fastcatsearch.ir.search.MemoryLexicon;
 import org.fastcatsearch.ir.search.PostingReader;
+import org.fastcatsearch.ir.search.TermFSTReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -16,7 +17,13 @@ public abstract class AbstractSearchMethod implements SearchMethod {
 	
 	protected IndexInput postingInput;
 	
+	//position 파일을 사용하지 않는 색인이면 null.
+	protected IndexInput positionInput;
+	
 	protected MemoryLexicon memoryLexicon;
+	
+	//FST 단어사전이 없는 이전 색인이면 null.
+	protected TermFSTReader termFSTReader;
 
 	protected IndexFieldOption indexFieldOption;
 	
@@ -28,9 +35,19 @@ public abstract class AbstractSearchMethod implements SearchMethod {
 	}
 
 	public void init(MemoryLexicon memoryLexicon, IndexInput lexiconInput, IndexInput postingInput, IndexFieldOption indexFieldOption, int segmentDocumentCount) {
+		init(memoryLexicon, lexiconInput, postingInput, null, indexFieldOption, segmentDocumentCount);
+	}
+	
+	public void init(MemoryLexicon memoryLexicon, IndexInput lexiconInput, IndexInput postingInput, IndexInput positionInput, IndexFieldOption indexFieldOption, int segmentDocumentCount) {
+		init(memoryLexicon, null, lexiconInput, postingInput, positionInput, indexFieldOption, segmentDocumentCount);
+	}
+	
+	public void init(MemoryLexicon memoryLexicon, TermFSTReader termFSTReader, IndexInput lexiconInput, IndexInput postingInput, IndexInput positionInput, IndexFieldOption indexFieldOption, int segmentDocumentCount) {
 		this.memoryLexicon = memoryLexicon;
+		this.termFSTReader = termFSTReader;
 		this.lexiconInput = lexiconInput;
 		this.postingInput = postingInput;
+		this.positionInput = positionInput;
 		this.indexFieldOption = indexFieldOption;
 		this.segmentDocumentCount = segmentDocumentCount;
 		
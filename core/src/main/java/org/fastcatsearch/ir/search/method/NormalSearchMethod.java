@@ -4,26 +4,50 @@ import java.io.IOException;
 
 import org.fastcatsearch.ir.io.CharVector;
 import org.fastcatsearch.ir.io.IOUtil;
+import org.fastcatsearch.ir.io.IndexInput;
+import org.fastcatsearch.ir.search.BlockPostingReader;
 import org.fastcatsearch.ir.search.BufferedPostingReader;
 import org.fastcatsearch.ir.search.PostingReader;
 
 public class NormalSearchMethod extends AbstractSearchMethod {
 
+	//position 파일을 사용하는 색인에서 position을 읽을지 여부. 구문검색에서만 필요하다.
+	private boolean readPosition;
+
+	public NormalSearchMethod() {
+		this(false);
+	}
+
+	public NormalSearchMethod(boolean readPosition) {
+		this.readPosition = readPosition;
+	}
+
 	@Override
 	public PostingReader doSearch(String indexId, CharVector term, int termPosition, int weight, int segmentDocumentCount) {
 
-		if (memoryLexicon.size() == 0) {
+		if (term.length() == 0) {
 			return null;
 		}
 
-		if (term.length() == 0) {
+		long inputOffset = -1;
+		if (termFSTReader != null) {
+			// FST 단어사전은 단어길이만큼의 노드만 읽는다.
+			try {
+				inputOffset = termFSTReader.get(term);
+			} catch (IOException e) {
+				logger.error("error while search index", e);
+				return null;
+			}
+			return createPostingReader(term, termPosition, weight, segmentDocumentCount, inputOffset);
+		}
+
+		if (memoryLexicon.size() == 0) {
 			return null;
 		}
 
 		long[] posInfo = new long[2];
 		boolean found = memoryLexicon.binsearch(term, posInfo);
 
-		long inputOffset = -1;
 		// cannot find in memory index, let's find it in file index
 		try {
 			if (found) {
@@ -57,7 +81,18 @@ public class NormalSearchMethod extends AbstractSearchMethod {
 			logger.error("error while search index", e);
 			return null;
 		}
+		return createPostingReader(term, termPosition, weight, segmentDocumentCount, inputOffset);
+	}
+
+	private PostingReader createPostingReader(CharVector term, int termPosition, int weight, int segmentDocumentCount, long inputOffset) {
 		if (inputOffset >= 0) {
+			if (indexFieldOption.isBlockPosting()) {
+				IndexInput positionInput = null;
+				if (readPosition && this.positionInput != null) {
+					positionInput = this.positionInput.clone();
+				}
+				return new BlockPostingReader(term, termPosition, weight, segmentDocumentCount, indexFieldOption, postingInput, positionInput, inputOffset);
+			}
 			return new BufferedPostingReader(term, termPosition, weight, segmentDocumentCount, indexFieldOption, postingInput, inputOffset);
 		}
 
@@ -9,6 +9,9 @@ public abstract class NodeReader {
 	
 	// 다음 문서번호.
 	public abstract int next();
+	
+	// targetDocNo 이상인 다음 문서번호.
+	public abstract int advance(int targetDocNo);
 
 	// 채워준다.
 	public abstract void fill(TermDocCollector termDocCollector);
@@ -22,33 +22,26 @@ public class PostingDocsMerger {
 	}
 
 	//initSize : 예상되는 termdoc 의 갯수.
-	//TODO 차후에 reader로 변경하여 메모리 사용을 줄이도록한다.
+	//같은 문서는 tf를 더하고, 위치정보는 먼저 읽은 것을 사용한다.
 	public PostingDocs merge(CharVector term, int initSize) {
 		PostingDocs termDocs = new PostingDocs(term, initSize);
-		PostingDoc prevTermDoc = null;
+		int prevDocNo = -1;
 		while (heap.size() > 0) {
 			PostingDocsReader r = heap.peek();
 			PostingDoc postingDoc = r.read();
-			if (prevTermDoc != null && postingDoc.docNo() != prevTermDoc.docNo()) {
-				termDocs.addPostingDoc(prevTermDoc);
-			}
-
-			if (prevTermDoc != null) {
+			if (termDocs.count() > 0 && postingDoc.docNo() == prevDocNo) {
 				// tf머지.
-				prevTermDoc.addTf(postingDoc.tf());
-				// positions 머지.
-				prevTermDoc.addPositions(postingDoc.positions());
+				termDocs.addTf(postingDoc.tf());
+			} else {
+				termDocs.add(postingDoc.docNo(), postingDoc.tf(), postingDoc.positions(), postingDoc.positionSize());
+				prevDocNo = postingDoc.docNo();
 			}
 			if (!r.next()) {
 				// 다 읽은 것은 버린다.
 				heap.pop();
 			}
 			heap.heapify();
-
-			prevTermDoc = postingDoc;
 		}
-
-		termDocs.addPostingDoc(prevTermDoc);
 		
 		return termDocs;
 		
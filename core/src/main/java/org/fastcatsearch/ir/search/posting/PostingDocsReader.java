@@ -3,9 +3,14 @@ package org.fastcatsearch.ir.search.posting;
 import org.fastcatsearch.ir.search.PostingDoc;
 import org.fastcatsearch.ir.search.PostingDocs;
 
+/**
+ * PostingDocs를 순서대로 읽는다. read()가 리턴한 PostingDoc은 재사용되므로 다음 next()전까지만 유효하다.
+ * */
 public class PostingDocsReader implements Comparable<PostingDocsReader> {
 	private PostingDocs termDocs;
 	private int pos = -1;
+	private PostingDoc postingDoc = new PostingDoc();
+	private int[] positions = new int[0];
 	
 	public PostingDocsReader(PostingDocs termDocs) {
 		this.termDocs = termDocs;
@@ -15,11 +20,21 @@ public class PostingDocsReader implements Comparable<PostingDocsReader> {
 		return ++pos < termDocs.count();
 	}
 	
+	public int docNo() {
+		return termDocs.docs()[pos];
+	}
+	
 	public PostingDoc read() {
-		return termDocs.postingDocList()[pos];
+		int positionSize = termDocs.positionSize(pos);
+		if (positions.length < positionSize) {
+			positions = new int[positionSize];
+		}
+		System.arraycopy(termDocs.positions(), termDocs.positionOffset(pos), positions, 0, positionSize);
+		postingDoc.set(docNo(), termDocs.tfs()[pos], positionSize > 0 ? positions : null, positionSize);
+		return postingDoc;
 	}
 	
 	public int compareTo(PostingDocsReader o) {
-		return termDocs.postingDocList()[pos].docNo() - o.termDocs.postingDocList()[o.pos].docNo();
+		return docNo() - o.docNo();
 	}
 }
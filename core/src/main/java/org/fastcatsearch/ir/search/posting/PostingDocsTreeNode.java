@@ -21,8 +21,18 @@ public class PostingDocsTreeNode extends NodeReader {
 
 	@Override
 	public int next() {
-		if(postingReader.hasNext()){
-			postingDoc = postingReader.next();
+		postingDoc = postingReader.next();
+		if(postingDoc != null){
+			return postingDoc.docNo();
+		}else{
+			return -1;
+		}
+	}
+
+	@Override
+	public int advance(int targetDocNo) {
+		postingDoc = postingReader.advance(targetDocNo);
+		if(postingDoc != null){
 			return postingDoc.docNo();
 		}else{
 			return -1;
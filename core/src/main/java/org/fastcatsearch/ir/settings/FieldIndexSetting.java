@@ -22,7 +22,7 @@ import javax.xml.bind.annotation.XmlType;
 import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
 
 @XmlRootElement(name = "field-index")
-@XmlType(propOrder = { "ignoreCase", "size", "ref", "name", "id" })
+@XmlType(propOrder = { "offHeap", "inMemory", "ignoreCase", "size", "ref", "name", "id" })
 public class FieldIndexSetting implements ReferencableFieldSetting {
 	
 	private String id;
@@ -30,6 +30,10 @@ public class FieldIndexSetting implements ReferencableFieldSetting {
 	private String ref;
 	private int size;
 	private boolean ignoreCase;
+	//검색시 필드색인 전체를 메모리 배열에 올려 사용한다.
+	private boolean inMemory;
+	//inMemory일때 힙 대신 direct 메모리에 올린다.
+	private boolean offHeap;
 	
 	public FieldIndexSetting() {}
 	
@@ -74,6 +78,18 @@ public class FieldIndexSetting implements ReferencableFieldSetting {
 		return ignoreCase;
 	}
 
+	@XmlAttribute
+	@XmlJavaTypeAdapter(OptionalBooleanFalseAdapter.class)
+	public Boolean isInMemory() {
+		return inMemory;
+	}
+
+	@XmlAttribute
+	@XmlJavaTypeAdapter(OptionalBooleanFalseAdapter.class)
+	public Boolean isOffHeap() {
+		return offHeap;
+	}
+
 	public void setId(String id) {
 		this.id = id.toUpperCase();
 	}
@@ -94,8 +110,16 @@ public class FieldIndexSetting implements ReferencableFieldSetting {
 		this.ignoreCase = ignoreCase;
 	}
 
+	public void setInMemory(Boolean inMemory) {
+		this.inMemory = inMemory;
+	}
+
+	public void setOffHeap(Boolean offHeap) {
+		this.offHeap = offHeap;
+	}
+
 	public String toString(){
-		return "[FieldIndex="+id+":"+name+":"+ref+":"+size+":"+ignoreCase+"]";
+		return "[FieldIndex="+id+":"+name+":"+ref+":"+size+":"+ignoreCase+":"+inMemory+":"+offHeap+"]";
 	}
 
 	
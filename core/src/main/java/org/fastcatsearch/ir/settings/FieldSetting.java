@@ -238,6 +238,13 @@ public class FieldSetting {
 	}
 
 	public Field createIndexableField(Object dataObject, String multiValueDelimiter) throws FieldDataParseException {
+		return createIndexableField(dataObject, multiValueDelimiter, removeTag);
+	}
+
+	/**
+	 * @param removeTag 이미 태그가 제거된 데이터로 필드를 다시 만들때는 false를 준다.
+	 * */
+	public Field createIndexableField(Object dataObject, String multiValueDelimiter, boolean removeTag) throws FieldDataParseException {
 		String data = null;
 		if (dataObject != null) {
 			if(dataObject instanceof String){
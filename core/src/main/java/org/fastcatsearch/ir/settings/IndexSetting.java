@@ -24,7 +24,7 @@ import javax.xml.bind.annotation.XmlRootElement;
 import javax.xml.bind.annotation.XmlType;
 import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
 
-@XmlType(propOrder = { "positionIncrementGap", "storePosition", "ignoreCase", "queryAnalyzer", "fieldList", "name", "id"} )
+@XmlType(propOrder = { "positionIncrementGap", "storeSuffix", "storePosition", "ignoreCase", "queryAnalyzer", "fieldList", "name", "id"} )
 @XmlRootElement(name = "index")
 public class IndexSetting {
 
@@ -35,6 +35,7 @@ public class IndexSetting {
 	private String queryAnalyzer;
 	private boolean ignoreCase;
 	private boolean storePosition;
+	private boolean storeSuffix;
 	private int positionIncrementGap;
 	
 	public IndexSetting() { }
@@ -49,7 +50,7 @@ public class IndexSetting {
 	}
 	
 	public String toString(){
-		return "[index="+id+":"+name+":"+fieldList+":"+queryAnalyzer+":"+ignoreCase+":"+storePosition+"]";
+		return "[index="+id+":"+name+":"+fieldList+":"+queryAnalyzer+":"+ignoreCase+":"+storePosition+":"+storeSuffix+"]";
 	}
 
 	@XmlAttribute(required = true)
@@ -118,4 +119,17 @@ public class IndexSetting {
 		this.storePosition = storePosition;
 	}
 	
+	/**
+	 * 단어의 suffix 사전을 만들지 여부. suffix, 중간일치 검색이 사전의 범위검색으로 바뀌지만 색인크기가 커진다.
+	 */
+	@XmlAttribute
+	@XmlJavaTypeAdapter(OptionalBooleanFalseAdapter.class)
+	public Boolean isStoreSuffix() {
+		return storeSuffix;
+	}
+
+	public void setStoreSuffix(Boolean storeSuffix) {
+		this.storeSuffix = storeSuffix;
+	}
+	
 }
@@ -0,0 +1,114 @@
+package org.fastcatsearch.ir.sort;
+
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.BytesRef;
+import org.fastcatsearch.ir.io.IOUtil;
+import org.fastcatsearch.ir.settings.FieldSetting.Type;
+
+/**
+ * 다중 정렬필드의 데이터를 하나의 정규화된 키로 만든다.
+ *
+ * 숫자형은 부호비트를 뒤집어 부호없는 비교가 되게 하고, 내림차순 필드는 모든 비트를 뒤집는다.
+ * 그러면 필드별 SortFunction을 차례로 호출한 결과와 키 하나를 부호없이 비교한 결과가 같다.
+ * 숫자형 필드만 있고 합쳐서 8byte 이하이면(점수, 숫자필드 하나, 점수+int 등) long 하나에 담고,
+ * 그 외에는 byte배열에 담아 memcmp로 비교한다. 정렬필드 데이터는 필드별 고정길이여야 한다.
+ * */
+public class SortKeyEncoder {
+
+	private int[] widthList; //숫자형 필드의 byte길이. 숫자형이 아니면 0.
+	private boolean[] ascendingList;
+	private boolean isPacked;
+
+	public SortKeyEncoder(Type[] typeList, boolean[] ascendingList) {
+		this.ascendingList = ascendingList;
+		widthList = new int[typeList.length];
+		int packedWidth = 0;
+		isPacked = true;
+		for (int i = 0; i < typeList.length; i++) {
+			widthList[i] = numericWidth(typeList[i]);
+			if (widthList[i] == 0) {
+				isPacked = false;
+			}
+			packedWidth += widthList[i];
+		}
+		if (packedWidth > IOUtil.SIZE_OF_LONG) {
+			isPacked = false;
+		}
+	}
+
+	private static int numericWidth(Type type) {
+		if (type == Type.INT || type == Type.FLOAT || type == Type._SCORE || type == Type._HIT || type == Type._DOCNO) {
+			return IOUtil.SIZE_OF_INT;
+		} else if (type == Type.LONG || type == Type.DOUBLE || type == Type.DATETIME) {
+			return IOUtil.SIZE_OF_LONG;
+		}
+		return 0;
+	}
+
+	/**
+	 * 키를 long 하나로 만들수 있으면 true. 이때는 packedKey를, 아니면 encode를 사용한다.
+	 */
+	public boolean isPacked() {
+		return isPacked;
+	}
+
+	/**
+	 * 정렬데이터를 long 키로 만든다. 키는 compareUnsigned로 비교한다.
+	 */
+	public long packedKey(BytesRef[] rankData) {
+		long key = 0;
+		for (int i = 0; i < widthList.length; i++) {
+			BytesRef data = rankData[i];
+			long value = 0;
+			if (widthList[i] == IOUtil.SIZE_OF_INT) {
+				value = (IOUtil.readInt(data.bytes, data.offset) ^ Integer.MIN_VALUE) & 0xFFFFFFFFL;
+				if (!ascendingList[i]) {
+					value ^= 0xFFFFFFFFL;
+				}
+				key = (key << 32) | value;
+			} else {
+				value = IOUtil.readLong(data.bytes, data.offset) ^ Long.MIN_VALUE;
+				if (!ascendingList[i]) {
+					value = ~value;
+				}
+				key = value;
+			}
+		}
+		return key;
+	}
+
+	/**
+	 * 정렬데이터를 정규화된 byte 키로 만들어 key에 담는다. key는 BytesRef.compareTo로 비교한다.
+	 */
+	public void encode(BytesRef[] rankData, BytesRef key) {
+		int keyLength = 0;
+		for (int i = 0; i < rankData.length; i++) {
+			keyLength += rankData[i].length;
+		}
+		if (key.bytes == null || key.bytes.length < keyLength) {
+			key.bytes = new byte[ArrayUtil.oversize(keyLength, 1)];
+		}
+		byte[] buffer = key.bytes;
+		int pos = 0;
+		for (int i = 0; i < widthList.length; i++) {
+			BytesRef data = rankData[i];
+			int mask = ascendingList[i] ? 0 : 0xFF;
+			for (int k = 0; k < data.length; k++) {
+				int b = data.bytes[data.offset + k] & 0xFF;
+				if (k == 0 && widthList[i] > 0) {
+					//숫자형은 부호비트를 뒤집는다.
+					b ^= 0x80;
+				}
+				buffer[pos++] = (byte) (b ^ mask);
+			}
+		}
+		key.offset = 0;
+		key.length = keyLength;
+	}
+
+	public static int compareUnsigned(long one, long two) {
+		one ^= Long.MIN_VALUE;
+		two ^= Long.MIN_VALUE;
+		return one < two ? -1 : (one == two ? 0 : 1);
+	}
+}
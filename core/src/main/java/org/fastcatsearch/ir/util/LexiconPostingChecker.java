@@ -19,6 +19,10 @@ package org.fastcatsearch.ir.util;
 import org.fastcatsearch.ir.common.IndexFileNames;
 import org.fastcatsearch.ir.index.IndexFieldOption;
 import org.fastcatsearch.ir.io.BufferedFileInput;
+import org.fastcatsearch.ir.io.CharVector;
+import org.fastcatsearch.ir.search.BlockPostingReader;
+import org.fastcatsearch.ir.search.PostingDoc;
+import org.fastcatsearch.ir.search.PostingReader;
 
 import java.io.File;
 import java.io.IOException;
@@ -99,6 +103,18 @@ public class LexiconPostingChecker {
 				len = clone.readVInt();
 				postingCount = clone.readInt();
 				lastDocNo = clone.readInt();
+				if (indexFieldOption.isBlockPosting()) {
+					PostingReader postingReader = new BlockPostingReader(new CharVector(string), 0, 0, 0, indexFieldOption, clone, inputOffset);
+					PostingDoc postingDoc = null;
+					while ((postingDoc = postingReader.next()) != null) {
+						if(findDocNo == postingDoc.docNo()) {
+							findWord.append("\"").append(string).append("\", ");
+						}
+					}
+					postingReader.close();
+					postingInput.close();
+					continue;
+				}
 				
 				int postingRemain = postingCount;
 				
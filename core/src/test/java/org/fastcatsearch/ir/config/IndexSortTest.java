@@ -0,0 +1,52 @@
+package org.fastcatsearch.ir.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.fastcatsearch.ir.config.DataInfo.RevisionInfo;
+import org.fastcatsearch.ir.config.DataInfo.SegmentInfo;
+import org.junit.Test;
+
+public class IndexSortTest {
+
+	@Test
+	public void testParse() {
+		assertNull(IndexSort.parse(null));
+		assertNull(IndexSort.parse(" "));
+
+		IndexSort indexSort = IndexSort.parse("price");
+		assertEquals("PRICE", indexSort.fieldId());
+		assertTrue(indexSort.asc());
+		assertEquals("PRICE", indexSort.toString());
+
+		indexSort = IndexSort.parse("regdate : DESC");
+		assertEquals("REGDATE", indexSort.fieldId());
+		assertFalse(indexSort.asc());
+		assertEquals("REGDATE:desc", indexSort.toString());
+
+		assertTrue(IndexSort.parse("price:asc").asc());
+	}
+
+	@Test
+	public void testSegmentInfoIndexSort() {
+		SegmentInfo segmentInfo = new SegmentInfo();
+		segmentInfo.setIndexSort("PRICE:desc");
+		segmentInfo.updateRevision(new RevisionInfo(0, null, 100, 100, 0, 0, null));
+		assertEquals("PRICE:desc", segmentInfo.copy().getIndexSort());
+
+		//삭제만 반영되면 정렬순서는 유지된다.
+		segmentInfo.updateRevision(new RevisionInfo(1, null, 0, 0, 0, 10, null));
+		assertEquals("PRICE:desc", segmentInfo.getIndexSort());
+
+		//업데이트 문서만 추가되어도 기존 문서 뒤에 쓰이므로 정렬순서가 깨진다.
+		segmentInfo.updateRevision(new RevisionInfo(2, null, 10, 0, 10, 0, null));
+		assertNull(segmentInfo.getIndexSort());
+
+		//기존 문서 뒤에 문서가 추가되면 정렬순서가 깨진다.
+		segmentInfo.setIndexSort("PRICE:desc");
+		segmentInfo.updateRevision(new RevisionInfo(3, null, 10, 10, 0, 0, null));
+		assertNull(segmentInfo.getIndexSort());
+	}
+}
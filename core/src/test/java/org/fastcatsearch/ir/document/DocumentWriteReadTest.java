@@ -218,6 +218,54 @@ public class DocumentWriteReadTest extends TestCase{
 	}
 	
 	
+	public void testBlockWriteAppendAndRead() throws IRException, IOException, SettingException{
+		File targetDir = new File("temp/");
+		
+		SchemaSetting schemaSetting = createSchemaSetting();
+		IndexConfig indexConfig = createIndexConfig();
+		List<String> expectedList = new ArrayList<String>();
+		DocumentWriter dw = new DocumentWriter(schemaSetting, targetDir, new RevisionInfo(), indexConfig);
+		for (int i = 0; i < 1000; i++) {
+			Document document = createSmallDocument(schemaSetting, i);
+			expectedList.add(document.toString());
+			dw.write(document);
+		}
+		dw.close();
+		
+		//append는 새 블럭부터 기록한다.
+		dw = new DocumentWriter(schemaSetting, targetDir, new RevisionInfo(1, null, 0, 0, 0, 0, null), indexConfig);
+		for (int i = 1000; i < 1100; i++) {
+			Document document = createSmallDocument(schemaSetting, i);
+			expectedList.add(document.toString());
+			dw.write(document);
+		}
+		dw.close();
+		
+		DocumentReader reader = new DocumentReader(schemaSetting, targetDir);
+		assertEquals(expectedList.size(), reader.getDocumentCount());
+		DocumentReader cloneReader = reader.clone();
+		for (int k = 0; k < 3000; k++) {
+			int docNo = r.nextInt(expectedList.size());
+			assertEquals(expectedList.get(docNo), reader.readDocument(docNo).toString());
+			assertEquals(expectedList.get(docNo), cloneReader.readDocument(docNo).toString());
+		}
+		assertNull(reader.readDocument(expectedList.size()));
+		reader.close();
+		
+		FileUtils.forceDelete(targetDir);
+	}
+	
+	private Document createSmallDocument(SchemaSetting schemaSetting, int i) throws FieldDataParseException{
+		List<FieldSetting> fieldSettingList = schemaSetting.getFieldSettingList();
+		String[] rawList = new String[] { Integer.toString(i), "제목 " + i, Integer.toString(r.nextInt(100000)),
+				getAString(r.nextInt(10)), "tag" + (i % 7) + ",tag" + (i % 13), "2013-06-13 12:15:00" };
+		Document document = new Document(fieldSettingList.size());
+		for (int k = 0; k < fieldSettingList.size(); k++) {
+			document.add(fieldSettingList.get(k).createIndexableField(rawList[k], ",", false));
+		}
+		return document;
+	}
+	
 	Random r = new Random(System.currentTimeMillis());
 	
 	private String getUString(int size){
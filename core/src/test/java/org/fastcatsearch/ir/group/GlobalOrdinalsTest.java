@@ -0,0 +1,60 @@
+package org.fastcatsearch.ir.group;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.lucene.util.BytesRef;
+import org.fastcatsearch.ir.search.GroupIndexReader;
+import org.junit.Test;
+
+public class GlobalOrdinalsTest {
+
+	private static class KeyListReader extends GroupIndexReader {
+		private String[] keys;
+
+		public KeyListReader(String... keys) {
+			this.keys = keys;
+			this.groupKeySize = keys.length;
+		}
+
+		@Override
+		public boolean readKey(int groupNo, BytesRef bytesRef) throws IOException {
+			BytesRef key = new BytesRef(keys[groupNo]);
+			bytesRef.bytes = key.bytes;
+			bytesRef.offset = key.offset;
+			bytesRef.length = key.length;
+			return true;
+		}
+	}
+
+	private String key(GlobalOrdinals globalOrdinals, int ordinal) {
+		BytesRef bytesRef = new BytesRef();
+		globalOrdinals.readKey(ordinal, bytesRef);
+		return new String(bytesRef.bytes, bytesRef.offset, bytesRef.length);
+	}
+
+	@Test
+	public void testMapping() throws IOException {
+		List<GroupIndexReader> readerList = new ArrayList<GroupIndexReader>();
+		readerList.add(new KeyListReader("apple", "banana", "cherry"));
+		readerList.add(null);
+		readerList.add(new KeyListReader("cherry", "durian", "apple"));
+		GlobalOrdinals globalOrdinals = new GlobalOrdinals(readerList);
+
+		assertEquals(4, globalOrdinals.size());
+		assertEquals(3, globalOrdinals.segmentSize());
+		assertEquals(0, globalOrdinals.segmentOrdinals(1).length);
+
+		int[] first = globalOrdinals.segmentOrdinals(0);
+		int[] third = globalOrdinals.segmentOrdinals(2);
+		assertEquals(first[2], third[0]);
+		assertEquals(first[0], third[2]);
+		assertEquals("durian", key(globalOrdinals, third[1]));
+		for (int groupNo = 0; groupNo < first.length; groupNo++) {
+			assertEquals(new String[] { "apple", "banana", "cherry" }[groupNo], key(globalOrdinals, first[groupNo]));
+		}
+	}
+}
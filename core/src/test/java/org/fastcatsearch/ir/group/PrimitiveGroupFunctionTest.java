@@ -0,0 +1,86 @@
+package org.fastcatsearch.ir.group;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.fastcatsearch.ir.group.function.CountGroupFunction;
+import org.fastcatsearch.ir.group.function.FirstValueGroupFunction;
+import org.fastcatsearch.ir.group.function.LastValueGroupFunction;
+import org.fastcatsearch.ir.group.function.MaxGroupFunction;
+import org.fastcatsearch.ir.group.function.MinGroupFunction;
+import org.fastcatsearch.ir.group.function.SumGroupFunction;
+import org.fastcatsearch.ir.group.value.StringGroupingValue;
+import org.fastcatsearch.ir.query.Group;
+import org.fastcatsearch.ir.settings.FieldSetting.Type;
+import org.junit.Test;
+
+public class PrimitiveGroupFunctionTest {
+
+	private int[] groupNos = new int[] { 0, 2, 0, 2, 2 };
+	private int[] values = new int[] { -5, 7, -3, 1, 9 };
+
+	private PrimitiveGroupFunction run(PrimitiveGroupFunction groupFunction, Type type) {
+		groupFunction.init(type, 3);
+		for (int i = 0; i < groupNos.length; i++) {
+			if (type == Type.INT) {
+				groupFunction.addInt(groupNos[i], values[i]);
+			} else if (type == Type.LONG) {
+				groupFunction.addLong(groupNos[i], values[i]);
+			} else {
+				groupFunction.addDouble(groupNos[i], values[i]);
+			}
+		}
+		return groupFunction;
+	}
+
+	@Test
+	public void testIntFunctions() {
+		PrimitiveGroupFunction count = run(new CountGroupFunction(Group.SORT_VALUE_DESC, null), Type.INT);
+		assertEquals(2, count.value(0).get());
+		assertNull(count.value(1));
+		assertEquals(3, count.value(2).get());
+
+		PrimitiveGroupFunction sum = run(new SumGroupFunction(Group.SORT_VALUE_DESC, "PRICE"), Type.INT);
+		assertEquals(-8, sum.value(0).get());
+		assertEquals(17, sum.value(2).get());
+
+		//음수만 있어도 최대값을 구한다.
+		PrimitiveGroupFunction max = run(new MaxGroupFunction(Group.SORT_VALUE_DESC, "PRICE"), Type.INT);
+		assertEquals(-3, max.value(0).get());
+		assertEquals(9, max.value(2).get());
+
+		PrimitiveGroupFunction min = run(new MinGroupFunction(Group.SORT_VALUE_DESC, "PRICE"), Type.INT);
+		assertEquals(-5, min.value(0).get());
+		assertEquals(1, min.value(2).get());
+
+		PrimitiveGroupFunction first = run(new FirstValueGroupFunction(Group.SORT_VALUE_DESC, "PRICE"), Type.INT);
+		assertEquals(-5, first.value(0).get());
+		assertEquals(7, first.value(2).get());
+
+		PrimitiveGroupFunction last = run(new LastValueGroupFunction(Group.SORT_VALUE_DESC, "PRICE"), Type.INT);
+		assertEquals(-3, last.value(0).get());
+		assertEquals(9, last.value(2).get());
+		assertEquals(3, last.valueSize());
+	}
+
+	@Test
+	public void testLongAndDouble() {
+		PrimitiveGroupFunction sum = run(new SumGroupFunction(Group.SORT_VALUE_DESC, "PRICE"), Type.LONG);
+		assertEquals(17L, sum.value(2).get());
+		PrimitiveGroupFunction max = run(new MaxGroupFunction(Group.SORT_VALUE_DESC, "PRICE"), Type.DOUBLE);
+		assertEquals(9.0, max.value(2).get());
+		PrimitiveGroupFunction min = run(new MinGroupFunction(Group.SORT_VALUE_DESC, "PRICE"), Type.FLOAT);
+		assertEquals(-5.0f, min.value(0).get());
+	}
+
+	@Test
+	public void testStringValue() {
+		MinGroupFunction min = new MinGroupFunction(Group.SORT_VALUE_DESC, "NAME");
+		min.init(StringGroupingValue.createList(2));
+		min.addValue(1, "banana");
+		min.addValue(1, "apple");
+		min.addValue(1, "cherry");
+		assertEquals("apple", min.value(1).get());
+		assertEquals(true, min.value(0).isEmpty());
+	}
+}
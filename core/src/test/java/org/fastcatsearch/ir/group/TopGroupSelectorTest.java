@@ -0,0 +1,113 @@
+package org.fastcatsearch.ir.group;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.fastcatsearch.ir.group.function.CountGroupFunction;
+import org.fastcatsearch.ir.group.value.IntGroupingValue;
+import org.fastcatsearch.ir.query.Group;
+import org.fastcatsearch.ir.query.Groups;
+import org.fastcatsearch.ir.settings.FieldSetting.Type;
+import org.junit.Test;
+
+public class TopGroupSelectorTest {
+
+	private CountGroupFunction count(int... counts) {
+		CountGroupFunction groupFunction = new CountGroupFunction(Group.SORT_VALUE_DESC, null);
+		groupFunction.init(Type.INT, counts.length);
+		for (int groupNo = 0; groupNo < counts.length; groupNo++) {
+			for (int i = 0; i < counts[groupNo]; i++) {
+				groupFunction.addInt(groupNo, 1);
+			}
+		}
+		return groupFunction;
+	}
+
+	private int[] select(GroupFunction groupFunction, boolean ascending, int size) throws IOException {
+		return select(groupFunction, new String[] { "a", "b", "c", "d", "e", "f", "g" }, ascending, size);
+	}
+
+	private int[] select(final GroupFunction groupFunction, final String[] keys, boolean ascending, int size) throws IOException {
+		TopGroupSelector selector = new TopGroupSelector(ascending, size) {
+			@Override
+			protected int compareValue(int groupNo1, int groupNo2) {
+				return groupFunction.compareValue(groupNo1, groupNo2);
+			}
+
+			@Override
+			protected String readKey(int groupNo) {
+				return keys[groupNo];
+			}
+		};
+		for (int groupNo = 0; groupNo < groupFunction.valueSize(); groupNo++) {
+			if (!groupFunction.isEmpty(groupNo)) {
+				selector.add(groupNo);
+			}
+		}
+		return selector.groupNoList();
+	}
+
+	@Test
+	public void testDescending() throws IOException {
+		CountGroupFunction groupFunction = count(3, 0, 7, 1, 5, 7, 2);
+		assertEquals("[2, 4, 5]", Arrays.toString(select(groupFunction, false, 3)));
+		//값이 같으면 키가 작은쪽이 남는다.
+		assertEquals("[2]", Arrays.toString(select(groupFunction, false, 1)));
+		assertEquals("[5]", Arrays.toString(select(groupFunction, new String[] { "a", "b", "z", "c", "d", "y", "e" }, false, 1)));
+		//후보보다 그룹이 적으면 값이 있는 그룹이 모두 남는다.
+		assertEquals("[0, 2, 3, 4, 5, 6]", Arrays.toString(select(groupFunction, false, 10)));
+	}
+
+	@Test
+	public void testAscending() throws IOException {
+		CountGroupFunction groupFunction = count(3, 0, 7, 1, 5, 7, 2);
+		assertEquals("[3, 6]", Arrays.toString(select(groupFunction, true, 2)));
+	}
+
+	@Test
+	public void testMergeCandidates() {
+		GroupFunction[] functions = new GroupFunction[] { new CountGroupFunction(Group.SORT_VALUE_DESC, null) };
+		Groups groups = new Groups();
+		groups.add(new Group("CATEGORY", functions, Group.SORT_VALUE_DESC, 1));
+		//k00~k19는 1건, k15~k19는 다른 세그먼트에서 1건씩 더 나온다.
+		GroupDataMerger merger = new GroupDataMerger(groups, 2);
+		merger.put(groupsData(0, 20));
+		merger.put(groupsData(15, 20));
+		GroupEntryList groupEntryList = merger.merge(true).getGroupEntryList(0);
+
+		//후보 11개는 2건인 5개와, 1건중 키가 작은 6개이며 키 순서로 남는다.
+		List<String> keyList = new ArrayList<String>();
+		for (int i = 0; i < groupEntryList.size(); i++) {
+			keyList.add(groupEntryList.getEntry(i).key);
+		}
+		assertEquals("[k00, k01, k02, k03, k04, k05, k15, k16, k17, k18, k19]", keyList.toString());
+		assertEquals(20, groupEntryList.keyCount());
+
+		merger = new GroupDataMerger(groups, 2);
+		merger.put(groupsData(0, 20));
+		merger.put(groupsData(15, 20));
+		assertEquals(20, merger.merge().getGroupEntryList(0).size());
+	}
+
+	private GroupsData groupsData(int from, int to) {
+		GroupEntryList groupEntryList = new GroupEntryList();
+		for (int i = from; i < to; i++) {
+			groupEntryList.add(new GroupEntry(String.format("k%02d", i), new IntGroupingValue(1)));
+		}
+		List<GroupEntryList> list = new ArrayList<GroupEntryList>();
+		list.add(groupEntryList);
+		return new GroupsData(list, to - from);
+	}
+
+	@Test
+	public void testCandidateSize() {
+		GroupFunction[] functions = new GroupFunction[] { new CountGroupFunction(Group.SORT_VALUE_DESC, null) };
+		assertEquals(40, new Group("CATEGORY", functions, Group.SORT_VALUE_DESC, 20).candidateSize());
+		assertEquals(0, new Group("CATEGORY", functions, Group.SORT_KEY_ASC, 20).candidateSize());
+		assertEquals(0, new Group("CATEGORY", functions, Group.SORT_VALUE_DESC, 0).candidateSize());
+	}
+}
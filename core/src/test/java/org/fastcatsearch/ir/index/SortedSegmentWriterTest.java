@@ -0,0 +1,149 @@
+package org.fastcatsearch.ir.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.fastcatsearch.ir.analysis.AnalyzerPoolManager;
+import org.fastcatsearch.ir.config.DataInfo.RevisionInfo;
+import org.fastcatsearch.ir.config.IndexConfig;
+import org.fastcatsearch.ir.config.IndexSort;
+import org.fastcatsearch.ir.document.Document;
+import org.fastcatsearch.ir.document.DocumentReader;
+import org.fastcatsearch.ir.field.Field;
+import org.fastcatsearch.ir.io.DataRef;
+import org.fastcatsearch.ir.search.FieldIndexReader;
+import org.fastcatsearch.ir.settings.FieldIndexSetting;
+import org.fastcatsearch.ir.settings.FieldSetting;
+import org.fastcatsearch.ir.settings.PrimaryKeySetting;
+import org.fastcatsearch.ir.settings.Schema;
+import org.fastcatsearch.ir.settings.SchemaSetting;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * 정렬색인시 임시파일을 거친 문서의 필드값이 그대로 기록되는지 확인한다.
+ * */
+public class SortedSegmentWriterTest {
+
+	private static final int[] PRICE_LIST = new int[] { 30, 10, 50, 20, 40 };
+	//PRICE 오름차순으로 기록된 문서의 원래 순서.
+	private static final int[] SORTED_LIST = new int[] { 1, 3, 0, 4, 2 };
+
+	private File segmentDir;
+
+	@Before
+	public void setUp() {
+		segmentDir = new File("temp/sorted-segment-writer-test");
+		segmentDir.mkdirs();
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		if (segmentDir.exists()) {
+			FileUtils.forceDelete(segmentDir);
+		}
+	}
+
+	@Test
+	public void testRoundTripFields() throws Exception {
+		Schema schema = new Schema(createSchemaSetting());
+		SortedSegmentWriter writer = new SortedSegmentWriter(schema, segmentDir, new RevisionInfo(), createIndexConfig(), new AnalyzerPoolManager(), null,
+				IndexSort.parse("PRICE"));
+		for (int i = 0; i < PRICE_LIST.length; i++) {
+			writer.addDocument(createDocument(schema, i));
+		}
+		writer.close();
+		assertFalse(new File(segmentDir, "sort.spool").exists());
+
+		DocumentReader documentReader = new DocumentReader(schema.schemaSetting(), segmentDir);
+		FieldIndexReader rateReader = new FieldIndexReader(schema.getFieldIndexSetting("RATE"), schema.fieldSettingMap(), segmentDir);
+		FieldIndexReader tagReader = new FieldIndexReader(schema.getFieldIndexSetting("TAGS"), schema.fieldSettingMap(), segmentDir);
+		try {
+			for (int docNo = 0; docNo < SORTED_LIST.length; docNo++) {
+				int i = SORTED_LIST[docNo];
+				Document document = documentReader.readDocument(docNo);
+				assertEquals(Integer.toString(i), document.get(0).rawString());
+				assertEquals(Integer.toString(PRICE_LIST[i]), document.get(1).rawString());
+				assertEquals(i + "," + (i * 10), document.get(2).rawString());
+				assertEquals("a" + i + ",b" + i, document.get(3).rawString());
+
+				//원문없이 값만 있는 필드도 색인된다.
+				rateReader.read(docNo);
+				assertEquals(i + 0.5f, Float.intBitsToFloat(rateReader.getRef().bytesRef().toIntValue()), 0f);
+
+				tagReader.read(docNo);
+				DataRef dataRef = tagReader.getRef();
+				assertEquals(2, dataRef.count());
+				assertTrue(dataRef.next());
+				assertEquals(i, dataRef.bytesRef().toIntValue());
+				assertTrue(dataRef.next());
+				assertEquals(i * 10, dataRef.bytesRef().toIntValue());
+			}
+		} finally {
+			tagReader.close();
+			rateReader.close();
+			documentReader.close();
+		}
+	}
+
+	private Document createDocument(Schema schema, int i) throws Exception {
+		List<FieldSetting> fieldSettingList = schema.schemaSetting().getFieldSettingList();
+		Document document = new Document(fieldSettingList.size());
+		document.add(fieldSettingList.get(0).createIndexableField(Integer.toString(i), null, false));
+		document.add(fieldSettingList.get(1).createIndexableField(Integer.toString(PRICE_LIST[i]), null, false));
+		document.add(fieldSettingList.get(2).createIndexableField(i + "," + (i * 10), ",", false));
+		document.add(fieldSettingList.get(3).createIndexableField("a" + i + ",b" + i, ",", false));
+		Field rate = fieldSettingList.get(4).createEmptyField();
+		rate.setFieldsData(Float.valueOf(i + 0.5f));
+		document.add(rate);
+		return document;
+	}
+
+	private SchemaSetting createSchemaSetting() {
+		SchemaSetting setting = new SchemaSetting();
+
+		List<FieldSetting> fieldSettingList = new ArrayList<FieldSetting>();
+		fieldSettingList.add(new FieldSetting("ID", "아이디", FieldSetting.Type.INT));
+		fieldSettingList.add(new FieldSetting("PRICE", "가격", FieldSetting.Type.INT));
+		FieldSetting fieldSetting = new FieldSetting("TAGS", "태그", FieldSetting.Type.INT);
+		fieldSetting.setMultiValue(true);
+		fieldSetting.setMultiValueDelimiter(",");
+		fieldSettingList.add(fieldSetting);
+		fieldSetting = new FieldSetting("NAME", "이름", FieldSetting.Type.ASTRING);
+		fieldSetting.setSize(5);
+		fieldSetting.setMultiValue(true);
+		fieldSetting.setMultiValueDelimiter(",");
+		fieldSettingList.add(fieldSetting);
+		//저장하지 않고 색인만 하는 필드는 원문없이 값만 가질수 있다.
+		fieldSetting = new FieldSetting("RATE", "비율", FieldSetting.Type.FLOAT);
+		fieldSetting.setStore(false);
+		fieldSettingList.add(fieldSetting);
+		setting.setFieldSettingList(fieldSettingList);
+
+		setting.setPrimaryKeySetting(new PrimaryKeySetting("ID"));
+
+		List<FieldIndexSetting> fieldIndexSettingList = new ArrayList<FieldIndexSetting>();
+		fieldIndexSettingList.add(new FieldIndexSetting("TAGS", "태그", "TAGS"));
+		fieldIndexSettingList.add(new FieldIndexSetting("RATE", "비율", "RATE"));
+		setting.setFieldIndexSettingList(fieldIndexSettingList);
+		return setting;
+	}
+
+	private IndexConfig createIndexConfig() {
+		IndexConfig config = new IndexConfig();
+		config.setIndexTermInterval(64);
+		config.setIndexWorkBucketSize(256);
+		config.setIndexWorkMemorySize(32 * 1024 * 1024);
+		config.setPkBucketSize(64 * 1024);
+		config.setPkTermInterval(64);
+		return config;
+	}
+}
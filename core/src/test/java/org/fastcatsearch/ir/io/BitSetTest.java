@@ -46,7 +46,22 @@ public class BitSetTest extends TestCase {
 			assertTrue(set.isSet(number));
 		}
 	}
-	public void test2() throws IOException{
+	public void testNextSetBit(){
+		BitSet set = new BitSet();
+		int[] numbers = new int[]{ 0, 5, 63, 64, 200, 1000 };
+		for (int number : numbers) {
+			set.set(number);
+		}
+		int i = 0;
+		for (int number = set.nextSetBit(0); number >= 0; number = set.nextSetBit(number + 1)) {
+			assertEquals(numbers[i++], number);
+		}
+		assertEquals(numbers.length, i);
+		assertEquals(200, set.nextSetBit(65));
+		assertEquals(-1, set.nextSetBit(1001));
+		assertEquals(-1, new BitSet().nextSetBit(0));
+	}
+		public void test2() throws IOException{
 		File segmentDir = new File("/Users/swsong/search/fastcat_basic/collection/news/data/1");
 		int revision = 45;
 		System.out.println(segmentDir);
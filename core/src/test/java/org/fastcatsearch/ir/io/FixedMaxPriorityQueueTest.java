@@ -16,12 +16,15 @@
 
 package org.fastcatsearch.ir.io;
 
+import java.io.IOException;
 import java.util.Random;
 
 import org.apache.lucene.util.BytesRef;
 import org.fastcatsearch.ir.io.FixedMaxPriorityQueue;
+import org.fastcatsearch.ir.query.RankInfo;
 import org.fastcatsearch.ir.search.DefaultRanker;
 import org.fastcatsearch.ir.search.HitElement;
+import org.fastcatsearch.ir.search.SortGenerator;
 
 
 import junit.framework.TestCase;
@@ -51,7 +54,41 @@ public class FixedMaxPriorityQueueTest extends TestCase{
 			System.out.println(i+"] "+list[i]);
 		}
 	}
-
 	
+	public void testCompetitiveWithReuse() throws IOException {
+		int QUEUE_SIZE = 10;
+		Random r = new Random();
+		for (int t = 0; t < 100; t++) {
+			DefaultRanker expected = new DefaultRanker(QUEUE_SIZE);
+			DefaultRanker queue = new DefaultRanker(QUEUE_SIZE);
+			SortGenerator sortGenerator = new SortGenerator();
+			RankInfo rankInfo = new RankInfo();
+			HitElement freeElement = null;
+			int allocated = 0;
+			for (int i = 0; i < 1000; i++) {
+				rankInfo.init(r.nextInt(100000), r.nextInt(1000));
+				expected.push(new HitElement(rankInfo.docNo(), rankInfo.score(), null));
+				
+				//랭커에 들어가는 원소만 복사하고, 밀려난 원소는 재사용한다.
+				HitElement e = sortGenerator.readHitElement(rankInfo);
+				if (queue.isCompetitive(e)) {
+					HitElement evicted = queue.size() == QUEUE_SIZE ? queue.peek() : null;
+					if (freeElement == null) {
+						allocated++;
+					}
+					queue.push(sortGenerator.copyHitElement(e, freeElement));
+					freeElement = evicted;
+				}
+			}
+			assertEquals(QUEUE_SIZE + 1, allocated);
+			assertEquals(expected.size(), queue.size());
+			while (expected.size() > 0) {
+				HitElement one = expected.pop();
+				HitElement two = queue.pop();
+				assertEquals(one.docNo(), two.docNo());
+				assertEquals(one.score(), two.score());
+			}
+		}
+	}
 
 }
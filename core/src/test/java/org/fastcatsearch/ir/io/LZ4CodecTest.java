@@ -0,0 +1,83 @@
+package org.fastcatsearch.ir.io;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class LZ4CodecTest extends TestCase {
+
+	private Random r = new Random(System.currentTimeMillis());
+	private int[] hashTable = new int[LZ4Codec.HASH_TABLE_SIZE];
+
+	public void testEmptyAndShort() throws IOException {
+		for (int length = 0; length < 20; length++) {
+			byte[] data = new byte[length];
+			r.nextBytes(data);
+			testRoundTrip(data);
+		}
+	}
+
+	public void testRandom() throws IOException {
+		for (int t = 0; t < 100; t++) {
+			byte[] data = new byte[r.nextInt(70000)];
+			r.nextBytes(data);
+			testRoundTrip(data);
+		}
+	}
+
+	public void testRepeated() throws IOException {
+		for (int t = 0; t < 100; t++) {
+			//작은 알파벳과 반복 패턴으로 일치구간이 많고 서로 겹치도록 만든다.
+			byte[] data = new byte[r.nextInt(40000)];
+			int alphabet = 1 + r.nextInt(8);
+			for (int i = 0; i < data.length; i++) {
+				if (i > 8 && r.nextInt(4) > 0) {
+					data[i] = data[i - 1 - r.nextInt(8)];
+				} else {
+					data[i] = (byte) r.nextInt(alphabet);
+				}
+			}
+			int compressedLength = testRoundTrip(data);
+			if (data.length > 1000) {
+				assertTrue(compressedLength < data.length);
+			}
+		}
+	}
+
+	public void testRunLength() throws IOException {
+		byte[] data = new byte[100000];
+		Arrays.fill(data, (byte) 'a');
+		int compressedLength = testRoundTrip(data);
+		assertTrue(compressedLength < 500);
+	}
+
+	public void testMalformed() {
+		byte[] data = new byte[1000];
+		Arrays.fill(data, (byte) 'b');
+		byte[] compressed = new byte[LZ4Codec.maxCompressedLength(data.length)];
+		int compressedLength = LZ4Codec.compress(data, 0, data.length, compressed, 0, hashTable);
+		try {
+			//풀린 길이가 버퍼보다 크면 에러.
+			LZ4Codec.decompress(compressed, 0, compressedLength, new byte[data.length - 1], 0, data.length - 1);
+			fail();
+		} catch (IOException expected) {
+		}
+	}
+
+	private int testRoundTrip(byte[] data) throws IOException {
+		int offset = r.nextInt(10);
+		byte[] src = new byte[offset + data.length];
+		System.arraycopy(data, 0, src, offset, data.length);
+		byte[] compressed = new byte[3 + LZ4Codec.maxCompressedLength(data.length)];
+		int compressedLength = LZ4Codec.compress(src, offset, data.length, compressed, 3, hashTable);
+		assertTrue(compressedLength <= LZ4Codec.maxCompressedLength(data.length));
+
+		byte[] decompressed = new byte[data.length + 2];
+		int length = LZ4Codec.decompress(compressed, 3, compressedLength, decompressed, 2, data.length);
+		assertEquals(data.length, length);
+		assertEquals(Arrays.toString(data), Arrays.toString(Arrays.copyOfRange(decompressed, 2, 2 + length)));
+		return compressedLength;
+	}
+}
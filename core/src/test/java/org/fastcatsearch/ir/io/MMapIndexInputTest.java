@@ -0,0 +1,123 @@
+package org.fastcatsearch.ir.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.fail;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MMapIndexInputTest {
+
+	private Random r = new Random(System.currentTimeMillis());
+	private File file;
+	private int count = 10000;
+	//int, long, short, byte 한 레코드의 크기.
+	private int recordSize = 15;
+
+	@Before
+	public void setUp() throws IOException {
+		file = File.createTempFile("mmap", ".test");
+		BufferedFileOutput output = new BufferedFileOutput(file);
+		for (int i = 0; i < count; i++) {
+			output.writeInt(i);
+			output.writeLong(i * 1000000007L);
+			output.writeShort((short) i);
+			output.writeByte((byte) i);
+		}
+		output.close();
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	@Test
+	public void testRead() throws IOException {
+		// chunk 경계에 걸친 int, long도 제대로 읽어야 한다.
+		int[] chunkSizePowers = new int[] { 4, 7, 10, 30 };
+		for (int chunkSizePower : chunkSizePowers) {
+			MMapIndexInput input = new MMapIndexInput(file, chunkSizePower);
+			assertEquals(file.length(), input.length());
+			for (int i = 0; i < count; i++) {
+				assertEquals(i, input.readInt());
+				assertEquals(i * 1000000007L, input.readLong());
+				assertEquals((short) i, input.readShort());
+				assertEquals((byte) i, input.readByte());
+			}
+			assertEquals(input.length(), input.position());
+			try {
+				input.readByte();
+				fail();
+			} catch (EOFException e) {
+				// 파일끝.
+			}
+			input.close();
+		}
+	}
+
+	@Test
+	public void testSeekAndReadBytes() throws IOException {
+		BufferedFileInput expectedInput = new BufferedFileInput(file);
+		MMapIndexInput input = new MMapIndexInput(file, 10);
+		long length = file.length();
+		for (int i = 0; i < 1000; i++) {
+			long pos = (long) (r.nextDouble() * length);
+			int len = (int) Math.min(r.nextInt(3000), length - pos);
+			byte[] expected = new byte[len];
+			byte[] actual = new byte[len];
+			expectedInput.seek(pos);
+			expectedInput.readBytes(expected, 0, len);
+			input.seek(pos);
+			assertEquals(pos, input.position());
+			input.readBytes(actual, 0, len);
+			assertArrayEquals(expected, actual);
+			assertEquals(pos + len, input.position());
+		}
+		input.seek(length);
+		assertEquals(length, input.position());
+		expectedInput.close();
+		input.close();
+	}
+
+	@Test
+	public void testClone() throws IOException {
+		MMapIndexInput input = new MMapIndexInput(file, 10);
+		input.seek(recordSize * 100);
+		MMapIndexInput clone = input.clone();
+
+		// clone은 같은 위치에서 시작하고, 위치를 따로 가진다.
+		assertEquals(input.position(), clone.position());
+		assertEquals(100, clone.readInt());
+		clone.seek(0);
+		assertEquals(0, clone.readInt());
+		assertEquals(100, input.readInt());
+
+		// 원본을 닫아도 clone은 읽을수 있다.
+		input.close();
+		clone.seek(recordSize * 200);
+		assertEquals(200, clone.readInt());
+		clone.close();
+	}
+
+	@Test
+	public void testIndexInputType() throws IOException {
+		assertEquals(IndexInputType.MMAP, IndexInputType.parse("mmap"));
+		assertEquals(IndexInputType.BUFFERED, IndexInputType.parse("Buffered"));
+		assertEquals(IndexInputType.BUFFERED, IndexInputType.parse(null));
+		assertEquals(IndexInputType.BUFFERED, IndexInputType.parse("unknown"));
+
+		IndexInput input = IndexInputType.MMAP.open(file.getParentFile(), file.getName());
+		assertEquals(MMapIndexInput.class, input.getClass());
+		input.seek(recordSize * 10);
+		assertEquals(10, input.readInt());
+		input.close();
+	}
+}
@@ -0,0 +1,57 @@
+package org.fastcatsearch.ir.io;
+
+import java.io.IOException;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class PForCodecTest extends TestCase {
+
+	private Random r = new Random(System.currentTimeMillis());
+
+	public void testSmallValues() throws IOException {
+		for (int t = 0; t < 1000; t++) {
+			int n = 1 + r.nextInt(PForCodec.MAX_BLOCK_SIZE);
+			int[] values = new int[n];
+			for (int i = 0; i < n; i++) {
+				values[i] = r.nextInt(1 << r.nextInt(10));
+			}
+			testRoundTrip(values, n);
+		}
+	}
+
+	public void testExceptions() throws IOException {
+		for (int t = 0; t < 1000; t++) {
+			int n = PForCodec.MAX_BLOCK_SIZE;
+			int[] values = new int[n];
+			for (int i = 0; i < n; i++) {
+				// 대부분 작은값이고 가끔 큰값이 섞인다.
+				values[i] = r.nextInt(10) == 0 ? r.nextInt(Integer.MAX_VALUE) : r.nextInt(16);
+			}
+			testRoundTrip(values, n);
+		}
+	}
+
+	public void testZero() throws IOException {
+		int[] values = new int[PForCodec.MAX_BLOCK_SIZE];
+		int size = testRoundTrip(values, values.length);
+		assertEquals(2, size);
+	}
+
+	private int testRoundTrip(int[] values, int n) throws IOException {
+		BytesDataOutput output = new BytesDataOutput();
+		output.writeByte(77);
+		PForCodec.encode(values, n, output);
+		output.writeByte(88);
+
+		int[] decoded = new int[n];
+		int pos = PForCodec.decode(output.array(), 1, decoded, n);
+		for (int i = 0; i < n; i++) {
+			assertEquals(values[i], decoded[i]);
+		}
+		// 다음 데이터 위치를 정확히 리턴해야 한다.
+		assertEquals(88, output.array()[pos]);
+		assertEquals(output.position() - 1, pos);
+		return pos - 1;
+	}
+}
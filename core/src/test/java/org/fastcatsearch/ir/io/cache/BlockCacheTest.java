@@ -0,0 +1,151 @@
+package org.fastcatsearch.ir.io.cache;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import org.fastcatsearch.ir.io.BufferedFileInput;
+import org.fastcatsearch.ir.io.BufferedFileOutput;
+import org.fastcatsearch.ir.io.FixedDataBlockReader;
+import org.fastcatsearch.ir.io.VariableDataBlockReader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BlockCacheTest {
+
+	private Random r = new Random(System.currentTimeMillis());
+	private File file;
+	private int fileSize = 100000;
+	private byte[] data;
+
+	@Before
+	public void setUp() throws IOException {
+		file = File.createTempFile("blockcache", ".test");
+		data = new byte[fileSize];
+		r.nextBytes(data);
+		BufferedFileOutput output = new BufferedFileOutput(file);
+		output.writeBytes(data, 0, data.length);
+		output.close();
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	@Test
+	public void testEviction() {
+		int blockSize = 1000;
+		// segment 16개에 블럭이 몇개씩만 들어가는 크기.
+		BlockCache cache = new BlockCache(16 * 3 * (blockSize + 100), false);
+		for (int block = 0; block < 1000; block++) {
+			cache.putBlock("f", blockSize, block, new byte[blockSize], blockSize);
+			assertTrue(cache.size() <= cache.maxSize());
+		}
+		assertTrue(cache.evictionCount() > 0);
+		assertEquals(1000, cache.blockCount() + cache.evictionCount());
+
+		// 최근에 넣은 블럭은 남아있다.
+		assertNotNull(cache.getBlock("f", blockSize, 999));
+		assertNull(cache.getBlock("f", blockSize, 0));
+		assertEquals(1, cache.hitCount());
+		assertEquals(1, cache.missCount());
+
+		// 블럭크기가 다르면 다른 블럭이다.
+		assertNull(cache.getBlock("f", blockSize * 2, 999));
+
+		cache.clear();
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.blockCount());
+	}
+
+	@Test
+	public void testPutExisting() {
+		BlockCache cache = new BlockCache(BlockCache.DEFAULT_MAX_SIZE, false);
+		CachedBlock first = cache.putBlock("f", 10, 0, new byte[10], 10);
+		// 동시에 읽은 블럭은 먼저 들어간것을 사용한다.
+		CachedBlock second = cache.putBlock("f", 10, 0, new byte[10], 10);
+		assertSame(first, second);
+		assertEquals(1, cache.blockCount());
+	}
+
+	@Test
+	public void testOffHeap() {
+		BlockCache cache = new BlockCache(BlockCache.DEFAULT_MAX_SIZE, true);
+		byte[] buf = new byte[] { 1, 2, 3, 4, 5 };
+		CachedBlock block = cache.putBlock("f", 8, 0, buf, 4);
+		assertTrue(block.isOffHeap());
+		assertEquals(4, block.length());
+		byte[] dst = new byte[3];
+		block.read(1, dst, 0, 3);
+		assertArrayEquals(new byte[] { 2, 3, 4 }, dst);
+		assertEquals(4, block.get(3));
+	}
+
+	@Test
+	public void testBufferedFileInput() throws IOException {
+		BlockCache cache = new BlockCache(BlockCache.DEFAULT_MAX_SIZE, r.nextBoolean());
+		BufferedFileInput input = new BufferedFileInput(file, cache);
+		for (int i = 0; i < 1000; i++) {
+			int pos = r.nextInt(fileSize);
+			int len = Math.min(r.nextInt(10000), fileSize - pos);
+			byte[] actual = new byte[len];
+			input.seek(pos);
+			if (len > 0 && r.nextBoolean()) {
+				actual[0] = input.readByte();
+				input.readBytes(actual, 1, len - 1);
+			} else {
+				input.readBytes(actual, 0, len);
+			}
+			assertEquals(pos + len, input.position());
+			for (int k = 0; k < len; k++) {
+				assertEquals(data[pos + k], actual[k]);
+			}
+		}
+		assertTrue(cache.hitCount() > 0);
+
+		// clone도 같은 블럭을 사용한다.
+		long missCount = cache.missCount();
+		BufferedFileInput clone = input.clone();
+		clone.seek(0);
+		byte[] all = new byte[fileSize];
+		clone.readBytes(all, 0, fileSize);
+		assertArrayEquals(data, all);
+		assertTrue(cache.missCount() - missCount < fileSize / 4096 + 1);
+		input.close();
+	}
+
+	@Test
+	public void testBlockReader() throws IOException {
+		BlockCache cache = new BlockCache(BlockCache.DEFAULT_MAX_SIZE, false);
+		int dataSize = 7;
+		FixedDataBlockReader fixedReader = new FixedDataBlockReader(file.getParentFile(), file.getName(), dataSize, 1000, cache);
+		VariableDataBlockReader variableReader = new VariableDataBlockReader(file.getParentFile(), file.getName(), 1000, cache);
+		byte[] buf = new byte[3000];
+		for (int i = 0; i < 1000; i++) {
+			int docNo = r.nextInt(fileSize / dataSize);
+			fixedReader.get(docNo, buf, 1);
+			for (int k = 0; k < dataSize; k++) {
+				assertEquals(data[docNo * dataSize + k], buf[1 + k]);
+			}
+
+			// 여러 블럭에 걸쳐서 읽는다.
+			int pos = r.nextInt(fileSize);
+			int len = Math.min(r.nextInt(3000), fileSize - pos);
+			variableReader.get(pos, buf, 0, len);
+			for (int k = 0; k < len; k++) {
+				assertEquals(data[pos + k], buf[k]);
+			}
+		}
+		fixedReader.close();
+		variableReader.close();
+	}
+}
@@ -0,0 +1,272 @@
+package org.fastcatsearch.ir.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import org.fastcatsearch.ir.common.IRException;
+import org.fastcatsearch.ir.index.IndexFieldOption;
+import org.fastcatsearch.ir.index.PostingBlockWriter;
+import org.fastcatsearch.ir.index.PostingBuffer;
+import org.fastcatsearch.ir.index.PostingBufferWithPosition;
+import org.fastcatsearch.ir.io.BufferedFileInput;
+import org.fastcatsearch.ir.io.BufferedFileOutput;
+import org.fastcatsearch.ir.io.BytesBuffer;
+import org.fastcatsearch.ir.io.BytesDataOutput;
+import org.fastcatsearch.ir.io.CharVector;
+import org.fastcatsearch.ir.io.IOUtil;
+import org.fastcatsearch.ir.io.IndexOutput;
+import org.junit.Test;
+
+public class BlockPostingReaderTest {
+
+	private Random r = new Random(System.currentTimeMillis());
+
+	@Test
+	public void testNext() throws IOException, IRException {
+		IndexFieldOption option = new IndexFieldOption();
+		option.setBlockPosting();
+		testNext(option, 1000);
+		testNext(option, PostingBlockWriter.BLOCK_SIZE);
+		testNext(option, 1);
+	}
+
+	@Test
+	public void testNextWithPosition() throws IOException, IRException {
+		IndexFieldOption option = new IndexFieldOption();
+		option.setBlockPosting();
+		option.setStorePosition();
+		testNext(option, 1000);
+	}
+
+	@Test
+	public void testAdvance() throws IOException, IRException {
+		IndexFieldOption option = new IndexFieldOption();
+		option.setBlockPosting();
+		testAdvance(option, 10000);
+	}
+
+	@Test
+	public void testAdvanceWithPosition() throws IOException, IRException {
+		IndexFieldOption option = new IndexFieldOption();
+		option.setBlockPosting();
+		option.setStorePosition();
+		testAdvance(option, 10000);
+	}
+
+	@Test
+	public void testNextWithPositionFile() throws IOException, IRException {
+		IndexFieldOption option = new IndexFieldOption();
+		option.setBlockPosting();
+		option.setStorePosition();
+		option.setPositionFile();
+		option.setStoreMaxTf();
+		testNext(option, 1000);
+		testNext(option, PostingBlockWriter.BLOCK_SIZE);
+		testNext(option, 1);
+	}
+
+	@Test
+	public void testAdvanceWithPositionFile() throws IOException, IRException {
+		IndexFieldOption option = new IndexFieldOption();
+		option.setBlockPosting();
+		option.setStorePosition();
+		option.setPositionFile();
+		option.setStoreMaxTf();
+		testAdvance(option, 10000);
+	}
+
+	@Test
+	public void testSkipPositionFile() throws IOException, IRException {
+		IndexFieldOption option = new IndexFieldOption();
+		option.setBlockPosting();
+		option.setStorePosition();
+		option.setPositionFile();
+		int count = 1000;
+		int[] docs = makeDocs(count);
+		int[] tfs = makeTfs(count);
+		File file = writePosting(option, docs, tfs);
+
+		// position input이 없으면 position을 읽지 않는다.
+		BlockPostingReader reader = new BlockPostingReader(new CharVector("a"), 0, 0, count, option, new BufferedFileInput(file), IOUtil.SIZE_OF_INT);
+		for (int i = 0; i < count; i++) {
+			PostingDoc postingDoc = reader.next();
+			assertEquals(docs[i], postingDoc.docNo());
+			assertEquals(tfs[i], postingDoc.tf());
+			assertEquals(0, postingDoc.positionSize());
+		}
+		assertNull(reader.next());
+		reader.close();
+	}
+
+	@Test
+	public void testDecode() throws IOException, IRException {
+		IndexFieldOption option = new IndexFieldOption();
+		option.setBlockPosting();
+		option.setStorePosition();
+		testDecode(option);
+		option.setPositionFile();
+		testDecode(option);
+		option.setStoreMaxTf();
+		testDecode(option);
+	}
+
+	private void testDecode(IndexFieldOption option) throws IOException, IRException {
+		int count = 1000;
+		int[] docs = makeDocs(count);
+		int[] tfs = makeTfs(count);
+		BytesBuffer buf = makePosting(option, docs, tfs);
+		int dataOffset = IOUtil.SIZE_OF_INT * 2;
+		int dataLength = buf.limit() - dataOffset;
+
+		PostingBlockWriter blockWriter = new PostingBlockWriter(option);
+		blockWriter.make(buf.array(), dataOffset, dataLength, count);
+		BytesDataOutput blockOutput = new BytesDataOutput();
+		BytesDataOutput positionOutput = new BytesDataOutput();
+		blockWriter.write(blockOutput, positionOutput);
+
+		// 블럭을 다시 풀면 원래 VInt 포스팅과 같아야 한다.
+		BytesDataOutput output = new BytesDataOutput();
+		PostingBlockWriter.decode(blockOutput.array(), 0, blockWriter.length(), count, option, positionOutput.array(), output);
+		assertEquals(dataLength, output.position());
+		for (int i = 0; i < dataLength; i++) {
+			assertEquals(buf.array()[dataOffset + i], output.array()[i]);
+		}
+	}
+
+	private void testNext(IndexFieldOption option, int count) throws IOException, IRException {
+		int[] docs = makeDocs(count);
+		int[] tfs = makeTfs(count);
+		File file = writePosting(option, docs, tfs);
+
+		BlockPostingReader reader = newReader(option, file, count);
+		assertEquals(count, reader.size());
+		if (option.isStoreMaxTf()) {
+			int maxTf = 0;
+			for (int i = 0; i < count; i++) {
+				maxTf = Math.max(maxTf, tfs[i]);
+			}
+			assertEquals(maxTf, reader.maxTf());
+		}
+		for (int i = 0; i < count; i++) {
+			PostingDoc postingDoc = reader.next();
+			assertEquals(docs[i], postingDoc.docNo());
+			assertEquals(tfs[i], postingDoc.tf());
+			if (option.isStorePosition()) {
+				assertEquals(tfs[i], postingDoc.positionSize());
+				for (int j = 0; j < tfs[i]; j++) {
+					assertEquals(docs[i] + j * 2, postingDoc.positions()[j]);
+				}
+			}
+		}
+		assertNull(reader.next());
+		reader.close();
+	}
+
+	private void testAdvance(IndexFieldOption option, int count) throws IOException, IRException {
+		int[] docs = makeDocs(count);
+		int[] tfs = makeTfs(count);
+		File file = writePosting(option, docs, tfs);
+
+		// 랜덤한 target으로 advance한 결과가 순차적으로 찾은 결과와 같아야 한다.
+		for (int t = 0; t < 100; t++) {
+			BlockPostingReader reader = newReader(option, file, count);
+			int i = 0;
+			while (true) {
+				int target = docs[Math.min(i, count - 1)] + r.nextInt(3000);
+				PostingDoc postingDoc = reader.advance(target);
+				while (i < count && docs[i] < target) {
+					i++;
+				}
+				if (i == count) {
+					assertNull(postingDoc);
+					break;
+				}
+				assertEquals(docs[i], postingDoc.docNo());
+				assertEquals(tfs[i], postingDoc.tf());
+				if (option.isStorePosition()) {
+					assertEquals(docs[i] + (tfs[i] - 1) * 2, postingDoc.positions()[tfs[i] - 1]);
+				}
+				i++;
+				// 중간에 next를 섞어도 이어서 읽어야 한다.
+				if (i < count && r.nextBoolean()) {
+					assertEquals(docs[i++], reader.next().docNo());
+				}
+			}
+			reader.close();
+		}
+	}
+
+	private BlockPostingReader newReader(IndexFieldOption option, File file, int count) throws IOException {
+		BufferedFileInput positionInput = option.isPositionFile() ? new BufferedFileInput(positionFile(file)) : null;
+		return new BlockPostingReader(new CharVector("a"), 0, 0, count, option, new BufferedFileInput(file), positionInput, IOUtil.SIZE_OF_INT);
+	}
+
+	private File positionFile(File file) {
+		return new File(file.getAbsolutePath() + ".position");
+	}
+
+	private BytesBuffer makePosting(IndexFieldOption option, int[] docs, int[] tfs) throws IRException {
+		PostingBuffer postingBuffer = option.isStorePosition() ? new PostingBufferWithPosition() : new PostingBuffer();
+		for (int i = 0; i < docs.length; i++) {
+			for (int j = 0; j < tfs[i]; j++) {
+				postingBuffer.addOne(docs[i], docs[i] + j * 2);
+			}
+		}
+		postingBuffer.finish();
+		return postingBuffer.buffer();
+	}
+
+	private File writePosting(IndexFieldOption option, int[] docs, int[] tfs) throws IOException, IRException {
+		BytesBuffer buf = makePosting(option, docs, tfs);
+		int dataOffset = IOUtil.SIZE_OF_INT * 2;
+		int dataLength = buf.limit() - dataOffset;
+
+		PostingBlockWriter blockWriter = new PostingBlockWriter(option);
+		blockWriter.make(buf.array(), dataOffset, dataLength, docs.length);
+
+		File file = File.createTempFile("posting", ".test");
+		file.deleteOnExit();
+		IndexOutput output = new BufferedFileOutput(file);
+		IndexOutput positionOutput = null;
+		if (option.isPositionFile()) {
+			File positionFile = positionFile(file);
+			positionFile.deleteOnExit();
+			positionOutput = new BufferedFileOutput(positionFile);
+			// 단어의 position 시작위치가 0이 아닌 경우도 확인한다.
+			positionOutput.writeInt(0);
+		}
+		output.writeInt(option.value());
+		output.writeVInt(IOUtil.SIZE_OF_INT * 2 + blockWriter.length());
+		output.writeInt(docs.length);
+		output.writeInt(docs[docs.length - 1]);
+		blockWriter.write(output, positionOutput);
+		output.close();
+		if (positionOutput != null) {
+			positionOutput.close();
+		}
+		return file;
+	}
+
+	private int[] makeDocs(int count) {
+		int[] docs = new int[count];
+		int prev = -1;
+		for (int i = 0; i < count; i++) {
+			// 가끔 간격이 큰 문서를 섞는다.
+			docs[i] = prev + 1 + (r.nextInt(50) == 0 ? r.nextInt(100000) : r.nextInt(20));
+			prev = docs[i];
+		}
+		return docs;
+	}
+
+	private int[] makeTfs(int count) {
+		int[] tfs = new int[count];
+		for (int i = 0; i < count; i++) {
+			tfs[i] = 1 + (r.nextInt(20) == 0 ? r.nextInt(40) : r.nextInt(3));
+		}
+		return tfs;
+	}
+}
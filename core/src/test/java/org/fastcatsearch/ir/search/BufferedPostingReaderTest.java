@@ -0,0 +1,140 @@
+package org.fastcatsearch.ir.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import org.fastcatsearch.ir.common.IRException;
+import org.fastcatsearch.ir.index.IndexFieldOption;
+import org.fastcatsearch.ir.index.PostingBuffer;
+import org.fastcatsearch.ir.index.PostingBufferWithPosition;
+import org.fastcatsearch.ir.io.BufferedFileInput;
+import org.fastcatsearch.ir.io.BufferedFileOutput;
+import org.fastcatsearch.ir.io.BytesBuffer;
+import org.fastcatsearch.ir.io.CharVector;
+import org.fastcatsearch.ir.io.IOUtil;
+import org.fastcatsearch.ir.io.IndexOutput;
+import org.junit.Test;
+
+public class BufferedPostingReaderTest {
+
+	private Random r = new Random(System.currentTimeMillis());
+
+	@Test
+	public void testAdvance() throws IOException, IRException {
+		testAdvance(new IndexFieldOption(), 10000);
+	}
+
+	@Test
+	public void testAdvanceWithPosition() throws IOException, IRException {
+		IndexFieldOption option = new IndexFieldOption();
+		option.setStorePosition();
+		testAdvance(option, 10000);
+	}
+
+	@Test
+	public void testNextWithPositions() throws IOException, IRException {
+		IndexFieldOption option = new IndexFieldOption();
+		option.setStorePosition();
+		int count = 1000;
+		int[] docs = makeDocs(count);
+		int[] tfs = new int[count];
+		for (int i = 0; i < count; i++) {
+			tfs[i] = 1 + r.nextInt(40);
+		}
+		File file = File.createTempFile("posting", ".test");
+		file.deleteOnExit();
+		writePosting(file, option, docs, tfs);
+
+		BufferedPostingReader reader = new BufferedPostingReader(new CharVector("a"), 0, 0, count, option, new BufferedFileInput(file), IOUtil.SIZE_OF_INT);
+		PostingDoc prev = null;
+		for (int i = 0; i < count; i++) {
+			PostingDoc postingDoc = reader.next();
+			// 문서마다 새로 만들지 않고 재사용한다.
+			if (prev != null) {
+				assertSame(prev, postingDoc);
+			}
+			prev = postingDoc;
+			assertEquals(docs[i], postingDoc.docNo());
+			assertEquals(tfs[i], postingDoc.tf());
+			assertEquals(tfs[i], postingDoc.positionSize());
+			for (int j = 0; j < tfs[i]; j++) {
+				assertEquals(docs[i] + j * 2, postingDoc.positions()[j]);
+			}
+		}
+		assertFalse(reader.hasNext());
+		assertNull(reader.next());
+		reader.close();
+	}
+
+	private void testAdvance(IndexFieldOption option, int count) throws IOException, IRException {
+		int[] docs = makeDocs(count);
+		File file = File.createTempFile("posting", ".test");
+		file.deleteOnExit();
+		writePosting(file, option, docs, null);
+
+		// 랜덤한 target으로 advance한 결과가 순차적으로 찾은 결과와 같아야 한다.
+		for (int t = 0; t < 100; t++) {
+			BufferedPostingReader reader = new BufferedPostingReader(new CharVector("a"), 0, 0, count, option, new BufferedFileInput(file), IOUtil.SIZE_OF_INT);
+			int i = 0;
+			while (true) {
+				int target = docs[Math.min(i, count - 1)] + r.nextInt(3000);
+				PostingDoc postingDoc = reader.advance(target);
+				while (i < count && docs[i] < target) {
+					i++;
+				}
+				if (i == count) {
+					assertNull(postingDoc);
+					break;
+				}
+				assertEquals(docs[i], postingDoc.docNo());
+				if (option.isStorePosition()) {
+					assertEquals(docs[i], postingDoc.positions()[0]);
+				}
+				i++;
+				// 중간에 next를 섞어도 이어서 읽어야 한다.
+				if (i < count && r.nextBoolean()) {
+					assertEquals(docs[i++], reader.next().docNo());
+				}
+			}
+			reader.close();
+		}
+	}
+
+	private void writePosting(File file, IndexFieldOption option, int[] docs, int[] tfs) throws IOException, IRException {
+		PostingBuffer postingBuffer = option.isStorePosition() ? new PostingBufferWithPosition() : new PostingBuffer();
+		for (int i = 0; i < docs.length; i++) {
+			int tf = tfs != null ? tfs[i] : 1;
+			for (int j = 0; j < tf; j++) {
+				postingBuffer.addOne(docs[i], docs[i] + j * 2);
+			}
+		}
+		postingBuffer.finish();
+		BytesBuffer buf = postingBuffer.buffer();
+		int dataOffset = IOUtil.SIZE_OF_INT * 2;
+		int dataLength = buf.limit() - dataOffset;
+
+		IndexOutput output = new BufferedFileOutput(file);
+		output.writeInt(option.value());
+		output.writeVInt(IOUtil.SIZE_OF_INT * 2 + dataLength);
+		output.writeInt(docs.length);
+		output.writeInt(docs[docs.length - 1]);
+		output.writeBytes(buf.array(), dataOffset, dataLength);
+		output.close();
+	}
+
+	private int[] makeDocs(int count) {
+		int[] docs = new int[count];
+		int prev = -1;
+		for (int i = 0; i < count; i++) {
+			docs[i] = prev + 1 + r.nextInt(20);
+			prev = docs[i];
+		}
+		return docs;
+	}
+}
@@ -0,0 +1,473 @@
+package org.fastcatsearch.ir.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.lucene.analysis.core.WhitespaceAnalyzer;
+import org.fastcatsearch.ir.analysis.AnalyzerFactory;
+import org.fastcatsearch.ir.analysis.AnalyzerFactoryManager;
+import org.fastcatsearch.ir.analysis.AnalyzerPoolManager;
+import org.fastcatsearch.ir.analysis.DefaultAnalyzerFactory;
+import org.fastcatsearch.ir.config.CollectionConfig;
+import org.fastcatsearch.ir.config.CollectionContext;
+import org.fastcatsearch.ir.config.CollectionIndexStatus;
+import org.fastcatsearch.ir.config.DataInfo;
+import org.fastcatsearch.ir.config.DataInfo.RevisionInfo;
+import org.fastcatsearch.ir.config.DataInfo.SegmentInfo;
+import org.fastcatsearch.ir.config.IndexConfig;
+import org.fastcatsearch.ir.document.Document;
+import org.fastcatsearch.ir.field.ScoreField;
+import org.fastcatsearch.ir.group.GroupEntryList;
+import org.fastcatsearch.ir.group.GroupFunction;
+import org.fastcatsearch.ir.group.function.CountGroupFunction;
+import org.fastcatsearch.ir.group.function.SumGroupFunction;
+import org.fastcatsearch.ir.index.SegmentWriter;
+import org.fastcatsearch.ir.query.Filter;
+import org.fastcatsearch.ir.query.Filters;
+import org.fastcatsearch.ir.query.Group;
+import org.fastcatsearch.ir.query.Groups;
+import org.fastcatsearch.ir.query.InternalSearchResult;
+import org.fastcatsearch.ir.query.Metadata;
+import org.fastcatsearch.ir.query.Query;
+import org.fastcatsearch.ir.query.Sort;
+import org.fastcatsearch.ir.query.Sorts;
+import org.fastcatsearch.ir.query.Term;
+import org.fastcatsearch.ir.search.clause.Clause;
+import org.fastcatsearch.ir.settings.AnalyzerSetting;
+import org.fastcatsearch.ir.settings.FieldIndexSetting;
+import org.fastcatsearch.ir.settings.FieldSetting;
+import org.fastcatsearch.ir.settings.GroupIndexSetting;
+import org.fastcatsearch.ir.settings.IndexRefSetting;
+import org.fastcatsearch.ir.settings.IndexSetting;
+import org.fastcatsearch.ir.settings.PrimaryKeySetting;
+import org.fastcatsearch.ir.settings.Schema;
+import org.fastcatsearch.ir.settings.SchemaSetting;
+import org.fastcatsearch.util.FilePaths;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * 색인한 세그먼트들을 CollectionHandler로 읽어서 searchInternal 경로로 검색한다.
+ * */
+public class CollectionSearcherTest {
+
+	private static final int SEGMENT_DOC_COUNT = 3000;
+
+	private File homeDir;
+	private CollectionHandler collectionHandler;
+	//필드색인을 메모리 column으로 올린다.
+	private boolean inMemory;
+
+	@Before
+	public void setUp() {
+		homeDir = new File("temp/collection-searcher-test");
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		if (collectionHandler != null) {
+			collectionHandler.close();
+		}
+		if (homeDir.exists()) {
+			FileUtils.forceDelete(homeDir);
+		}
+	}
+
+	@Test
+	public void testPruneScoreSortedHits() throws Exception {
+		collectionHandler = load(2);
+
+		Query query = scoreQuery(0);
+		InternalSearchResult expected = collectionHandler.searcher().searchInternal(query, false, null);
+		assertEquals(2 * SEGMENT_DOC_COUNT, expected.getTotalCount());
+
+		query = scoreQuery(Query.SEARCH_OPT_PRUNE);
+		InternalSearchResult result = collectionHandler.searcher().searchInternal(query, false, null);
+		assertHitsEquals(expected, result);
+		//점수가 부족한 common만 있는 문서는 읽지 않으므로 결과갯수가 줄어든다.
+		assertTrue(result.getTotalCount() < expected.getTotalCount() / 2);
+	}
+
+	@Test
+	public void testNegativeSectionFilter() throws Exception {
+		collectionHandler = load(2);
+
+		assertSectionFilter("PRICE", "-1000", "-1", -1000, -1);
+		assertSectionFilter("PRICE", "-120", "120", -120, 120);
+		assertSectionFilter("RATE", "-100.5", "-0.5", -100.5f * 4, -0.5f * 4);
+		assertSectionFilter("RATE", "-30", "30.5", -30f * 4, 30.5f * 4);
+	}
+
+	@Test
+	public void testFilterEstimate() throws Exception {
+		collectionHandler = load(2);
+		FilterCache filterCache = collectionHandler.segmentReader(0).filterCache();
+
+		//rare는 세그먼트마다 60건이다. 50건인 범위는 처음부터 문서집합을 만든다.
+		InternalSearchResult result = collectionHandler.searcher().searchInternal(filterQuery("PRICE", "-50", "-1"), false, null);
+		assertEquals(1, result.getTotalCount());
+		assertEquals(1, filterCache.size());
+
+		//1000건인 범위는 처음에는 검색후 필터링한다.
+		result = collectionHandler.searcher().searchInternal(filterQuery("PRICE", "-1000", "-1"), false, null);
+		assertEquals(20, result.getTotalCount());
+		assertEquals(1, filterCache.size());
+		result = collectionHandler.searcher().searchInternal(filterQuery("PRICE", "-1000", "-1"), false, null);
+		assertEquals(20, result.getTotalCount());
+		assertEquals(2, filterCache.size());
+	}
+
+	@Test
+	public void testStopIndexSortedSegment() throws Exception {
+		//PRICE는 문서번호 순서로 증가하므로 PRICE 오름차순으로 색인된 세그먼트이다.
+		collectionHandler = load(2, "PRICE");
+
+		Query query = priceQuery(true);
+		HitReader hitReader = collectionHandler.segmentReader(0).segmentSearcher().searchHitReader(query, null);
+		assertTrue(hitReader.isIndexSorted());
+		assertFalse(collectionHandler.segmentReader(0).segmentSearcher().searchHitReader(priceQuery(false), null).isIndexSorted());
+
+		InternalSearchResult result = collectionHandler.searcher().searchInternal(query, false, null);
+		assertEquals(10, result.getCount());
+		for (int i = 0; i < result.getCount(); i++) {
+			assertEquals(0, result.getHitElementList()[i].segmentSequence());
+			assertEquals(i, result.getHitElementList()[i].docNo());
+		}
+		//각 세그먼트에서 11번째 문서에서 멈추고 읽은 비율로 추정한다.
+		assertEquals(2 * SEGMENT_DOC_COUNT, result.getTotalCount());
+
+		result = collectionHandler.searcher().searchInternal(priceQuery(false), false, null);
+		assertEquals(2 * SEGMENT_DOC_COUNT, result.getTotalCount());
+		for (int i = 0; i < result.getCount(); i++) {
+			assertEquals(1, result.getHitElementList()[i].segmentSequence());
+			assertEquals(SEGMENT_DOC_COUNT - 1 - i, result.getHitElementList()[i].docNo());
+		}
+	}
+
+	private Query priceQuery(boolean asc) {
+		Query query = new Query();
+		query.setMeta(new Metadata(1, 10, 0));
+		Sorts sorts = new Sorts();
+		sorts.add(new Sort("PRICE", asc));
+		query.setSorts(sorts);
+		return query;
+	}
+
+	@Test
+	public void testMatchAllGroupCounts() throws Exception {
+		collectionHandler = load(2);
+
+		//모든 문서에 매칭되는 검색어로 문서별 그룹집계를 한 결과와 같아야 한다.
+		Query query = groupQuery(new Clause(new Term("TITLE", "common")));
+		InternalSearchResult expected = collectionHandler.searcher().searchInternal(query, false, null);
+		assertEquals(0, collectionHandler.segmentReader(0).groupCountCache().size());
+
+		query = groupQuery(null);
+		InternalSearchResult result = collectionHandler.searcher().searchInternal(query, false, null);
+		//세그먼트에 미리 센 그룹갯수를 사용했다.
+		assertEquals(1, collectionHandler.segmentReader(0).groupCountCache().size());
+		assertEquals(1, collectionHandler.segmentReader(1).groupCountCache().size());
+
+		assertEquals(expected.getTotalCount(), result.getTotalCount());
+		assertEquals(expected.getCount(), result.getCount());
+		assertEquals(expected.getGroupsData().totalSearchCount(), result.getGroupsData().totalSearchCount());
+		GroupEntryList expectedList = expected.getGroupsData().getGroupEntryList(0);
+		GroupEntryList resultList = result.getGroupsData().getGroupEntryList(0);
+		assertEquals(5, expectedList.size());
+		assertEquals(expectedList.size(), resultList.size());
+		for (int i = 0; i < expectedList.size(); i++) {
+			assertEquals(expectedList.getEntry(i).key, resultList.getEntry(i).key);
+			assertEquals("1200", resultList.getEntry(i).getGroupingObjectResultString(0));
+			assertEquals(expectedList.getEntry(i).getGroupingObjectResultString(0), resultList.getEntry(i).getGroupingObjectResultString(0));
+		}
+	}
+
+	private Query groupQuery(Clause clause) {
+		Query query = new Query();
+		query.setMeta(new Metadata(1, 10, 0));
+		query.setClause(clause);
+		Groups groups = new Groups();
+		groups.add(new Group("CATEGORY", new GroupFunction[] { new CountGroupFunction(Group.SORT_VALUE_DESC, null) }, Group.SORT_KEY_ASC));
+		query.setGroups(groups);
+		return query;
+	}
+
+	@Test
+	public void testInMemorySortAndGroup() throws Exception {
+		collectionHandler = load(2);
+		InternalSearchResult expected = collectionHandler.searcher().searchInternal(columnQuery(), false, null);
+		collectionHandler.close();
+		FileUtils.forceDelete(homeDir);
+
+		inMemory = true;
+		collectionHandler = load(2);
+		assertNotNull(collectionHandler.segmentReader(0).newFieldIndexesReader().getIndexReader(0).column());
+		InternalSearchResult result = collectionHandler.searcher().searchInternal(columnQuery(), false, null);
+
+		//CATEGORY 내림차순, PRICE 오름차순이므로 c4 문서가 가격순으로 나온다.
+		assertEquals(10, result.getCount());
+		for (int i = 0; i < result.getCount(); i++) {
+			HitElement e = result.getHitElementList()[i];
+			assertEquals(0, e.segmentSequence());
+			assertEquals(i * 5 + 4, e.docNo());
+		}
+		assertHitsEquals(expected, result);
+		for (int i = 0; i < expected.getCount(); i++) {
+			for (int j = 0; j < 2; j++) {
+				assertEquals(expected.getHitElementList()[i].rankData(j), result.getHitElementList()[i].rankData(j));
+			}
+		}
+
+		GroupEntryList expectedList = expected.getGroupsData().getGroupEntryList(0);
+		GroupEntryList resultList = result.getGroupsData().getGroupEntryList(0);
+		assertEquals(5, resultList.size());
+		for (int i = 0; i < expectedList.size(); i++) {
+			assertEquals(expectedList.getEntry(i).key, resultList.getEntry(i).key);
+			for (int j = 0; j < 2; j++) {
+				assertEquals(expectedList.getEntry(i).getGroupingObjectResultString(j), resultList.getEntry(i).getGroupingObjectResultString(j));
+			}
+		}
+		//c4는 i = 4, 9, ..., 5999 이므로 PRICE 합은 1200 * (3001.5 - 3000) 이다.
+		assertEquals("1800", resultList.getEntry(4).getGroupingObjectResultString(0));
+	}
+
+	private Query columnQuery() {
+		Query query = new Query();
+		query.setMeta(new Metadata(1, 10, 0));
+		Sorts sorts = new Sorts();
+		sorts.add(new Sort("CATEGORY", false));
+		sorts.add(new Sort("PRICE", true));
+		query.setSorts(sorts);
+		Groups groups = new Groups();
+		groups.add(new Group("CATEGORY", new GroupFunction[] { new SumGroupFunction(Group.SORT_VALUE_DESC, "PRICE"),
+				new SumGroupFunction(Group.SORT_VALUE_DESC, "RATE") }, Group.SORT_KEY_ASC));
+		query.setGroups(groups);
+		return query;
+	}
+
+	@Test
+	public void testSkipOutOfRangeSegment() throws Exception {
+		collectionHandler = load(2);
+
+		//첫번째 세그먼트의 PRICE는 모두 음수이다.
+		Query query = new Query();
+		query.setMeta(new Metadata(1, 10, 0));
+		Filters filters = new Filters();
+		filters.add(new Filter("PRICE", Filter.SECTION, "100", "199"));
+		query.setFilters(filters);
+		assertTrue(SegmentSearcher.isOutOfRange(collectionHandler.segmentReader(0), filters));
+		assertFalse(SegmentSearcher.isOutOfRange(collectionHandler.segmentReader(1), filters));
+
+		HitReader hitReader = collectionHandler.segmentReader(0).segmentSearcher().searchHitReader(query, null);
+		assertNull(hitReader.next());
+		assertEquals(0, hitReader.totalCount());
+
+		InternalSearchResult result = collectionHandler.searcher().searchInternal(query, false, null);
+		assertEquals(100, result.getTotalCount());
+		for (int i = 0; i < result.getCount(); i++) {
+			assertEquals(1, result.getHitElementList()[i].segmentSequence());
+		}
+	}
+
+	/*
+	 * 검색절보다 넓은 범위로 처음 요청된 필터는 검색결과를 거르는 방식으로, 두번째 요청은 point 색인으로 만든 문서집합으로 처리된다.
+	 * 두 경로의 결과가 같아야 한다. start, end 는 i - 3000 의 범위이다.
+	 */
+	private void assertSectionFilter(String fieldIndexId, String pattern, String endPattern, float start, float end) throws Exception {
+		int expectedCount = 0;
+		for (int i = 0; i < 2 * SEGMENT_DOC_COUNT; i += 50) {
+			if (i - 3000 >= start && i - 3000 <= end) {
+				expectedCount++;
+			}
+		}
+		assertTrue(expectedCount > 0);
+
+		InternalSearchResult first = collectionHandler.searcher().searchInternal(filterQuery(fieldIndexId, pattern, endPattern), false, null);
+		InternalSearchResult second = collectionHandler.searcher().searchInternal(filterQuery(fieldIndexId, pattern, endPattern), false, null);
+		assertEquals(expectedCount, first.getTotalCount());
+		assertEquals(expectedCount, second.getTotalCount());
+		assertHitsEquals(first, second);
+	}
+
+	private Query filterQuery(String fieldIndexId, String pattern, String endPattern) {
+		Query query = new Query();
+		query.setMeta(new Metadata(1, 100, 0));
+		query.setClause(new Clause(new Term("TITLE", "rare")));
+		Filters filters = new Filters();
+		filters.add(new Filter(fieldIndexId, Filter.SECTION, pattern, endPattern));
+		query.setFilters(filters);
+		return query;
+	}
+
+	/*
+	 * 검색루프는 문서마다 객체를 만들지 않는다. 결과 6000건인 검색들의 쓰레드 할당량을 잰다.
+	 * 문서마다 RankInfo, HitElement, BytesRef를 만들던 이전 방식은 건당 약 165 bytes를 할당했다.
+	 */
+	@Test
+	public void testSearchAllocation() throws Exception {
+		ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+		//쓰레드 할당량을 잴수 없는 JVM에서는 확인하지 않는다.
+		if (!(threadMXBean instanceof com.sun.management.ThreadMXBean)) {
+			return;
+		}
+		com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threadMXBean;
+		if (!bean.isThreadAllocatedMemorySupported() || !bean.isThreadAllocatedMemoryEnabled()) {
+			return;
+		}
+		collectionHandler = load(2);
+
+		long threadId = Thread.currentThread().getId();
+		Query[] queryList = new Query[] { scoreQuery(0), priceQuery(false) };
+		for (Query query : queryList) {
+			for (int i = 0; i < 100; i++) {
+				collectionHandler.searcher().searchInternal(query, false, null);
+			}
+			int runs = 100;
+			long before = bean.getThreadAllocatedBytes(threadId);
+			for (int i = 0; i < runs; i++) {
+				collectionHandler.searcher().searchInternal(query, false, null);
+			}
+			long bytesPerHit = (bean.getThreadAllocatedBytes(threadId) - before) / runs / (2 * SEGMENT_DOC_COUNT);
+			assertTrue("allocated " + bytesPerHit + " bytes/hit", bytesPerHit < 32);
+		}
+	}
+
+	private Query scoreQuery(int option) {
+		Query query = new Query();
+		query.setMeta(new Metadata(1, 10, option));
+		query.setClause(new Clause(new Term("TITLE", "common"), Clause.Operator.OR, new Term("TITLE", "rare")));
+		Sorts sorts = new Sorts();
+		sorts.add(new Sort(ScoreField.fieldName, false));
+		query.setSorts(sorts);
+		return query;
+	}
+
+	private void assertHitsEquals(InternalSearchResult expected, InternalSearchResult result) {
+		assertEquals(expected.getCount(), result.getCount());
+		for (int i = 0; i < expected.getCount(); i++) {
+			HitElement e1 = expected.getHitElementList()[i];
+			HitElement e2 = result.getHitElementList()[i];
+			assertEquals(e1.segmentSequence(), e2.segmentSequence());
+			assertEquals(e1.docNo(), e2.docNo());
+			assertEquals(e1.score(), e2.score());
+		}
+	}
+
+	/*
+	 * 문서 i : TITLE은 모두 common을 가지며 50번째마다 rare를 여러번 가진다.
+	 * PRICE는 i - 3000, RATE는 (i - 3000) / 4, CATEGORY는 i % 5.
+	 */
+	private Document createDocument(Schema schema, int i) throws Exception {
+		String title = i % 50 == 0 ? "common rare rare rare rare" : "common";
+		String[] rawList = new String[] { Integer.toString(i), title, Integer.toString(i - 3000), Float.toString((i - 3000) / 4f), "c" + (i % 5) };
+		List<FieldSetting> fieldSettingList = schema.schemaSetting().getFieldSettingList();
+		Document document = new Document(fieldSettingList.size());
+		for (int k = 0; k < fieldSettingList.size(); k++) {
+			document.add(fieldSettingList.get(k).createIndexableField(rawList[k], null, false));
+		}
+		return document;
+	}
+
+	private CollectionHandler load(int segmentSize) throws Exception {
+		return load(segmentSize, null);
+	}
+
+	private CollectionHandler load(int segmentSize, String indexSort) throws Exception {
+		Schema schema = new Schema(createSchemaSetting());
+		IndexConfig indexConfig = createIndexConfig();
+		AnalyzerFactoryManager analyzerFactoryManager = new AnalyzerFactoryManager() {
+			@Override
+			public AnalyzerFactory getAnalyzerFactory(String analyzerId) {
+				return new DefaultAnalyzerFactory(WhitespaceAnalyzer.class);
+			}
+		};
+		AnalyzerPoolManager analyzerPoolManager = new AnalyzerPoolManager();
+		analyzerPoolManager.register(schema.schemaSetting().getAnalyzerSettingList(), analyzerFactoryManager);
+
+		FilePaths collectionFilePaths = new FilePaths(homeDir, "test");
+		DataInfo dataInfo = new DataInfo();
+		int docNo = 0;
+		for (int s = 0; s < segmentSize; s++) {
+			File segmentDir = collectionFilePaths.dataPaths().segmentFile(0, s);
+			segmentDir.mkdirs();
+			RevisionInfo revisionInfo = new RevisionInfo();
+			SegmentWriter writer = new SegmentWriter(schema, segmentDir, revisionInfo, indexConfig, analyzerPoolManager);
+			for (int i = 0; i < SEGMENT_DOC_COUNT; i++) {
+				writer.addDocument(createDocument(schema, docNo++));
+			}
+			writer.close();
+			SegmentInfo segmentInfo = new SegmentInfo(Integer.toString(s), s * SEGMENT_DOC_COUNT);
+			segmentInfo.setRevisionInfo(revisionInfo);
+			segmentInfo.setIndexSort(indexSort);
+			dataInfo.addSegmentInfo(segmentInfo);
+		}
+
+		CollectionContext collectionContext = new CollectionContext("test", collectionFilePaths);
+		CollectionIndexStatus collectionIndexStatus = new CollectionIndexStatus();
+		collectionContext.init(schema, null, new CollectionConfig(), indexConfig, null, collectionIndexStatus, dataInfo, null);
+		return new CollectionHandler(collectionContext, analyzerFactoryManager).load();
+	}
+
+	private SchemaSetting createSchemaSetting() {
+		SchemaSetting setting = new SchemaSetting();
+
+		List<FieldSetting> fieldSettingList = new ArrayList<FieldSetting>();
+		fieldSettingList.add(new FieldSetting("ID", "아이디", FieldSetting.Type.INT));
+		fieldSettingList.add(new FieldSetting("TITLE", "제목", FieldSetting.Type.STRING));
+		fieldSettingList.add(new FieldSetting("PRICE", "가격", FieldSetting.Type.INT));
+		fieldSettingList.add(new FieldSetting("RATE", "비율", FieldSetting.Type.FLOAT));
+		FieldSetting fieldSetting = new FieldSetting("CATEGORY", "카테고리", FieldSetting.Type.ASTRING);
+		fieldSetting.setSize(10);
+		fieldSettingList.add(fieldSetting);
+		setting.setFieldSettingList(fieldSettingList);
+
+		setting.setPrimaryKeySetting(new PrimaryKeySetting("ID"));
+
+		List<IndexSetting> indexSettingList = new ArrayList<IndexSetting>();
+		IndexSetting indexSetting = new IndexSetting("TITLE", "WHITESPACE");
+		indexSetting.setFieldList(new ArrayList<IndexRefSetting>());
+		indexSetting.getFieldList().add(new IndexRefSetting("TITLE", "WHITESPACE"));
+		indexSettingList.add(indexSetting);
+		setting.setIndexSettingList(indexSettingList);
+
+		List<FieldIndexSetting> fieldIndexSettingList = new ArrayList<FieldIndexSetting>();
+		fieldIndexSettingList.add(new FieldIndexSetting("PRICE", "가격", "PRICE"));
+		fieldIndexSettingList.add(new FieldIndexSetting("RATE", "비율", "RATE"));
+		fieldIndexSettingList.add(new FieldIndexSetting("CATEGORY", "카테고리", "CATEGORY"));
+		for (FieldIndexSetting fieldIndexSetting : fieldIndexSettingList) {
+			fieldIndexSetting.setInMemory(inMemory);
+		}
+		setting.setFieldIndexSettingList(fieldIndexSettingList);
+
+		List<GroupIndexSetting> groupIndexSettingList = new ArrayList<GroupIndexSetting>();
+		groupIndexSettingList.add(new GroupIndexSetting("CATEGORY", "카테고리", "CATEGORY"));
+		setting.setGroupIndexSettingList(groupIndexSettingList);
+
+		List<AnalyzerSetting> analyzerSettingList = new ArrayList<AnalyzerSetting>();
+		analyzerSettingList.add(new AnalyzerSetting("WHITESPACE", "whitespace", 1, 10, "whitespace"));
+		setting.setAnalyzerSettingList(analyzerSettingList);
+		return setting;
+	}
+
+	private IndexConfig createIndexConfig() {
+		IndexConfig config = new IndexConfig();
+		config.setIndexTermInterval(64);
+		config.setIndexWorkBucketSize(256);
+		config.setIndexWorkMemorySize(32 * 1024 * 1024);
+		config.setPkBucketSize(64 * 1024);
+		config.setPkTermInterval(64);
+		return config;
+	}
+}
@@ -0,0 +1,147 @@
+package org.fastcatsearch.ir.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.fastcatsearch.ir.query.RankInfo;
+import org.fastcatsearch.ir.search.clause.AllDocumentOperatedClause;
+import org.fastcatsearch.ir.search.clause.DocIdSetOperatedClause;
+import org.fastcatsearch.ir.search.clause.OperatedClause;
+import org.fastcatsearch.ir.search.clause.UserOperatedClause;
+import org.junit.Test;
+
+public class DocIdSetTest {
+
+	private Random r = new Random(System.currentTimeMillis());
+
+	@Test
+	public void testSparseAndDense() {
+		int docCount = 100000;
+		// 적은 문서는 배열로, 많은 문서는 bitmap으로 저장한다.
+		DocIdSet sparse = makeDocIdSet(docCount, makeDocs(docCount, 100));
+		assertEquals(100 * 4L, sparse.memorySize());
+		DocIdSet dense = makeDocIdSet(docCount, makeDocs(docCount, 30000));
+		assertEquals((docCount + 63) / 64 * 8L, dense.memorySize());
+	}
+
+	@Test
+	public void testAdvance() {
+		int docCount = 100000;
+		int[] counts = new int[] { 0, 1, 100, 3000, 30000, docCount };
+		for (int count : counts) {
+			int[] docs = makeDocs(docCount, count);
+			DocIdSet docIdSet = makeDocIdSet(docCount, docs);
+			assertEquals(count, docIdSet.size());
+
+			for (int t = 0; t < 10; t++) {
+				DocIdSet.Iterator iterator = docIdSet.iterator();
+				int i = 0;
+				int target = 0;
+				while (true) {
+					target += r.nextInt(r.nextBoolean() ? 10 : 5000);
+					while (i < count && docs[i] < target) {
+						i++;
+					}
+					int docNo = iterator.advance(target);
+					if (i == count) {
+						assertEquals(-1, docNo);
+						break;
+					}
+					assertEquals(docs[i], docNo);
+					assertTrue(docIdSet.contains(docNo));
+				}
+			}
+			if (count < docCount) {
+				assertFalse(docIdSet.contains(missingDoc(docs, docCount)));
+			}
+		}
+	}
+
+	@Test
+	public void testClause() {
+		int docCount = 100000;
+		// 집합이 작으면 집합이, 크면 하위절이 후보를 고르며 결과는 같아야 한다.
+		testClause(docCount, makeDocs(docCount, 20000), makeDocs(docCount, 50));
+		testClause(docCount, makeDocs(docCount, 20000), makeDocs(docCount, 5000));
+		testClause(docCount, makeDocs(docCount, 200), makeDocs(docCount, 50000));
+	}
+
+	@Test
+	public void testAllDocumentClause() {
+		// 검색절 없이 필터만 있는 경우. 집합의 문서만 읽는다.
+		int docCount = 100000;
+		int[] filterDocs = makeDocs(docCount, 50);
+		DocIdSet docIdSet = makeDocIdSet(docCount, filterDocs);
+		OperatedClause clause = new DocIdSetOperatedClause(new AllDocumentOperatedClause(docCount), docIdSet, "test");
+		clause.init();
+		RankInfo rankInfo = new RankInfo();
+		int i = 0;
+		while (clause.next(rankInfo)) {
+			assertEquals(filterDocs[i++], rankInfo.docNo());
+		}
+		assertEquals(filterDocs.length, i);
+	}
+
+	private void testClause(int docCount, int[] clauseDocs, int[] filterDocs) {
+		DocIdSet docIdSet = makeDocIdSet(docCount, filterDocs);
+
+		// 교집합과 같은 문서를 리턴해야 한다.
+		List<Integer> expected = new ArrayList<Integer>();
+		for (int docNo : clauseDocs) {
+			if (docIdSet.contains(docNo)) {
+				expected.add(docNo);
+			}
+		}
+
+		OperatedClause clause = new DocIdSetOperatedClause(new UserOperatedClause(clauseDocs.length, clauseDocs, null), docIdSet, "test");
+		clause.init();
+		RankInfo rankInfo = new RankInfo();
+		int i = 0;
+		while (clause.next(rankInfo)) {
+			assertEquals(expected.get(i++).intValue(), rankInfo.docNo());
+		}
+		assertEquals(expected.size(), i);
+	}
+
+	private DocIdSet makeDocIdSet(int docCount, int[] docs) {
+		DocIdSet.Builder builder = new DocIdSet.Builder(docCount);
+		for (int docNo : docs) {
+			builder.add(docNo);
+		}
+		return builder.build();
+	}
+
+	private int missingDoc(int[] docs, int docCount) {
+		for (int i = 0; i < docs.length; i++) {
+			if (docs[i] != i) {
+				return i;
+			}
+		}
+		return docs.length;
+	}
+
+	private int[] makeDocs(int docCount, int count) {
+		boolean[] selected = new boolean[docCount];
+		int n = 0;
+		while (n < count) {
+			int docNo = r.nextInt(docCount);
+			if (!selected[docNo]) {
+				selected[docNo] = true;
+				n++;
+			}
+		}
+		int[] docs = new int[count];
+		n = 0;
+		for (int docNo = 0; docNo < docCount; docNo++) {
+			if (selected[docNo]) {
+				docs[n++] = docNo;
+			}
+		}
+		return docs;
+	}
+}
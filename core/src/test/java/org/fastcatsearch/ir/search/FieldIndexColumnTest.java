@@ -0,0 +1,108 @@
+package org.fastcatsearch.ir.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.fastcatsearch.ir.io.BufferedFileOutput;
+import org.fastcatsearch.ir.io.IndexOutput;
+import org.fastcatsearch.ir.settings.FieldSetting;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FieldIndexColumnTest {
+
+	private Random r = new Random(System.currentTimeMillis());
+	private int docCount = 10000;
+	private File dataFile;
+
+	@Before
+	public void setUp() throws IOException {
+		dataFile = File.createTempFile("field", ".index");
+	}
+
+	@After
+	public void tearDown() {
+		dataFile.delete();
+	}
+
+	@Test
+	public void testInt() throws IOException {
+		int[] values = new int[docCount];
+		IndexOutput output = new BufferedFileOutput(dataFile);
+		for (int i = 0; i < docCount; i++) {
+			values[i] = r.nextInt(3000) - 1000;
+			output.writeInt(values[i]);
+		}
+		output.close();
+
+		for (boolean offHeap : new boolean[] { false, true }) {
+			FieldIndexColumn.NumericColumn column = (FieldIndexColumn.NumericColumn) FieldIndexColumn.load(FieldSetting.Type.INT, dataFile, 4, offHeap);
+			assertEquals(docCount, column.docCount());
+			//최소값과의 차이만 저장하므로 12비트면 충분하다.
+			assertTrue(column.bitsPerValue() <= 12);
+			byte[] buffer = new byte[4];
+			for (int i = 0; i < docCount; i++) {
+				assertEquals(values[i], (int) column.get(i));
+				column.read(i, buffer);
+				assertEquals(values[i], (buffer[0] << 24) | ((buffer[1] & 0xff) << 16) | ((buffer[2] & 0xff) << 8) | (buffer[3] & 0xff));
+			}
+		}
+	}
+
+	@Test
+	public void testDouble() throws IOException {
+		double[] values = new double[docCount];
+		IndexOutput output = new BufferedFileOutput(dataFile);
+		for (int i = 0; i < docCount; i++) {
+			values[i] = (r.nextDouble() - 0.5) * 1000;
+			output.writeLong(Double.doubleToLongBits(values[i]));
+		}
+		output.close();
+
+		FieldIndexColumn.NumericColumn column = (FieldIndexColumn.NumericColumn) FieldIndexColumn.load(FieldSetting.Type.DOUBLE, dataFile, 8, true);
+		for (int i = 0; i < docCount; i++) {
+			assertEquals(values[i], Double.longBitsToDouble(column.get(i)), 0);
+		}
+	}
+
+	@Test
+	public void testString() throws IOException {
+		String[] dictionary = new String[] { "AB", "가나", "Z1", "09", "가A" };
+		int dataSize = 4;
+		byte[][] values = new byte[docCount][];
+		IndexOutput output = new BufferedFileOutput(dataFile);
+		for (int i = 0; i < docCount; i++) {
+			String value = dictionary[r.nextInt(dictionary.length)];
+			values[i] = new byte[dataSize];
+			for (int j = 0; j < value.length(); j++) {
+				values[i][j * 2] = (byte) (value.charAt(j) >>> 8);
+				values[i][j * 2 + 1] = (byte) value.charAt(j);
+			}
+			output.writeBytes(values[i], 0, dataSize);
+		}
+		output.close();
+
+		for (boolean offHeap : new boolean[] { false, true }) {
+			FieldIndexColumn.OrdinalColumn column = (FieldIndexColumn.OrdinalColumn) FieldIndexColumn.load(FieldSetting.Type.STRING, dataFile, dataSize, offHeap);
+			assertEquals(dictionary.length, column.ordCount());
+			byte[] buffer = new byte[dataSize];
+			for (int i = 0; i < docCount; i++) {
+				column.read(i, buffer);
+				assertEquals(Arrays.toString(values[i]), Arrays.toString(buffer));
+			}
+			//ordinal 순서가 값 순서와 같다.
+			byte[] prev = new byte[dataSize];
+			for (int ord = 1; ord < column.ordCount(); ord++) {
+				column.lookupOrd(ord - 1, prev);
+				column.lookupOrd(ord, buffer);
+				assertTrue(new String(prev, "UTF-16BE").compareTo(new String(buffer, "UTF-16BE")) < 0);
+			}
+		}
+	}
+}
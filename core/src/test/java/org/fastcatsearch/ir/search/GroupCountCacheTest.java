@@ -0,0 +1,78 @@
+package org.fastcatsearch.ir.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.fastcatsearch.ir.io.BitSet;
+import org.fastcatsearch.ir.io.DataRef;
+import org.fastcatsearch.ir.settings.GroupIndexSetting;
+import org.junit.Test;
+
+public class GroupCountCacheTest {
+
+	private static class DocGroupReader extends GroupIndexReader {
+		private int[] docGroupNos;
+
+		public DocGroupReader(int groupKeySize, int... docGroupNos) {
+			this.groupKeySize = groupKeySize;
+			this.docGroupNos = docGroupNos;
+			this.dataRef = new DataRef(4);
+		}
+
+		@Override
+		public void read(int docNo) throws IOException {
+			int groupNo = docGroupNos[docNo];
+			byte[] bytes = dataRef.bytesRef().bytes;
+			bytes[0] = (byte) (groupNo >>> 24);
+			bytes[1] = (byte) (groupNo >>> 16);
+			bytes[2] = (byte) (groupNo >>> 8);
+			bytes[3] = (byte) groupNo;
+			dataRef.init(1);
+		}
+
+		@Override
+		public GroupIndexReader clone() {
+			return this;
+		}
+	}
+
+	private GroupIndexesReader indexesReader(GroupIndexReader reader) {
+		GroupIndexesReader indexesReader = new GroupIndexesReader();
+		indexesReader.indexSettingList = new ArrayList<GroupIndexSetting>();
+		indexesReader.indexSettingList.add(new GroupIndexSetting("CATEGORY", "category", "CATEGORY"));
+		indexesReader.readerList = new ArrayList<GroupIndexReader>();
+		indexesReader.readerList.add(reader);
+		return indexesReader;
+	}
+
+	@Test
+	public void testCountsWithDeleteSet() throws IOException {
+		GroupIndexesReader indexesReader = indexesReader(new DocGroupReader(3, 0, 2, 2, 1, 2, 0));
+		GroupCountCache groupCountCache = new GroupCountCache();
+
+		BitSet deleteSet = new BitSet();
+		GroupCountCache.Counts counts = groupCountCache.counts("CATEGORY", indexesReader, deleteSet, 6);
+		assertEquals("[2, 1, 3]", Arrays.toString(counts.counts()));
+		assertEquals(6, counts.liveDocCount());
+		//삭제셋이 같으면 캐시된 결과를 사용한다.
+		assertSame(counts, groupCountCache.counts("CATEGORY", indexesReader, deleteSet, 6));
+
+		//삭제셋이 바뀌면 삭제문서만 뺀다.
+		BitSet newDeleteSet = new BitSet();
+		newDeleteSet.set(1);
+		newDeleteSet.set(5);
+		GroupCountCache.Counts liveCounts = groupCountCache.counts("CATEGORY", indexesReader, newDeleteSet, 6);
+		assertEquals("[1, 1, 2]", Arrays.toString(liveCounts.counts()));
+		assertEquals(4, liveCounts.liveDocCount());
+		//이전 결과는 바뀌지 않는다.
+		assertEquals("[2, 1, 3]", Arrays.toString(counts.counts()));
+		assertEquals(1, groupCountCache.size());
+
+		groupCountCache.clear();
+		assertEquals(0, groupCountCache.size());
+	}
+}
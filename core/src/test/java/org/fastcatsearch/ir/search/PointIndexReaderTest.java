@@ -0,0 +1,148 @@
+package org.fastcatsearch.ir.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.Random;
+
+import org.fastcatsearch.ir.config.DataInfo.FieldStat;
+import org.fastcatsearch.ir.config.DataInfo.RevisionInfo;
+import org.fastcatsearch.ir.index.PointIndexWriter;
+import org.fastcatsearch.ir.io.BufferedFileOutput;
+import org.fastcatsearch.ir.io.IndexInputType;
+import org.fastcatsearch.ir.io.IndexOutput;
+import org.fastcatsearch.ir.settings.FieldSetting;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PointIndexReaderTest {
+
+	private Random r = new Random(System.currentTimeMillis());
+	private int docCount = 10000;
+	private File dataFile;
+	private File pointFile;
+
+	@Before
+	public void setUp() throws IOException {
+		dataFile = File.createTempFile("field", ".index");
+		pointFile = File.createTempFile("field", ".point");
+	}
+
+	@After
+	public void tearDown() {
+		dataFile.delete();
+		pointFile.delete();
+	}
+
+	@Test
+	public void testIntRange() throws IOException {
+		int[] values = new int[docCount];
+		int minValue = Integer.MAX_VALUE;
+		int maxValue = Integer.MIN_VALUE;
+		IndexOutput output = new BufferedFileOutput(dataFile);
+		for (int i = 0; i < docCount; i++) {
+			//같은 값이 여러 블럭에 걸치도록 범위를 좁힌다.
+			values[i] = r.nextInt(2000) - 1000;
+			output.writeInt(values[i]);
+			minValue = Math.min(minValue, values[i]);
+			maxValue = Math.max(maxValue, values[i]);
+		}
+		output.close();
+		PointIndexWriter writer = new PointIndexWriter(FieldSetting.Type.INT, 4, 16);
+		writer.write(dataFile, pointFile);
+		assertEquals(docCount, writer.docCount());
+		assertEquals(minValue, writer.minKey());
+		assertEquals(maxValue, writer.maxKey());
+
+		PointIndexReader reader = new PointIndexReader(pointFile, IndexInputType.BUFFERED).clone();
+		assertEquals(docCount, reader.docCount());
+		for (int k = 0; k < 500; k++) {
+			int min = r.nextInt(2400) - 1200;
+			int max = min + r.nextInt(300);
+			BitSet expected = new BitSet(docCount);
+			for (int i = 0; i < docCount; i++) {
+				if (values[i] >= min && values[i] <= max) {
+					expected.set(i);
+				}
+			}
+			BitSet docSet = new BitSet(docCount);
+			int count = reader.collect(min, max, docSet);
+			assertEquals(min + "~" + max, expected, docSet);
+			assertEquals(expected.cardinality(), count);
+			assertEquals(count, reader.count(min, max));
+		}
+		assertEquals(0, reader.count(10, 5));
+		assertEquals(docCount, reader.count(Long.MIN_VALUE, Long.MAX_VALUE));
+		BitSet all = new BitSet(docCount);
+		assertEquals(docCount, reader.collect(Long.MIN_VALUE, Long.MAX_VALUE, all));
+		reader.close();
+	}
+
+	@Test
+	public void testDoubleRange() throws IOException {
+		double[] values = new double[docCount];
+		double minValue = Double.MAX_VALUE;
+		double maxValue = -Double.MAX_VALUE;
+		IndexOutput output = new BufferedFileOutput(dataFile);
+		for (int i = 0; i < docCount; i++) {
+			values[i] = (r.nextDouble() - 0.5) * 1000;
+			output.writeLong(Double.doubleToLongBits(values[i]));
+			minValue = Math.min(minValue, values[i]);
+			maxValue = Math.max(maxValue, values[i]);
+		}
+		output.close();
+		PointIndexWriter writer = new PointIndexWriter(FieldSetting.Type.DOUBLE, 8);
+		writer.write(dataFile, pointFile);
+
+		PointIndexReader reader = new PointIndexReader(pointFile, IndexInputType.MMAP);
+		byte[] buffer = new byte[8];
+		assertEquals(key(minValue, buffer), writer.minKey());
+		assertEquals(key(maxValue, buffer), writer.maxKey());
+		for (int k = 0; k < 500; k++) {
+			double min = (r.nextDouble() - 0.5) * 1200;
+			double max = min + r.nextDouble() * 200;
+			BitSet expected = new BitSet(docCount);
+			for (int i = 0; i < docCount; i++) {
+				if (values[i] >= min && values[i] <= max) {
+					expected.set(i);
+				}
+			}
+			BitSet docSet = new BitSet(docCount);
+			reader.collect(key(min, buffer), key(max, buffer), docSet);
+			assertEquals(min + "~" + max, expected, docSet);
+		}
+		reader.close();
+	}
+
+	@Test
+	public void testFieldStatOverlap() {
+		FieldStat fieldStat = new FieldStat("REGDATE", 100, 200);
+		assertTrue(fieldStat.isOverlapped(50, 100));
+		assertTrue(fieldStat.isOverlapped(150, 160));
+		assertTrue(fieldStat.isOverlapped(200, Long.MAX_VALUE));
+		assertFalse(fieldStat.isOverlapped(Long.MIN_VALUE, 99));
+		assertFalse(fieldStat.isOverlapped(201, 300));
+
+		//같은 필드색인의 통계는 교체되고, copy에도 유지된다.
+		RevisionInfo revisionInfo = new RevisionInfo();
+		revisionInfo.addFieldStat(fieldStat);
+		revisionInfo.addFieldStat(new FieldStat("regdate", 100, 300));
+		assertEquals(1, revisionInfo.getFieldStatList().size());
+		assertEquals(300, revisionInfo.copy().getFieldStat("REGDATE").getMax());
+		assertNull(revisionInfo.getFieldStat("PRICE"));
+	}
+
+	private long key(double value, byte[] buffer) {
+		long bits = Double.doubleToLongBits(value);
+		for (int i = 0; i < 8; i++) {
+			buffer[i] = (byte) (bits >>> (56 - i * 8));
+		}
+		return PointIndexWriter.sortableKey(FieldSetting.Type.DOUBLE, buffer, 0);
+	}
+}
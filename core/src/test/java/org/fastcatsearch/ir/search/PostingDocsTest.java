@@ -0,0 +1,69 @@
+package org.fastcatsearch.ir.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.fastcatsearch.ir.io.CharVector;
+import org.fastcatsearch.ir.search.posting.PostingDocsMerger;
+import org.fastcatsearch.ir.search.posting.PostingDocsReader;
+import org.junit.Test;
+
+public class PostingDocsTest {
+
+	@Test
+	public void testAddAndRead() {
+		// 처음 크기보다 많이 넣어도 배열이 늘어나야 한다.
+		PostingDocs postingDocs = new PostingDocs(new CharVector("a"), 2);
+		int[] buffer = new int[100];
+		for (int docNo = 0; docNo < 100; docNo++) {
+			int tf = docNo % 4;
+			for (int j = 0; j < tf; j++) {
+				buffer[j] = docNo + j;
+			}
+			postingDocs.add(docNo, tf, buffer, tf);
+		}
+		assertEquals(100, postingDocs.count());
+
+		PostingDocsReader reader = postingDocs.getReader();
+		for (int docNo = 0; docNo < 100; docNo++) {
+			reader.next();
+			PostingDoc postingDoc = reader.read();
+			assertEquals(docNo, postingDoc.docNo());
+			assertEquals(docNo % 4, postingDoc.tf());
+			assertEquals(docNo % 4, postingDoc.positionSize());
+			if (postingDoc.positionSize() == 0) {
+				assertNull(postingDoc.positions());
+			}
+			for (int j = 0; j < postingDoc.positionSize(); j++) {
+				assertEquals(docNo + j, postingDoc.positions()[j]);
+			}
+		}
+		assertFalse(reader.next());
+	}
+
+	@Test
+	public void testMerge() {
+		PostingDocs postingDocs1 = new PostingDocs(new CharVector("ab"), 0);
+		PostingDocs postingDocs2 = new PostingDocs(new CharVector("ac"), 0);
+		postingDocs1.add(1, 1, new int[] { 10 }, 1);
+		postingDocs1.add(5, 2, new int[] { 3, 7 }, 2);
+		postingDocs2.add(2, 1, new int[] { 4 }, 1);
+		postingDocs2.add(5, 1, new int[] { 9 }, 1);
+		List<PostingDocs> list = new ArrayList<PostingDocs>();
+		list.add(postingDocs1);
+		list.add(postingDocs2);
+
+		PostingDocs merged = new PostingDocsMerger(list).merge(new CharVector("a"), 1);
+		assertEquals(3, merged.count());
+		assertEquals(1, merged.docs()[0]);
+		assertEquals(2, merged.docs()[1]);
+		assertEquals(5, merged.docs()[2]);
+		// 같은 문서는 tf를 더한다.
+		assertEquals(3, merged.tfs()[2]);
+		assertEquals(4, merged.positions()[merged.positionOffset(1)]);
+	}
+}
@@ -60,13 +60,11 @@ public class SearchIndexReaderTest extends TestCase{
 			
 		}else{
 			int count = termDocs.count();
-			PostingDoc[] postingDocList = termDocs.postingDocList();
-//			int[] docs =  termDocs.docs();
-//			int[] tfs = termDocs.tfs();
+			int[] docs =  termDocs.docs();
+			int[] tfs = termDocs.tfs();
 			for(int i=0;i<count;i++){
-				PostingDoc postingDoc = postingDocList[i];
 				if(i < 10 || i > count - 10){
-					System.out.print("("+postingDoc.docNo()+":"+postingDoc.tf()+"), ");
+					System.out.print("("+docs[i]+":"+tfs[i]+"), ");
 				}
 			}
 		}
@@ -101,15 +99,11 @@ public class SearchIndexReaderTest extends TestCase{
 			
 		}else{
 			
-			PostingDoc[] termDocList1 = termDocs1.postingDocList();
-			PostingDoc[] termDocList2 = termDocs2.postingDocList();
+			int[] docs1 =  termDocs1.docs();
+			int[] tfs1 = termDocs1.tfs();
 			
-			
-//			int[] docs1 =  termDocs1.docs();
-//			int[] tfs1 = termDocs1.tfs();
-//			
-//			int[] docs2 =  termDocs2.docs();
-//			int[] tfs2 = termDocs2.tfs();
+			int[] docs2 =  termDocs2.docs();
+			int[] tfs2 = termDocs2.tfs();
 			
 			int idx1 = 0;
 			int idx2 = 0;
@@ -117,22 +111,22 @@ public class SearchIndexReaderTest extends TestCase{
 			
 			System.out.println("== AND ==");
 			while(true){
-				if(termDocList1[idx1].docNo() == termDocList2[idx2].docNo()){
-					System.out.println(termDocList1[idx1].docNo()+":"+(termDocList1[idx1].tf() + termDocList2[idx2].tf()));
+				if(docs1[idx1] == docs2[idx2]){
+					System.out.println(docs1[idx1]+":"+(tfs1[idx1] + tfs2[idx2]));
 					idx1++;
 					idx2++;
 					count++;
 					
-				}else if(termDocList1[idx1].docNo() < termDocList2[idx2].docNo()){
+				}else if(docs1[idx1] < docs2[idx2]){
 					idx1++;
 				}else{
 					idx2++;
 				}
 				
-				if(idx1 == termDocList1.length)
+				if(idx1 == termDocs1.count())
 					break;
 				
-				if(idx2 == termDocList2.length)
+				if(idx2 == termDocs2.count())
 					break;
 				
 			}
@@ -140,15 +134,15 @@ public class SearchIndexReaderTest extends TestCase{
 			System.out.println("---------");
 			
 			//나머지 뿌려주기 
-			for(;idx1 < termDocList1.length;idx1++){
-				System.out.println(termDocList1[idx1].docNo()+":"+termDocList1[idx1].tf());
+			for(;idx1 < termDocs1.count();idx1++){
+				System.out.println(docs1[idx1]+":"+tfs1[idx1]);
 				count++;
 			}
 			
 			System.out.println("---------");
 			
-			for(;idx2 < termDocList2.length;idx2++){
-				System.out.println(termDocList2[idx2].docNo()+":"+termDocList2[idx2].tf());
+			for(;idx2 < termDocs2.count();idx2++){
+				System.out.println(docs2[idx2]+":"+tfs2[idx2]);
 				count++;
 			}
 			
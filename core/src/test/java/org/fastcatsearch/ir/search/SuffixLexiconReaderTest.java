@@ -0,0 +1,102 @@
+package org.fastcatsearch.ir.search;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.fastcatsearch.ir.common.IndexFileNames;
+import org.fastcatsearch.ir.index.SuffixLexiconWriter;
+import org.fastcatsearch.ir.io.CharVector;
+import org.fastcatsearch.ir.io.IndexInputType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SuffixLexiconReaderTest {
+
+	private static final String INDEX_ID = "CODE";
+	private Random r = new Random(System.currentTimeMillis());
+	private char[] alphabet = new char[] { '0', '1', '2', 'A', 'B', '-', '가' };
+	private File dir;
+	private List<String> terms;
+	private long[] positions;
+
+	@Before
+	public void setUp() throws IOException {
+		TreeSet<String> set = new TreeSet<String>();
+		for (int i = 0; i < 3000; i++) {
+			set.add(randomTerm(1 + r.nextInt(10)));
+		}
+		terms = new ArrayList<String>(set);
+		positions = new long[terms.size()];
+		long position = 4;
+		SuffixLexiconWriter writer = new SuffixLexiconWriter();
+		for (int i = 0; i < terms.size(); i++) {
+			positions[i] = position;
+			char[] term = terms.get(i).toCharArray();
+			writer.add(term, 0, term.length, position);
+			position += 1 + r.nextInt(1000);
+		}
+		dir = File.createTempFile("suffix", ".test");
+		dir.delete();
+		dir.mkdir();
+		writer.write(dir, INDEX_ID);
+	}
+
+	@After
+	public void tearDown() {
+		new File(dir, IndexFileNames.getSearchSuffixPostingFileName(INDEX_ID)).delete();
+		new File(dir, IndexFileNames.getSearchSuffixIndexFileName(INDEX_ID)).delete();
+		dir.delete();
+	}
+
+	private String randomTerm(int length) {
+		char[] term = new char[length];
+		for (int i = 0; i < length; i++) {
+			term[i] = alphabet[r.nextInt(alphabet.length)];
+		}
+		return new String(term);
+	}
+
+	private long[] expected(String pattern, boolean infix) {
+		List<Long> list = new ArrayList<Long>();
+		for (int i = 0; i < terms.size(); i++) {
+			String term = terms.get(i);
+			if (infix ? term.contains(pattern) : term.endsWith(pattern)) {
+				list.add(positions[i]);
+			}
+		}
+		if (list.size() == 0) {
+			return null;
+		}
+		long[] result = new long[list.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = list.get(i);
+		}
+		return result;
+	}
+
+	@Test
+	public void testSuffixAndInfix() throws IOException {
+		SuffixLexiconReader reader = new SuffixLexiconReader(dir, INDEX_ID, IndexInputType.BUFFERED);
+		SuffixLexiconReader clone = reader.clone();
+		for (int i = 0; i < 1000; i++) {
+			String pattern = randomTerm(1 + r.nextInt(4));
+			long[] expectedSuffix = expected(pattern, false);
+			long[] expectedInfix = expected(pattern, true);
+			long[] suffix = clone.suffix(new CharVector(pattern));
+			long[] infix = clone.infix(new CharVector(pattern));
+			//없으면 둘다 null이다.
+			assertEquals(pattern, Arrays.toString(expectedSuffix), Arrays.toString(suffix));
+			assertEquals(pattern, Arrays.toString(expectedInfix), Arrays.toString(infix));
+		}
+		clone.close();
+		reader.close();
+	}
+}
@@ -0,0 +1,148 @@
+package org.fastcatsearch.ir.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.fastcatsearch.ir.index.TermFSTWriter;
+import org.fastcatsearch.ir.io.BufferedFileInput;
+import org.fastcatsearch.ir.io.BufferedFileOutput;
+import org.fastcatsearch.ir.io.CharVector;
+import org.fastcatsearch.ir.io.IndexOutput;
+import org.fastcatsearch.ir.io.MMapIndexInput;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TermFSTReaderTest {
+
+	private Random r = new Random(System.currentTimeMillis());
+	private char[] alphabet = new char[] { '0', '1', 'A', 'B', 'C', 'a', 'b', '가', '나', '힣' };
+	private File file;
+	private List<String> terms;
+	private long[] positions;
+
+	@Before
+	public void setUp() throws IOException {
+		TreeSet<String> set = new TreeSet<String>();
+		for (int i = 0; i < 5000; i++) {
+			set.add(randomTerm(1 + r.nextInt(8)));
+		}
+		terms = new ArrayList<String>(set);
+		positions = new long[terms.size()];
+		long position = 4;
+		for (int i = 0; i < positions.length; i++) {
+			positions[i] = position;
+			position += 1 + r.nextInt(100000);
+		}
+
+		file = File.createTempFile("termfst", ".test");
+		IndexOutput output = new BufferedFileOutput(file);
+		TermFSTWriter writer = new TermFSTWriter(output);
+		for (int i = 0; i < terms.size(); i++) {
+			char[] term = terms.get(i).toCharArray();
+			writer.add(term, 0, term.length, positions[i]);
+		}
+		writer.finish();
+		output.close();
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	private String randomTerm(int length) {
+		char[] term = new char[length];
+		for (int i = 0; i < length; i++) {
+			term[i] = alphabet[r.nextInt(alphabet.length)];
+		}
+		return new String(term);
+	}
+
+	@Test
+	public void testGet() throws IOException {
+		TermFSTReader reader = new TermFSTReader(new BufferedFileInput(file));
+		assertEquals(terms.size(), reader.termCount());
+		for (int i = 0; i < terms.size(); i++) {
+			assertEquals(terms.get(i), positions[i], reader.get(new CharVector(terms.get(i))));
+		}
+		for (int i = 0; i < 1000; i++) {
+			String term = randomTerm(1 + r.nextInt(9));
+			int idx = terms.indexOf(term);
+			assertEquals(term, idx >= 0 ? positions[idx] : -1, reader.get(new CharVector(term)));
+		}
+		reader.close();
+	}
+
+	@Test
+	public void testPrefix() throws IOException {
+		TermFSTReader reader = new TermFSTReader(new MMapIndexInput(file));
+		long[] result = new long[2];
+		for (int i = 0; i < 1000; i++) {
+			String prefix = randomTerm(r.nextInt(4));
+			int first = -1;
+			int count = 0;
+			for (int k = 0; k < terms.size(); k++) {
+				if (terms.get(k).startsWith(prefix)) {
+					if (first < 0) {
+						first = k;
+					}
+					count++;
+				}
+			}
+			if (count == 0) {
+				assertFalse(prefix, reader.prefix(new CharVector(prefix), result));
+			} else {
+				assertTrue(prefix, reader.prefix(new CharVector(prefix), result));
+				assertEquals(prefix, positions[first], result[0]);
+				assertEquals(prefix, count, result[1]);
+			}
+		}
+		reader.close();
+	}
+
+	@Test
+	public void testRange() throws IOException {
+		TermFSTReader reader = new TermFSTReader(new BufferedFileInput(file));
+		TermFSTReader clone = reader.clone();
+		long[] result = new long[2];
+		for (int i = 0; i < 1000; i++) {
+			String startTerm = randomTerm(1 + r.nextInt(4));
+			String endTerm = randomTerm(1 + r.nextInt(4));
+			if (startTerm.compareTo(endTerm) > 0) {
+				String tmp = startTerm;
+				startTerm = endTerm;
+				endTerm = tmp;
+			}
+			int first = -1;
+			int count = 0;
+			for (int k = 0; k < terms.size(); k++) {
+				String term = terms.get(k);
+				if (term.compareTo(startTerm) >= 0 && term.compareTo(endTerm) <= 0) {
+					if (first < 0) {
+						first = k;
+					}
+					count++;
+				}
+			}
+			String message = startTerm + "~" + endTerm;
+			if (count == 0) {
+				assertFalse(message, clone.range(new CharVector(startTerm), new CharVector(endTerm), result));
+			} else {
+				assertTrue(message, clone.range(new CharVector(startTerm), new CharVector(endTerm), result));
+				assertEquals(message, positions[first], result[0]);
+				assertEquals(message, count, result[1]);
+			}
+		}
+		clone.close();
+		reader.close();
+	}
+}
@@ -73,6 +73,68 @@ public class AndOperatedClauseTest extends TestCase{
 		}
 	}
 	
+	public void testAdvance(){
+		int count1 = 100;
+		int[] docs1 = new int[count1];
+		makeDocs(count1, docs1);
+		
+		int count2 = 1000;
+		int[] docs2 = new int[count2];
+		makeDocs(count2, docs2);
+		
+		int count3 = 1000;
+		int[] docs3 = new int[count3];
+		makeDocs(count3, docs3);
+		
+		//드문 단어가 앞에 오든 뒤에 오든 결과는 같아야 한다.
+		AndOperatedClause andClause = new AndOperatedClause(new AndOperatedClause(new UserOperatedClause(count1, docs1, null), new UserOperatedClause(count2, docs2, null)), new UserOperatedClause(count3, docs3, null));
+		AndOperatedClause andClause2 = new AndOperatedClause(new UserOperatedClause(count3, docs3, null), new AndOperatedClause(new UserOperatedClause(count2, docs2, null), new UserOperatedClause(count1, docs1, null)));
+		andClause.init();
+		andClause2.init();
+		
+		RankInfo docInfo = new RankInfo();
+		RankInfo docInfo2 = new RankInfo();
+		for (int i = 0; i < count1; i++) {
+			int docNo = docs1[i];
+			if (i > 0 && docNo == docs1[i - 1]) {
+				continue;
+			}
+			if (contains(docs2, docNo) && contains(docs3, docNo)) {
+				assertTrue(andClause.next(docInfo));
+				assertEquals(docNo, docInfo.docNo());
+				assertTrue(andClause2.next(docInfo2));
+				assertEquals(docNo, docInfo2.docNo());
+			}
+		}
+		assertFalse(andClause.next(docInfo));
+		assertFalse(andClause2.next(docInfo2));
+		
+		//advance는 target 이상의 첫 문서를 리턴한다.
+		andClause = new AndOperatedClause(new UserOperatedClause(count2, docs2, null), new UserOperatedClause(count3, docs3, null));
+		andClause.init();
+		int target = docs2[count2 / 2];
+		int expected = -1;
+		for (int i = 0; i < count2; i++) {
+			if (docs2[i] >= target && contains(docs3, docs2[i])) {
+				expected = docs2[i];
+				break;
+			}
+		}
+		assertEquals(expected != -1, andClause.advance(target, docInfo));
+		if (expected != -1) {
+			assertEquals(expected, docInfo.docNo());
+		}
+	}
+	
+	private boolean contains(int[] docs, int docNo) {
+		for (int d : docs) {
+			if (d == docNo) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
 	private Random r = new Random(System.currentTimeMillis());
 	
 	private void makeDocs(int count, int[] docs){
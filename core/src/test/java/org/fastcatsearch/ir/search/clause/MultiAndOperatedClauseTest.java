@@ -0,0 +1,164 @@
+package org.fastcatsearch.ir.search.clause;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.fastcatsearch.ir.io.CharVector;
+import org.fastcatsearch.ir.query.RankInfo;
+import org.fastcatsearch.ir.search.DataPostingReader;
+import org.fastcatsearch.ir.search.PostingDoc;
+import org.junit.Test;
+
+public class MultiAndOperatedClauseTest {
+
+	private Random r = new Random(System.currentTimeMillis());
+
+	private int documentCount = 100000;
+
+	@Test
+	public void testPlan() throws IOException {
+		for (int t = 0; t < 20; t++) {
+			PostingDoc[][] postings = new PostingDoc[][] { makePosting(50000, 3), makePosting(20000, 5), makePosting(3000, 10), makePosting(30000, 2) };
+
+			// 수행계획을 세워도 같은 문서, 점수, 매칭위치를 리턴해야 한다.
+			assertSameResult(read(makeClause(postings)), read(makeClause(postings).plan()));
+			// OR는 매칭위치를 전달하므로, 합쳐진 단어절의 매칭위치도 확인한다.
+			assertSameResult(read(makeOrClause(postings)), read(makeOrClause(postings).plan()));
+		}
+	}
+
+	private void assertSameResult(List<int[]> expected, List<int[]> actual) {
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			for (int j = 0; j < 4; j++) {
+				assertEquals(expected.get(i)[j], actual.get(i)[j]);
+			}
+		}
+	}
+
+	@Test
+	public void testPlanStructure() throws IOException {
+		PostingDoc[][] postings = new PostingDoc[][] { makePosting(50000, 3), makePosting(20000, 5), makePosting(3000, 10), makePosting(30000, 2) };
+		OperatedClause planned = makeClause(postings).plan();
+
+		// 중첩된 AND는 펼쳐지고, 중복된 t0는 합쳐지며, 문서수가 적은 절부터 수행한다.
+		assertTrue(planned instanceof MultiAndOperatedClause);
+		OperatedClause[] children = planned.children();
+		assertEquals(3, children.length);
+		assertEquals("t2", children[0].term());
+		assertEquals("t0", children[1].term());
+		// 상위 K개 검색이 아니면 OR는 일반 OR로 남는다.
+		assertTrue(children[2] instanceof OrOperatedClause);
+		assertEquals(3000, planned.cost());
+		assertTrue(planned.toPruningClause().children()[2] instanceof MaxScoreOrOperatedClause);
+		planned.close();
+	}
+
+	@Test
+	public void testPlanKeepsUnmergeableClauses() throws IOException {
+		// planKey가 같더라도 merge를 지원하지 않는 절은 합치지 않고 따로 수행한다.
+		OperatedClause c1 = new KeyedClause(new int[] { 1, 3, 5, 7 });
+		OperatedClause c2 = new KeyedClause(new int[] { 3, 4, 7 });
+		OperatedClause planned = new AndOperatedClause(c1, c2).plan();
+		assertEquals(2, planned.children().length);
+
+		planned.init();
+		RankInfo docInfo = new RankInfo();
+		assertTrue(planned.next(docInfo));
+		assertEquals(3, docInfo.docNo());
+		assertTrue(planned.next(docInfo));
+		assertEquals(7, docInfo.docNo());
+		assertFalse(planned.next(docInfo));
+		planned.close();
+	}
+
+	private static class KeyedClause extends UserOperatedClause {
+		public KeyedClause(int[] docs) {
+			super(docs.length, docs, null);
+		}
+
+		@Override
+		protected String planKey() {
+			return "KEYED";
+		}
+	}
+
+	@Test
+	public void testAdvance() throws IOException {
+		PostingDoc[][] postings = new PostingDoc[][] { makePosting(50000, 3), makePosting(20000, 5), makePosting(3000, 10), makePosting(30000, 2) };
+		List<int[]> expected = read(makeClause(postings));
+		OperatedClause planned = makeClause(postings).plan();
+		planned.init();
+
+		// 랜덤한 target으로 advance한 결과가 순차적으로 찾은 결과와 같아야 한다.
+		RankInfo docInfo = new RankInfo();
+		int i = 0;
+		while (i < expected.size()) {
+			int target = expected.get(i)[0] + r.nextInt(500);
+			while (i < expected.size() && expected.get(i)[0] < target) {
+				i++;
+			}
+			if (i == expected.size()) {
+				assertFalse(planned.advance(target, docInfo));
+				break;
+			}
+			assertTrue(planned.advance(target, docInfo));
+			assertEquals(expected.get(i)[0], docInfo.docNo());
+			assertEquals(expected.get(i)[1], docInfo.score());
+			i++;
+		}
+		planned.close();
+	}
+
+	private List<int[]> read(OperatedClause clause) {
+		clause.init();
+		List<int[]> list = new ArrayList<int[]>();
+		RankInfo docInfo = new RankInfo();
+		while (clause.next(docInfo)) {
+			list.add(new int[] { docInfo.docNo(), docInfo.score(), docInfo.hit(), docInfo.matchFlag() });
+		}
+		clause.close();
+		return list;
+	}
+
+	/*
+	 * t0 AND ((t1 OR t3 OR t0) AND (t2 AND t0)). t0는 여러번 나타난다.
+	 */
+	private OperatedClause makeClause(PostingDoc[][] postings) throws IOException {
+		int sequence = 0;
+		OperatedClause or = new OrOperatedClause(new OrOperatedClause(termClause(postings, 1, sequence++), termClause(postings, 3, sequence++)), termClause(postings, 0, sequence++));
+		OperatedClause and = new AndOperatedClause(termClause(postings, 2, sequence++), termClause(postings, 0, sequence++));
+		return new AndOperatedClause(termClause(postings, 0, sequence++), new AndOperatedClause(or, and));
+	}
+
+	/*
+	 * t0 OR ((t1 AND t0) OR t0 OR t2).
+	 */
+	private OperatedClause makeOrClause(PostingDoc[][] postings) throws IOException {
+		int sequence = 0;
+		OperatedClause and = new AndOperatedClause(termClause(postings, 1, sequence++), termClause(postings, 0, sequence++));
+		OperatedClause or = new OrOperatedClause(new OrOperatedClause(and, termClause(postings, 0, sequence++)), termClause(postings, 2, sequence++));
+		return new OrOperatedClause(termClause(postings, 0, sequence++), or);
+	}
+
+	private OperatedClause termClause(PostingDoc[][] postings, int i, int sequence) throws IOException {
+		DataPostingReader postingReader = new DataPostingReader(new CharVector("t" + i), 0, -1, postings[i], postings[i].length, documentCount);
+		return new TermOperatedClause("test", "t" + i, postingReader, sequence);
+	}
+
+	private PostingDoc[] makePosting(int count, int maxTf) {
+		PostingDoc[] posting = new PostingDoc[count];
+		int prev = -1;
+		for (int i = 0; i < count; i++) {
+			prev += 1 + r.nextInt(documentCount / count);
+			posting[i] = new PostingDoc(prev, 1 + r.nextInt(maxTf), null);
+		}
+		return posting;
+	}
+}
@@ -17,9 +17,17 @@
 package org.fastcatsearch.ir.search.clause;
 
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Random;
 
+import org.fastcatsearch.ir.io.CharVector;
 import org.fastcatsearch.ir.query.RankInfo;
+import org.fastcatsearch.ir.search.DataPostingReader;
+import org.fastcatsearch.ir.search.PostingDoc;
 import org.fastcatsearch.ir.search.clause.OrOperatedClause;
 import org.fastcatsearch.ir.search.clause.UserOperatedClause;
 
@@ -74,6 +82,79 @@ public class OrOperatedClauseTest extends TestCase{
 		}
 	}
 	
+	public void testPruning() throws IOException {
+		int documentCount = 100000;
+		int topK = 10;
+		for (int t = 0; t < 20; t++) {
+			PostingDoc[][] postings = new PostingDoc[][] { makePosting(20000, 3), makePosting(3000, 5), makePosting(300, 40), makePosting(50, 10) };
+			
+			//전체를 읽어서 구한 상위 K개.
+			OperatedClause clause = makeClause(postings, documentCount);
+			clause.init();
+			List<int[]> expected = new ArrayList<int[]>();
+			RankInfo docInfo = new RankInfo();
+			while (clause.next(docInfo)) {
+				expected.add(new int[] { docInfo.docNo(), docInfo.score() });
+			}
+			expected = topK(expected, topK);
+			
+			//랭커의 최소점수를 알려주면서 구한 상위 K개.
+			clause = makeClause(postings, documentCount).toPruningClause();
+			clause.init();
+			List<int[]> top = new ArrayList<int[]>();
+			int readCount = 0;
+			while (clause.next(docInfo)) {
+				readCount++;
+				top.add(new int[] { docInfo.docNo(), docInfo.score() });
+				top = topK(top, topK);
+				if (top.size() == topK) {
+					clause.setMinScore(top.get(topK - 1)[1]);
+				}
+			}
+			
+			assertEquals(expected.size(), top.size());
+			for (int i = 0; i < expected.size(); i++) {
+				assertEquals(expected.get(i)[0], top.get(i)[0]);
+				assertEquals(expected.get(i)[1], top.get(i)[1]);
+			}
+			assertTrue(readCount < postings[0].length);
+		}
+	}
+	
+	private OperatedClause makeClause(PostingDoc[][] postings, int documentCount) throws IOException {
+		OperatedClause clause = null;
+		for (int i = 0; i < postings.length; i++) {
+			DataPostingReader postingReader = new DataPostingReader(new CharVector("t" + i), 0, -1, postings[i], postings[i].length, documentCount);
+			OperatedClause termClause = new TermOperatedClause("test", "t" + i, postingReader);
+			clause = clause == null ? termClause : new OrOperatedClause(clause, termClause);
+		}
+		return clause;
+	}
+	
+	// 점수 내림차순, 같으면 문서번호가 큰 순서로 상위 K개.
+	private List<int[]> topK(List<int[]> list, int k) {
+		Collections.sort(list, new Comparator<int[]>() {
+			@Override
+			public int compare(int[] o1, int[] o2) {
+				if (o1[1] != o2[1]) {
+					return o2[1] - o1[1];
+				}
+				return o2[0] - o1[0];
+			}
+		});
+		return new ArrayList<int[]>(list.subList(0, Math.min(k, list.size())));
+	}
+	
+	private PostingDoc[] makePosting(int count, int maxTf) {
+		PostingDoc[] posting = new PostingDoc[count];
+		int prev = -1;
+		for (int i = 0; i < count; i++) {
+			prev += 1 + r.nextInt(100000 / count);
+			posting[i] = new PostingDoc(prev, 1 + r.nextInt(maxTf), null);
+		}
+		return posting;
+	}
+	
 	private Random r = new Random(System.currentTimeMillis());
 	
 	private void makeDocs(int count, int[] docs){
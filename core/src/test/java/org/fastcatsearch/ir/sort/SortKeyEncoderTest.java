@@ -0,0 +1,104 @@
+package org.fastcatsearch.ir.sort;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.apache.lucene.util.BytesRef;
+import org.fastcatsearch.ir.settings.FieldSetting.Type;
+import org.junit.Test;
+
+public class SortKeyEncoderTest {
+
+	private Random random = new Random(7);
+
+	private BytesRef intData(int value) {
+		byte[] bytes = new byte[] { (byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value };
+		return new BytesRef(bytes);
+	}
+
+	private BytesRef longData(long value) {
+		byte[] bytes = new byte[8];
+		for (int i = 0; i < 8; i++) {
+			bytes[i] = (byte) (value >>> (56 - i * 8));
+		}
+		return new BytesRef(bytes);
+	}
+
+	private BytesRef stringData() {
+		byte[] bytes = new byte[4];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = (byte) ('a' + random.nextInt(3));
+		}
+		return new BytesRef(bytes);
+	}
+
+	private BytesRef[] rankData(Type[] typeList) {
+		BytesRef[] rankData = new BytesRef[typeList.length];
+		for (int i = 0; i < typeList.length; i++) {
+			if (typeList[i] == Type.LONG) {
+				rankData[i] = longData(random.nextInt(5) == 0 ? Long.MIN_VALUE : random.nextLong() >> random.nextInt(64));
+			} else if (typeList[i] == Type.STRING) {
+				rankData[i] = stringData();
+			} else {
+				rankData[i] = intData(random.nextInt(7) - 3);
+			}
+		}
+		return rankData;
+	}
+
+	private int compare(SortFunction[] sortFunctions, BytesRef[] one, BytesRef[] two) {
+		for (int i = 0; i < sortFunctions.length; i++) {
+			int r = sortFunctions[i].compare(one[i], two[i]);
+			if (r != 0) {
+				return r;
+			}
+		}
+		return 0;
+	}
+
+	private void check(Type[] typeList, boolean[] ascendingList, boolean packed) {
+		SortFunction[] sortFunctions = new SortFunction[typeList.length];
+		for (int i = 0; i < typeList.length; i++) {
+			if (typeList[i] == Type.STRING) {
+				sortFunctions[i] = ascendingList[i] ? new DataAscSortFunction() : new DataDescSortFunction();
+			} else {
+				sortFunctions[i] = ascendingList[i] ? new NumericAscSortFunction() : new NumericDescSortFunction();
+			}
+		}
+		SortKeyEncoder encoder = new SortKeyEncoder(typeList, ascendingList);
+		assertEquals(packed, encoder.isPacked());
+		BytesRef key1 = new BytesRef();
+		BytesRef key2 = new BytesRef();
+		for (int n = 0; n < 2000; n++) {
+			BytesRef[] one = rankData(typeList);
+			BytesRef[] two = rankData(typeList);
+			int expected = Integer.signum(compare(sortFunctions, one, two));
+			int actual;
+			if (packed) {
+				actual = SortKeyEncoder.compareUnsigned(encoder.packedKey(one), encoder.packedKey(two));
+			} else {
+				encoder.encode(one, key1);
+				encoder.encode(two, key2);
+				actual = Integer.signum(key1.compareTo(key2));
+			}
+			assertTrue("case " + n, expected == actual);
+		}
+	}
+
+	@Test
+	public void testPackedKeys() {
+		check(new Type[] { Type._SCORE }, new boolean[] { false }, true);
+		check(new Type[] { Type.LONG }, new boolean[] { true }, true);
+		check(new Type[] { Type.LONG }, new boolean[] { false }, true);
+		check(new Type[] { Type._SCORE, Type.INT }, new boolean[] { false, true }, true);
+	}
+
+	@Test
+	public void testByteKeys() {
+		check(new Type[] { Type._SCORE, Type.LONG }, new boolean[] { false, true }, false);
+		check(new Type[] { Type.STRING, Type.INT }, new boolean[] { true, false }, false);
+		check(new Type[] { Type.INT, Type.STRING, Type.LONG }, new boolean[] { false, false, true }, false);
+	}
+}
@@ -47,6 +47,9 @@ public class UpdateCollectionConfigAction extends AuthAction {
 		collectionConfig.getDataPlanConfig().setSegmentRevisionBackupSize(segmentRevisionBackupSize);
 		collectionConfig.getDataPlanConfig().setSegmentDocumentLimit(segmentDocumentLimit);
 		collectionConfig.setFullIndexingSegmentSize(fullIndexingSegmentSize);
+		//파라미터가 없으면 기존 셋팅을 유지한다.
+		collectionConfig.setSearchParallelSize(request.getIntParameter("searchParallelSize", collectionConfig.getSearchParallelSize()));
+		collectionConfig.setIndexInputType(request.getParameter("indexInputType", collectionConfig.getIndexInputType()));
 		
 		List<String> searchNodeListObj = new ArrayList<String>();
 		for(String nodeStr : searchNodeList.split(",")){
@@ -0,0 +1,42 @@
+package org.fastcatsearch.http.action.management.common;
+
+import java.io.Writer;
+
+import org.fastcatsearch.http.ActionMapping;
+import org.fastcatsearch.http.action.ActionRequest;
+import org.fastcatsearch.http.action.ActionResponse;
+import org.fastcatsearch.http.action.AuthAction;
+import org.fastcatsearch.ir.io.cache.BlockCache;
+import org.fastcatsearch.util.ResponseWriter;
+
+/**
+ * 노드 공용 블럭캐시의 사용량과 hit/miss/eviction 통계를 리턴한다.
+ * */
+@ActionMapping("/management/common/block-cache-status")
+public class GetBlockCacheStatusAction extends AuthAction {
+
+	@Override
+	public void doAuthAction(ActionRequest request, ActionResponse response) throws Exception {
+		
+		BlockCache blockCache = BlockCache.getInstance();
+		long hitCount = blockCache.hitCount();
+		long missCount = blockCache.missCount();
+		long requestCount = hitCount + missCount;
+		
+		Writer writer = response.getWriter();
+		ResponseWriter resultWriter = getDefaultResponseWriter(writer);
+		resultWriter.object()
+			.key("maxSize").value(blockCache.maxSize())
+			.key("size").value(blockCache.size())
+			.key("blockCount").value(blockCache.blockCount())
+			.key("offHeap").value(blockCache.isOffHeap())
+			.key("hitCount").value(hitCount)
+			.key("missCount").value(missCount)
+			.key("evictionCount").value(blockCache.evictionCount())
+			.key("hitRatio").value(requestCount > 0 ? (double) hitCount / requestCount : 0.0)
+		.endObject();
+		
+		resultWriter.done();
+	}
+
+}
@@ -49,6 +49,7 @@ import org.fastcatsearch.ir.config.JDBCSourceInfo;
 import org.fastcatsearch.ir.config.JDBCSupportConfig;
 import org.fastcatsearch.ir.group.GroupResults;
 import org.fastcatsearch.ir.group.GroupsData;
+import org.fastcatsearch.ir.io.cache.BlockCache;
 import org.fastcatsearch.ir.query.InternalSearchResult;
 import org.fastcatsearch.ir.query.Result;
 import org.fastcatsearch.ir.search.CollectionHandler;
@@ -104,6 +105,9 @@ public class IRService extends AbstractService {
 	
 	protected boolean doStart() throws FastcatSearchException {
 
+		// 세그먼트 파일을 읽을때 공용으로 사용하는 블럭캐시.
+		BlockCache.init(settings.getByteSize("block_cache_size", BlockCache.DEFAULT_MAX_SIZE), settings.getBoolean("block_cache_offheap", false));
+		
 		try{
 			realtimeQueryStatisticsModule.load();
 		}catch(Throwable t){
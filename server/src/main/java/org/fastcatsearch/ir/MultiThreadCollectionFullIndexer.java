@@ -22,6 +22,7 @@ import org.fastcatsearch.ir.config.DataInfo.RevisionInfo;
 import org.fastcatsearch.ir.config.DataInfo.SegmentInfo;
 import org.fastcatsearch.ir.config.DataSourceConfig;
 import org.fastcatsearch.ir.config.IndexConfig;
+import org.fastcatsearch.ir.config.IndexSort;
 import org.fastcatsearch.ir.document.Document;
 import org.fastcatsearch.ir.index.DeleteIdSet;
 import org.fastcatsearch.ir.index.IndexWritable;
@@ -29,6 +30,7 @@ import org.fastcatsearch.ir.index.IndexWriteInfoList;
 import org.fastcatsearch.ir.index.SegmentIndexWriteConsumer;
 import org.fastcatsearch.ir.index.SegmentWriter;
 import org.fastcatsearch.ir.index.SelectedIndexList;
+import org.fastcatsearch.ir.index.SortedSegmentWriter;
 import org.fastcatsearch.ir.index.WriteInfoLoggable;
 import org.fastcatsearch.ir.settings.Schema;
 import org.fastcatsearch.ir.settings.SchemaSetting;
@@ -62,6 +64,7 @@ public class MultiThreadCollectionFullIndexer implements CollectionIndexerable {
 	protected boolean stopRequested;
 	protected SelectedIndexList selectedIndexList;// 색인필드 선택사항.
 	protected int segmentSize; //동시에 분할 생성할 segment 갯수. 
+	protected IndexSort indexSort; //문서 정렬 색인조건. 없으면 null.
 	private BlockingQueue<Document> documentQueue;
 	private CountDownLatch latch;
 	private List<SegmentIndexWriteConsumer> consumerList;
@@ -75,6 +78,7 @@ public class MultiThreadCollectionFullIndexer implements CollectionIndexerable {
 		this.analyzerPoolManager = analyzerPoolManager;
 		this.selectedIndexList = selectedIndexList;
 		this.segmentSize = collectionContext.collectionConfig().getFullIndexingSegmentSize();
+		this.indexSort = IndexSort.parse(collectionContext.collectionConfig().getIndexSort());
 		init(collectionContext.schema());
 	}
 	
@@ -123,6 +127,9 @@ public class MultiThreadCollectionFullIndexer implements CollectionIndexerable {
 	}
 	
 	protected IndexWritable createIndexWriter(Schema schema, File segmentDir, RevisionInfo revisionInfo, IndexConfig indexConfig) throws IRException {
+		if (indexSort != null) {
+			return new SortedSegmentWriter(schema, segmentDir, revisionInfo, indexConfig, analyzerPoolManager, selectedIndexList, indexSort);
+		}
 		return new SegmentWriter(schema, segmentDir, revisionInfo, indexConfig, analyzerPoolManager, selectedIndexList);
 	}
 	
@@ -147,6 +154,9 @@ public class MultiThreadCollectionFullIndexer implements CollectionIndexerable {
 			File segmentDir = dataFilePaths.segmentFile(dataSequence, segmentId);
 			logger.info("Segment Dir = {}", segmentDir.getAbsolutePath());
 			IndexWritable indexWriter = createIndexWriter(schema, segmentDir, revisionInfo, indexConfig);
+			if (indexWriter instanceof SortedSegmentWriter) {
+				workingSegmentInfo.setIndexSort(indexSort.toString());
+			}
 			consumerList.add(new SegmentIndexWriteConsumer(segmentId, indexWriter, documentQueue, latch));
 		}
 		File filePath = collectionContext.collectionFilePaths().file();
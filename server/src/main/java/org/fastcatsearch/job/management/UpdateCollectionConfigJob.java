@@ -84,6 +84,8 @@ public class UpdateCollectionConfigJob extends Job implements Streamable {
 		collectionConfig.setDataNodeList(this.collectionConfig.getDataNodeList());
 		collectionConfig.setDataPlanConfig(this.collectionConfig.getDataPlanConfig());
 		collectionConfig.setFullIndexingSegmentSize(this.collectionConfig.getFullIndexingSegmentSize());
+		collectionConfig.setSearchParallelSize(this.collectionConfig.getSearchParallelSize());
+		collectionConfig.setIndexInputType(this.collectionConfig.getIndexInputType());
 	
 		Exception ex = null;
 		try {
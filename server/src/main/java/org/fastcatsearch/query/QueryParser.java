@@ -204,6 +204,7 @@ public class QueryParser {
 				// String shortFunctionName = items[1];
 				int limit = -1;
 				int sortOrder = 0;
+				int minCount = 0;
 
 				// function은 ; 구분으로 파라미터 나눈다.
 				// 기능이름;파라미터1;파라미터2 등둥..
@@ -211,9 +212,13 @@ public class QueryParser {
 				String[] functionList = items[1].split(SEMICOLON_SEPARATOR);
 				if (items.length > 2) {
 					if (items.length > 3) {
-						// 마지막은 limit이다.
+						// 네번째는 limit이다.
 						limit = Integer.parseInt(items[3].trim());
 					}
+					if (items.length > 4) {
+						// 마지막은 minCount이다.
+						minCount = Integer.parseInt(items[4].trim());
+					}
 					// items[2]는 정렬옵션
 					sortOrder = getGroupSortOrder(items[2].trim());
 				}
@@ -253,7 +258,7 @@ public class QueryParser {
 					}
 				}
 
-				g.add(new Group(field, groupFunctions, sortOrder, limit));
+				g.add(new Group(field, groupFunctions, sortOrder, limit, minCount));
 
 			}
 			query.setGroups(g);
@@ -42,6 +42,7 @@ public class StreamableGroupsData implements Streamable {
 
 		for (int groupNum = 0; groupNum < groupSize; groupNum++) {
 			int totalCount = input.readVInt();
+			int keyCount = input.readVInt();
 			int count = input.readVInt();
 			List<GroupEntry> entryList = new ArrayList<GroupEntry>(count);
 			for (int j = 0; j < count; j++) {
@@ -63,7 +64,9 @@ public class StreamableGroupsData implements Streamable {
 				entryList.add(new GroupEntry(key, valueList));
 			}
 
-			groupEntryListArray.add(new GroupEntryList(entryList, totalCount));
+			GroupEntryList groupEntryList = new GroupEntryList(entryList, totalCount);
+			groupEntryList.setKeyCount(keyCount);
+			groupEntryListArray.add(groupEntryList);
 		}
 
 		groupsData = new GroupsData(groupEntryListArray, totalSearchCount);
@@ -80,6 +83,7 @@ public class StreamableGroupsData implements Streamable {
 		for (int groupNum = 0; groupNum < list.size(); groupNum++) {
 			GroupEntryList entryList = list.get(groupNum);
 			output.writeVInt(entryList.totalCount());
+			output.writeVInt(entryList.keyCount());
 			output.writeVInt(entryList.size());
 			for (int j = 0; j < entryList.size(); j++) {
 				// 1. write Key
@@ -267,6 +267,7 @@ public class SchemaSettingUtil {
 				setting.setQueryAnalyzer(data.optString("queryAnalyzer"));
 
 				setting.setStorePosition("true".equals(data.optString("storePosition")));
+				setting.setStoreSuffix("true".equals(data.optString("storeSuffix")));
 				setting.setIgnoreCase("true".equals(data.optString("ignoreCase")));
 				setting.setPositionIncrementGap(data.optInt("pig"));
 
@@ -303,6 +304,8 @@ public class SchemaSettingUtil {
 				setting.setRef(data.optString("field").trim());
 				setting.setSize(data.optInt("size"));
 				setting.setIgnoreCase("true".equals(data.optString("ignoreCase")));
+				setting.setInMemory("true".equals(data.optString("inMemory")));
+				setting.setOffHeap("true".equals(data.optString("offHeap")));
 				fieldIndexSettingList.add(setting);
 			}
 		}